@@ -5,6 +5,7 @@ plugins {
 	id("com.github.spotbugs") version "6.0.23"
 	id("org.springframework.boot") version "3.3.4"
 	id("io.spring.dependency-management") version "1.1.6"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "neu.cs6510.configservice"
@@ -130,6 +131,14 @@ tasks.check {
 	dependsOn(tasks.jacocoTestCoverageVerification)
 }
 
+// JMH Configuration (benchmarks live in src/jmh/java)
+jmh {
+	warmupIterations.set(2)
+	iterations.set(5)
+	fork.set(1)
+	resultFormat.set("TEXT")
+}
+
 tasks.withType<JavaCompile> {
 	options.encoding = "UTF-8"
 }
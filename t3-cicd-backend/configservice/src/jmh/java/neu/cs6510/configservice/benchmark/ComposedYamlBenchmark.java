@@ -0,0 +1,150 @@
+package neu.cs6510.configservice.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import neu.cs6510.configservice.utils.ComposedYaml;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.representer.Representer;
+
+/**
+ * Parses a pipeline configuration into its typed values and the locations of its keys:
+ * <ul>
+ *   <li>{@code twoPass}: the previous way, loading the values with a constructor that constructs
+ *       every key a second time to find duplicates, then composing the content again to walk it
+ *       for the locations.</li>
+ *   <li>{@code singlePass}: {@link ComposedYaml}, composing once and walking the node tree for
+ *       both the locations and the duplicate keys.</li>
+ * </ul>
+ * Run with {@code ./gradlew :configservice:jmh}, adding {@code -prof gc} to the JMH arguments to
+ * compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComposedYamlBenchmark {
+
+  /** Number of jobs in the configuration, spread over five stages. */
+  @Param({"10", "5000"})
+  private int jobs;
+
+  private byte[] content;
+
+  @Setup
+  public void setUp() {
+    StringBuilder yaml = new StringBuilder();
+    yaml.append("default:\n  name: benchmark\n  docker:\n    image: gradle:8.10-jdk21\n");
+    yaml.append("stages:\n");
+    for (int s = 0; s < 5; s++) {
+      yaml.append("  - stage-").append(s).append('\n');
+    }
+    for (int j = 0; j < jobs; j++) {
+      int stage = j % 5;
+      yaml.append("job-").append(j).append(":\n");
+      yaml.append("  stage: stage-").append(stage).append('\n');
+      if (j >= 5) {
+        yaml.append("  needs: [job-").append(j - 5).append("]\n");
+      }
+      yaml.append("  script:\n");
+      yaml.append("    - echo \"building job ").append(j).append("\"\n");
+      yaml.append("    - ./gradlew :module").append(j).append(":build --no-daemon\n");
+      yaml.append("  artifacts:\n    paths:\n      - build/libs/module").append(j)
+          .append(".jar\n");
+    }
+    content = yaml.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public void twoPass(Blackhole blackhole) throws IOException {
+    LegacyConstructor constructor = new LegacyConstructor();
+    DumperOptions dumperOptions = new DumperOptions();
+    Yaml yaml = new Yaml(constructor, new Representer(dumperOptions), new DumperOptions(),
+        new LoaderOptions());
+    try (InputStream inputStream = new ByteArrayInputStream(content)) {
+      Map<String, Object> config = yaml.load(inputStream);
+      blackhole.consume(config);
+    }
+    try (InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(content),
+        StandardCharsets.UTF_8)) {
+      Map<String, Entry<Integer, Integer>> locations = new HashMap<>();
+      extractLocations(yaml.compose(reader), locations, "");
+      blackhole.consume(locations);
+    }
+  }
+
+  @Benchmark
+  public ComposedYaml singlePass() throws IOException {
+    return ComposedYaml.parse("benchmark.yaml", content);
+  }
+
+  private static void extractLocations(Node node,
+      Map<String, Entry<Integer, Integer>> locations, String path) {
+    if (node instanceof MappingNode mappingNode) {
+      for (NodeTuple tuple : mappingNode.getValue()) {
+        Node keyNode = tuple.getKeyNode();
+        String key = ((ScalarNode) keyNode).getValue();
+        String currentPath = path.isEmpty() ? key : path + "." + key;
+        locations.put(currentPath, Map.entry(keyNode.getStartMark().getLine() + 1,
+            keyNode.getStartMark().getColumn() + 1));
+        extractLocations(tuple.getValueNode(), locations, currentPath);
+      }
+    } else if (node instanceof SequenceNode sequenceNode) {
+      for (int i = 0; i < sequenceNode.getValue().size(); i++) {
+        Node itemNode = sequenceNode.getValue().get(i);
+        String currentPath = path + "." + i;
+        locations.put(currentPath, Map.entry(itemNode.getStartMark().getLine() + 1,
+            itemNode.getStartMark().getColumn() + 1));
+        extractLocations(itemNode, locations, currentPath);
+      }
+    }
+  }
+
+  /**
+   * The duplicate key check as it was: every key is constructed, then constructed again by
+   * {@code SafeConstructor}.
+   */
+  private static class LegacyConstructor extends SafeConstructor {
+
+    LegacyConstructor() {
+      super(new LoaderOptions());
+    }
+
+    @Override
+    protected Map<Object, Object> constructMapping(MappingNode node) {
+      Set<Object> keys = new HashSet<>();
+      for (NodeTuple tuple : node.getValue()) {
+        Object key = constructObject(tuple.getKeyNode());
+        if (!keys.add(key)) {
+          throw new YAMLException("Duplicate key " + key);
+        }
+      }
+      return super.constructMapping(node);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package neu.cs6510.configservice.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import neu.cs6510.shared.dag.Dag;
+import neu.cs6510.shared.dag.DagOrder;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Orders the jobs of a stage by their dependencies:
+ * <ul>
+ *   <li>{@code jobMaps}: the previous way, Kahn's algorithm over {@code HashMap}s keyed by the
+ *       {@link Job} entities, which hashes every field of a job on each lookup.</li>
+ *   <li>{@code dag}: interning the job names into a {@link Dag} and sorting it over int
+ *       arrays.</li>
+ * </ul>
+ * Run with {@code ./gradlew :configservice:jmh}, adding {@code -prof gc} to the JMH arguments to
+ * compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JobOrderingBenchmark {
+
+  /** Number of jobs in the stage, each needing up to two earlier jobs. */
+  @Param({"10", "1000", "50000"})
+  private int jobs;
+
+  private List<Job> stageJobs;
+  private Map<String, Job> jobMap;
+
+  @Setup
+  public void setUp() {
+    Stage stage = new Stage();
+    stage.setName("build");
+    stageJobs = new ArrayList<>(jobs);
+    jobMap = new HashMap<>();
+    for (int j = 0; j < jobs; j++) {
+      List<String> needs = new ArrayList<>();
+      if (j >= 5) {
+        needs.add("job-" + (j - 5));
+      }
+      if (j >= 7) {
+        needs.add("job-" + (j - 7));
+      }
+      Job job = Job.builder()
+          .name("job-" + j)
+          .stage(stage)
+          .imageName("gradle:8.10-jdk21")
+          .needs(needs)
+          .scripts(List.of("./gradlew :module" + j + ":build --no-daemon"))
+          .paths(List.of("build/libs/module" + j + ".jar"))
+          .build();
+      stageJobs.add(job);
+      jobMap.put(job.getName(), job);
+    }
+  }
+
+  @Benchmark
+  public List<List<Job>> jobMaps() {
+    Map<Job, Integer> inDegree = new HashMap<>();
+    Map<Job, List<Job>> graph = new HashMap<>();
+    for (Job job : stageJobs) {
+      inDegree.put(job, 0);
+      graph.put(job, new ArrayList<>());
+    }
+    for (Job job : stageJobs) {
+      for (String dependencyName : job.getNeeds()) {
+        Job dependency = jobMap.get(dependencyName);
+        inDegree.put(job, inDegree.get(job) + 1);
+        graph.get(dependency).add(job);
+      }
+    }
+
+    Queue<Job> queue = new LinkedList<>();
+    List<List<Job>> orderedJobs = new ArrayList<>();
+    for (Job job : stageJobs) {
+      if (inDegree.get(job) == 0) {
+        queue.add(job);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int levelSize = queue.size();
+      List<Job> currentLevelJobs = new ArrayList<>();
+      for (int i = 0; i < levelSize; i++) {
+        Job job = queue.poll();
+        currentLevelJobs.add(job);
+        for (Job dependentJob : graph.get(job)) {
+          inDegree.put(dependentJob, inDegree.get(dependentJob) - 1);
+          if (inDegree.get(dependentJob) == 0) {
+            queue.add(dependentJob);
+          }
+        }
+      }
+      orderedJobs.add(currentLevelJobs);
+    }
+    return orderedJobs;
+  }
+
+  @Benchmark
+  public DagOrder dag() {
+    Dag.Builder builder = Dag.builder();
+    for (Job job : stageJobs) {
+      builder.addNode(job.getName());
+    }
+    for (Job job : stageJobs) {
+      int id = builder.id(job.getName());
+      for (String dependencyName : job.getNeeds()) {
+        builder.addDependency(id, builder.id(dependencyName));
+      }
+    }
+    return builder.build().sort();
+  }
+}
@@ -1,10 +1,13 @@
 package neu.cs6510.configservice;
 
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication(scanBasePackages = {"neu.cs6510.configservice", "neu.cs6510.shared"})
@@ -16,4 +19,17 @@ public class ConfigApplication {
     SpringApplication.run(ConfigApplication.class, args);
   }
 
+  /**
+   * Fork-join pool that validates the configuration files of a batch in parallel. Parsing and
+   * validating a file is CPU-bound, so by default there is one worker per core.
+   *
+   * @param parallelism the number of files validated concurrently, or 0 for one per core
+   * @return the pool for configuration file validations
+   */
+  @Bean(name = "configValidationPool", destroyMethod = "shutdown")
+  public ForkJoinPool configValidationPool(
+      @Value("${configservice.validation.parallelism:0}") int parallelism) {
+    return new ForkJoinPool(parallelism > 0
+        ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
 }
@@ -5,14 +5,19 @@ import static neu.cs6510.shared.constants.RequestParameter.CONFIGPATH;
 import static neu.cs6510.shared.constants.RequestParameter.PIPELINENAME;
 import static neu.cs6510.shared.constants.RequestParameter.REPOURL;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.configservice.model.BatchValidationResult;
+import neu.cs6510.configservice.model.ConfigSource;
+import neu.cs6510.configservice.model.ConfigValidationResult;
+import neu.cs6510.configservice.service.BatchValidationService;
 import neu.cs6510.configservice.service.ConfigFileService;
+import neu.cs6510.configservice.service.ValidationCacheService;
 import neu.cs6510.configservice.service.ValidationService;
 import neu.cs6510.shared.entity.Pipeline;
-import neu.cs6510.shared.repository.PipelineRepository;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -28,24 +33,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class ConfigValidationController {
 
-  @Autowired
-  private PipelineRepository pipelineRepository;
-
   @Autowired
   private ValidationService validationService;
 
   @Autowired
   private ConfigFileService configFileService;
 
+  @Autowired
+  private ValidationCacheService validationCacheService;
+
+  @Autowired
+  private BatchValidationService batchValidationService;
+
   /**
    * Endpoint to validate a YAML configuration file for a CI/CD pipeline.
-   * This method processes the provided request parameters, clones the specified Git repository,
-   * finds the YAML configuration file, and validates its contents.
+   * This method processes the provided request parameters, reads the YAML configuration file
+   * from the objects of the specified Git repository, and validates its contents.
    *
    * <p>Expected request parameters:
    * <ul>
    *   <li><strong>repo_url</strong>: URL of the Git repository to clone (required).</li>
-   *   <li><strong>branch</strong>: Name of the branch to clone (required).</li>
+   *   <li><strong>branch</strong>: Name of the branch, or ID of the commit, to read the
+   *       configuration from (required).</li>
    *   <li><strong>config_path</strong>: Relative path to the configuration file in the repository
    *       (optional, mutually exclusive with <code>pipeline_name</code>).</li>
    *   <li><strong>pipeline_name</strong>: Name of the pipeline to search for in the YAML
@@ -55,24 +64,29 @@ public class ConfigValidationController {
    * <p>Behavior:
    * <ul>
    *   <li>Validates the request parameters to ensure required fields are present.</li>
-   *   <li>Clones the specified Git repository and branch to a persistent volume.</li>
-   *   <li>Finds the configuration file either by its path or by matching the pipeline name.</li>
-   *   <li>Parses and validates the configuration file, ensuring it meets the required
-   *   specifications.</li>
+   *   <li>Fetches the specified Git repository into its mirror and resolves the branch to a
+   *   commit; nothing is checked out.</li>
+   *   <li>Finds the configuration file in the tree of that commit, either by its path or by
+   *   matching the pipeline name.</li>
+   *   <li>Returns the pipeline of an earlier validation if a configuration file with the same
+   *   content was already validated for the repository.</li>
+   *   <li>Otherwise parses and validates the configuration file, ensuring it meets the required
+   *   specifications, and records the saved pipeline for the content of the file.</li>
    * </ul>
    *
    * @param requestParams A map containing the request parameters for validation:
    *                      - {@code repo_url}: the Git repository URL (required).
-   *                      - {@code branch}: the branch name to clone (required).
+   *                      - {@code branch}: the branch name or commit ID (required).
    *                      - {@code config_path}: relative path to the configuration file (optional).
    *                      - {@code pipeline_name}: name of the pipeline in the YAML (optional).
    * @return {@code ResponseEntity<String>}:
    *         <ul>
-   *           <li>{@code 200 OK}: If the validation is successful.</li>
+   *           <li>{@code 200 OK}: If the validation is successful, with the pipeline ID, the
+   *           commit the configuration was read at and the path of the configuration file.</li>
    *           <li>{@code 400 Bad Request}: If an error occurs during validation, including:
    *             <ul>
    *               <li>Invalid or missing request parameters.</li>
-   *               <li>Repository cloning failure.</li>
+   *               <li>Repository fetch failure, or unknown branch.</li>
    *               <li>Failure to locate the configuration file.</li>
    *               <li>Validation errors in the configuration file.</li>
    *             </ul>
@@ -96,25 +110,20 @@ public class ConfigValidationController {
     String branch = (String) requestParams.get(BRANCH);
     String configPath = (String) requestParams.get(CONFIGPATH);
     String pipelineName = (String) requestParams.get(PIPELINENAME);
-    String repoDir;
-    File configFile;
-
-    try {
-      repoDir = configFileService.cloneRepoToPv(repoUrl, branch);
-    } catch (GitAPIException e) {
-      log.error("Failed to clone repository: {}", e.getMessage(), e);
-      return ResponseEntity.badRequest().body(Map.of("status", "error",
-        "message", "Failed to clone repository: " + e.getMessage()));
-    }
+    ConfigSource configFile;
 
     try {
-      configFile = configFileService.findConfigFile(repoDir, configPath, pipelineName);
+      configFile = configFileService.readConfig(repoUrl, branch, configPath, pipelineName);
       if (configFile == null) {
         log.warn("Configuration file not found for configPath: {} or pipelineName: {}",
             configPath, pipelineName);
         return ResponseEntity.badRequest().body(Map.of("status", "error",
           "message", "Config file not found"));
       }
+    } catch (GitAPIException e) {
+      log.error("Failed to fetch repository: {}", e.getMessage(), e);
+      return ResponseEntity.badRequest().body(Map.of("status", "error",
+        "message", "Failed to fetch repository: " + e.getMessage()));
     } catch (IOException e) {
       log.error("Error locating configuration file: {}", e.getMessage(), e);
       return ResponseEntity.badRequest().body(Map.of("status", "error",
@@ -126,15 +135,21 @@ public class ConfigValidationController {
     }
 
     try {
-      Pipeline pipeline = validationService.parseAndValidateConfigFile(configFile, repoUrl);
+      Long validatedId = validationCacheService.lookup(repoUrl, configFile.getBlobId());
+      if (validatedId != null) {
+        log.info("Configuration file already validated. Pipeline ID: {}", validatedId);
+        return ResponseEntity.ok(Map.of("status", "success", "pipelineId",
+          validatedId.toString(), "commit", configFile.getCommit(), "configFilePath",
+          configFile.getPath()));
+      }
+
+      Pipeline pipeline = validationService.parseAndValidateConfig(configFile.getFileName(),
+          configFile.getContent(), repoUrl);
       Long id = pipeline.getId();
-      pipeline.setRepoDir(repoDir);
-      pipeline.setRepoUrl(repoUrl);
-      pipeline.setConfigFilePath(configFile.getAbsolutePath());
-      pipelineRepository.save(pipeline);
+      validationCacheService.record(repoUrl, configFile.getBlobId(), pipeline);
       log.info("Validation successful. Pipeline ID: {}", id);
       return ResponseEntity.ok(Map.of("status", "success", "pipelineId",
-        id.toString(), "repoDir", repoDir, "configFilePath", configFile.getAbsolutePath()));
+        id.toString(), "commit", configFile.getCommit(), "configFilePath", configFile.getPath()));
     } catch (IOException e) {
       log.error("Error validating configuration file: {}", e.getMessage(), e);
       return ResponseEntity.badRequest().body(Map.of("status", "error",
@@ -146,6 +161,82 @@ public class ConfigValidationController {
     }
   }
 
+  /**
+   * Endpoint to validate every YAML configuration file of {@code .cicd-pipelines} at a branch or
+   * commit of a repository in one request. The repository is fetched once, and the files are
+   * validated in parallel, each the way {@code /validate} validates a single file. A pipeline name
+   * declared by more than one file makes each of those files invalid.
+   *
+   * <p>Expected request parameters:
+   * <ul>
+   *   <li><strong>repo_url</strong>: URL of the Git repository (required).</li>
+   *   <li><strong>branch</strong>: Name of the branch, or ID of the commit, to read the
+   *       configuration files from (required).</li>
+   * </ul>
+   *
+   * @param requestParams A map containing the request parameters for validation:
+   *                      - {@code repo_url}: the Git repository URL (required).
+   *                      - {@code branch}: the branch name or commit ID (required).
+   * @return {@code ResponseEntity<Map<String, Object>>}:
+   *         <ul>
+   *           <li>{@code 200 OK}: If every configuration file is valid, with the commit the files
+   *           were read at and, for each file, its path and pipeline ID.</li>
+   *           <li>{@code 400 Bad Request}: If the request parameters are invalid, the repository
+   *           cannot be read, or any configuration file is invalid; in the last case the body
+   *           still holds the result of every file, with the error of each invalid one.</li>
+   *         </ul>
+   */
+  @PostMapping("/validate/all")
+  public ResponseEntity<Map<String, Object>> validateAllYaml(
+      @RequestBody Map<String, Object> requestParams) {
+    log.info("Received /validate/all request: {}", requestParams);
+
+    try {
+      validateRepositoryRequest(requestParams);
+    } catch (IllegalArgumentException e) {
+      log.error("Request validation failed: {}", e.getMessage());
+      return ResponseEntity.badRequest().body(Map.of("status", "error",
+        "message", "Request parameter error: " + e.getMessage()));
+    }
+
+    String repoUrl = (String) requestParams.get(REPOURL);
+    String branch = (String) requestParams.get(BRANCH);
+    BatchValidationResult batch;
+    try {
+      batch = batchValidationService.validateAll(repoUrl, branch);
+    } catch (GitAPIException e) {
+      log.error("Failed to fetch repository: {}", e.getMessage(), e);
+      return ResponseEntity.badRequest().body(Map.of("status", "error",
+        "message", "Failed to fetch repository: " + e.getMessage()));
+    } catch (IOException e) {
+      log.error("Error reading configuration files: {}", e.getMessage(), e);
+      return ResponseEntity.badRequest().body(Map.of("status", "error",
+        "message", "Failed to read configuration files: " + e.getMessage()));
+    }
+
+    List<Map<String, String>> results = batch.getResults().stream()
+        .map(ConfigValidationController::resultBody)
+        .toList();
+    String status = batch.isValid() ? "success" : "error";
+    log.info("Batch validation of {} files finished with status: {}", results.size(), status);
+    Map<String, Object> body = Map.of("status", status, "commit", batch.getCommit(),
+        "results", results);
+    return batch.isValid() ? ResponseEntity.ok(body) : ResponseEntity.badRequest().body(body);
+  }
+
+  private static Map<String, String> resultBody(ConfigValidationResult result) {
+    Map<String, String> body = new LinkedHashMap<>();
+    body.put("configFilePath", result.getPath());
+    if (result.isValid()) {
+      body.put("status", "success");
+      body.put("pipelineId", result.getPipelineId().toString());
+    } else {
+      body.put("status", "error");
+      body.put("message", "Validation error: " + result.getMessage());
+    }
+    return body;
+  }
+
   /**
    * Validates the structure and content of the `pipeline/run` request API, ensuring it includes
    * essential parameters and only one of `config_path` or `pipeline_name`.
@@ -162,6 +253,32 @@ public class ConfigValidationController {
    */
   static void validateRequest(Map<String, Object> requestParams) {
     log.debug("Validating request parameters: {}", requestParams);
+    validateRepositoryRequest(requestParams);
+
+    // Validate that either config_path or pipeline_name is provided, but not both
+    String configPath = (String) requestParams.get(CONFIGPATH);
+    String pipelineName = (String) requestParams.get(PIPELINENAME);
+
+    if (configPath == null && pipelineName == null) {
+      log.error("Neither configPath nor pipelineName provided.");
+      throw new IllegalArgumentException("One of configPath or pipelineName must be provided.");
+    } else if (configPath != null && pipelineName != null) {
+      log.error("Both configPath and pipelineName provided.");
+      throw new IllegalArgumentException("Only one of configPath or pipelineName should be "
+        + "provided, not both.");
+    }
+    log.debug("Request parameters validation completed successfully.");
+  }
+
+  /**
+   * Validates the repository parameters shared by the validation requests.
+   *
+   * @param requestParams the map of request parameters, which must include a non-empty
+   *                      `repo_url` and `branch`
+   * @throws IllegalArgumentException if the request is empty, or the repository URL or the
+   *                                  branch is missing or empty
+   */
+  static void validateRepositoryRequest(Map<String, Object> requestParams) {
     if (requestParams == null || requestParams.isEmpty()) {
       log.error("Request is empty.");
       throw new IllegalArgumentException("Request is empty");
@@ -179,19 +296,5 @@ public class ConfigValidationController {
       log.error("Missing or invalid branch name.");
       throw new IllegalArgumentException("Request must contain a non-empty string for branch name");
     }
-
-    // Validate that either config_path or pipeline_name is provided, but not both
-    String configPath = (String) requestParams.get(CONFIGPATH);
-    String pipelineName = (String) requestParams.get(PIPELINENAME);
-
-    if (configPath == null && pipelineName == null) {
-      log.error("Neither configPath nor pipelineName provided.");
-      throw new IllegalArgumentException("One of configPath or pipelineName must be provided.");
-    } else if (configPath != null && pipelineName != null) {
-      log.error("Both configPath and pipelineName provided.");
-      throw new IllegalArgumentException("Only one of configPath or pipelineName should be "
-        + "provided, not both.");
-    }
-    log.debug("Request parameters validation completed successfully.");
   }
 }
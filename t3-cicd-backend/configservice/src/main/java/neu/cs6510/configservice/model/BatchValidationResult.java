@@ -0,0 +1,32 @@
+package neu.cs6510.configservice.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The results of validating all the configuration files of a repository at one commit.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchValidationResult {
+
+  /**
+   * The ID of the commit the configuration files were read at.
+   */
+  private final String commit;
+
+  /**
+   * The result of each configuration file, in tree order.
+   */
+  private final List<ConfigValidationResult> results;
+
+  /**
+   * Returns whether every configuration file is valid.
+   *
+   * @return true if every validation produced a pipeline
+   */
+  public boolean isValid() {
+    return results.stream().allMatch(ConfigValidationResult::isValid);
+  }
+}
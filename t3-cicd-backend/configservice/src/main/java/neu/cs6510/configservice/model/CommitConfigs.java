@@ -0,0 +1,29 @@
+package neu.cs6510.configservice.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * All the configuration files of {@code .cicd-pipelines} at one commit of a Git repository, with
+ * the pipeline names they declare.
+ */
+@Getter
+@AllArgsConstructor
+public class CommitConfigs {
+
+  /**
+   * The ID of the commit the branch or revision resolved to.
+   */
+  private final String commit;
+
+  /**
+   * The configuration files, in tree order.
+   */
+  private final List<ConfigSource> configs;
+
+  /**
+   * The pipeline name index of the commit.
+   */
+  private final PipelineIndex index;
+}
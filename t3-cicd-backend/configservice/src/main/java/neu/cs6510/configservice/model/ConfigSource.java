@@ -0,0 +1,42 @@
+package neu.cs6510.configservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A pipeline configuration file read from a Git repository, together with the commit it was
+ * read at.
+ */
+@Getter
+@AllArgsConstructor
+public class ConfigSource {
+
+  /**
+   * The ID of the commit the branch or revision resolved to.
+   */
+  private final String commit;
+
+  /**
+   * The path of the configuration file, relative to the root of the repository.
+   */
+  private final String path;
+
+  /**
+   * The SHA of the Git blob of the configuration file, which identifies its content.
+   */
+  private final String blobId;
+
+  /**
+   * The content of the configuration file.
+   */
+  private final byte[] content;
+
+  /**
+   * Returns the name of the configuration file, without its directory.
+   *
+   * @return the file name
+   */
+  public String getFileName() {
+    return path.substring(path.lastIndexOf('/') + 1);
+  }
+}
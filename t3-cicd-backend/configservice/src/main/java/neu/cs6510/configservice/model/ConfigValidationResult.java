@@ -0,0 +1,37 @@
+package neu.cs6510.configservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The result of validating one configuration file of a batch: the pipeline it produced, or the
+ * reason it is invalid.
+ */
+@Getter
+@AllArgsConstructor
+public class ConfigValidationResult {
+
+  /**
+   * The path of the configuration file, relative to the root of the repository.
+   */
+  private final String path;
+
+  /**
+   * The ID of the pipeline produced by the validation, or null if the file is invalid.
+   */
+  private final Long pipelineId;
+
+  /**
+   * The validation error, or null if the file is valid.
+   */
+  private final String message;
+
+  /**
+   * Returns whether the configuration file is valid.
+   *
+   * @return true if the validation produced a pipeline
+   */
+  public boolean isValid() {
+    return pipelineId != null;
+  }
+}
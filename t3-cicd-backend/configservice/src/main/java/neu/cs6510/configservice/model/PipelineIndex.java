@@ -0,0 +1,56 @@
+package neu.cs6510.configservice.model;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * The pipeline names declared by the YAML files of {@code .cicd-pipelines} at one commit, mapped
+ * to the files that declare them. Commits never change, so an index is built once per commit and
+ * can be shared by every request for it.
+ */
+@Getter
+@AllArgsConstructor
+public class PipelineIndex {
+
+  /**
+   * The ID of the commit the index was built from.
+   */
+  private final String commit;
+
+  /**
+   * For each pipeline name, the files that declare it in {@code default.name}, in tree order.
+   * More than one file means the name is declared twice.
+   */
+  private final Map<String, List<IndexedFile>> files;
+
+  /**
+   * Returns the files that declare a pipeline name.
+   *
+   * @param pipelineName the name of the pipeline
+   * @return the files, empty if no file declares the name
+   */
+  public List<IndexedFile> find(String pipelineName) {
+    return files.getOrDefault(pipelineName, List.of());
+  }
+
+  /**
+   * A configuration file in the index.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class IndexedFile {
+
+    /**
+     * The path of the file, relative to the root of the repository.
+     */
+    private final String path;
+
+    /**
+     * The ID of the blob holding the content of the file.
+     */
+    private final ObjectId blobId;
+  }
+}
@@ -0,0 +1,53 @@
+package neu.cs6510.configservice.model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import lombok.Getter;
+
+/**
+ * The input of one validation: a parsed configuration file and the locations of its keys. It is
+ * created for each request and never changed, so validations running in parallel share nothing.
+ */
+@Getter
+public class ValidationContext {
+
+  /**
+   * The name of the configuration file, used in error messages.
+   */
+  private final String fileName;
+
+  /**
+   * The typed values of the configuration file, or null if the file is empty.
+   */
+  private final Map<String, Object> config;
+
+  /**
+   * The 1-indexed line and column of each key and sequence item, by path.
+   */
+  private final Map<String, Entry<Integer, Integer>> locations;
+
+  /**
+   * Creates the context of a validation.
+   *
+   * @param fileName  the name of the configuration file
+   * @param config    the typed values of the configuration file
+   * @param locations the locations of its keys and sequence items, by path
+   */
+  public ValidationContext(String fileName, Map<String, Object> config,
+      Map<String, Entry<Integer, Integer>> locations) {
+    this.fileName = fileName;
+    this.config = config == null ? null : Collections.unmodifiableMap(config);
+    this.locations = Collections.unmodifiableMap(locations);
+  }
+
+  /**
+   * Returns the location of a key or sequence item.
+   *
+   * @param path the path of the key, e.g. {@code build.script}
+   * @return the line number and column number map entry, or null if the path does not exist
+   */
+  public Entry<Integer, Integer> getLocation(String path) {
+    return locations.get(path);
+  }
+}
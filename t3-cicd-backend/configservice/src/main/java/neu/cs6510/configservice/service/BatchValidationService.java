@@ -0,0 +1,125 @@
+package neu.cs6510.configservice.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.configservice.model.BatchValidationResult;
+import neu.cs6510.configservice.model.CommitConfigs;
+import neu.cs6510.configservice.model.ConfigSource;
+import neu.cs6510.configservice.model.ConfigValidationResult;
+import neu.cs6510.configservice.model.PipelineIndex.IndexedFile;
+import neu.cs6510.shared.entity.Pipeline;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates every configuration file of a repository at one commit. The files are read from a
+ * single fetch of the repository and validated in parallel on the configuration validation
+ * fork-join pool, each one the way {@code /validate} validates a single file: a file whose content
+ * was already validated reuses its pipeline, and a new valid file is saved as a pipeline.
+ *
+ * <p>A pipeline name must be declared by only one file, since runs select the file by its
+ * pipeline name; files that declare the same name are reported invalid without being validated.
+ */
+@Slf4j
+@Service
+public class BatchValidationService {
+
+  private final ConfigFileService configFileService;
+  private final ValidationService validationService;
+  private final ValidationCacheService validationCacheService;
+  private final ForkJoinPool configValidationPool;
+
+  @Autowired
+  public BatchValidationService(ConfigFileService configFileService,
+      ValidationService validationService, ValidationCacheService validationCacheService,
+      @Qualifier("configValidationPool") ForkJoinPool configValidationPool) {
+    this.configFileService = configFileService;
+    this.validationService = validationService;
+    this.validationCacheService = validationCacheService;
+    this.configValidationPool = configValidationPool;
+  }
+
+  /**
+   * Validates all the configuration files of {@code .cicd-pipelines} at a branch or commit.
+   *
+   * @param repoUrl  the URL of the Git repository
+   * @param revision the branch, or the ID of the commit, to read from
+   * @return the commit the files were read at, and the result of each file in tree order
+   * @throws GitAPIException if the repository cannot be fetched or the revision does not exist
+   * @throws IOException if an error occurs while reading the objects
+   */
+  public BatchValidationResult validateAll(String repoUrl, String revision)
+      throws GitAPIException, IOException {
+    CommitConfigs commitConfigs = configFileService.readAllConfigs(repoUrl, revision);
+    Map<String, String> duplicateNames = duplicateNames(commitConfigs);
+
+    List<ForkJoinTask<ConfigValidationResult>> tasks = new ArrayList<>();
+    for (ConfigSource config : commitConfigs.getConfigs()) {
+      String duplicateName = duplicateNames.get(config.getPath());
+      tasks.add(configValidationPool.submit(() -> duplicateName != null
+          ? duplicateResult(config, duplicateName, commitConfigs)
+          : validate(repoUrl, config)));
+    }
+    // Every failure of a file is reported in its result
+    List<ConfigValidationResult> results = tasks.stream().map(ForkJoinTask::join).toList();
+    log.info("Validated {} configuration files of {} at commit {}", results.size(), repoUrl,
+        commitConfigs.getCommit());
+    return new BatchValidationResult(commitConfigs.getCommit(), results);
+  }
+
+  /**
+   * Validates one configuration file, reusing the pipeline of an earlier validation of the same
+   * content.
+   */
+  private ConfigValidationResult validate(String repoUrl, ConfigSource config) {
+    try {
+      Long validatedId = validationCacheService.lookup(repoUrl, config.getBlobId());
+      if (validatedId != null) {
+        log.debug("Configuration file {} already validated. Pipeline ID: {}",
+            config.getPath(), validatedId);
+        return new ConfigValidationResult(config.getPath(), validatedId, null);
+      }
+      Pipeline pipeline = validationService.parseAndValidateConfig(config.getFileName(),
+          config.getContent(), repoUrl);
+      validationCacheService.record(repoUrl, config.getBlobId(), pipeline);
+      log.debug("Configuration file {} validated. Pipeline ID: {}",
+          config.getPath(), pipeline.getId());
+      return new ConfigValidationResult(config.getPath(), pipeline.getId(), null);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Configuration file {} is invalid: {}", config.getPath(), e.getMessage());
+      return new ConfigValidationResult(config.getPath(), null, e.getMessage());
+    }
+  }
+
+  /**
+   * Maps the path of every file whose pipeline name is also declared by another file to that
+   * name.
+   */
+  private static Map<String, String> duplicateNames(CommitConfigs commitConfigs) {
+    Map<String, String> duplicateNames = new HashMap<>();
+    commitConfigs.getIndex().getFiles().forEach((name, files) -> {
+      if (files.size() > 1) {
+        files.forEach(file -> duplicateNames.put(file.getPath(), name));
+      }
+    });
+    return duplicateNames;
+  }
+
+  private static ConfigValidationResult duplicateResult(ConfigSource config, String name,
+      CommitConfigs commitConfigs) {
+    String paths = commitConfigs.getIndex().find(name).stream()
+        .map(IndexedFile::getPath)
+        .collect(Collectors.joining(", "));
+    return new ConfigValidationResult(config.getPath(), null,
+        String.format("Pipeline name '%s' is declared by multiple files: %s", name, paths));
+  }
+}
@@ -5,151 +5,281 @@ import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_KEY_NAME;
 import static neu.cs6510.shared.constants.ConfigFile.NON_JOB_KEY_DEFAULT;
 import static neu.cs6510.shared.constants.ConfigFile.YAML_ALT_EXTENSION;
 import static neu.cs6510.shared.constants.ConfigFile.YAML_EXTENSION;
-import static neu.cs6510.shared.constants.Kubernetes.PV_PATH;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
-import org.eclipse.jgit.api.Git;
+import neu.cs6510.configservice.model.CommitConfigs;
+import neu.cs6510.configservice.model.ConfigSource;
+import neu.cs6510.configservice.model.PipelineIndex;
+import neu.cs6510.configservice.model.PipelineIndex.IndexedFile;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.RefNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
 
 /**
  * Service class responsible for managing configuration files for a CI/CD pipeline.
- * This includes cloning Git repositories, locating YAML configuration files, and
- * validating pipeline names within the configuration files.
+ * This includes reading YAML configuration files straight from the objects of Git repositories,
+ * and indexing the pipeline names defined in the configuration files of each commit.
  */
 @Slf4j
 @Service
 public class ConfigFileService {
 
   /**
-   * Clones a Git repository to a persistent volume.
-   *
-   * @param repoUrl the URL of the Git repository to clone.
-   * @param branch  the branch to clone from the repository.
-   * @return the local directory path where the repository was cloned.
-   * @throws GitAPIException if an error occurs during the cloning process.
+   * Maximum number of commits whose pipeline name index is kept.
    */
-  public String cloneRepoToPv(String repoUrl, String branch) throws GitAPIException {
-    String repoDir = PV_PATH + repoUrl.substring(repoUrl.lastIndexOf('/') + 1)
-        .replace(".git", "") + UUID.randomUUID();
-
-    log.info("Cloning repository from URL: {} to branch: {} into directory: {}",
-        repoUrl, branch, repoDir);
-    try {
-      Git.cloneRepository()
-        .setURI(repoUrl)
-        .setBranch(branch)
-        .setDirectory(new File(repoDir))
-          .call();
-      log.info("Repository cloned successfully to {}", repoDir);
-    } catch (GitAPIException e) {
-      log.error("Failed to clone repository from URL: {}, branch: {}", repoUrl, branch, e);
-      throw e;
-    }
+  private static final int PIPELINE_INDEX_CACHE_SIZE = 1024;
 
-    return repoDir;
-  }
+  @Autowired
+  private GitMirrorService gitMirrorService;
+
+  /**
+   * Pipeline name indexes by commit ID, the least recently used evicted first.
+   */
+  private final Map<String, PipelineIndex> pipelineIndexCache = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PipelineIndex> eldest) {
+          return size() > PIPELINE_INDEX_CACHE_SIZE;
+        }
+      });
 
   /**
-   * Finds the configuration file in a cloned Git repository.
-   * The file can be located either by a specific path or by searching for a pipeline name.
+   * Reads a configuration file from a branch or commit of a Git repository without checking it
+   * out: the revision is resolved to its tree, and only the blobs of the configuration files are
+   * read through the object reader. The file can be located either by a specific path or by
+   * looking the pipeline name up in the index of the YAML files of {@code .cicd-pipelines},
+   * which is built once per commit.
    *
-   * @param repoDir      the directory of the cloned repository.
-   * @param configPath   the relative path to the configuration file (if specified).
+   * @param repoUrl      the URL of the Git repository.
+   * @param revision     the branch, or the ID of the commit, to read from.
+   * @param configPath   the path to the configuration file in the repository (if specified).
    * @param pipelineName the name of the pipeline to search for in the YAML files (if specified).
    * @return the configuration file if found, or {@code null} if no matching file is found.
-   * @throws IOException if an error occurs while reading the files.
+   * @throws GitAPIException if the repository cannot be fetched or the revision does not exist.
+   * @throws IOException if an error occurs while reading the objects.
    * @throws RuntimeException if multiple YAML files with the specified pipeline name are found.
    */
-  public File findConfigFile(String repoDir, String configPath, String pipelineName)
-      throws IOException {
-    log.info("Searching for configuration file in directory: {}, configPath: {}, "
-        + "pipelineName: {}", repoDir, configPath, pipelineName);
-
-    if (configPath != null && !configPath.isEmpty()) {
-      File configFile = new File(repoDir, configPath);
-      if (configFile.exists() && configFile.isFile()) {
-        log.info("Configuration file found at specified path: {}", configFile.getAbsolutePath());
-        return configFile;
-      } else {
-        log.warn("Configuration file not found at specified path: {}", configPath);
+  public ConfigSource readConfig(String repoUrl, String revision, String configPath,
+      String pipelineName) throws GitAPIException, IOException {
+    log.info("Reading configuration file from repository: {} at revision: {}, configPath: {}, "
+        + "pipelineName: {}", repoUrl, revision, configPath, pipelineName);
+
+    try (Repository repository = gitMirrorService.open(repoUrl);
+        RevWalk revWalk = new RevWalk(repository)) {
+      ObjectId commitId = resolveCommit(repository, revision);
+      if (commitId == null) {
+        throw new RefNotFoundException(
+            String.format("Revision %s not found in %s", revision, repoUrl));
+      }
+      RevTree tree = revWalk.parseCommit(commitId).getTree();
+      ObjectReader reader = revWalk.getObjectReader();
+
+      if (configPath != null && !configPath.isEmpty()) {
+        String path = normalizePath(configPath);
+        try (TreeWalk treeWalk = path.isEmpty() ? null : TreeWalk.forPath(reader, path, tree)) {
+          if (treeWalk == null || !isFile(treeWalk)) {
+            log.warn("Configuration file not found at specified path: {}", configPath);
+            return null;
+          }
+          log.info("Configuration file found at specified path: {}", path);
+          return readSource(reader, commitId, path, treeWalk.getObjectId(0));
+        }
+      }
+
+      List<IndexedFile> matchingFiles =
+          pipelineIndex(reader, tree, commitId).find(pipelineName);
+      if (matchingFiles.isEmpty()) {
+        log.warn("No YAML files with pipeline name '{}' found in repository.", pipelineName);
         return null;
+      } else if (matchingFiles.size() > 1) {
+        String errorMessage = String.format("Multiple YAML files with pipeline name '%s' found.",
+            pipelineName);
+        log.error(errorMessage);
+        throw new RuntimeException(errorMessage);
       }
+
+      IndexedFile matchingFile = matchingFiles.get(0);
+      log.info("Matching configuration file found: {}", matchingFile.getPath());
+      return readSource(reader, commitId, matchingFile.getPath(), matchingFile.getBlobId());
     }
+  }
 
-    File[] yamlFiles = new File(repoDir + "/" + DEFAULT_CONFIG_DIRECTORY).listFiles(
-      (dir, name) -> name.endsWith(YAML_EXTENSION) || name.endsWith(YAML_ALT_EXTENSION));
+  /**
+   * Reads every YAML file directly in {@code .cicd-pipelines} at a branch or commit of a Git
+   * repository, from one fetch of the repository and without checking it out, together with the
+   * pipeline name index of the commit.
+   *
+   * @param repoUrl  the URL of the Git repository.
+   * @param revision the branch, or the ID of the commit, to read from.
+   * @return the configuration files of the commit, in tree order.
+   * @throws GitAPIException if the repository cannot be fetched or the revision does not exist.
+   * @throws IOException if an error occurs while reading the objects.
+   */
+  public CommitConfigs readAllConfigs(String repoUrl, String revision)
+      throws GitAPIException, IOException {
+    log.info("Reading all configuration files from repository: {} at revision: {}",
+        repoUrl, revision);
 
-    if (yamlFiles == null || yamlFiles.length == 0) {
-      log.warn("No YAML files found in directory: {}", repoDir);
-      return null;
-    }
+    try (Repository repository = gitMirrorService.open(repoUrl);
+        RevWalk revWalk = new RevWalk(repository)) {
+      ObjectId commitId = resolveCommit(repository, revision);
+      if (commitId == null) {
+        throw new RefNotFoundException(
+            String.format("Revision %s not found in %s", revision, repoUrl));
+      }
+      RevTree tree = revWalk.parseCommit(commitId).getTree();
+      ObjectReader reader = revWalk.getObjectReader();
 
-    File matchingFile = null;
-    int matchCount = 0;
-
-    for (File yamlFile : yamlFiles) {
-      if (containsPipelineName(yamlFile, pipelineName)) {
-        matchCount++;
-        if (matchCount > 1) {
-          String errorMessage = String.format("Multiple YAML files with pipeline name '%s' found.",
-              pipelineName);
-          log.error(errorMessage);
-          throw new RuntimeException(errorMessage);
-        }
-        matchingFile = yamlFile;
+      List<ConfigSource> configs = new ArrayList<>();
+      for (IndexedFile file : listConfigFiles(reader, tree)) {
+        configs.add(readSource(reader, commitId, file.getPath(), file.getBlobId()));
       }
+      log.info("Found {} configuration files at commit {}", configs.size(), commitId.name());
+      return new CommitConfigs(commitId.name(), configs, pipelineIndex(reader, tree, commitId));
     }
+  }
 
-    if (matchingFile != null) {
-      log.info("Matching configuration file found: {}", matchingFile.getAbsolutePath());
-    } else {
-      log.warn("No YAML files with pipeline name '{}' found in repository.", pipelineName);
+  /**
+   * Resolves a branch, or else the ID of a commit, to the commit it points to.
+   *
+   * @return the ID of the commit, or {@code null} if the revision does not exist.
+   */
+  private static ObjectId resolveCommit(Repository repository, String revision)
+      throws IOException {
+    ObjectId commitId = repository.resolve(Constants.R_HEADS + revision);
+    if (commitId == null && ObjectId.isId(revision)) {
+      commitId = repository.resolve(revision + "^{commit}");
     }
-
-    return matchingFile;
+    return commitId;
   }
 
   /**
-   * Checks if a given YAML file contains the specified pipeline name.
-   *
-   * @param yamlFile     the YAML file to search.
-   * @param pipelineName the name of the pipeline to look for.
-   * @return {@code true} if the pipeline name is found in the file, {@code false} otherwise.
-   * @throws IOException if an error occurs while reading the YAML file.
+   * Returns the pipeline name index of a commit, building it on the first request for the
+   * commit.
    */
-  private boolean containsPipelineName(File yamlFile, String pipelineName) throws IOException {
-    log.debug("Checking if YAML file '{}' contains pipeline name '{}'",
-        yamlFile.getAbsolutePath(), pipelineName);
+  private PipelineIndex pipelineIndex(ObjectReader reader, RevTree tree, ObjectId commitId)
+      throws IOException {
+    PipelineIndex index = pipelineIndexCache.get(commitId.name());
+    if (index != null) {
+      log.debug("Pipeline name index of commit {} found in cache", commitId.name());
+      return index;
+    }
+    // Built outside the lock of the cache, so that lookups of other commits do not wait; two
+    // requests for a new commit may both build its index, and build the same one
+    index = buildPipelineIndex(reader, tree, commitId);
+    pipelineIndexCache.put(commitId.name(), index);
+    return index;
+  }
 
+  /**
+   * Indexes the YAML files directly in {@code .cicd-pipelines} by the pipeline name they declare
+   * in {@code default.name}. Files that declare no name, or are not valid YAML, are left out:
+   * their errors are reported when they are validated.
+   */
+  private static PipelineIndex buildPipelineIndex(ObjectReader reader, RevTree tree,
+      ObjectId commitId) throws IOException {
+    log.debug("Building pipeline name index of commit {}", commitId.name());
+    Map<String, List<IndexedFile>> files = new LinkedHashMap<>();
     Yaml yaml = new Yaml();
-    try (FileInputStream fis = new FileInputStream(yamlFile)) {
-      Map<String, Object> yamlContent = yaml.load(fis);
-
-      if (yamlContent.containsKey(NON_JOB_KEY_DEFAULT)) {
-        Map<String, Object> defaultSection =
-            (Map<String, Object>) yamlContent.get(NON_JOB_KEY_DEFAULT);
-
-        if (defaultSection.containsKey(DEFAULT_KEY_NAME)
-            && pipelineName.equals(defaultSection.get(DEFAULT_KEY_NAME))) {
-          log.debug("Pipeline name '{}' found in YAML file '{}'",
-              pipelineName, yamlFile.getAbsolutePath());
-          return true;
+    for (IndexedFile file : listConfigFiles(reader, tree)) {
+      String pipelineName;
+      try (InputStream content = reader.open(file.getBlobId(), Constants.OBJ_BLOB).openStream()) {
+        pipelineName = pipelineName(yaml.load(content));
+      } catch (YAMLException e) {
+        log.warn("Skipping {} in pipeline name index: {}", file.getPath(), e.getMessage());
+        continue;
+      }
+      if (pipelineName != null) {
+        files.computeIfAbsent(pipelineName, name -> new ArrayList<>()).add(file);
+      }
+    }
+    files.replaceAll((name, indexedFiles) -> List.copyOf(indexedFiles));
+    return new PipelineIndex(commitId.name(), Collections.unmodifiableMap(files));
+  }
+
+  /**
+   * Lists the YAML files directly in {@code .cicd-pipelines}, in tree order.
+   */
+  private static List<IndexedFile> listConfigFiles(ObjectReader reader, RevTree tree)
+      throws IOException {
+    List<IndexedFile> files = new ArrayList<>();
+    try (TreeWalk directory = TreeWalk.forPath(reader, DEFAULT_CONFIG_DIRECTORY, tree)) {
+      if (directory == null
+          || (directory.getRawMode(0) & FileMode.TYPE_MASK) != FileMode.TYPE_TREE) {
+        return files;
+      }
+      try (TreeWalk treeWalk = new TreeWalk(reader)) {
+        treeWalk.addTree(directory.getObjectId(0));
+        treeWalk.setRecursive(false);
+        while (treeWalk.next()) {
+          String fileName = treeWalk.getNameString();
+          if (isFile(treeWalk)
+              && (fileName.endsWith(YAML_EXTENSION) || fileName.endsWith(YAML_ALT_EXTENSION))) {
+            files.add(new IndexedFile(DEFAULT_CONFIG_DIRECTORY + "/" + fileName,
+                treeWalk.getObjectId(0)));
+          }
         }
       }
-    } catch (IOException e) {
-      log.error("Error reading YAML file '{}': {}", yamlFile.getAbsolutePath(), e.getMessage(), e);
-      throw e;
     }
+    return files;
+  }
 
-    log.debug("Pipeline name '{}' not found in YAML file '{}'",
-        pipelineName, yamlFile.getAbsolutePath());
-    return false;
+  /**
+   * Returns the pipeline name declared in {@code default.name} of loaded YAML content, or
+   * {@code null} if there is none.
+   */
+  private static String pipelineName(Object yamlContent) {
+    if (yamlContent instanceof Map<?, ?> content
+        && content.get(NON_JOB_KEY_DEFAULT) instanceof Map<?, ?> defaultSection
+        && defaultSection.get(DEFAULT_KEY_NAME) instanceof String pipelineName) {
+      return pipelineName;
+    }
+    return null;
+  }
+
+  private static boolean isFile(TreeWalk treeWalk) {
+    return (treeWalk.getRawMode(0) & FileMode.TYPE_MASK) == FileMode.TYPE_FILE;
+  }
+
+  private static ConfigSource readSource(ObjectReader reader, ObjectId commitId, String path,
+      ObjectId blobId) throws IOException {
+    return new ConfigSource(commitId.name(), path, blobId.name(),
+        reader.open(blobId, Constants.OBJ_BLOB).getBytes());
+  }
+
+  /**
+   * Turns a path given relative to the root of the repository into a tree path: without
+   * {@code .} segments, empty segments or a leading slash.
+   */
+  private static String normalizePath(String configPath) {
+    StringBuilder path = new StringBuilder();
+    for (String segment : configPath.split("/")) {
+      if (segment.isEmpty() || segment.equals(".")) {
+        continue;
+      }
+      if (path.length() > 0) {
+        path.append('/');
+      }
+      path.append(segment);
+    }
+    return path.toString();
   }
 }
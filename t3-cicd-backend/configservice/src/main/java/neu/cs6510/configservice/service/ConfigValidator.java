@@ -0,0 +1,702 @@
+package neu.cs6510.configservice.service;
+
+import static neu.cs6510.configservice.service.ValidationService.checkListType;
+import static neu.cs6510.configservice.service.ValidationService.checkValueType;
+import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_KEY_DOCKER;
+import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_KEY_DOCKER_IMAGE;
+import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_KEY_DOCKER_REGISTRY;
+import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_KEY_NAME;
+import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_KEY_PATHS;
+import static neu.cs6510.shared.constants.ConfigFile.DEFAULT_STAGES;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_ALLOW_FAILURE;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_ARTIFACTS;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_DOCKER;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_DOCKER_IMAGE;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_DOCKER_REGISTRY;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_NEEDS;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_PATHS;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_SCRIPT;
+import static neu.cs6510.shared.constants.ConfigFile.JOB_KEY_STAGE;
+import static neu.cs6510.shared.constants.ConfigFile.NON_JOB_KEYS;
+import static neu.cs6510.shared.constants.ConfigFile.NON_JOB_KEY_DEFAULT;
+import static neu.cs6510.shared.constants.ConfigFile.NON_JOB_KEY_STAGES;
+import static neu.cs6510.shared.constants.ConfigFile.STAGES_KEY;
+import static neu.cs6510.shared.constants.Docker.DOCKERHUB_REGISTRY;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.configservice.model.ValidationContext;
+import neu.cs6510.shared.dag.Dag;
+import neu.cs6510.shared.dag.DagOrder;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+
+/**
+ * Validates one configuration file and builds its pipeline, ordering the jobs of each stage by
+ * their dependencies. A validator is created for each request and holds the state built up
+ * during the validation, so that concurrent requests never see each other's stages, jobs or
+ * defaults; the input comes from an immutable {@link ValidationContext}.
+ */
+@Slf4j
+class ConfigValidator {
+
+  private final ValidationContext context;
+  private final String fileName;
+  private final Pipeline pipeline = new Pipeline();
+  private final Map<String, Stage> stageMap = new LinkedHashMap<>();
+  private final Map<String, Job> jobMap = new HashMap<>();
+  private String defaultRegistry;
+  private String defaultImage;
+  private List<String> defaultPaths;
+
+  ConfigValidator(ValidationContext context) {
+    this.context = context;
+    this.fileName = context.getFileName();
+  }
+
+  /**
+   * Validates the configuration file and builds its pipeline, with the stages in order. The
+   * pipeline is not saved.
+   *
+   * @return the ordered pipeline
+   * @throws RuntimeException if any invalid configuration is detected
+   */
+  Pipeline validate() {
+    handleConfigFile(context.getConfig());
+    log.info("Configuration file structure handled successfully for: {}", fileName);
+    validateStages(1, 1);
+    log.info("Stages validated successfully for pipeline: {}", pipeline.getName());
+    processJobDependencies();
+    log.info("Job dependencies processed and ordered for pipeline: {}", pipeline.getName());
+    for (Stage stage : stageMap.values()) {
+      pipeline.addStage(stage);  // Maintain stage order in the pipeline
+      stage.setPipeline(pipeline);
+    }
+    return pipeline;
+  }
+
+  /**
+   * Validates that there are no empty stages in the pipeline (i.e., stages with no jobs assigned).
+   *
+   * @param currentLine the Integer representing the line number
+   * @param currentColumn the Integer representing the column number
+   * @throws RuntimeException if any stage has no jobs
+   */
+  private void validateStages(Integer currentLine, Integer currentColumn) {
+    log.debug("Validating stages for the pipeline...");
+    for (Stage stage : stageMap.values()) {
+      if (stage.getJobs().isEmpty()) {
+        log.error("Stage '{}' has no jobs. Validation failed.", stage.getName());
+        throw new RuntimeException(
+          String.format("%s:%d:%d: Stage %s has no jobs.",
+            fileName, currentLine, currentColumn, stage.getName())
+        );
+      }
+    }
+    log.debug("All stages validated successfully.");
+  }
+
+  /**
+   * Orders jobs within each stage using topological sorting based on their dependencies, records
+   * the execution level and order of each job, and checks for circular dependencies.
+   *
+   * @throws RuntimeException if any circular dependency is detected between jobs
+   */
+  private void processJobDependencies() {
+    log.debug("Processing job dependencies for topological sorting...");
+    for (Stage stage : stageMap.values()) {
+      List<Job> jobs = stage.getJobs();
+      if (jobs != null) {
+        log.debug("Ordering jobs for stage: {}", stage.getName());
+        topologicalSort(jobs);
+      }
+    }
+    log.debug("All job dependencies processed successfully.");
+  }
+
+
+  /**
+   * Helper method to return the error location.
+   *
+   * @param key the string to search for
+   * @return the line number and column number map entry
+   */
+  private Entry<Integer, Integer> getErrorLocation(String key) {
+    return context.getLocation(key);
+  }
+
+  /**
+   * Processes the parsed YAML configuration file. It separates job entries from non-job entries,
+   * validates jobs, and processes stages.
+   *
+   * @param config the parsed YAML configuration map
+   * @throws RuntimeException if any invalid configuration is detected
+   */
+  private void handleConfigFile(Map<String, Object> config) {
+    log.debug("Handling configuration file content.");
+    if (!config.containsKey(NON_JOB_KEY_DEFAULT)) {
+      log.error("Default section is missing in configuration file: {}", fileName);
+      Integer lineNumber = 1;
+      Integer columnNumber = 1;
+      throw new RuntimeException(
+        String.format("%s:%d:%d: Default section is not found.", fileName, lineNumber, columnNumber)
+      );
+    }
+    log.debug("Default section found in configuration file.");
+
+    log.debug("Parsing stages from configuration file...");
+    parseStages(config.get(STAGES_KEY));
+    log.debug("Stages parsed successfully. Total stages: {}", stageMap.size());
+
+    // 1st pass: handle non-job entry
+    log.debug("Processing non-job entries in the configuration file.");
+    for (Entry<String, Object> entry : config.entrySet()) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+
+      if (key == null) {
+        Integer lineNumber = getErrorLocation(key).getKey();
+        Integer columnNumber = getErrorLocation(key).getValue();
+        log.error("Found null key in configuration file at {}:{}.", lineNumber, columnNumber);
+        throw new RuntimeException(
+          String.format("%s:%d:%d: Null key in config file.", fileName, lineNumber, columnNumber)
+        );
+      }
+      if (value == null) {
+        Integer lineNumber = getErrorLocation(key).getKey();
+        Integer columnNumber = getErrorLocation(key).getValue();
+        log.error("Found null value for key '{}' in configuration file at {}:{}.",
+            key, lineNumber, columnNumber);
+        throw new RuntimeException(
+          String.format("%s:%d:%d: Cannot find value in Config File for key '%s'",
+            fileName, lineNumber, columnNumber, key)
+        );
+      }
+
+      if (NON_JOB_KEYS.contains(key)) {
+        if (key.equals(NON_JOB_KEY_STAGES)) {
+          log.debug("Skipping processing of stages key: {}", key);
+          continue;  // stage has been processed
+        }
+        log.debug("Processing non-job entry: {}", key);
+        handleNonJobEntry(key, value);
+      }
+    }
+    log.debug("Non-job entries processed successfully.");
+
+    // 2nd pass: handle job entry
+    log.debug("Processing job entries in the configuration file.");
+    for (Entry<String, Object> entry : config.entrySet()) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+      if (!NON_JOB_KEYS.contains(key)) {
+        Integer lineNumber = getErrorLocation(key).getKey();
+        Integer columnNumber = getErrorLocation(key).getValue();
+        log.debug("Validating and processing job entry: {}", key);
+        checkValueType(value, Map.class, key, fileName, lineNumber, columnNumber);
+        handleJobEntry(key, (Map<String, Object>) value);
+      }
+    }
+    log.debug("Configuration file processed successfully.");
+  }
+
+  /**
+   * Handles the processing of a job entry from the YAML configuration. It validates that the job
+   * contains the necessary fields such as a script, stage, and Docker settings if necessary. It
+   * also sets default Docker values if they aren't provided.
+   *
+   * @param jobName   the name of the job
+   * @param jobConfig the configuration map for the job
+   * @throws RuntimeException if the job configuration is invalid
+   */
+  private void handleJobEntry(String jobName, Map<String, Object> jobConfig) {
+    log.debug("Validating job: {}", jobName);
+    Integer lineNumber = getErrorLocation(jobName).getKey();
+    Integer columnNumber = getErrorLocation(jobName).getValue();
+    // check if job has script
+    if (!jobConfig.containsKey(JOB_KEY_SCRIPT)) {
+      log.error("Job '{}' has no script. Validation failed.", jobName);
+      throw new RuntimeException(
+        String.format("%s:%d:%d: Job %s has no script.",
+          fileName, lineNumber, columnNumber, jobName)
+      );
+    }
+
+    // check if job declares a stage
+    if (!jobConfig.containsKey(JOB_KEY_STAGE)) {
+      log.error("Job '{}' has no stage. Validation failed.", jobName);
+      throw new RuntimeException(
+        String.format("%s:%d:%d: Job %s has no stage.",
+          fileName, lineNumber, columnNumber, jobName)
+      );
+    }
+
+    // validate if job can inherit Docker image from global and use default registry
+    if (!jobConfig.containsKey(JOB_KEY_DOCKER)) {
+      log.debug("No Docker configuration provided for job '{}'. Using default values.",
+          jobName);
+      if (defaultImage == null) {
+        log.error("Validation failed: No Docker image provided or inherited for job '{}'.",
+            jobName);
+        throw new RuntimeException(
+          String.format("%s:%d:%d: Docker image not found for Job %s.",
+            fileName, lineNumber, columnNumber, jobName)
+        );
+      }
+
+      if (defaultRegistry == null) {
+        defaultRegistry = DOCKERHUB_REGISTRY;
+      }
+    }
+
+    List<String> jobScripts = new ArrayList<>();
+    Stage jobStage = null;
+    String registry = "";
+    String imageName = "";
+    Boolean allowFailure = false;
+    List<String> jobNeeds = List.of();
+    List<String> paths = List.of();
+    if (defaultPaths != null) {
+      paths = defaultPaths;
+    }
+
+    log.debug("Processing job configuration for '{}'.", jobName);
+    for (Entry<String, Object> entry : jobConfig.entrySet()) {
+      String key = entry.getKey();
+      Object value = entry.getValue();
+      if (key.equals(JOB_KEY_STAGE)) {
+        String stage = handleJobStage(jobName, value);
+        jobStage = stageMap.get(stage);
+        log.debug("Assigned job '{}' to stage '{}'.", jobName, stage);
+      }
+
+      if (key.equals(JOB_KEY_SCRIPT)) {
+        lineNumber = getErrorLocation(jobName + "." + JOB_KEY_SCRIPT).getKey();
+        columnNumber = getErrorLocation(jobName + "." + JOB_KEY_SCRIPT).getValue();
+        checkValueType(value, List.class, JOB_KEY_SCRIPT, fileName, lineNumber, columnNumber);
+        checkListType(
+            (List<?>) value, String.class, JOB_KEY_SCRIPT, fileName, lineNumber, columnNumber);
+        jobScripts.addAll((List<String>) value);
+        log.debug("Added scripts for job '{}': {}", jobName, jobScripts);
+      }
+
+      if (key.equals(JOB_KEY_NEEDS)) {
+        lineNumber = getErrorLocation(jobName + "." + JOB_KEY_NEEDS).getKey();
+        columnNumber = getErrorLocation(jobName + "." + JOB_KEY_NEEDS).getValue();
+        checkValueType(value, List.class, key, fileName, lineNumber, columnNumber);
+        checkListType((List<?>) value, String.class, key, fileName, lineNumber, columnNumber);
+        jobNeeds = (List<String>) value;
+        log.debug("Job '{}' has dependencies: {}", jobName, jobNeeds);
+      }
+
+      if (key.equals(JOB_KEY_DOCKER)) {
+        Map<String, String> docker = handleDocker(jobName, value);
+        if (docker.containsKey(JOB_KEY_DOCKER_REGISTRY)) {
+          registry = docker.get(JOB_KEY_DOCKER_REGISTRY);
+        }
+        if (docker.containsKey(JOB_KEY_DOCKER_IMAGE)) {
+          imageName = docker.get(JOB_KEY_DOCKER_IMAGE);
+        }
+        log.debug("Docker configuration for job '{}': registry='{}', image='{}'.",
+            jobName, registry, imageName);
+      }
+
+      if (key.equals(JOB_KEY_ALLOW_FAILURE)) {
+        lineNumber = getErrorLocation(jobName + "." + JOB_KEY_ALLOW_FAILURE).getKey();
+        columnNumber = getErrorLocation(jobName + "." + JOB_KEY_ALLOW_FAILURE).getValue();
+        checkValueType(value, Boolean.class, key, fileName, lineNumber, columnNumber);
+        allowFailure = (Boolean) value;
+        log.debug("Job '{}' is allowed to fail: {}", jobName, allowFailure);
+      }
+
+      if (key.equals(JOB_KEY_ARTIFACTS)) {
+        List<String> jobPaths = handleArtifact(jobName, value);
+        if (jobPaths != null && !jobPaths.isEmpty()) {
+          paths = jobPaths;
+          log.debug("Artifacts paths for job '{}': {}", jobName, paths);
+        }
+      }
+    }
+
+    if (registry.equals("")) {
+      registry = DOCKERHUB_REGISTRY;
+    }
+    if (imageName.equals("")) {
+      if (defaultImage == null) {
+        log.error("No default image found for job '{}'", jobName);
+        throw new RuntimeException(
+          String.format("%s:%d:%d: Docker image not found for Job %s.",
+            fileName, lineNumber, columnNumber, jobName)
+        );
+      } else {
+        imageName = defaultImage;
+      }
+    }
+
+    Job job = Job.builder()
+        .name(jobName)
+        .stage(jobStage)
+        .scripts(jobScripts)
+        .needs(jobNeeds)
+        .registry(registry)
+        .imageName(imageName)
+        .paths(paths)
+        .allowFailure(allowFailure)
+        .build();
+    log.debug("Job built successfully: {}", job.toString());
+    stageMap.get(job.getStage().getName()).addJob(job);
+    jobMap.put(jobName, job);
+    log.info("Job '{}' successfully validated and added to stage '{}'.",
+        jobName, jobStage.getName());
+  }
+
+  /**
+   * Handles the artifacts configuration for a job, validating and extracting the artifact paths.
+   * The method ensures that the provided artifacts configuration is of the correct type and
+   * extracts the paths associated with the artifacts.
+   *
+   * @param jobName the name of the current job
+   * @param value the artifacts configuration object, which is expected to be a Map containing
+   *              the paths for the artifacts.
+   * @return a List of artifact paths. If the paths are not defined, an empty list is returned.
+   * @throws RuntimeException if the value is not a valid artifacts configuration or
+   *         contains incorrect data types for the paths.
+   */
+  private List<String> handleArtifact(String jobName, Object value) {
+    log.debug("Processing artifacts configuration for job: {}", jobName);
+    List<String> paths = new ArrayList<>();
+    Integer lineNumber = getErrorLocation(jobName + "." + JOB_KEY_ARTIFACTS).getKey();
+    Integer columnNumber = getErrorLocation(jobName + "." + JOB_KEY_ARTIFACTS).getValue();
+    checkValueType(value, Map.class, JOB_KEY_ARTIFACTS, fileName, lineNumber, columnNumber);
+    log.debug("Artifacts configuration is a valid Map for job: {}", jobName);
+    Map<String, Object> artifacts = (Map<String, Object>) value;
+    if (artifacts.containsKey(JOB_KEY_PATHS)) {
+      log.debug("Found 'paths' key in artifacts configuration for job: {}", jobName);
+      lineNumber = getErrorLocation(
+        jobName + "." + JOB_KEY_ARTIFACTS + "." + JOB_KEY_PATHS).getKey();
+      columnNumber = getErrorLocation(
+        jobName + "." + JOB_KEY_ARTIFACTS + "." + JOB_KEY_PATHS).getValue();
+      checkValueType(
+          artifacts.get(JOB_KEY_PATHS), List.class, JOB_KEY_PATHS, fileName,
+          lineNumber, columnNumber);
+      checkListType(
+          (List<String>) artifacts.get(JOB_KEY_PATHS), String.class, JOB_KEY_PATHS, fileName,
+          lineNumber, columnNumber);
+      paths = (List<String>) artifacts.get(JOB_KEY_PATHS);
+    }
+    log.info("Extracted {} artifact paths for job: {}", paths.size(), jobName);
+    return paths;
+  }
+
+  /**
+   * Handles the Docker configuration for a job, validating and extracting the Docker registry
+   * and image details. The method ensures the configuration is of the correct type and stores
+   * the Docker registry and image in a map.
+   *
+   * @param jobName the name of the current job
+   * @param value the Docker configuration object which is expected to be a Map
+   * @return a Map containing the Docker registry and image. The map keys are
+   *         {@code JOB_KEY_DOCKER_REGISTRY} and {@code JOB_KEY_DOCKER_IMAGE}.
+   * @throws RuntimeException if the value is not a valid Docker configuration or
+   *         contains incorrect data types.
+   */
+  private Map<String, String> handleDocker(String jobName, Object value) {
+    log.debug("Handling Docker configuration for job: {}", jobName);
+    Map<String, String> docker = new HashMap<>();
+    Integer lineNumber = getErrorLocation(jobName + "." + JOB_KEY_DOCKER).getKey();
+    Integer columnNumber = getErrorLocation(jobName + "." + JOB_KEY_DOCKER).getValue();
+    checkValueType(value, Map.class, JOB_KEY_DOCKER, fileName, lineNumber, columnNumber);
+    Map<String, Object> dockerConfig = (Map<String, Object>) value;
+    if (dockerConfig.containsKey(DEFAULT_KEY_DOCKER_REGISTRY)) {
+      log.debug("Found Docker registry for job: {}", jobName);
+      lineNumber = getErrorLocation(
+        jobName + "." + JOB_KEY_DOCKER + "." + JOB_KEY_DOCKER_REGISTRY).getKey();
+      columnNumber = getErrorLocation(
+        jobName + "." + JOB_KEY_DOCKER + "." + JOB_KEY_DOCKER_REGISTRY).getValue();
+      checkValueType(dockerConfig.get(JOB_KEY_DOCKER_REGISTRY), String.class,
+          JOB_KEY_DOCKER_REGISTRY, fileName, lineNumber, columnNumber);
+      docker.put(JOB_KEY_DOCKER_REGISTRY, dockerConfig.get(JOB_KEY_DOCKER_REGISTRY).toString());
+    }
+    if (dockerConfig.containsKey(JOB_KEY_DOCKER_IMAGE)) {
+      log.debug("Found Docker image for job: {}", jobName);
+      lineNumber = getErrorLocation(
+        jobName + "." + JOB_KEY_DOCKER + "." + JOB_KEY_DOCKER_IMAGE).getKey();
+      columnNumber = getErrorLocation(
+        jobName + "." + JOB_KEY_DOCKER + "." + JOB_KEY_DOCKER_IMAGE).getValue();
+      checkValueType(
+          dockerConfig.get(JOB_KEY_DOCKER_IMAGE), String.class, JOB_KEY_DOCKER_IMAGE,
+          fileName, lineNumber, columnNumber);
+      docker.put(JOB_KEY_DOCKER_IMAGE, dockerConfig.get(JOB_KEY_DOCKER_IMAGE).toString());
+    }
+    log.debug("Docker configuration handled for job: {}", jobName);
+    return docker;
+  }
+
+  /**
+   * Parses the stages defined in the configuration, ensuring that stage names are unique. If no
+   * user-defined stages are provided, default stages are used.
+   *
+   * @param value the stages section from the YAML configuration
+   * @throws RuntimeException if the stage names are not unique or invalid types are encountered
+   */
+  private void parseStages(Object value) {
+    log.debug("Parsing stages from configuration...");
+    // If no user-defined stages, use default stages
+    if (value == null || ((List<?>) value).isEmpty()) {
+      log.debug("No user-defined stages found. Using default stages.");
+      for (String defaultStage : DEFAULT_STAGES) {
+        Stage stage = Stage.builder().name(defaultStage).build();
+        stageMap.put(stage.getName(), stage);
+      }
+    } else {
+      Integer lineNumber = getErrorLocation(STAGES_KEY).getKey();
+      Integer columnNumber = getErrorLocation(STAGES_KEY).getValue();
+      checkValueType(value, List.class, STAGES_KEY, fileName, lineNumber, columnNumber);
+      List<?> stageNames = (List<?>) value;
+      checkListType(stageNames, String.class, STAGES_KEY, fileName, lineNumber, columnNumber);
+      log.debug("User-defined stages found. Validating uniqueness and adding to stage map.");
+      int index = 0;
+      for (Object stageNameObj : stageNames) {
+        String stageName = (String) stageNameObj;
+        // stage names must be unique
+        if (stageMap.containsKey(stageName)) {
+          log.error("Duplicate stage name detected: {}", stageName);
+          lineNumber = getErrorLocation(stageName).getKey();
+          columnNumber = getErrorLocation(stageName).getValue();
+          throw new RuntimeException(
+            String.format("%s:%d:%d: Duplicate stage name %s",
+              fileName, lineNumber, columnNumber, stageName)
+          );
+        }
+        Stage stage = Stage.builder().name(stageName).build();
+        stageMap.put(stage.getName(), stage);
+        index += 1;
+      }
+    }
+    log.debug("Stages parsed successfully. Total stages: {}", stageMap.size());
+  }
+
+  /**
+   * Handles the stage configuration for the job, ensuring the stage is declared.
+   *
+   * @param jobName the name of the current job
+   * @param value the stage value from the configuration
+   * @return the parsed stage name
+   * @throws RuntimeException if the stage is not declared or invalid types are encountered
+   */
+  private String handleJobStage(String jobName, Object value) {
+    log.debug("Processing stage for job: {}", jobName);
+    Integer lineNumber = getErrorLocation(jobName + "." + JOB_KEY_STAGE).getKey();
+    Integer columnNumber = getErrorLocation(jobName + "." + JOB_KEY_STAGE).getValue();
+    checkValueType(value, String.class, JOB_KEY_STAGE, fileName, lineNumber, columnNumber);
+    String stage = (String) value;
+    if (stage != null) {
+      if (!stageMap.containsKey(stage)) {
+        log.error("Stage '{}' is not declared. Validation failed for job: {}", stage, jobName);
+        throw new RuntimeException(
+          String.format("%s:%d:%d: Stage name %s is not declared.",
+            fileName, lineNumber, columnNumber, stage)
+        );
+      }
+      log.debug("Stage '{}' validated successfully for job: {}", stage, jobName);
+      return stage;
+    }
+    log.warn("No stage declared for job: {}", jobName);
+    return "";
+  }
+
+  /**
+   * Handles non-job entries in the YAML configuration, such as global defaults, stages, or paths.
+   *
+   * @param key   the key of the non-job entry
+   * @param value the value of the non-job entry
+   * @throws RuntimeException if any invalid configuration is detected
+   */
+  private void handleNonJobEntry(String key, Object value) {
+    log.debug("Processing non-job entry: {}", key);
+    if (key.equals(NON_JOB_KEY_DEFAULT)) {
+      log.debug("Handling 'default' section in configuration.");
+      handleDefault(key, value);
+      log.debug("'Default' section processed successfully.");
+    } else {
+      log.warn("Unknown non-job entry: {}. Skipping processing.", key);
+    }
+  }
+
+  /**
+   * Handles default values like pipeline name, Docker configurations, and paths.
+   *
+   * @param key the string that we want to look up the location of
+   * @param value the default entry in the YAML configuration
+   * @throws RuntimeException if any invalid or missing configurations are detected
+   */
+  private void handleDefault(String key, Object value) {
+    log.debug("Processing 'default' section in the configuration file.");
+    Integer lineNumber = getErrorLocation(key).getKey();
+    Integer columnNumber = getErrorLocation(key).getValue();
+    checkValueType(value, Map.class, NON_JOB_KEY_DEFAULT, fileName, lineNumber, columnNumber);
+    Map<String, Object> globalConfig = (Map<String, Object>) value;
+
+    // handle name
+    if (!globalConfig.containsKey(DEFAULT_KEY_NAME)
+        || globalConfig.get(DEFAULT_KEY_NAME) == null) {
+      lineNumber = getErrorLocation(NON_JOB_KEY_DEFAULT).getKey();
+      columnNumber = getErrorLocation(NON_JOB_KEY_DEFAULT).getValue();
+      log.error("Pipeline name is missing in the 'default' section.");
+      throw new RuntimeException(
+            String.format("%s:%d:%d: Pipeline name is not defined.", fileName,
+                lineNumber, columnNumber)
+          );
+    }
+    lineNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "." + DEFAULT_KEY_NAME).getKey();
+    columnNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "." + DEFAULT_KEY_NAME).getValue();
+    checkValueType(globalConfig.get(DEFAULT_KEY_NAME), String.class, DEFAULT_KEY_NAME, fileName,
+        lineNumber, columnNumber);
+    String name = globalConfig.get(DEFAULT_KEY_NAME).toString();
+    pipeline.setName(name);
+    log.info("Pipeline name set to: {}", name);
+
+    // handle docker
+    if (globalConfig.containsKey(DEFAULT_KEY_DOCKER)) {
+      log.debug("Processing default Docker configuration.");
+      lineNumber = getErrorLocation(
+        NON_JOB_KEY_DEFAULT + "." + DEFAULT_KEY_DOCKER).getKey();
+      columnNumber = getErrorLocation(
+        NON_JOB_KEY_DEFAULT + "." + DEFAULT_KEY_DOCKER).getValue();
+      checkValueType(globalConfig.get(DEFAULT_KEY_DOCKER), Map.class, DEFAULT_KEY_DOCKER, fileName,
+          lineNumber, columnNumber);
+      Map<String, Object> dockerConfig = (Map<String, Object>) globalConfig.get(DEFAULT_KEY_DOCKER);
+      if (dockerConfig.containsKey(DEFAULT_KEY_DOCKER_REGISTRY)
+          && dockerConfig.get(DEFAULT_KEY_DOCKER_REGISTRY) != null
+      ) {
+        lineNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "."
+          + DEFAULT_KEY_DOCKER + "." + DEFAULT_KEY_DOCKER_REGISTRY).getKey();
+        columnNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "."
+          + DEFAULT_KEY_DOCKER + "." + DEFAULT_KEY_DOCKER_REGISTRY).getValue();
+        checkValueType(dockerConfig.get(DEFAULT_KEY_DOCKER_REGISTRY), String.class,
+            DEFAULT_KEY_DOCKER_REGISTRY, fileName, lineNumber, columnNumber);
+        log.info("Default Docker registry set to: {}", defaultRegistry);
+        defaultRegistry = dockerConfig.get(DEFAULT_KEY_DOCKER_REGISTRY).toString();
+      }
+      if (dockerConfig.containsKey(DEFAULT_KEY_DOCKER_IMAGE)
+          && dockerConfig.get(DEFAULT_KEY_DOCKER_IMAGE) != null
+      ) {
+        lineNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "."
+          + DEFAULT_KEY_DOCKER + "." + DEFAULT_KEY_DOCKER_IMAGE).getKey();
+        columnNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "."
+          + DEFAULT_KEY_DOCKER + "." + DEFAULT_KEY_DOCKER_IMAGE).getValue();
+        checkValueType(dockerConfig.get(DEFAULT_KEY_DOCKER_IMAGE), String.class,
+            DEFAULT_KEY_DOCKER_IMAGE, fileName, lineNumber, columnNumber);
+        defaultImage = dockerConfig.get(DEFAULT_KEY_DOCKER_IMAGE).toString();
+        log.info("Default Docker image set to: {}", defaultImage);
+      }
+    }
+
+    // handle paths
+    if (globalConfig.containsKey(DEFAULT_KEY_PATHS)
+        && globalConfig.get(DEFAULT_KEY_PATHS) != null
+    ) {
+      log.debug("Processing default artifact paths.");
+      lineNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "."
+        + DEFAULT_KEY_PATHS).getKey();
+      columnNumber = getErrorLocation(NON_JOB_KEY_DEFAULT + "."
+        + DEFAULT_KEY_PATHS).getValue();
+      checkValueType(globalConfig.get(DEFAULT_KEY_PATHS), List.class,
+          DEFAULT_KEY_PATHS, fileName, lineNumber, columnNumber);
+      defaultPaths = (List<String>) globalConfig.get(DEFAULT_KEY_PATHS);
+      log.info("Default artifact paths set to: {}", defaultPaths);
+    }
+    log.debug("Completed processing 'default' section.");
+  }
+
+  /**
+   * Performs a topological sort of the jobs in a stage based on their dependencies. The job names
+   * are interned to int IDs in a {@link Dag}, so the sort itself runs over arrays whatever the
+   * size of the stage. Each job is given its execution level and order, and the list is sorted in
+   * that order, so that the run path never has to analyze the dependencies again.
+   *
+   * @param jobs the list of jobs in the stage, reordered in place
+   */
+  private void topologicalSort(List<Job> jobs) {
+    log.debug("Starting topological sort for {} jobs in the stage.", jobs.size());
+    Dag.Builder builder = Dag.builder();
+    for (Job job : jobs) {
+      builder.addNode(job.getName());
+    }
+    log.debug("Graph initialized with jobs: {}", jobs.stream().map(Job::getName).toList());
+
+    // connect nodes
+    for (Job job : jobs) {
+      if (job.getNeeds() != null) {
+        int id = builder.id(job.getName());
+        for (String dependencyName : job.getNeeds()) {
+          Job dependency = jobMap.get(dependencyName);
+          if (dependency != null) {
+            if (!dependency.getStage().equals(job.getStage())) {
+              Integer lineNumber = getErrorLocation(job.getName() + "."
+                  + JOB_KEY_NEEDS).getKey();
+              Integer columnNumber = getErrorLocation(job.getName() + "."
+                  + JOB_KEY_NEEDS).getValue();
+              log.error("Dependency stage mismatch for job '{}' on dependency '{}'.",
+                  job.getName(), dependencyName);
+              throw new RuntimeException(
+                String.format("%s:%d:%d: Job %s is defining a dependency %s that "
+                    + "belongs to a different stage",
+                  fileName, lineNumber, columnNumber, job.getName(), dependencyName)
+              );
+            }
+            builder.addDependency(id, builder.id(dependencyName));
+            log.debug("Dependency added: {} -> {}", dependencyName, job.getName());
+          } else {
+            Integer lineNumber = getErrorLocation(job.getName() + "."
+                + JOB_KEY_NEEDS).getKey();
+            Integer columnNumber = getErrorLocation(job.getName() + "."
+                + JOB_KEY_NEEDS).getValue();
+            log.error("Undefined dependency '{}' required by job '{}'.",
+                dependencyName, job.getName());
+            throw new RuntimeException(
+              String.format("%s:%d:%d: Job %s is not defined but is needed by job %s.",
+                fileName, lineNumber, columnNumber, dependencyName, job.getName())
+            );
+          }
+        }
+      }
+    }
+    log.debug("Graph populated for all jobs.");
+
+    // topological sort
+    DagOrder order = builder.build().sort();
+    if (order.hasCycle()) {
+      List<String> cycle = order.cycle();
+      Integer lineNumber = getErrorLocation(cycle.get(0)).getKey();
+      Integer columnNumber = getErrorLocation(cycle.get(0)).getValue();
+      log.error("Circular dependency detected. Jobs involved: {}", cycle);
+      throw new RuntimeException(
+        String.format("%s:%d:%d: Circular dependency detected involving jobs: %s.",
+          fileName, lineNumber, columnNumber, String.join(" -> ", cycle))
+      );
+    }
+    for (int level = 0; level < order.levelCount(); level++) {
+      log.debug("Completed level with jobs: {}", order.levelNames(level));
+    }
+
+    // The IDs of the nodes are the indexes of the jobs
+    int[] executionOrder = order.order();
+    List<Job> orderedJobs = new ArrayList<>(jobs.size());
+    for (int position = 0; position < executionOrder.length; position++) {
+      Job job = jobs.get(executionOrder[position]);
+      job.setExecutionLevel(order.level(executionOrder[position]));
+      job.setExecutionOrder(position);
+      orderedJobs.add(job);
+    }
+    jobs.clear();
+    jobs.addAll(orderedJobs);
+    log.info("Topological sort completed successfully for {} jobs.", jobs.size());
+  }
+}
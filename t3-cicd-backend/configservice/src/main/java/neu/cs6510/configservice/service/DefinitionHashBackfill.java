@@ -0,0 +1,93 @@
+package neu.cs6510.configservice.service;
+
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.repository.PipelineRepository;
+import neu.cs6510.shared.utils.PipelineHasher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Computes the {@code definition_hash} of the pipelines saved before definitions were identified
+ * by it, so that validations of the same content reuse them instead of saving a copy. Run once
+ * after the {@code V2__pipeline_definitions_and_runs.sql} migration, by starting the config
+ * service with {@code configservice.backfill.definition-hash=true}.
+ *
+ * <p>Pipelines are visited oldest first, so that of several saved copies of a definition, the
+ * oldest gets the hash and is the one reused. The other copies keep no hash: they stay attached to
+ * their past runs and are never reused. So does a pipeline whose definition a concurrent validation
+ * saves again while the backfill runs: the unique index on the hash keeps the first one.
+ */
+@Slf4j
+@Service
+public class DefinitionHashBackfill {
+
+  private final PipelineRepository pipelineRepository;
+  private final boolean enabled;
+  private final int batchSize;
+
+  @Autowired
+  public DefinitionHashBackfill(PipelineRepository pipelineRepository,
+      @Value("${configservice.backfill.definition-hash:false}") boolean enabled,
+      @Value("${configservice.backfill.batch-size:100}") int batchSize) {
+    this.pipelineRepository = pipelineRepository;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Runs the backfill once the application is ready, if enabled.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (enabled) {
+      backfill();
+    }
+  }
+
+  /**
+   * Computes and saves the definition hash of every pipeline that has none.
+   *
+   * @return the number of pipelines that got a hash
+   */
+  public int backfill() {
+    int hashed = 0;
+    int copies = 0;
+    long afterId = 0;
+    List<Long> ids;
+    do {
+      ids = pipelineRepository.findIdsWithoutDefinitionHashAfter(afterId,
+          PageRequest.ofSize(batchSize));
+      for (Long id : ids) {
+        Optional<Pipeline> pipeline = pipelineRepository.findDefinitionById(id);
+        if (pipeline.isEmpty()) {
+          continue;
+        }
+        String definitionHash = PipelineHasher.definitionHash(pipeline.get());
+        if (pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(
+            pipeline.get().getRepoUrl(), definitionHash).isPresent()) {
+          copies++;
+        } else {
+          try {
+            hashed += pipelineRepository.setDefinitionHash(id, definitionHash);
+          } catch (DataIntegrityViolationException e) {
+            copies++;
+          }
+        }
+      }
+      if (!ids.isEmpty()) {
+        afterId = ids.get(ids.size() - 1);
+      }
+    } while (ids.size() == batchSize);
+    log.info("Definition hash backfill done: {} pipelines hashed, {} copies of a hashed "
+        + "definition left without a hash", hashed, copies);
+    return hashed;
+  }
+}
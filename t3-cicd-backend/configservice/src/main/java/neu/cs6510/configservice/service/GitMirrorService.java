@@ -0,0 +1,271 @@
+package neu.cs6510.configservice.service;
+
+import static neu.cs6510.shared.constants.Kubernetes.PV_GIT_MIRROR_PATH;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.util.FS;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps one bare mirror per repository URL on the persistent volume, so that a validation
+ * request only fetches what changed since the previous one instead of cloning the whole
+ * repository again.
+ *
+ * <p>Requests for the same repository that arrive while a fetch is running share the next fetch:
+ * at most one fetch runs and at most one waits per repository, however many requests pile up,
+ * and every request still sees the remote as it was after the request arrived.
+ *
+ * <p>Small remotes can instead be fetched into an in-memory repository per request, which keeps
+ * nothing on the volume at the cost of downloading the branches every time.
+ */
+@Slf4j
+@Service
+public class GitMirrorService {
+
+  private final File mirrorRoot;
+  private final boolean inMemory;
+  private final Map<String, Mirror> mirrors = new ConcurrentHashMap<>();
+
+  private final Counter fetchCounter;
+  private final Timer fetchTimer;
+
+  /**
+   * The mirror of one repository.
+   */
+  private static final class Mirror {
+    private final File directory;
+    /** Held while the mirror is cloned or fetched. */
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    /** Guards {@link #nextFetch}. */
+    private final ReentrantLock stateLock = new ReentrantLock();
+    /** The fetch that new requests wait for, which has not started yet; or null. */
+    private CompletableFuture<Void> nextFetch;
+
+    private Mirror(File directory) {
+      this.directory = directory;
+    }
+  }
+
+  @Autowired
+  public GitMirrorService(MeterRegistry meterRegistry,
+      @Value("${configservice.git.mirror-dir:" + PV_GIT_MIRROR_PATH + "}") String mirrorDir,
+      @Value("${configservice.git.in-memory:false}") boolean inMemory) {
+    this.mirrorRoot = new File(mirrorDir);
+    this.inMemory = inMemory;
+    this.fetchCounter = Counter.builder("git.mirror.fetches")
+        .description("Clones and fetches of repository mirrors")
+        .register(meterRegistry);
+    this.fetchTimer = Timer.builder("git.mirror.fetch")
+        .description("Time spent cloning or fetching repository mirrors")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Brings the mirror of a repository up to date with the remote, cloning it the first time.
+   *
+   * @param repoUrl the URL of the Git repository
+   * @return the directory of the bare mirror
+   * @throws GitAPIException if the clone or the fetch fails
+   * @throws IOException if the mirror cannot be written
+   */
+  public File refresh(String repoUrl) throws GitAPIException, IOException {
+    Mirror mirror = mirrors.computeIfAbsent(repoUrl, url -> new Mirror(mirrorDirectory(url)));
+    CompletableFuture<Void> fetch;
+    boolean fetcher = false;
+    mirror.stateLock.lock();
+    try {
+      if (mirror.nextFetch == null) {
+        mirror.nextFetch = new CompletableFuture<>();
+        fetcher = true;
+      }
+      fetch = mirror.nextFetch;
+    } finally {
+      mirror.stateLock.unlock();
+    }
+
+    if (fetcher) {
+      mirror.fetchLock.lock();
+      try {
+        // The fetch starts now: later requests must wait for another one
+        mirror.stateLock.lock();
+        try {
+          mirror.nextFetch = null;
+        } finally {
+          mirror.stateLock.unlock();
+        }
+        fetchCounter.increment();
+        fetchTimer.recordCallable(() -> {
+          cloneOrFetch(repoUrl, mirror.directory);
+          return null;
+        });
+        fetch.complete(null);
+      } catch (Exception e) {
+        fetch.completeExceptionally(e);
+      } finally {
+        mirror.fetchLock.unlock();
+      }
+    }
+    await(fetch);
+    return mirror.directory;
+  }
+
+  /**
+   * Opens an up-to-date copy of a repository to read objects from, without any working tree:
+   * the refreshed mirror, or, in in-memory mode, a new in-memory repository holding all the
+   * branches of the remote. The caller must close it.
+   *
+   * @param repoUrl the URL of the Git repository
+   * @return the repository
+   * @throws GitAPIException if the mirror cannot be refreshed or the fetch fails
+   * @throws IOException if the mirror cannot be written or opened
+   */
+  public Repository open(String repoUrl) throws GitAPIException, IOException {
+    if (!inMemory) {
+      return new FileRepositoryBuilder()
+          .setGitDir(refresh(repoUrl))
+          .setMustExist(true)
+          .build();
+    }
+
+    log.info("Fetching {} into memory", repoUrl);
+    Repository repository = new InMemoryRepository.Builder()
+        .setRepositoryDescription(new DfsRepositoryDescription(repoName(repoUrl)))
+        // Needed to fetch from file:// remotes
+        .setFS(FS.DETECTED)
+        .build();
+    fetchCounter.increment();
+    Timer.Sample sample = Timer.start();
+    try (Git git = new Git(repository)) {
+      git.fetch()
+          .setRemote(repoUrl)
+          .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + "*:" + Constants.R_HEADS + "*"))
+          .call();
+    } catch (GitAPIException | RuntimeException e) {
+      repository.close();
+      throw e;
+    } finally {
+      sample.stop(fetchTimer);
+    }
+    return repository;
+  }
+
+  /**
+   * Fetches all refs of the remote into the mirror, pruning deleted ones, or clones the mirror
+   * if it does not exist yet. A new mirror is cloned next to its final place and moved there
+   * once complete, so that an interrupted clone never leaves a broken mirror behind.
+   */
+  private void cloneOrFetch(String repoUrl, File directory) throws GitAPIException, IOException {
+    if (new File(directory, Constants.HEAD).exists()) {
+      log.info("Fetching {} into mirror {}", repoUrl, directory);
+      try (Git git = Git.open(directory)) {
+        git.fetch().setRemoveDeletedRefs(true).call();
+      }
+      return;
+    }
+
+    log.info("Cloning mirror of {} into {}", repoUrl, directory);
+    File temporary = new File(mirrorRoot, directory.getName() + ".tmp-" + UUID.randomUUID());
+    try {
+      try (Git git = Git.cloneRepository()
+          .setURI(repoUrl)
+          .setMirror(true)
+          .setDirectory(temporary)
+          .call()) {
+        log.info("Mirror of {} cloned", repoUrl);
+      }
+      Files.move(temporary.toPath(), directory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      deleteRecursively(temporary.toPath());
+    }
+  }
+
+  /**
+   * Waits for a fetch and rethrows its failure.
+   */
+  private static void await(CompletableFuture<Void> fetch) throws GitAPIException, IOException {
+    try {
+      fetch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the mirror fetch", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof GitAPIException gitException) {
+        throw gitException;
+      } else if (cause instanceof IOException ioException) {
+        throw ioException;
+      } else if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Returns the directory of the mirror of a repository: the repository name, followed by a hash
+   * of the whole URL so that forks with the same name do not share a mirror.
+   */
+  private File mirrorDirectory(String repoUrl) {
+    return new File(mirrorRoot, repoName(repoUrl) + "-" + urlHash(repoUrl) + ".git");
+  }
+
+  private static String repoName(String repoUrl) {
+    int end = repoUrl.length();
+    while (end > 0 && repoUrl.charAt(end - 1) == '/') {
+      end--;
+    }
+    return repoUrl.substring(repoUrl.lastIndexOf('/', end - 1) + 1, end).replace(".git", "");
+  }
+
+  private static String urlHash(String repoUrl) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(repoUrl.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 8);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void deleteRecursively(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path child : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(child);
+      }
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package neu.cs6510.configservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.ValidatedConfig;
+import neu.cs6510.shared.repository.ValidatedConfigRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remembers which configuration files have already been validated, so that a configuration file
+ * whose content did not change is neither parsed nor validated again, and its pipeline definition
+ * is not inserted again. A configuration file is identified by the repository it was read from and
+ * the SHA of its Git blob, which changes whenever its content does.
+ *
+ * <p>The pipeline IDs of recently validated files are kept in a bounded in-memory LRU cache in
+ * front of the {@code validated_configs} table, which keeps them across restarts and instances.
+ * Only successful validations are recorded: an invalid file is validated again, so that its
+ * errors are reported.
+ */
+@Slf4j
+@Service
+public class ValidationCacheService {
+
+  private final ValidatedConfigRepository validatedConfigRepository;
+  private final Map<CacheKey, Long> pipelineIds;
+
+  private final Counter memoryHitCounter;
+  private final Counter databaseHitCounter;
+  private final Counter missCounter;
+
+  /**
+   * A configuration file of a repository, by the SHA of its blob.
+   */
+  private record CacheKey(String repoUrl, String blobSha) {
+  }
+
+  @Autowired
+  public ValidationCacheService(ValidatedConfigRepository validatedConfigRepository,
+      MeterRegistry meterRegistry,
+      @Value("${configservice.validation-cache.size:1024}") int cacheSize) {
+    this.validatedConfigRepository = validatedConfigRepository;
+    this.pipelineIds = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CacheKey, Long> eldest) {
+            return size() > cacheSize;
+          }
+        });
+    this.memoryHitCounter = lookupCounter(meterRegistry, "memory");
+    this.databaseHitCounter = lookupCounter(meterRegistry, "database");
+    this.missCounter = lookupCounter(meterRegistry, "miss");
+  }
+
+  /**
+   * Looks up the pipeline produced by an earlier validation of a configuration file.
+   *
+   * @param repoUrl the URL of the repository the configuration file was read from
+   * @param blobSha the SHA of the Git blob of the configuration file
+   * @return the ID of the pipeline, or null if the file has not been validated yet
+   */
+  public Long lookup(String repoUrl, String blobSha) {
+    CacheKey key = new CacheKey(repoUrl, blobSha);
+    Long pipelineId = pipelineIds.get(key);
+    if (pipelineId != null) {
+      memoryHitCounter.increment();
+      log.debug("Configuration blob {} of {} found in memory: pipeline {}",
+          blobSha, repoUrl, pipelineId);
+      return pipelineId;
+    }
+
+    Optional<ValidatedConfig> validatedConfig =
+        validatedConfigRepository.findByRepoUrlAndBlobSha(repoUrl, blobSha);
+    if (validatedConfig.isEmpty()) {
+      missCounter.increment();
+      log.debug("Configuration blob {} of {} has not been validated yet", blobSha, repoUrl);
+      return null;
+    }
+    // The pipeline is a lazy proxy: reading its ID does not load it
+    pipelineId = validatedConfig.get().getPipeline().getId();
+    pipelineIds.put(key, pipelineId);
+    databaseHitCounter.increment();
+    log.debug("Configuration blob {} of {} found in the database: pipeline {}",
+        blobSha, repoUrl, pipelineId);
+    return pipelineId;
+  }
+
+  /**
+   * Records the pipeline produced by the successful validation of a configuration file. If
+   * another request recorded the same file in the meantime, its pipeline is kept in the database
+   * and this one is only remembered in memory.
+   *
+   * @param repoUrl  the URL of the repository the configuration file was read from
+   * @param blobSha  the SHA of the Git blob of the configuration file
+   * @param pipeline the saved pipeline produced by the validation
+   */
+  public void record(String repoUrl, String blobSha, Pipeline pipeline) {
+    try {
+      validatedConfigRepository.save(ValidatedConfig.builder()
+          .repoUrl(repoUrl)
+          .blobSha(blobSha)
+          .pipeline(pipeline)
+          .validatedTime(new Timestamp(System.currentTimeMillis()))
+          .build());
+      log.debug("Recorded configuration blob {} of {}: pipeline {}",
+          blobSha, repoUrl, pipeline.getId());
+    } catch (DataIntegrityViolationException e) {
+      log.info("Configuration blob {} of {} was recorded by a concurrent validation",
+          blobSha, repoUrl);
+    }
+    pipelineIds.put(new CacheKey(repoUrl, blobSha), pipeline.getId());
+  }
+
+  private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("validation.cache.lookups")
+        .description("Lookups of validated configuration files, by where they were found")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
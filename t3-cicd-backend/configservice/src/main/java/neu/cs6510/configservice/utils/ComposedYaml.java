@@ -0,0 +1,111 @@
+package neu.cs6510.configservice.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import lombok.Getter;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.representer.Representer;
+
+/**
+ * A YAML configuration file parsed in a single pass: the content is composed into a node tree
+ * once, one walk of the tree records the location of every key and sequence item and checks
+ * the mappings for duplicate keys, and the typed values are constructed from the same tree.
+ */
+@Getter
+public class ComposedYaml {
+
+  /**
+   * The typed values of the file, or {@code null} if the file is empty.
+   */
+  private final Map<String, Object> config;
+
+  /**
+   * The 1-indexed line and column of each key and sequence item, by path: the keys from the
+   * root joined with '.', sequence items being keyed by their index.
+   */
+  private final Map<String, Entry<Integer, Integer>> locations;
+
+  private ComposedYaml(Map<String, Object> config,
+      Map<String, Entry<Integer, Integer>> locations) {
+    this.config = config;
+    this.locations = locations;
+  }
+
+  /**
+   * Parses the content of a YAML configuration file.
+   *
+   * @param fileName the name of the file, used in error messages
+   * @param content  the content of the file
+   * @return the parsed file
+   * @throws IOException if an error occurs while reading the content
+   * @throws org.yaml.snakeyaml.error.YAMLException if the content is not valid YAML or repeats
+   *                                                a key in a mapping
+   */
+  @SuppressWarnings("unchecked")
+  public static ComposedYaml parse(String fileName, byte[] content) throws IOException {
+    DuplicateKeyYamlConstructor constructor = new DuplicateKeyYamlConstructor();
+    constructor.setFileName(fileName);
+    DumperOptions dumperOptions = new DumperOptions();
+    Yaml yaml = new Yaml(constructor, new Representer(dumperOptions), dumperOptions,
+        new LoaderOptions());
+
+    Node root;
+    // Detects the encoding from the byte order mark, defaulting to UTF-8, as Yaml.load does
+    try (Reader reader = new UnicodeReader(new ByteArrayInputStream(content))) {
+      root = yaml.compose(reader);
+    }
+    Map<String, Entry<Integer, Integer>> locations = new HashMap<>();
+    walk(constructor, root, locations, "");
+    return new ComposedYaml((Map<String, Object>) constructor.construct(root), locations);
+  }
+
+  /**
+   * Recursive helper method to iterate through the nodes, recording the location of each path
+   * and checking each mapping for duplicate keys before descending into its values.
+   *
+   * @param constructor the constructor checking for duplicate keys
+   * @param node        the node to iterate through
+   * @param locations   the map to store location information in for path : (line, column)
+   * @param path        the string path of the current node
+   */
+  private static void walk(DuplicateKeyYamlConstructor constructor, Node node,
+      Map<String, Entry<Integer, Integer>> locations, String path) {
+    if (node instanceof MappingNode mappingNode) {
+      Set<Object> keys = new HashSet<>();
+      for (NodeTuple tuple : mappingNode.getValue()) {
+        Node keyNode = tuple.getKeyNode();
+        constructor.checkDuplicateKey(keys, keyNode);
+        String key = ((ScalarNode) keyNode).getValue();
+        locations.put(path.isEmpty() ? key : path + "." + key, Map.entry(
+            keyNode.getStartMark().getLine() + 1, keyNode.getStartMark().getColumn() + 1));
+      }
+      for (NodeTuple tuple : mappingNode.getValue()) {
+        String key = ((ScalarNode) tuple.getKeyNode()).getValue();
+        walk(constructor, tuple.getValueNode(), locations,
+            path.isEmpty() ? key : path + "." + key);
+      }
+    } else if (node instanceof SequenceNode sequenceNode) {
+      for (int i = 0; i < sequenceNode.getValue().size(); i++) {
+        Node itemNode = sequenceNode.getValue().get(i);
+        String currentPath = path + "." + i; // List index as part of the path
+        locations.put(currentPath, Map.entry(itemNode.getStartMark().getLine() + 1,
+            itemNode.getStartMark().getColumn() + 1));
+        walk(constructor, itemNode, locations, currentPath);
+      }
+    }
+  }
+}
@@ -1,20 +1,18 @@
 package neu.cs6510.configservice.utils;
 
-import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import lombok.Setter;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 import org.yaml.snakeyaml.error.YAMLException;
-import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
-import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
 
 /**
- * Custom YAML constructor that extends SnakeYAML's {@link SafeConstructor} to prevent
- * duplicate keys in YAML files. If a duplicate key is detected, a {@link YAMLException}
- * is thrown.
+ * Custom YAML constructor that extends SnakeYAML's {@link SafeConstructor} to construct the
+ * values of an already composed node tree, and to detect duplicate keys in YAML files on that
+ * tree. If a duplicate key is detected, a {@link YAMLException} is thrown.
  */
 public class DuplicateKeyYamlConstructor extends SafeConstructor {
   @Setter
@@ -29,29 +27,35 @@ public class DuplicateKeyYamlConstructor extends SafeConstructor {
   }
 
   /**
-   * Constructs a mapping from the provided {@link MappingNode}, ensuring that
-   * no duplicate keys are present. If a duplicate key is found, this method
-   * throws a {@link YAMLException}.
+   * Constructs the values of a composed YAML document.
    *
-   * @param node the {@code MappingNode} to process
-   * @return the constructed {@code Map<Object, Object>} from the YAML node
-   * @throws YAMLException if a duplicate key is found
+   * @param node the root node of the document, or {@code null} for an empty document
+   * @return the constructed values, or {@code null} for an empty document
    */
-  @Override
-  protected Map<Object, Object> constructMapping(MappingNode node) {
-    Set<Object> keys = new HashSet<>();
-    for (NodeTuple tuple : node.getValue()) {
-      Object key = constructObject(tuple.getKeyNode());
-      Node keyNode = tuple.getKeyNode();
+  public Object construct(Node node) {
+    return node == null ? null : constructDocument(node);
+  }
+
+  /**
+   * Checks that a key of a mapping does not repeat one of the keys before it, without
+   * constructing it: scalar keys are the same if they have the same resolved tag and the same
+   * value, so that {@code 1} and {@code "1"} are different keys, as they are once constructed.
+   *
+   * @param keys    the keys before it in the mapping, to which the key is added
+   * @param keyNode the node of the key
+   * @throws YAMLException if the key is a duplicate
+   */
+  public void checkDuplicateKey(Set<Object> keys, Node keyNode) {
+    if (!(keyNode instanceof ScalarNode scalarNode)) {
+      return;
+    }
+    if (!keys.add(List.of(scalarNode.getTag().getValue(), scalarNode.getValue()))) {
       int lineNumber = keyNode.getStartMark().getLine() + 1; // +1 to make it 1-indexed
       int columnNumber = keyNode.getStartMark().getColumn() + 1; // +1 to make it 1-indexed
-      if (!keys.add(key)) {
-        throw new YAMLException(
-          String.format("%s:%d:%d: Error: Duplicate key %s found in YAML file.", this.fileName,
-            lineNumber, columnNumber, key)
-        );
-      }
+      throw new YAMLException(
+        String.format("%s:%d:%d: Error: Duplicate key %s found in YAML file.", this.fileName,
+          lineNumber, columnNumber, scalarNode.getValue())
+      );
     }
-    return super.constructMapping(node);
   }
 }
@@ -1,17 +1,25 @@
 package neu.cs6510.configservice.controller;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import neu.cs6510.configservice.model.BatchValidationResult;
+import neu.cs6510.configservice.model.ConfigSource;
+import neu.cs6510.configservice.model.ConfigValidationResult;
+import neu.cs6510.configservice.service.BatchValidationService;
 import neu.cs6510.configservice.service.ConfigFileService;
+import neu.cs6510.configservice.service.ValidationCacheService;
 import neu.cs6510.configservice.service.ValidationService;
 import neu.cs6510.shared.entity.Pipeline;
-import neu.cs6510.shared.repository.PipelineRepository;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,31 +41,33 @@ class ConfigValidationControllerTest {
   private ValidationService validationService;
 
   @MockBean
-  private PipelineRepository pipelineRepository;
+  private ConfigFileService configFileService;
 
   @MockBean
-  private ConfigFileService configFileService;
+  private ValidationCacheService validationCacheService;
 
-  private File tempFile;
+  @MockBean
+  private BatchValidationService batchValidationService;
+
+  private ConfigSource configSource;
 
   @BeforeEach
   void setUp() throws IOException, GitAPIException {
-    tempFile = File.createTempFile("test", ".yml");
-    tempFile.deleteOnExit(); // Ensure the file is deleted after the test run
-
-    try (FileWriter writer = new FileWriter(tempFile)) {
-      writer.write("stages:\n  - build\n");
-    }
-
-    when(configFileService.cloneRepoToPv("https://github.com/example/repo.git", "main"))
-      .thenReturn("/path/to/cloned/repo");
-    when(configFileService.findConfigFile("/path/to/cloned/repo", "path/to/config.yml", null))
-      .thenReturn(tempFile);
+    configSource = new ConfigSource("0123456789abcdef0123456789abcdef01234567",
+      "path/to/config.yml", "89abcdef0123456789abcdef0123456789abcdef",
+      "stages:\n  - build\n".getBytes(StandardCharsets.UTF_8));
+
+    when(configFileService.readConfig("https://github.com/example/repo.git", "main",
+      "path/to/config.yml", null))
+      .thenReturn(configSource);
+    // A mocked Long defaults to 0, which would be taken as a cached pipeline
+    when(validationCacheService.lookup(any(), any())).thenReturn(null);
   }
 
   @Test
   void testUploadYamlSuccess() throws Exception {
-    when(validationService.parseAndValidateConfigFile(tempFile, "https://github.com/example/repo.git")).thenReturn(
+    when(validationService.parseAndValidateConfig("config.yml", configSource.getContent(),
+      "https://github.com/example/repo.git")).thenReturn(
       Pipeline.builder().id(12345L).build());
 
     String requestBody = """
@@ -71,12 +81,45 @@ class ConfigValidationControllerTest {
     mockMvc.perform(post("/validate")
         .contentType(MediaType.APPLICATION_JSON)
         .content(requestBody))
-      .andExpect(status().isOk());
+      .andExpect(status().isOk())
+      .andExpect(result -> {
+        String response = result.getResponse().getContentAsString();
+        assertTrue(response.contains(configSource.getCommit()));
+        assertTrue(response.contains("\"configFilePath\":\"path/to/config.yml\""));
+      });
+    verify(validationCacheService).record(eq("https://github.com/example/repo.git"),
+      eq(configSource.getBlobId()), any(Pipeline.class));
+  }
+
+  @Test
+  void testUploadYamlReusesValidatedPipeline() throws Exception {
+    when(validationCacheService.lookup("https://github.com/example/repo.git",
+      configSource.getBlobId())).thenReturn(678L);
+
+    String requestBody = """
+            {
+              "repo_url": "https://github.com/example/repo.git",
+              "branch": "main",
+              "config_path": "path/to/config.yml"
+            }
+            """;
+
+    mockMvc.perform(post("/validate")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(requestBody))
+      .andExpect(status().isOk())
+      .andExpect(result -> {
+        String response = result.getResponse().getContentAsString();
+        assertTrue(response.contains("\"pipelineId\":\"678\""));
+        assertTrue(response.contains(configSource.getCommit()));
+      });
+    verify(validationService, never()).parseAndValidateConfig(any(), any(), any());
   }
 
   @Test
   void testUploadYamlFailureParsing() throws Exception {
-    when(validationService.parseAndValidateConfigFile(tempFile, "https://github.com/example/repo.git")).thenAnswer(invocation -> {
+    when(validationService.parseAndValidateConfig("config.yml", configSource.getContent(),
+      "https://github.com/example/repo.git")).thenAnswer(invocation -> {
       throw new RuntimeException("Invalid YAML file");
     });
 
@@ -96,7 +139,7 @@ class ConfigValidationControllerTest {
 
   @Test
   void testUploadYamlFailureIllegalArgument() throws Exception {
-    when(configFileService.cloneRepoToPv("https://github.com/example/repo.git", "main"))
+    when(configFileService.readConfig("https://github.com/example/repo.git", "main", null, null))
       .thenThrow(new IllegalArgumentException("Missing required parameter"));
 
     String requestBody = """
@@ -118,8 +161,9 @@ class ConfigValidationControllerTest {
 
   @Test
   void testUploadYamlFailureGitAPIException() throws Exception {
-    when(configFileService.cloneRepoToPv("https://github.com/example/repo.git", "main"))
-      .thenThrow(new GitAPIException("Failed to clone repository") {});
+    when(configFileService.readConfig("https://github.com/example/repo.git", "main",
+      "path/to/config.yml", null))
+      .thenThrow(new GitAPIException("Remote unreachable") {});
 
     String requestBody = """
             {
@@ -135,13 +179,14 @@ class ConfigValidationControllerTest {
       .andExpect(status().isBadRequest())
       .andExpect(result -> {
         String response = result.getResponse().getContentAsString();
-        assertTrue(response.contains("Failed to clone repository"));
+        assertTrue(response.contains("Failed to fetch repository: Remote unreachable"));
       });
   }
 
   @Test
   void testUploadYamlFailureFileNotFoundException() throws Exception {
-    when(configFileService.findConfigFile("/path/to/cloned/repo", "path/to/config.yml", null))
+    when(configFileService.readConfig("https://github.com/example/repo.git", "main",
+      "path/to/config.yml", null))
       .thenThrow(new IOException("Config file not found"));
 
     String requestBody = """
@@ -164,7 +209,8 @@ class ConfigValidationControllerTest {
 
   @Test
   void testUploadYamlFailureValidationIOException() throws Exception {
-    when(validationService.parseAndValidateConfigFile(tempFile, "https://github.com/example/repo.git"))
+    when(validationService.parseAndValidateConfig("config.yml", configSource.getContent(),
+      "https://github.com/example/repo.git"))
       .thenThrow(new IOException("Error while reading YAML file"));
 
     String requestBody = """
@@ -340,4 +386,70 @@ class ConfigValidationControllerTest {
         assertTrue(response.contains("Only one of configPath or pipelineName should be provided, not both."));
       });
   }
-}
\ No newline at end of file
+
+  @Test
+  void testValidateAllSuccess() throws Exception {
+    when(batchValidationService.validateAll("https://github.com/example/repo.git", "main"))
+      .thenReturn(new BatchValidationResult(configSource.getCommit(), List.of(
+        new ConfigValidationResult(".cicd-pipelines/a.yml", 1L, null),
+        new ConfigValidationResult(".cicd-pipelines/b.yml", 2L, null))));
+
+    String requestBody = """
+            {
+              "repo_url": "https://github.com/example/repo.git",
+              "branch": "main"
+            }
+            """;
+
+    mockMvc.perform(post("/validate/all")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(requestBody))
+      .andExpect(status().isOk())
+      .andExpect(result -> {
+        String response = result.getResponse().getContentAsString();
+        assertTrue(response.contains(configSource.getCommit()));
+        assertTrue(response.contains("{\"configFilePath\":\".cicd-pipelines/b.yml\","
+          + "\"status\":\"success\",\"pipelineId\":\"2\"}"));
+      });
+  }
+
+  @Test
+  void testValidateAllFailureInvalidFile() throws Exception {
+    when(batchValidationService.validateAll("https://github.com/example/repo.git", "main"))
+      .thenReturn(new BatchValidationResult(configSource.getCommit(), List.of(
+        new ConfigValidationResult(".cicd-pipelines/a.yml", 1L, null),
+        new ConfigValidationResult(".cicd-pipelines/b.yml", null, "b.yml:1:1: Null key"))));
+
+    String requestBody = """
+            {
+              "repo_url": "https://github.com/example/repo.git",
+              "branch": "main"
+            }
+            """;
+
+    mockMvc.perform(post("/validate/all")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(requestBody))
+      .andExpect(status().isBadRequest())
+      .andExpect(result -> {
+        String response = result.getResponse().getContentAsString();
+        assertTrue(response.contains("\"pipelineId\":\"1\""));
+        assertTrue(response.contains("\"message\":\"Validation error: b.yml:1:1: Null key\""));
+      });
+  }
+
+  @Test
+  void testValidateAllFailureNoBranch() throws Exception {
+    String requestBody = """
+            {
+              "repo_url": "https://github.com/example/repo.git"
+            }
+            """;
+
+    mockMvc.perform(post("/validate/all")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(requestBody))
+      .andExpect(status().isBadRequest());
+    verify(batchValidationService, never()).validateAll(any(), any());
+  }
+}
@@ -0,0 +1,146 @@
+package neu.cs6510.configservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import neu.cs6510.configservice.model.BatchValidationResult;
+import neu.cs6510.configservice.model.CommitConfigs;
+import neu.cs6510.configservice.model.ConfigSource;
+import neu.cs6510.configservice.model.ConfigValidationResult;
+import neu.cs6510.configservice.model.PipelineIndex;
+import neu.cs6510.configservice.model.PipelineIndex.IndexedFile;
+import neu.cs6510.shared.entity.Pipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchValidationServiceTest {
+
+  private static final String REPO_URL = "https://github.com/example/repo.git";
+  private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+
+  private ConfigFileService configFileService;
+  private ValidationService validationService;
+  private ValidationCacheService validationCacheService;
+  private ForkJoinPool configValidationPool;
+  private BatchValidationService batchValidationService;
+
+  private final List<ConfigSource> configs = new ArrayList<>();
+  private final Map<String, List<IndexedFile>> indexedFiles = new LinkedHashMap<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    configFileService = mock(ConfigFileService.class);
+    validationService = mock(ValidationService.class);
+    validationCacheService = mock(ValidationCacheService.class);
+    configValidationPool = new ForkJoinPool(4);
+    batchValidationService = new BatchValidationService(configFileService, validationService,
+        validationCacheService, configValidationPool);
+
+    when(configFileService.readAllConfigs(REPO_URL, "main")).thenAnswer(invocation ->
+        new CommitConfigs(COMMIT, configs, new PipelineIndex(COMMIT, indexedFiles)));
+    // A mocked Long defaults to 0, which would be taken as a cached pipeline
+    when(validationCacheService.lookup(any(), any())).thenReturn(null);
+    AtomicLong nextId = new AtomicLong(100);
+    when(validationService.parseAndValidateConfig(any(), any(), eq(REPO_URL)))
+        .thenAnswer(invocation -> Pipeline.builder().id(nextId.getAndIncrement()).build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    configValidationPool.shutdown();
+  }
+
+  private ConfigSource addConfig(String fileName, String pipelineName) {
+    String path = ".cicd-pipelines/" + fileName;
+    String blobId = String.format("%040d", configs.size());
+    ConfigSource config = new ConfigSource(COMMIT, path, blobId,
+        ("default:\n  name: " + pipelineName + "\n").getBytes(StandardCharsets.UTF_8));
+    configs.add(config);
+    indexedFiles.computeIfAbsent(pipelineName, name -> new ArrayList<>())
+        .add(new IndexedFile(path, null));
+    return config;
+  }
+
+  @Test
+  void testValidateAllValidatesEveryFile() throws Exception {
+    for (int i = 0; i < 30; i++) {
+      addConfig("pipeline-" + i + ".yml", "pipeline-" + i);
+    }
+
+    BatchValidationResult batch = batchValidationService.validateAll(REPO_URL, "main");
+
+    assertTrue(batch.isValid());
+    assertEquals(COMMIT, batch.getCommit());
+    assertEquals(30, batch.getResults().size());
+    for (int i = 0; i < 30; i++) {
+      ConfigValidationResult result = batch.getResults().get(i);
+      assertEquals(configs.get(i).getPath(), result.getPath());
+      verify(validationCacheService).record(eq(REPO_URL), eq(configs.get(i).getBlobId()),
+          any(Pipeline.class));
+    }
+    assertEquals(30, batch.getResults().stream().map(ConfigValidationResult::getPipelineId)
+        .distinct().count());
+  }
+
+  @Test
+  void testValidateAllReusesValidatedFile() throws Exception {
+    ConfigSource config = addConfig("pipeline.yml", "my-pipeline");
+    when(validationCacheService.lookup(REPO_URL, config.getBlobId())).thenReturn(42L);
+
+    BatchValidationResult batch = batchValidationService.validateAll(REPO_URL, "main");
+
+    assertEquals(42L, batch.getResults().get(0).getPipelineId());
+    verify(validationService, never()).parseAndValidateConfig(any(), any(), any());
+  }
+
+  @Test
+  void testValidateAllReportsInvalidFile() throws Exception {
+    addConfig("valid.yml", "valid");
+    ConfigSource invalid = addConfig("invalid.yml", "invalid");
+    when(validationService.parseAndValidateConfig(eq("invalid.yml"), any(), eq(REPO_URL)))
+        .thenThrow(new RuntimeException("invalid.yml:1:1: Stage build has no jobs."));
+
+    BatchValidationResult batch = batchValidationService.validateAll(REPO_URL, "main");
+
+    assertFalse(batch.isValid());
+    assertTrue(batch.getResults().get(0).isValid());
+    ConfigValidationResult result = batch.getResults().get(1);
+    assertEquals(invalid.getPath(), result.getPath());
+    assertNull(result.getPipelineId());
+    assertEquals("invalid.yml:1:1: Stage build has no jobs.", result.getMessage());
+  }
+
+  @Test
+  void testValidateAllRejectsDuplicatePipelineNames() throws Exception {
+    addConfig("a.yml", "my-pipeline");
+    addConfig("b.yml", "other-pipeline");
+    addConfig("c.yml", "my-pipeline");
+
+    BatchValidationResult batch = batchValidationService.validateAll(REPO_URL, "main");
+
+    assertFalse(batch.isValid());
+    assertTrue(batch.getResults().get(1).isValid());
+    for (int i : new int[] {0, 2}) {
+      assertEquals("Pipeline name 'my-pipeline' is declared by multiple files: "
+          + ".cicd-pipelines/a.yml, .cicd-pipelines/c.yml", batch.getResults().get(i).getMessage());
+    }
+    verify(validationService, never()).parseAndValidateConfig(eq("a.yml"), any(), any());
+    verify(validationService, never()).parseAndValidateConfig(eq("c.yml"), any(), any());
+  }
+}
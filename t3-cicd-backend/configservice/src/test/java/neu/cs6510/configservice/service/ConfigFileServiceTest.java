@@ -3,108 +3,178 @@ package neu.cs6510.configservice.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
-import org.eclipse.jgit.api.CloneCommand;
+import neu.cs6510.configservice.model.CommitConfigs;
+import neu.cs6510.configservice.model.ConfigSource;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.RefNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.junit.jupiter.api.*;
-import org.mockito.MockedStatic;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
 
 class ConfigFileServiceTest {
 
+  @Mock
+  private GitMirrorService gitMirrorService;
+
+  @InjectMocks
   private ConfigFileService configFileService;
 
+  @TempDir
+  Path repoDir;
+
   @BeforeEach
   void setUp() {
-    configFileService = new ConfigFileService();
+    MockitoAnnotations.openMocks(this);
   }
 
-  @Test
-  void testCloneRepoToPvSuccess() throws GitAPIException {
-    String repoUrl = "https://github.com/example/repo.git";
-    String branch = "main";
-
-    try (MockedStatic<Git> gitMock = mockStatic(Git.class)) {
-      CloneCommand cloneCommandMock = mock(CloneCommand.class);
-      gitMock.when(Git::cloneRepository).thenReturn(cloneCommandMock);
-
-      when(cloneCommandMock.setURI(repoUrl)).thenReturn(cloneCommandMock);
-      when(cloneCommandMock.setBranch(branch)).thenReturn(cloneCommandMock);
-      when(cloneCommandMock.setDirectory(any(File.class))).thenReturn(cloneCommandMock);
-      when(cloneCommandMock.call()).thenReturn(mock(Git.class));
+  private RevCommit commitToRepo(String path, String content) throws Exception {
+    try (Git git = Git.init().setDirectory(repoDir.toFile()).setInitialBranch("main").call()) {
+      Path file = repoDir.resolve(path);
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, content);
+      git.add().addFilepattern(path).call();
+      RevCommit commit = git.commit().setMessage("Add " + path)
+          .setAuthor("tester", "tester@example.com")
+          .setCommitter("tester", "tester@example.com")
+          .call();
+      // The working tree is removed so that only the Git objects can be read
+      Files.delete(file);
+      return commit;
+    }
+  }
 
-      String repoDir = configFileService.cloneRepoToPv(repoUrl, branch);
+  private void stubOpen(String repoUrl) throws Exception {
+    when(gitMirrorService.open(repoUrl)).thenAnswer(invocation -> new FileRepositoryBuilder()
+        .setGitDir(repoDir.resolve(".git").toFile())
+        .setMustExist(true)
+        .build());
+  }
 
-      assertNotNull(repoDir);
-      assertTrue(repoDir.startsWith("/mnt/git-repo/repo"));
-    }
+  @Test
+  void testReadConfigByConfigPath() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    RevCommit commit = commitToRepo(".cicd-pipelines/config.yml", "stages:\n  - build\n");
+    stubOpen(repoUrl);
+
+    ConfigSource config = configFileService.readConfig(repoUrl, "main",
+        "./.cicd-pipelines/config.yml", null);
+
+    assertNotNull(config);
+    assertEquals(commit.name(), config.getCommit());
+    assertEquals(".cicd-pipelines/config.yml", config.getPath());
+    assertEquals("config.yml", config.getFileName());
+    assertEquals("stages:\n  - build\n", new String(config.getContent(), StandardCharsets.UTF_8));
+    assertEquals(new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, config.getContent())
+        .name(), config.getBlobId());
   }
 
   @Test
-  void testCloneRepoToPvFailure() throws GitAPIException {
-    String repoUrl = "https://invalid-repo-url.git";
-    String branch = "main";
-
-    try (MockedStatic<Git> gitMock = mockStatic(Git.class)) {
-      CloneCommand cloneCommandMock = mock(CloneCommand.class);
-      gitMock.when(Git::cloneRepository).thenReturn(cloneCommandMock);
-
-      when(cloneCommandMock.setURI(repoUrl)).thenReturn(cloneCommandMock);
-      when(cloneCommandMock.setBranch(branch)).thenReturn(cloneCommandMock);
-      when(cloneCommandMock.setDirectory(any(File.class))).thenReturn(cloneCommandMock);
-      when(cloneCommandMock.call()).thenThrow(new GitAPIException("Failed to clone repository") {});
-
-      GitAPIException exception = assertThrows(GitAPIException.class, () ->
-        configFileService.cloneRepoToPv(repoUrl, branch));
-      assertEquals("Failed to clone repository", exception.getMessage());
-    }
+  void testReadConfigByPipelineNameAtCommit() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    RevCommit first = commitToRepo(".cicd-pipelines/pipeline.yml",
+        "default:\n  name: my-pipeline\n");
+    commitToRepo(".cicd-pipelines/other.yaml", "default:\n  name: other-pipeline\n");
+    stubOpen(repoUrl);
+
+    ConfigSource config = configFileService.readConfig(repoUrl, "main", null, "other-pipeline");
+    assertNotNull(config);
+    assertEquals(".cicd-pipelines/other.yaml", config.getPath());
+
+    // The second file does not exist yet at the first commit
+    assertNull(configFileService.readConfig(repoUrl, first.name(), null, "other-pipeline"));
+    config = configFileService.readConfig(repoUrl, first.name(), null, "my-pipeline");
+    assertNotNull(config);
+    assertEquals(first.name(), config.getCommit());
   }
 
   @Test
-  void testFindConfigFileByConfigPath() throws IOException {
-    File tempDir = Files.createTempDirectory("test-repo").toFile();
-    File configFile = new File(tempDir, "config.yml");
-    try (FileWriter writer = new FileWriter(configFile)) {
-      writer.write("stages:\n  - build\n");
+  void testReadConfigReusesIndexOfCommit() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    commitToRepo(".cicd-pipelines/pipeline.yml", "default:\n  name: my-pipeline\n");
+    commitToRepo(".cicd-pipelines/other.yml", "default:\n  name: other-pipeline\n");
+    stubOpen(repoUrl);
+    assertNotNull(configFileService.readConfig(repoUrl, "main", null, "my-pipeline"));
+
+    // Without the other file, the commit could not be indexed again
+    String blobId;
+    try (Git git = Git.open(repoDir.toFile())) {
+      blobId = git.getRepository().resolve("main:.cicd-pipelines/other.yml").name();
     }
+    Files.delete(repoDir.resolve(".git/objects/" + blobId.substring(0, 2) + "/"
+        + blobId.substring(2)));
 
-    File foundFile = configFileService.findConfigFile(tempDir.getAbsolutePath(),
-      "config.yml", null);
-
-    assertNotNull(foundFile);
-    assertEquals(configFile.getAbsolutePath(), foundFile.getAbsolutePath());
+    ConfigSource config = configFileService.readConfig(repoUrl, "main", null, "my-pipeline");
+    assertNotNull(config);
+    assertEquals(".cicd-pipelines/pipeline.yml", config.getPath());
   }
 
   @Test
-  void testFindConfigFileByPipelineName() throws IOException {
-    File tempDir = Files.createTempDirectory("test-repo").toFile();
-    File pipelinesDir = new File(tempDir, ".cicd-pipelines");
-    if (!pipelinesDir.exists() && !pipelinesDir.mkdirs()) {
-      throw new IOException("Failed to create directory: " + pipelinesDir.getAbsolutePath());
-    }
+  void testReadConfigMultipleMatches() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    commitToRepo(".cicd-pipelines/a.yml", "default:\n  name: my-pipeline\n");
+    commitToRepo(".cicd-pipelines/b.yml", "default:\n  name: my-pipeline\n");
+    stubOpen(repoUrl);
+
+    RuntimeException exception = assertThrows(RuntimeException.class, () ->
+        configFileService.readConfig(repoUrl, "main", null, "my-pipeline"));
+    assertEquals("Multiple YAML files with pipeline name 'my-pipeline' found.",
+        exception.getMessage());
+  }
 
-    File yamlFile = new File(pipelinesDir, "pipeline.yml");
-    try (FileWriter writer = new FileWriter(yamlFile)) {
-      writer.write("default:\n  name: my-pipeline\n");
-    }
+  @Test
+  void testReadConfigNotFound() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    commitToRepo("README.md", "readme\n");
+    stubOpen(repoUrl);
 
-    File foundFile = configFileService.findConfigFile(tempDir.getAbsolutePath(),
-      null, "my-pipeline");
-    assertNotNull(foundFile, "Expected to find a configuration file, but none was found.");
-    assertEquals(yamlFile.getAbsolutePath(), foundFile.getAbsolutePath());
+    assertNull(configFileService.readConfig(repoUrl, "main", "config.yml", null));
+    assertNull(configFileService.readConfig(repoUrl, "main", null, "my-pipeline"));
+    assertThrows(RefNotFoundException.class, () ->
+        configFileService.readConfig(repoUrl, "does-not-exist", null, "my-pipeline"));
   }
 
   @Test
-  void testFindConfigFileNoMatch() throws IOException {
-    File tempDir = Files.createTempDirectory("test-repo").toFile();
+  void testReadAllConfigs() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    commitToRepo(".cicd-pipelines/b.yaml", "default:\n  name: b-pipeline\n");
+    commitToRepo(".cicd-pipelines/a.yml", "default:\n  name: a-pipeline\n");
+    commitToRepo(".cicd-pipelines/broken.yml", "default: [\n");
+    commitToRepo(".cicd-pipelines/notes.txt", "not a pipeline\n");
+    RevCommit commit = commitToRepo("README.md", "readme\n");
+    stubOpen(repoUrl);
+
+    CommitConfigs commitConfigs = configFileService.readAllConfigs(repoUrl, "main");
+
+    assertEquals(commit.name(), commitConfigs.getCommit());
+    assertEquals(List.of(".cicd-pipelines/a.yml", ".cicd-pipelines/b.yaml",
+        ".cicd-pipelines/broken.yml"), commitConfigs.getConfigs().stream()
+        .map(ConfigSource::getPath).toList());
+    assertEquals("default: [\n",
+        new String(commitConfigs.getConfigs().get(2).getContent(), StandardCharsets.UTF_8));
+    // The file that is not valid YAML declares no name
+    assertEquals(List.of("a-pipeline", "b-pipeline"),
+        List.copyOf(commitConfigs.getIndex().getFiles().keySet()));
+  }
 
-    File foundFile = configFileService.findConfigFile(tempDir.getAbsolutePath(), null,
-      "non-existent-pipeline");
+  @Test
+  void testReadAllConfigsWithoutConfigDirectory() throws Exception {
+    String repoUrl = "https://github.com/example/repo.git";
+    commitToRepo("README.md", "readme\n");
+    stubOpen(repoUrl);
 
-    assertNull(foundFile);
+    assertTrue(configFileService.readAllConfigs(repoUrl, "main").getConfigs().isEmpty());
+    assertThrows(RefNotFoundException.class, () ->
+        configFileService.readAllConfigs(repoUrl, "does-not-exist"));
   }
 }
@@ -0,0 +1,101 @@
+package neu.cs6510.configservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.repository.PipelineRepository;
+import neu.cs6510.shared.utils.PipelineHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+class DefinitionHashBackfillTest {
+
+  private static final String REPO_URL = "https://github.com/example/repo.git";
+
+  @Mock
+  private PipelineRepository pipelineRepository;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  private static Pipeline pipeline(Long id, String image) {
+    Pipeline pipeline = Pipeline.builder().id(id).name("example").repoUrl(REPO_URL).build();
+    Stage stage = Stage.builder().name("build").pipeline(pipeline).build();
+    stage.addJob(Job.builder().name("compile").stage(stage).imageName(image)
+        .scripts(List.of("./gradlew build")).build());
+    pipeline.addStage(stage);
+    return pipeline;
+  }
+
+  private void defines(Pipeline pipeline) {
+    when(pipelineRepository.findDefinitionById(pipeline.getId()))
+        .thenReturn(Optional.of(pipeline));
+  }
+
+  @Test
+  void testHashesOldestCopyOfEachDefinition() {
+    Pipeline first = pipeline(1L, "gradle:8.10-jdk21");
+    Pipeline copy = pipeline(2L, "gradle:8.10-jdk21");
+    Pipeline other = pipeline(3L, "maven:3.9");
+    defines(first);
+    defines(copy);
+    defines(other);
+    String hash = PipelineHasher.definitionHash(first);
+    when(pipelineRepository.findIdsWithoutDefinitionHashAfter(0L, PageRequest.ofSize(2)))
+        .thenReturn(List.of(1L, 2L));
+    when(pipelineRepository.findIdsWithoutDefinitionHashAfter(2L, PageRequest.ofSize(2)))
+        .thenReturn(List.of(3L));
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(REPO_URL, hash))
+        .thenReturn(Optional.empty(), Optional.of(first));
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(eq(REPO_URL),
+        eq(PipelineHasher.definitionHash(other)))).thenReturn(Optional.empty());
+    when(pipelineRepository.setDefinitionHash(anyLong(), anyString())).thenReturn(1);
+
+    int hashed = new DefinitionHashBackfill(pipelineRepository, true, 2).backfill();
+
+    assertEquals(2, hashed);
+    verify(pipelineRepository).setDefinitionHash(1L, hash);
+    verify(pipelineRepository, never()).setDefinitionHash(eq(2L), any());
+    verify(pipelineRepository).setDefinitionHash(3L, PipelineHasher.definitionHash(other));
+  }
+
+  @Test
+  void testLeavesDefinitionSavedConcurrentlyWithoutHash() {
+    Pipeline pipeline = pipeline(1L, "gradle:8.10-jdk21");
+    defines(pipeline);
+    String hash = PipelineHasher.definitionHash(pipeline);
+    when(pipelineRepository.findIdsWithoutDefinitionHashAfter(0L, PageRequest.ofSize(100)))
+        .thenReturn(List.of(1L));
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(REPO_URL, hash))
+        .thenReturn(Optional.empty());
+    doThrow(new DataIntegrityViolationException("duplicate key"))
+        .when(pipelineRepository).setDefinitionHash(1L, hash);
+
+    assertEquals(0, new DefinitionHashBackfill(pipelineRepository, true, 100).backfill());
+  }
+
+  @Test
+  void testDoesNothingUnlessEnabled() {
+    new DefinitionHashBackfill(pipelineRepository, false, 100).start();
+
+    verify(pipelineRepository, never()).findIdsWithoutDefinitionHashAfter(anyLong(), any());
+  }
+}
@@ -0,0 +1,122 @@
+package neu.cs6510.configservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GitMirrorServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SimpleMeterRegistry meterRegistry;
+  private GitMirrorService gitMirrorService;
+  private Git remote;
+  private String remoteUrl;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    File remoteDir = tempDir.resolve("remote").toFile();
+    remote = Git.init().setDirectory(remoteDir).setInitialBranch("main").call();
+    remoteUrl = remoteDir.toURI().toString();
+    commit("pipeline.yaml", "default:\n  name: first\n");
+
+    meterRegistry = new SimpleMeterRegistry();
+    gitMirrorService = new GitMirrorService(meterRegistry,
+        tempDir.resolve("mirrors").toString(), false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    remote.close();
+  }
+
+  private void commit(String fileName, String content) throws Exception {
+    Files.writeString(remote.getRepository().getWorkTree().toPath().resolve(fileName), content);
+    remote.add().addFilepattern(fileName).call();
+    remote.commit().setMessage("Update " + fileName)
+        .setAuthor("tester", "tester@example.com")
+        .setCommitter("tester", "tester@example.com")
+        .call();
+  }
+
+  private double fetches() {
+    return meterRegistry.get("git.mirror.fetches").counter().count();
+  }
+
+  @Test
+  void testRefreshFetchesNewCommits() throws Exception {
+    gitMirrorService.refresh(remoteUrl);
+    commit("pipeline.yaml", "default:\n  name: second\n");
+
+    try (Repository repository = gitMirrorService.open(remoteUrl)) {
+      assertEquals(remote.getRepository().resolve("main"), repository.resolve("refs/heads/main"));
+    }
+    assertEquals(2.0, fetches());
+    File[] mirrors = tempDir.resolve("mirrors").toFile().listFiles();
+    assertEquals(1, mirrors.length);
+    assertTrue(mirrors[0].getName().startsWith("remote-"));
+  }
+
+  @Test
+  void testOpenReadsFromMirror() throws Exception {
+    try (Repository repository = gitMirrorService.open(remoteUrl)) {
+      assertTrue(repository.isBare());
+      assertEquals(remote.getRepository().resolve("main"), repository.resolve("refs/heads/main"));
+    }
+    assertEquals(1.0, fetches());
+  }
+
+  @Test
+  void testOpenInMemoryLeavesNothingOnDisk() throws Exception {
+    GitMirrorService inMemoryService = new GitMirrorService(meterRegistry,
+        tempDir.resolve("mirrors").toString(), true);
+
+    try (Repository repository = inMemoryService.open(remoteUrl)) {
+      assertEquals(remote.getRepository().resolve("main"), repository.resolve("refs/heads/main"));
+    }
+    assertFalse(tempDir.resolve("mirrors").toFile().exists());
+  }
+
+  @Test
+  void testConcurrentRefreshesShareFetches() throws Exception {
+    gitMirrorService.refresh(remoteUrl);
+    int requests = 32;
+    CyclicBarrier start = new CyclicBarrier(requests);
+    ExecutorService executor = Executors.newFixedThreadPool(requests);
+    try {
+      List<Future<File>> results = new ArrayList<>();
+      for (int i = 0; i < requests; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return gitMirrorService.refresh(remoteUrl);
+        }));
+      }
+      for (Future<File> result : results) {
+        assertTrue(result.get().isDirectory());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // Requests arriving during a fetch wait for a single follow-up fetch
+    assertTrue(fetches() < 1 + requests, "Fetches were not coalesced: " + fetches());
+  }
+}
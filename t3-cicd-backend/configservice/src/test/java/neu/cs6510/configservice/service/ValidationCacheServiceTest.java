@@ -0,0 +1,115 @@
+package neu.cs6510.configservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.ValidatedConfig;
+import neu.cs6510.shared.repository.ValidatedConfigRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+class ValidationCacheServiceTest {
+
+  private static final String REPO_URL = "https://github.com/example/repo.git";
+  private static final String BLOB_SHA = "89abcdef0123456789abcdef0123456789abcdef";
+
+  private ValidatedConfigRepository validatedConfigRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private ValidationCacheService validationCacheService;
+
+  @BeforeEach
+  void setUp() {
+    validatedConfigRepository = mock(ValidatedConfigRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    validationCacheService = new ValidationCacheService(validatedConfigRepository,
+        meterRegistry, 2);
+  }
+
+  @Test
+  void testLookupMissesUnknownConfig() {
+    when(validatedConfigRepository.findByRepoUrlAndBlobSha(REPO_URL, BLOB_SHA))
+        .thenReturn(Optional.empty());
+
+    assertNull(validationCacheService.lookup(REPO_URL, BLOB_SHA));
+    assertEquals(1.0, lookups("miss"));
+  }
+
+  @Test
+  void testLookupLoadsFromDatabaseOnce() {
+    when(validatedConfigRepository.findByRepoUrlAndBlobSha(REPO_URL, BLOB_SHA))
+        .thenReturn(Optional.of(validatedConfig(BLOB_SHA, 42L)));
+
+    assertEquals(42L, validationCacheService.lookup(REPO_URL, BLOB_SHA));
+    assertEquals(42L, validationCacheService.lookup(REPO_URL, BLOB_SHA));
+
+    verify(validatedConfigRepository, times(1)).findByRepoUrlAndBlobSha(REPO_URL, BLOB_SHA);
+    assertEquals(1.0, lookups("database"));
+    assertEquals(1.0, lookups("memory"));
+  }
+
+  @Test
+  void testRecordSavesAndCachesPipeline() {
+    validationCacheService.record(REPO_URL, BLOB_SHA, Pipeline.builder().id(7L).build());
+
+    assertEquals(7L, validationCacheService.lookup(REPO_URL, BLOB_SHA));
+    verify(validatedConfigRepository).save(any(ValidatedConfig.class));
+    verify(validatedConfigRepository, never()).findByRepoUrlAndBlobSha(REPO_URL, BLOB_SHA);
+  }
+
+  @Test
+  void testRecordToleratesConcurrentValidation() {
+    when(validatedConfigRepository.save(any(ValidatedConfig.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    validationCacheService.record(REPO_URL, BLOB_SHA, Pipeline.builder().id(7L).build());
+
+    assertEquals(7L, validationCacheService.lookup(REPO_URL, BLOB_SHA));
+  }
+
+  @Test
+  void testLookupIsScopedToRepository() {
+    validationCacheService.record(REPO_URL, BLOB_SHA, Pipeline.builder().id(7L).build());
+    String otherRepoUrl = "https://github.com/example/other.git";
+    when(validatedConfigRepository.findByRepoUrlAndBlobSha(otherRepoUrl, BLOB_SHA))
+        .thenReturn(Optional.empty());
+
+    assertNull(validationCacheService.lookup(otherRepoUrl, BLOB_SHA));
+  }
+
+  @Test
+  void testCacheEvictsLeastRecentlyUsedConfig() {
+    validationCacheService.record(REPO_URL, "a", Pipeline.builder().id(1L).build());
+    validationCacheService.record(REPO_URL, "b", Pipeline.builder().id(2L).build());
+    validationCacheService.lookup(REPO_URL, "a");
+    validationCacheService.record(REPO_URL, "c", Pipeline.builder().id(3L).build());
+    when(validatedConfigRepository.findByRepoUrlAndBlobSha(REPO_URL, "b"))
+        .thenReturn(Optional.of(validatedConfig("b", 2L)));
+
+    assertEquals(1L, validationCacheService.lookup(REPO_URL, "a"));
+    assertEquals(2L, validationCacheService.lookup(REPO_URL, "b"));
+    verify(validatedConfigRepository, never()).findByRepoUrlAndBlobSha(REPO_URL, "a");
+    verify(validatedConfigRepository).findByRepoUrlAndBlobSha(REPO_URL, "b");
+  }
+
+  private static ValidatedConfig validatedConfig(String blobSha, Long pipelineId) {
+    return ValidatedConfig.builder()
+        .repoUrl(REPO_URL)
+        .blobSha(blobSha)
+        .pipeline(Pipeline.builder().id(pipelineId).build())
+        .build();
+  }
+
+  private double lookups(String result) {
+    return meterRegistry.get("validation.cache.lookups").tag("result", result).counter().count();
+  }
+}
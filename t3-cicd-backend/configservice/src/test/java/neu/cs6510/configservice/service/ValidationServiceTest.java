@@ -4,12 +4,27 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import neu.cs6510.shared.entity.Job;
 import neu.cs6510.shared.entity.Pipeline;
 import neu.cs6510.shared.entity.Stage;
@@ -18,6 +33,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.yaml.snakeyaml.Yaml;
 
 
@@ -239,7 +255,32 @@ class ValidationServiceTest {
     RuntimeException exception = assertThrows(RuntimeException.class, () -> {
       validationService.parseAndValidateConfigFile(file, "repoUrl");
     });
-    System.out.println(exception.getMessage());
+    assertEquals("yamlContentWithCycleDependency.yaml:11:1: Circular dependency detected "
+        + "involving jobs: checkout -> build -> checkout.", exception.getMessage());
+  }
+
+  @Test
+  void testParseAndValidateConfigFileOrdersJobsByExecutionLevel() throws IOException {
+    String filePath = "src/test/java/neu/cs6510/configservice/testFiles/yamlContentWithMultipleNeeds.yaml";
+    File file = new File(filePath);
+    Pipeline pipeline = validationService.parseAndValidateConfigFile(file, "repoUrl");
+
+    Stage testStage = pipeline.getStages().stream()
+        .filter(stage -> stage.getName().equals("test"))
+        .findFirst()
+        .orElseThrow();
+    List<String> names = new ArrayList<>();
+    List<Integer> levels = new ArrayList<>();
+    List<Integer> orders = new ArrayList<>();
+    for (Job job : testStage.getJobs()) {
+      names.add(job.getName());
+      levels.add(job.getExecutionLevel());
+      orders.add(job.getExecutionOrder());
+    }
+    assertEquals(List.of("test_a", "test_d", "test_f", "test_b", "test_g", "test_c", "test_e"),
+        names);
+    assertEquals(List.of(0, 0, 0, 1, 1, 2, 2), levels);
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), orders);
   }
 
   @Test
@@ -338,4 +379,130 @@ class ValidationServiceTest {
     });
     System.out.println(exception.getMessage());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testParseAndValidateConfigFileSavesDefinitionHash() throws IOException {
+    File file = new File("src/test/java/neu/cs6510/configservice/testFiles/yamlContent.yaml");
+
+    Pipeline pipeline = validationService.parseAndValidateConfigFile(file, "repoUrl");
+
+    assertEquals(64, pipeline.getDefinitionHash().length());
+    verify(pipelineRepository).findFirstByRepoUrlAndDefinitionHashOrderByIdAsc("repoUrl",
+        pipeline.getDefinitionHash());
+    verify(pipelineRepository).save(pipeline);
+  }
+
+  @Test
+  void testParseAndValidateConfigFileReusesSavedDefinition() throws IOException {
+    Pipeline saved = Pipeline.builder().id(5L).name("saved").repoUrl("repoUrl").build();
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(eq("repoUrl"),
+        anyString())).thenReturn(Optional.of(saved));
+    File file = new File("src/test/java/neu/cs6510/configservice/testFiles/yamlContent.yaml");
+
+    Pipeline pipeline = validationService.parseAndValidateConfigFile(file, "repoUrl");
+
+    assertEquals(saved, pipeline);
+    verify(pipelineRepository, never()).save(any(Pipeline.class));
+  }
+
+  @Test
+  void testParseAndValidateConfigFileReusesDefinitionSavedConcurrently() throws IOException {
+    Pipeline winner = Pipeline.builder().id(5L).name("saved").repoUrl("repoUrl").build();
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(eq("repoUrl"),
+        anyString())).thenReturn(Optional.empty(), Optional.of(winner));
+    doThrow(new DataIntegrityViolationException("duplicate key"))
+        .when(pipelineRepository).save(any(Pipeline.class));
+    File file = new File("src/test/java/neu/cs6510/configservice/testFiles/yamlContent.yaml");
+
+    Pipeline pipeline = validationService.parseAndValidateConfigFile(file, "repoUrl");
+
+    assertEquals(winner, pipeline);
+  }
+
+  @Test
+  void testParseAndValidateConfigFileIsolatesConcurrentValidations() throws Exception {
+    // Files with different defaults, so that state leaking between requests would show up
+    List<File> files = List.of(
+        "yamlContent.yaml",
+        "yamlContentWithDefaultDocker.yaml",
+        "yamlContentWithJobDocker.yaml",
+        "yamlContentWithDefaultPaths.yaml",
+        "yamlContentWithArtifact.yaml",
+        "yamlContentWithMultipleNeeds.yaml",
+        "yamlContentWithCycleDependency.yaml",
+        "yamlContentWithUndefinedNeeds.yaml").stream()
+        .map(name -> new File("src/test/java/neu/cs6510/configservice/testFiles/" + name))
+        .toList();
+    // Stands in for the pipelines table, with its unique index on the definition hash
+    Map<String, Pipeline> rows = new ConcurrentHashMap<>();
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(eq("repoUrl"),
+        anyString())).thenAnswer(invocation ->
+        Optional.ofNullable(rows.get(invocation.<String>getArgument(1))));
+    when(pipelineRepository.save(any(Pipeline.class))).thenAnswer(invocation -> {
+      Pipeline pipeline = invocation.getArgument(0);
+      if (rows.putIfAbsent(pipeline.getDefinitionHash(), pipeline) != null) {
+        throw new DataIntegrityViolationException("duplicate key " + pipeline.getDefinitionHash());
+      }
+      return pipeline;
+    });
+    List<String> expected = new ArrayList<>();
+    for (File file : files) {
+      expected.add(describeValidation(file));
+    }
+    Set<String> definitions = Set.copyOf(rows.keySet());
+    rows.clear();
+
+    int threads = 8;
+    int iterations = 200;
+    CyclicBarrier start = new CyclicBarrier(threads);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        futures.add(executor.submit(() -> {
+          List<String> mismatches = new ArrayList<>();
+          start.await();
+          for (int i = 0; i < iterations; i++) {
+            int index = (offset + i) % files.size();
+            String actual = describeValidation(files.get(index));
+            if (!actual.equals(expected.get(index))) {
+              mismatches.add(actual);
+            }
+          }
+          return mismatches;
+        }));
+      }
+      for (Future<List<String>> future : futures) {
+        assertEquals(List.of(), future.get());
+      }
+      // Each definition is saved once, however many validations raced to save it
+      assertEquals(definitions, rows.keySet());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Validates a file and describes the result: the pipeline with its stages and jobs in order,
+   * or the error message.
+   */
+  private String describeValidation(File file) throws IOException {
+    Pipeline pipeline;
+    try {
+      pipeline = validationService.parseAndValidateConfigFile(file, "repoUrl");
+    } catch (RuntimeException e) {
+      return "error: " + e.getMessage();
+    }
+    StringBuilder description = new StringBuilder(pipeline.getName());
+    for (Stage stage : pipeline.getStages()) {
+      description.append('\n').append(stage.getName()).append(':');
+      for (Job job : stage.getJobs()) {
+        description.append(' ').append(Arrays.asList(job.getName(), job.getRegistry(),
+            job.getImageName(), job.getNeeds(), job.getPaths(), job.getScripts(),
+            job.isAllowFailure()));
+      }
+    }
+    return description.toString();
+  }
+}
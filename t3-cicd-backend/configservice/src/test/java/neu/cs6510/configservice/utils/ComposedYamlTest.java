@@ -0,0 +1,81 @@
+package neu.cs6510.configservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.error.YAMLException;
+
+class ComposedYamlTest {
+
+  private static ComposedYaml parse(String yaml) throws Exception {
+    return ComposedYaml.parse("pipeline.yaml", yaml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testParseReturnsValuesAndLocations() throws Exception {
+    ComposedYaml composedYaml = parse("""
+        default:
+          name: my-pipeline
+        build:
+          allow_failure: true
+          script:
+            - echo one
+            - echo two
+        """);
+
+    assertEquals(Map.of("name", "my-pipeline"), composedYaml.getConfig().get("default"));
+    Map<?, ?> build = (Map<?, ?>) composedYaml.getConfig().get("build");
+    assertEquals(Boolean.TRUE, build.get("allow_failure"));
+    assertEquals(List.of("echo one", "echo two"), build.get("script"));
+
+    assertEquals(Map.entry(1, 1), composedYaml.getLocations().get("default"));
+    assertEquals(Map.entry(2, 3), composedYaml.getLocations().get("default.name"));
+    assertEquals(Map.entry(5, 3), composedYaml.getLocations().get("build.script"));
+    assertEquals(Map.entry(7, 7), composedYaml.getLocations().get("build.script.1"));
+  }
+
+  @Test
+  void testParseRejectsDuplicateKeys() {
+    YAMLException exception = assertThrows(YAMLException.class, () -> parse("""
+        build:
+          script: [echo one]
+        build:
+          script: [echo two]
+        """));
+
+    assertEquals("pipeline.yaml:3:1: Error: Duplicate key build found in YAML file.",
+        exception.getMessage());
+  }
+
+  @Test
+  void testParseRejectsDuplicateNestedKeys() {
+    YAMLException exception = assertThrows(YAMLException.class, () -> parse("""
+        build:
+          stage: build
+          stage: test
+        """));
+
+    assertTrue(exception.getMessage().startsWith("pipeline.yaml:3:3:"));
+  }
+
+  @Test
+  void testParseKeepsKeysOfDifferentTypes() throws Exception {
+    ComposedYaml composedYaml = parse("1: int\n\"1\": string\n");
+
+    assertEquals(2, composedYaml.getConfig().size());
+  }
+
+  @Test
+  void testParseEmptyContent() throws Exception {
+    ComposedYaml composedYaml = parse("");
+
+    assertNull(composedYaml.getConfig());
+    assertTrue(composedYaml.getLocations().isEmpty());
+  }
+}
@@ -0,0 +1,18 @@
+-- Switches argo_logs.id from an identity column to the argo_logs_seq sequence, which Hibernate
+-- uses in blocks of 50 (allocationSize = 50) so that ArgoLog inserts can be batched.
+--
+-- Run once against an existing database before deploying the new pipelineservice image.
+-- A fresh database needs no migration: Hibernate creates the sequence itself.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS argo_logs_seq INCREMENT BY 50;
+
+-- Hibernate's pooled optimizer hands out the 50 ids up to and including the value returned by
+-- nextval, so the first value must be at least 50 past the highest existing id.
+SELECT setval('argo_logs_seq', COALESCE((SELECT MAX(id) FROM argo_logs), 0) + 50, false);
+
+ALTER TABLE argo_logs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE argo_logs ALTER COLUMN id DROP DEFAULT;
+
+COMMIT;
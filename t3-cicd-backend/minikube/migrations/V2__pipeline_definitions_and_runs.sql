@@ -0,0 +1,132 @@
+-- Separates the immutable pipeline definitions (pipelines, stages, jobs and their job_* element
+-- tables) from the state of their executions, which moves to pipeline_runs, stage_runs and
+-- job_runs:
+--   1. creates pipeline_runs and validated_configs, as the new images declare them,
+--   2. turns the executions recorded on pipelines into runs,
+--   3. creates a stage run and a job run for every stage and job of every run,
+--   4. drops the per-run columns of the definition tables.
+--
+-- Written against the schema of the baseline images, where pipelines records its last execution
+-- and its configuration file but not the commit it was read at. The copies of a definition saved
+-- by every validation can therefore not be told apart from different definitions here: they are
+-- all kept, and the definition hash backfill leaves all but the oldest without a hash (see
+-- DefinitionHashBackfill).
+--
+-- Run V1 to V5 in order, once, against an existing database, with the configservice and the
+-- pipelineservice scaled down, and only then deploy the new images: the new services no longer
+-- write stages.status and jobs.status, which are NOT NULL in the old schema.
+-- A fresh database needs no migration: Hibernate creates the new schema itself.
+-- definition_hash is computed by the config service, not here: once its new image is deployed,
+-- start it once with configservice.backfill.definition-hash=true (see DefinitionHashBackfill).
+-- test/verify_migrations.sh runs the series against test/baseline_schema.sql.
+
+BEGIN;
+
+-- 1. Tables of the new images that the steps below write
+
+CREATE TABLE IF NOT EXISTS pipeline_runs (
+  id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  pipeline_id        BIGINT REFERENCES pipelines (id),
+  repo_url           VARCHAR(255)  NOT NULL,
+  branch             VARCHAR(255)  NOT NULL,
+  config_path        VARCHAR(255),
+  pipeline_name      VARCHAR(255),
+  commit_sha         VARCHAR(255),
+  config_file_path   VARCHAR(255),
+  argo_workflow_name VARCHAR(255),
+  status             VARCHAR(255)  NOT NULL,
+  message            VARCHAR(2048),
+  queued_time        TIMESTAMP(6),
+  start_time         TIMESTAMP(6),
+  end_time           TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_pipeline_runs_repo ON pipeline_runs (repo_url, id);
+CREATE INDEX IF NOT EXISTS idx_pipeline_runs_end_time ON pipeline_runs (end_time);
+
+CREATE TABLE IF NOT EXISTS validated_configs (
+  id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  repo_url       VARCHAR(255) NOT NULL,
+  blob_sha       VARCHAR(255) NOT NULL,
+  pipeline_id    BIGINT       NOT NULL REFERENCES pipelines (id),
+  validated_time TIMESTAMP(6),
+  UNIQUE (repo_url, blob_sha)
+);
+
+-- 2. Executions recorded on pipelines. Their branch and commit were not recorded.
+
+INSERT INTO pipeline_runs (pipeline_id, repo_url, branch, config_file_path, status, message,
+                           queued_time, start_time, end_time)
+SELECT p.id, p.repo_url, '', p.config_file_path,
+       CASE UPPER(p.status) WHEN 'SUCCESS' THEN 'success' ELSE 'failed' END,
+       CASE UPPER(p.status) WHEN 'SUCCESS' THEN NULL
+                            WHEN 'FAILED' THEN NULL
+                            ELSE 'Migrated without a final status' END,
+       p.start_time, p.start_time, COALESCE(p.end_time, p.start_time)
+FROM pipelines p
+WHERE p.start_time IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM pipeline_runs r WHERE r.pipeline_id = p.id)
+ORDER BY p.id;
+
+-- 3. Stage and job runs. Only the final phase of a workflow was watched, so they take the final
+-- status of their run.
+
+CREATE TABLE IF NOT EXISTS stage_runs (
+  id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  pipeline_run_id BIGINT       NOT NULL REFERENCES pipeline_runs (id),
+  stage_id        BIGINT       NOT NULL REFERENCES stages (id),
+  status          VARCHAR(255) NOT NULL,
+  start_time      TIMESTAMP(6),
+  end_time        TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_stage_runs_pipeline_run ON stage_runs (pipeline_run_id);
+
+CREATE TABLE IF NOT EXISTS job_runs (
+  id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  pipeline_run_id BIGINT       NOT NULL REFERENCES pipeline_runs (id),
+  stage_run_id    BIGINT       NOT NULL REFERENCES stage_runs (id),
+  job_id          BIGINT       NOT NULL REFERENCES jobs (id),
+  status          VARCHAR(255) NOT NULL,
+  start_time      TIMESTAMP(6),
+  end_time        TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_job_runs_pipeline_run ON job_runs (pipeline_run_id);
+CREATE INDEX IF NOT EXISTS idx_job_runs_stage_run ON job_runs (stage_run_id);
+
+INSERT INTO stage_runs (pipeline_run_id, stage_id, status, start_time, end_time)
+SELECT r.id, s.id,
+       CASE WHEN r.status IN ('success', 'failed') THEN r.status ELSE 'pending' END,
+       s.start_time,
+       CASE WHEN r.status IN ('success', 'failed') THEN COALESCE(s.end_time, r.end_time) END
+FROM pipeline_runs r
+JOIN stages s ON s.pipeline_id = r.pipeline_id
+ORDER BY r.id, s.id;
+
+INSERT INTO job_runs (pipeline_run_id, stage_run_id, job_id, status, start_time, end_time)
+SELECT sr.pipeline_run_id, sr.id, j.id, sr.status, j.start_time,
+       CASE WHEN sr.end_time IS NOT NULL THEN COALESCE(j.end_time, sr.end_time) END
+FROM stage_runs sr
+JOIN jobs j ON j.stage_id = sr.stage_id
+ORDER BY sr.id, j.id;
+
+-- 4. Definition tables without their per-run columns
+
+ALTER TABLE pipelines ADD COLUMN IF NOT EXISTS definition_hash VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_pipelines_definition ON pipelines (repo_url, definition_hash);
+
+ALTER TABLE pipelines
+  DROP COLUMN IF EXISTS status,
+  DROP COLUMN IF EXISTS start_time,
+  DROP COLUMN IF EXISTS end_time,
+  DROP COLUMN IF EXISTS repo_dir,
+  DROP COLUMN IF EXISTS commit_sha,
+  DROP COLUMN IF EXISTS config_file_path;
+ALTER TABLE stages
+  DROP COLUMN IF EXISTS status,
+  DROP COLUMN IF EXISTS start_time,
+  DROP COLUMN IF EXISTS end_time;
+ALTER TABLE jobs
+  DROP COLUMN IF EXISTS status,
+  DROP COLUMN IF EXISTS start_time,
+  DROP COLUMN IF EXISTS end_time;
+
+COMMIT;
@@ -0,0 +1,78 @@
+-- Turns argo_logs into a table partitioned by month of start_time, so that the queries bounded on
+-- start_time only read the partitions of their range, and old entries are removed by dropping
+-- whole partitions instead of deleting rows:
+--   1. gives the entries without a start time the best time known for them,
+--   2. moves the existing table aside and creates the partitioned one in its place,
+--   3. creates a partition for every month from the oldest entry to two months from now, and a
+--      default partition for anything outside of them,
+--   4. copies the entries over and drops the old table.
+--
+-- The pipelineservice creates the partitions of the coming months, and drops or detaches the
+-- expired ones, on its own (see HistoryRetentionService). Run once against every database,
+-- including a fresh one once the services have created the schema: Hibernate creates argo_logs as
+-- a plain table. Stop the pipelineservice while it runs, so that no log entry is written to the
+-- old table. On an existing database, run it after V2 and before V4 (see V2).
+
+BEGIN;
+
+-- 1. The partition key cannot be null. The pod and log file columns are copied below, but the
+-- baseline images did not create them.
+
+UPDATE argo_logs SET start_time = COALESCE(end_time, now()) WHERE start_time IS NULL;
+ALTER TABLE argo_logs ADD COLUMN IF NOT EXISTS pod_name VARCHAR(255);
+ALTER TABLE argo_logs ADD COLUMN IF NOT EXISTS log_file_path VARCHAR(255);
+
+-- 2. Partitioned table. Its primary key has to include the partition key; ids are still unique,
+-- as they are all drawn from argo_logs_seq.
+
+ALTER TABLE argo_logs RENAME TO argo_logs_unpartitioned;
+ALTER TABLE argo_logs_unpartitioned RENAME CONSTRAINT argo_logs_pkey
+  TO argo_logs_unpartitioned_pkey;
+ALTER INDEX IF EXISTS idx_argo_logs_workflow RENAME TO idx_argo_logs_unpartitioned_workflow;
+
+CREATE TABLE argo_logs (
+  id                 BIGINT       NOT NULL,
+  pipeline_id        BIGINT       NOT NULL REFERENCES pipelines (id),
+  argo_workflow_name VARCHAR(255) NOT NULL,
+  stage_name         VARCHAR(255) NOT NULL,
+  pod_name           VARCHAR(255),
+  log_file_path      VARCHAR(255),
+  start_time         TIMESTAMP(6) NOT NULL,
+  end_time           TIMESTAMP(6),
+  status             VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id, start_time)
+) PARTITION BY RANGE (start_time);
+CREATE INDEX idx_argo_logs_workflow ON argo_logs (argo_workflow_name, id);
+
+-- 3. Monthly partitions, named argo_logs_p<year>_<month>
+
+DO $$
+DECLARE
+  first_day DATE;
+BEGIN
+  FOR first_day IN
+    SELECT generate_series(date_trunc('month', COALESCE(MIN(start_time), now())),
+                           date_trunc('month', now()) + INTERVAL '2 months',
+                           INTERVAL '1 month')
+    FROM argo_logs_unpartitioned
+  LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF argo_logs FOR VALUES FROM (%L) TO (%L)',
+                   'argo_logs_p' || to_char(first_day, 'YYYY_MM'), first_day,
+                   first_day + INTERVAL '1 month');
+  END LOOP;
+END
+$$;
+
+CREATE TABLE argo_logs_default PARTITION OF argo_logs DEFAULT;
+
+-- 4. Entries
+
+INSERT INTO argo_logs (id, pipeline_id, argo_workflow_name, stage_name, pod_name, log_file_path,
+                       start_time, end_time, status)
+SELECT id, pipeline_id, argo_workflow_name, stage_name, pod_name, log_file_path, start_time,
+       end_time, status
+FROM argo_logs_unpartitioned;
+
+DROP TABLE argo_logs_unpartitioned;
+
+COMMIT;
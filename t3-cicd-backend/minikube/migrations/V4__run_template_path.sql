@@ -0,0 +1,21 @@
+-- Moves argo_yaml_path from pipelines to pipeline_runs. The WorkflowTemplate file is recorded by
+-- the run that submitted it, and only when the argo CLI submitter wrote one, so that the
+-- pipelineservice never writes the pipeline definitions it shares with the config service.
+--
+-- Run once against an existing database before deploying the new pipelineservice image.
+-- A fresh database needs no migration: Hibernate creates the column itself.
+
+BEGIN;
+
+ALTER TABLE pipeline_runs ADD COLUMN IF NOT EXISTS argo_yaml_path VARCHAR(255);
+
+-- Only the active runs need their template file: the workspace reclaimer keeps it while they run
+UPDATE pipeline_runs r SET argo_yaml_path = p.argo_yaml_path
+FROM pipelines p
+WHERE r.pipeline_id = p.id
+  AND r.status IN ('queued', 'running')
+  AND r.argo_yaml_path IS NULL;
+
+ALTER TABLE pipelines DROP COLUMN IF EXISTS argo_yaml_path;
+
+COMMIT;
@@ -0,0 +1,22 @@
+-- Makes the definition hash of pipelines unique per repo, so that concurrent validations of the
+-- same configuration cannot both save it: the configservice reuses the pipeline of the one whose
+-- insert succeeds.
+--
+-- Copies of a definition saved by such concurrent validations before this migration keep their
+-- runs but lose their hash, like the copies left by the definition hash backfill: only the oldest
+-- is reused. Run once against an existing database before deploying the new configservice image.
+-- A fresh database needs no migration: Hibernate creates the index as unique.
+
+BEGIN;
+
+UPDATE pipelines p SET definition_hash = NULL
+WHERE p.definition_hash IS NOT NULL
+  AND EXISTS (SELECT 1 FROM pipelines o
+              WHERE o.repo_url = p.repo_url
+                AND o.definition_hash = p.definition_hash
+                AND o.id < p.id);
+
+DROP INDEX IF EXISTS idx_pipelines_definition;
+CREATE UNIQUE INDEX idx_pipelines_definition ON pipelines (repo_url, definition_hash);
+
+COMMIT;
@@ -0,0 +1,112 @@
+-- Schema of a database created by the baseline images (Hibernate 6, ddl-auto=update, PostgreSQL),
+-- with a few rows of each kind, to run the migrations against. See verify_migrations.sh.
+
+CREATE TABLE pipelines (
+  end_time         TIMESTAMP(6),
+  id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  start_time       TIMESTAMP(6),
+  argo_yaml_path   VARCHAR(255),
+  config_file_path VARCHAR(255),
+  name             VARCHAR(255) NOT NULL,
+  repo_dir         VARCHAR(255),
+  repo_url         VARCHAR(255) NOT NULL,
+  status           VARCHAR(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE stages (
+  end_time    TIMESTAMP(6),
+  id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  pipeline_id BIGINT       NOT NULL,
+  start_time  TIMESTAMP(6),
+  name        VARCHAR(255) NOT NULL,
+  status      VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE jobs (
+  allow_failure BOOLEAN      NOT NULL,
+  end_time      TIMESTAMP(6),
+  id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  stage_id      BIGINT       NOT NULL,
+  start_time    TIMESTAMP(6),
+  image_name    VARCHAR(255),
+  name          VARCHAR(255) NOT NULL,
+  registry      VARCHAR(255),
+  status        VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE job_scripts (job_id BIGINT NOT NULL, script VARCHAR(255));
+CREATE TABLE job_dependencies (job_id BIGINT NOT NULL, need VARCHAR(255));
+CREATE TABLE job_paths (job_id BIGINT NOT NULL, path VARCHAR(255));
+
+CREATE TABLE argo_logs (
+  end_time           TIMESTAMP(6),
+  id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  pipeline_id        BIGINT       NOT NULL,
+  start_time         TIMESTAMP(6),
+  argo_workflow_name VARCHAR(255) NOT NULL,
+  stage_name         VARCHAR(255) NOT NULL,
+  status             VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id)
+);
+
+ALTER TABLE IF EXISTS argo_logs ADD CONSTRAINT fk_argo_logs_pipeline
+  FOREIGN KEY (pipeline_id) REFERENCES pipelines;
+ALTER TABLE IF EXISTS job_dependencies ADD CONSTRAINT fk_job_dependencies_job
+  FOREIGN KEY (job_id) REFERENCES jobs;
+ALTER TABLE IF EXISTS job_paths ADD CONSTRAINT fk_job_paths_job
+  FOREIGN KEY (job_id) REFERENCES jobs;
+ALTER TABLE IF EXISTS job_scripts ADD CONSTRAINT fk_job_scripts_job
+  FOREIGN KEY (job_id) REFERENCES jobs;
+ALTER TABLE IF EXISTS jobs ADD CONSTRAINT fk_jobs_stage
+  FOREIGN KEY (stage_id) REFERENCES stages;
+ALTER TABLE IF EXISTS stages ADD CONSTRAINT fk_stages_pipeline
+  FOREIGN KEY (pipeline_id) REFERENCES pipelines;
+
+-- A finished run, a failed one, one still running, and one validated but never run; the first
+-- two were validated from the same file
+
+INSERT INTO pipelines (id, name, repo_url, config_file_path, argo_yaml_path, status, start_time,
+                       end_time)
+VALUES (1, 'build', 'https://example.com/repo.git', '.cicd-pipelines/build.yaml',
+        '/mnt/argoworkflows/templates/pipeline-build-1.yaml', 'success',
+        '2024-11-02 10:00:00', '2024-11-02 10:05:00'),
+       (2, 'build', 'https://example.com/repo.git', '.cicd-pipelines/build.yaml',
+        '/mnt/argoworkflows/templates/pipeline-build-2.yaml', 'failed',
+        '2024-12-03 10:00:00', '2024-12-03 10:02:00'),
+       (3, 'deploy', 'https://example.com/repo.git', '.cicd-pipelines/deploy.yaml',
+        '/mnt/argoworkflows/templates/pipeline-deploy-3.yaml', 'running',
+        '2025-01-04 10:00:00', NULL),
+       (4, 'lint', 'https://example.com/repo.git', '.cicd-pipelines/lint.yaml', NULL, 'pending',
+        NULL, NULL);
+SELECT setval(pg_get_serial_sequence('pipelines', 'id'), 4);
+
+INSERT INTO stages (id, pipeline_id, name, status, start_time, end_time)
+VALUES (1, 1, 'build', 'success', '2024-11-02 10:00:00', '2024-11-02 10:05:00'),
+       (2, 2, 'build', 'failed', '2024-12-03 10:00:00', '2024-12-03 10:02:00'),
+       (3, 3, 'deploy', 'running', '2025-01-04 10:00:00', NULL),
+       (4, 4, 'lint', 'pending', NULL, NULL);
+SELECT setval(pg_get_serial_sequence('stages', 'id'), 4);
+
+INSERT INTO jobs (id, stage_id, name, image_name, status, allow_failure, start_time, end_time)
+VALUES (1, 1, 'compile', 'gradle:8.10-jdk21', 'success', false, '2024-11-02 10:00:00',
+        '2024-11-02 10:05:00'),
+       (2, 2, 'compile', 'gradle:8.10-jdk21', 'failed', false, '2024-12-03 10:00:00',
+        '2024-12-03 10:02:00'),
+       (3, 3, 'release', 'alpine:3.20', 'running', false, '2025-01-04 10:00:00', NULL),
+       (4, 4, 'checkstyle', 'gradle:8.10-jdk21', 'pending', true, NULL, NULL);
+SELECT setval(pg_get_serial_sequence('jobs', 'id'), 4);
+
+INSERT INTO job_scripts (job_id, script)
+VALUES (1, './gradlew build'), (2, './gradlew build'), (3, './release.sh'),
+       (4, './gradlew checkstyleMain');
+INSERT INTO job_dependencies (job_id, need) VALUES (3, 'compile');
+INSERT INTO job_paths (job_id, path) VALUES (1, 'build/libs');
+
+INSERT INTO argo_logs (pipeline_id, argo_workflow_name, stage_name, status, start_time, end_time)
+VALUES (1, 'pipeline-build-1', 'build', 'Succeeded', '2024-11-02 10:00:00',
+        '2024-11-02 10:05:00'),
+       (2, 'pipeline-build-2', 'build', 'Failed', '2024-12-03 10:00:00', '2024-12-03 10:02:00'),
+       (3, 'pipeline-deploy-3', 'deploy', 'Running', NULL, NULL);
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Runs the migrations V1 to V5, in order, against a throwaway PostgreSQL loaded with the schema of
+# the baseline images (baseline_schema.sql), and prints the migrated runs. Fails on the first
+# error. Requires docker.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONTAINER=t3-cicd-migrations-test
+
+docker rm -f "$CONTAINER" >/dev/null 2>&1 || true
+docker run -d --name "$CONTAINER" -e POSTGRES_USER=root -e POSTGRES_PASSWORD=root \
+  -e POSTGRES_DB=mydb postgres:16 >/dev/null
+trap 'docker rm -f "$CONTAINER" >/dev/null' EXIT
+until docker exec "$CONTAINER" pg_isready -U root -d mydb >/dev/null 2>&1; do sleep 1; done
+
+run() {
+  echo "== $1"
+  docker exec -i "$CONTAINER" psql -v ON_ERROR_STOP=1 -q -U root -d mydb < "$1"
+}
+
+run test/baseline_schema.sql
+for script in V*__*.sql; do
+  run "$script"
+done
+
+docker exec "$CONTAINER" psql -U root -d mydb -c \
+  "SELECT id, pipeline_id, status, message, argo_yaml_path FROM pipeline_runs ORDER BY id"
+docker exec "$CONTAINER" psql -U root -d mydb -c \
+  "SELECT pipeline_run_id, stage_id, status FROM stage_runs ORDER BY id"
@@ -5,6 +5,7 @@ plugins {
     id("com.github.spotbugs") version "6.0.23"
     id("org.springframework.boot") version "3.3.4"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "neu.cs6510.pipelineservice"
@@ -99,6 +100,7 @@ tasks.jacocoTestReport {
 //				 exclude("neu/cs6510/configservice/T3CicdBackendApplication*")
                 exclude("neu/cs6510/configservice/utils/**")
                 exclude("neu/cs6510/pipelineservice/PipelineRunApplication*")
+                exclude("neu/cs6510/pipelineservice/config/**")
                 exclude("neu/cs6510/pipelineservice/service/ArgoCommandExecutionService*")
                 exclude("neu/cs6510/pipelineservice/service/ArgoYamlService*")
             }
@@ -125,6 +127,7 @@ tasks.jacocoTestCoverageVerification {
         files(classDirectories.files.map {
             fileTree(it) {
                 exclude("neu/cs6510/pipelineservice/PipelineRunApplication*")
+                exclude("neu/cs6510/pipelineservice/config/**")
                 exclude("neu/cs6510/configservice/utils/**")
                 exclude("neu/cs6510/pipelineservice/service/ArgoCommandExecutionService*")
                 exclude("neu/cs6510/pipelineservice/service/ArgoYamlService*")
@@ -137,6 +140,14 @@ tasks.check {
     dependsOn(tasks.jacocoTestCoverageVerification)
 }
 
+// JMH Configuration (benchmarks live in src/jmh/java)
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("TEXT")
+}
+
 tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
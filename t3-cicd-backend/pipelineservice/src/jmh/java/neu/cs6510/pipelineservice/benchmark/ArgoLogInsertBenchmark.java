@@ -0,0 +1,150 @@
+package neu.cs6510.pipelineservice.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the two ways of writing {@code argo_logs} rows, in inserts per second:
+ * <ul>
+ *   <li>{@code identityInsertPerRow}: the previous behavior, one auto-committed insert per entry
+ *   with the key generated by an identity column and read back, as Hibernate does for
+ *   {@code GenerationType.IDENTITY}.</li>
+ *   <li>{@code sequenceBatchedInsert}: the write-behind behavior, keys drawn from a sequence in
+ *   blocks of 50 and rows sent as JDBC batches in one transaction.</li>
+ * </ul>
+ * Runs against in-memory H2, so it measures the per-statement and per-commit overhead only;
+ * against PostgreSQL every saved round-trip also saves a network hop, so the gap is wider.
+ *
+ * <p>Run with {@code ./gradlew :pipelineservice:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArgoLogInsertBenchmark {
+
+  private static final int ROWS = 1_000;
+  private static final int SEQUENCE_ALLOCATION = 50;
+
+  private static final String COLUMNS = "pipeline_id BIGINT NOT NULL, "
+      + "argo_workflow_name VARCHAR(255) NOT NULL, stage_name VARCHAR(255) NOT NULL, "
+      + "pod_name VARCHAR(255), log_file_path VARCHAR(255), start_time TIMESTAMP, "
+      + "end_time TIMESTAMP, status VARCHAR(255) NOT NULL";
+
+  @Param({"50"})
+  private int batchSize;
+
+  private Connection connection;
+
+  @Setup(Level.Trial)
+  public void openDatabase() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:argo_logs_" + UUID.randomUUID());
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE argo_logs_identity ("
+          + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + COLUMNS + ")");
+      statement.execute("CREATE TABLE argo_logs_sequence (id BIGINT PRIMARY KEY, " + COLUMNS
+          + ")");
+      statement.execute("CREATE SEQUENCE argo_logs_seq START WITH " + SEQUENCE_ALLOCATION
+          + " INCREMENT BY " + SEQUENCE_ALLOCATION);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void clearTables() throws SQLException {
+    connection.setAutoCommit(true);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("TRUNCATE TABLE argo_logs_identity");
+      statement.execute("TRUNCATE TABLE argo_logs_sequence");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void closeDatabase() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long identityInsertPerRow() throws SQLException {
+    connection.setAutoCommit(true);
+    long lastId = 0;
+    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO argo_logs_identity "
+        + "(pipeline_id, argo_workflow_name, stage_name, pod_name, log_file_path, start_time, "
+        + "end_time, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        Statement.RETURN_GENERATED_KEYS)) {
+      for (int i = 0; i < ROWS; i++) {
+        bindColumns(insert, 1, i);
+        insert.executeUpdate();
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+          keys.next();
+          lastId = keys.getLong(1);
+        }
+      }
+    }
+    return lastId;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long sequenceBatchedInsert() throws SQLException {
+    connection.setAutoCommit(false);
+    long nextId = 0;
+    long hiId = -1;
+    try (PreparedStatement nextValue = connection.prepareStatement(
+            "SELECT NEXT VALUE FOR argo_logs_seq");
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO argo_logs_sequence "
+            + "(id, pipeline_id, argo_workflow_name, stage_name, pod_name, log_file_path, "
+            + "start_time, end_time, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+      for (int i = 0; i < ROWS; i++) {
+        if (nextId > hiId) {
+          // One sequence call per block of ids, like Hibernate's pooled optimizer
+          try (ResultSet value = nextValue.executeQuery()) {
+            value.next();
+            hiId = value.getLong(1);
+            nextId = hiId - SEQUENCE_ALLOCATION + 1;
+          }
+        }
+        insert.setLong(1, nextId++);
+        bindColumns(insert, 2, i);
+        insert.addBatch();
+        if ((i + 1) % batchSize == 0) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+      connection.commit();
+    }
+    return nextId;
+  }
+
+  private static void bindColumns(PreparedStatement insert, int first, int row)
+      throws SQLException {
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    insert.setLong(first, 1L);
+    insert.setString(first + 1, "pipeline-benchmark-1234");
+    insert.setString(first + 2, "stage-" + (row % 5));
+    insert.setString(first + 3, "pipeline-benchmark-1234-job-" + row);
+    insert.setString(first + 4, "/mnt/argoworkflows/logs/pipeline-benchmark-1234/job-" + row
+        + ".log");
+    insert.setTimestamp(first + 5, now);
+    insert.setTimestamp(first + 6, now);
+    insert.setString(first + 7, "COMPLETED");
+  }
+}
@@ -0,0 +1,85 @@
+package neu.cs6510.pipelineservice.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import neu.cs6510.pipelineservice.utils.ArgoLogLineParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parses a whole {@code argo logs} output, pod name and first field of every line, the way
+ * {@code ArgoCommandExecutionService} does:
+ * <ul>
+ *   <li>{@code regex}: the previous {@code split(":")} and {@code replaceAll} per field.</li>
+ *   <li>{@code parser}: {@link ArgoLogLineParser}.</li>
+ * </ul>
+ * The log is generated in the shape {@code argo logs} prints for a pipeline with chatty jobs:
+ * colored pod prefixes, Argo executor lines, and long build output lines. Run with
+ * {@code ./gradlew :pipelineservice:jmh}, adding {@code -prof gc} to the JMH arguments to see
+ * the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArgoLogLineParserBenchmark {
+
+  private static final String[] COLORS = {"\u001B[32m", "\u001B[33m", "\u001B[35m", "\u001B[36m"};
+  private static final String RESET = "\u001B[0m";
+
+  /** Approximate size of the generated log in megabytes. */
+  @Param({"8"})
+  private int megabytes;
+
+  private List<String> lines;
+
+  @Setup
+  public void generateLog() {
+    lines = new ArrayList<>();
+    long size = 0;
+    int job = 0;
+    while (size < megabytes * 1024L * 1024L) {
+      String pod = COLORS[job % COLORS.length] + "pipeline-benchmark-1234-job-" + job
+          + "-template-" + (1_000_000 + job) + RESET;
+      List<String> jobLines = new ArrayList<>();
+      jobLines.add(pod + ": time=\"2024-01-01T10:00:00.000Z\" level=info "
+          + "msg=\"capturing logs\" argo=true");
+      jobLines.add(pod + ": " + COLORS[(job + 1) % COLORS.length] + "job-" + job + RESET);
+      for (int i = 0; i < 500; i++) {
+        jobLines.add(pod + ": [INFO] Compiling module " + i + " of job " + job
+            + ": /workspace/src/main/java/neu/cs6510/example/Module" + i + ".java");
+      }
+      jobLines.add(pod + ": time=\"2024-01-01T10:00:09.000Z\" level=info "
+          + "msg=\"sub-process exited\" argo=true error=\"<nil>\"");
+      for (String line : jobLines) {
+        size += line.length() + 1;
+      }
+      lines.addAll(jobLines);
+      job++;
+    }
+  }
+
+  @Benchmark
+  public void regex(Blackhole blackhole) {
+    for (String line : lines) {
+      String[] fields = line.split(":");
+      blackhole.consume(fields[0].trim().replaceAll("\\u001B\\[[;\\d]*m", ""));
+      blackhole.consume(fields[1].trim().replaceAll("\\u001B\\[[;\\d]*m", ""));
+    }
+  }
+
+  @Benchmark
+  public void parser(Blackhole blackhole) {
+    for (String line : lines) {
+      blackhole.consume(ArgoLogLineParser.podName(line));
+      blackhole.consume(ArgoLogLineParser.firstField(line));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package neu.cs6510.pipelineservice.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import neu.cs6510.pipelineservice.service.ArgoYamlService;
+import neu.cs6510.pipelineservice.utils.ArgoYamlEmitter;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.utils.PipelineHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Writes the WorkflowTemplate of a pipeline to a file:
+ * <ul>
+ *   <li>{@code dump}: the previous way, building the resource as nested maps, serializing it to
+ *       a {@code String} with {@code Yaml.dump} and writing that with a {@code FileWriter}.</li>
+ *   <li>{@code stream}: {@link ArgoYamlEmitter} streaming from the entity to a
+ *       {@code FileChannel}.</li>
+ * </ul>
+ * Each job has a multi-line script, as the scripts are what makes large templates large. Run
+ * with {@code ./gradlew :pipelineservice:jmh}, adding {@code -prof gc} to the JMH arguments to
+ * compare the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArgoYamlEmitterBenchmark {
+
+  /** Number of jobs in the pipeline, spread over five stages. */
+  @Param({"10", "500"})
+  private int jobs;
+
+  /** Number of script lines per job. */
+  @Param({"40"})
+  private int scriptLines;
+
+  private Pipeline pipeline;
+  private Path directory;
+  private Path file;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<Stage> stages = new ArrayList<>();
+    for (int s = 0; s < 5; s++) {
+      List<Job> stageJobs = new ArrayList<>();
+      for (int j = 0; j < jobs / 5; j++) {
+        String name = "job-" + s + "-" + j;
+        List<String> scripts = new ArrayList<>();
+        for (int i = 0; i < scriptLines; i++) {
+          scripts.add("echo \"step " + i + " of " + name + "\" && ./gradlew :module" + i
+              + ":build --no-daemon --console=plain");
+        }
+        stageJobs.add(Job.builder().name(name).imageName("gradle:8.10-jdk21").scripts(scripts)
+            .needs(j == 0 ? List.of() : List.of("job-" + s + "-" + (j - 1))).build());
+      }
+      stages.add(Stage.builder().name("stage-" + s).jobs(stageJobs).build());
+    }
+    pipeline = Pipeline.builder().name("benchmark").stages(stages).build();
+    directory = Files.createTempDirectory("argo-yaml-benchmark");
+    file = directory.resolve("template.yaml");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public long dump() throws IOException {
+    // A new service each time, so that its template cache does not skip the generation
+    ArgoWorkflow workflow = new ArgoYamlService().createArgoWorkflow(pipeline);
+    String yaml = new Yaml(ArgoYamlEmitter.dumperOptions()).dump(workflow.getTemplate());
+    try (FileWriter writer = new FileWriter(file.toFile())) {
+      writer.write(yaml);
+    }
+    return Files.size(file);
+  }
+
+  @Benchmark
+  public long stream() throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream out = Channels.newOutputStream(channel)) {
+      String templateName = "pipeline-benchmark-" + PipelineHasher.hash(pipeline);
+      ArgoYamlEmitter.writeWorkflowTemplate(pipeline, templateName, out);
+    }
+    return Files.size(file);
+  }
+}
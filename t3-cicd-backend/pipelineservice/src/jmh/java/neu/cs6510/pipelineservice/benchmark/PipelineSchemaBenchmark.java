@@ -0,0 +1,360 @@
+package neu.cs6510.pipelineservice.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the two pipeline schemas on the same seeded history of runs, in microseconds per
+ * operation:
+ * <ul>
+ *   <li>{@code legacy*}: the previous schema, where every run validated and saved its own copy of
+ *   the pipeline, stages, jobs and scripts, and the status and times of the execution were kept
+ *   on those rows.</li>
+ *   <li>{@code split*}: the current schema, where a definition is saved once and shared, and each
+ *   execution is a {@code pipeline_runs} row with its {@code stage_runs} and
+ *   {@code job_runs}.</li>
+ * </ul>
+ * The operations are recording a new run ({@code RecordRun}, rolled back so that the dataset does
+ * not grow), loading the job statuses of a run ({@code LoadRun}) and finding the jobs that use an
+ * image ({@code FindJobsByImage}), a query on the definition alone. Both schemas get the same
+ * indexes on their foreign keys, so the gap comes from the number of rows only. Runs against
+ * in-memory H2; against PostgreSQL the legacy tables also cost disk and cache.
+ *
+ * <p>Run with {@code ./gradlew :pipelineservice:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineSchemaBenchmark {
+
+  private static final String REPO_URL = "https://github.com/example/repo.git";
+  private static final int DEFINITIONS = 10;
+  private static final int STAGES = 3;
+  private static final int JOBS_PER_STAGE = 4;
+  private static final int SCRIPT_LINES = 5;
+
+  /** Number of runs in the seeded history, spread evenly over the definitions. */
+  @Param({"1000", "10000"})
+  private int runs;
+
+  private Connection connection;
+  private long nextId;
+  private int nextRun;
+
+  @Setup(Level.Trial)
+  public void seed() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:pipelines_" + UUID.randomUUID());
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE legacy_pipelines (id BIGINT PRIMARY KEY, "
+          + "name VARCHAR(255) NOT NULL, repo_url VARCHAR(255) NOT NULL, "
+          + "commit_sha VARCHAR(255), config_file_path VARCHAR(255), "
+          + "argo_yaml_path VARCHAR(255), status VARCHAR(255), start_time TIMESTAMP, "
+          + "end_time TIMESTAMP)");
+      statement.execute("CREATE TABLE legacy_stages (id BIGINT PRIMARY KEY, "
+          + "pipeline_id BIGINT NOT NULL, name VARCHAR(255) NOT NULL, "
+          + "status VARCHAR(255) NOT NULL, start_time TIMESTAMP, end_time TIMESTAMP)");
+      statement.execute("CREATE TABLE legacy_jobs (id BIGINT PRIMARY KEY, "
+          + "stage_id BIGINT NOT NULL, name VARCHAR(255) NOT NULL, image_name VARCHAR(255), "
+          + "execution_order INT, status VARCHAR(255) NOT NULL, start_time TIMESTAMP, "
+          + "end_time TIMESTAMP)");
+      statement.execute("CREATE TABLE legacy_job_scripts (job_id BIGINT NOT NULL, "
+          + "script VARCHAR(255))");
+      statement.execute("CREATE TABLE legacy_pipeline_runs (id BIGINT PRIMARY KEY, "
+          + "pipeline_id BIGINT, repo_url VARCHAR(255) NOT NULL, branch VARCHAR(255) NOT NULL, "
+          + "status VARCHAR(255) NOT NULL, queued_time TIMESTAMP, start_time TIMESTAMP, "
+          + "end_time TIMESTAMP)");
+      statement.execute("CREATE INDEX legacy_stages_pipeline ON legacy_stages (pipeline_id)");
+      statement.execute("CREATE INDEX legacy_jobs_stage ON legacy_jobs (stage_id)");
+      statement.execute("CREATE INDEX legacy_job_scripts_job ON legacy_job_scripts (job_id)");
+
+      statement.execute("CREATE TABLE pipelines (id BIGINT PRIMARY KEY, "
+          + "name VARCHAR(255) NOT NULL, repo_url VARCHAR(255) NOT NULL, "
+          + "definition_hash VARCHAR(64))");
+      statement.execute("CREATE TABLE stages (id BIGINT PRIMARY KEY, "
+          + "pipeline_id BIGINT NOT NULL, name VARCHAR(255) NOT NULL)");
+      statement.execute("CREATE TABLE jobs (id BIGINT PRIMARY KEY, stage_id BIGINT NOT NULL, "
+          + "name VARCHAR(255) NOT NULL, image_name VARCHAR(255), execution_order INT)");
+      statement.execute("CREATE TABLE job_scripts (job_id BIGINT NOT NULL, "
+          + "script VARCHAR(255))");
+      statement.execute("CREATE TABLE pipeline_runs (id BIGINT PRIMARY KEY, "
+          + "pipeline_id BIGINT, repo_url VARCHAR(255) NOT NULL, branch VARCHAR(255) NOT NULL, "
+          + "commit_sha VARCHAR(255), config_file_path VARCHAR(255), "
+          + "status VARCHAR(255) NOT NULL, queued_time TIMESTAMP, start_time TIMESTAMP, "
+          + "end_time TIMESTAMP)");
+      statement.execute("CREATE TABLE stage_runs (id BIGINT PRIMARY KEY, "
+          + "pipeline_run_id BIGINT NOT NULL, stage_id BIGINT NOT NULL, "
+          + "status VARCHAR(255) NOT NULL, start_time TIMESTAMP, end_time TIMESTAMP)");
+      statement.execute("CREATE TABLE job_runs (id BIGINT PRIMARY KEY, "
+          + "pipeline_run_id BIGINT NOT NULL, stage_run_id BIGINT NOT NULL, "
+          + "job_id BIGINT NOT NULL, status VARCHAR(255) NOT NULL, start_time TIMESTAMP, "
+          + "end_time TIMESTAMP)");
+      statement.execute("CREATE INDEX pipelines_definition ON pipelines "
+          + "(repo_url, definition_hash)");
+      statement.execute("CREATE INDEX stages_pipeline ON stages (pipeline_id)");
+      statement.execute("CREATE INDEX jobs_stage ON jobs (stage_id)");
+      statement.execute("CREATE INDEX job_scripts_job ON job_scripts (job_id)");
+      statement.execute("CREATE INDEX stage_runs_pipeline_run ON stage_runs (pipeline_run_id)");
+      statement.execute("CREATE INDEX job_runs_pipeline_run ON job_runs (pipeline_run_id)");
+      statement.execute("CREATE INDEX job_runs_stage_run ON job_runs (stage_run_id)");
+    }
+
+    connection.setAutoCommit(false);
+    nextId = 1;
+    for (int definition = 0; definition < DEFINITIONS; definition++) {
+      insertDefinition("", definition);
+    }
+    for (int run = 0; run < runs; run++) {
+      recordLegacyRun(run);
+      recordSplitRun(run);
+    }
+    connection.commit();
+    nextRun = runs;
+  }
+
+  @TearDown(Level.Trial)
+  public void closeDatabase() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  public long legacyRecordRun() throws SQLException {
+    long runId = recordLegacyRun(nextRun++);
+    connection.rollback();
+    return runId;
+  }
+
+  @Benchmark
+  public long splitRecordRun() throws SQLException {
+    long runId = recordSplitRun(nextRun++);
+    connection.rollback();
+    return runId;
+  }
+
+  @Benchmark
+  public int legacyLoadRun() throws SQLException {
+    return count("SELECT j.id, j.status FROM legacy_pipeline_runs r "
+        + "JOIN legacy_stages s ON s.pipeline_id = r.pipeline_id "
+        + "JOIN legacy_jobs j ON j.stage_id = s.id WHERE r.id = ?", runId(runs / 2));
+  }
+
+  @Benchmark
+  public int splitLoadRun() throws SQLException {
+    return count("SELECT j.id, jr.status FROM job_runs jr JOIN jobs j ON j.id = jr.job_id "
+        + "WHERE jr.pipeline_run_id = ?", runId(runs / 2));
+  }
+
+  @Benchmark
+  public int legacyFindJobsByImage() throws SQLException {
+    return count("SELECT id, name FROM legacy_jobs WHERE image_name = ?", image(3));
+  }
+
+  @Benchmark
+  public int splitFindJobsByImage() throws SQLException {
+    return count("SELECT id, name FROM jobs WHERE image_name = ?", image(3));
+  }
+
+  /**
+   * Records a run the previous way: a new copy of its definition, with the status of the
+   * execution on the pipeline, and a run that refers to it.
+   */
+  private long recordLegacyRun(int run) throws SQLException {
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    long pipelineId = insertDefinition("legacy_", run % DEFINITIONS);
+    try (PreparedStatement update = connection.prepareStatement("UPDATE legacy_pipelines "
+        + "SET commit_sha = ?, config_file_path = ?, status = 'SUCCESS', start_time = ?, "
+        + "end_time = ? WHERE id = ?")) {
+      update.setString(1, commit(run));
+      update.setString(2, configFile(run % DEFINITIONS));
+      update.setTimestamp(3, now);
+      update.setTimestamp(4, now);
+      update.setLong(5, pipelineId);
+      update.executeUpdate();
+    }
+    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO "
+        + "legacy_pipeline_runs (id, pipeline_id, repo_url, branch, status, queued_time, "
+        + "start_time, end_time) VALUES (?, ?, ?, 'main', 'success', ?, ?, ?)")) {
+      insert.setLong(1, runId(run));
+      insert.setLong(2, pipelineId);
+      insert.setString(3, REPO_URL);
+      insert.setTimestamp(4, now);
+      insert.setTimestamp(5, now);
+      insert.setTimestamp(6, now);
+      insert.executeUpdate();
+    }
+    return runId(run);
+  }
+
+  /**
+   * Records a run the current way: the shared definition is found by its hash, and the run gets
+   * a row per stage and per job.
+   */
+  private long recordSplitRun(int run) throws SQLException {
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    long pipelineId;
+    try (PreparedStatement select = connection.prepareStatement("SELECT id FROM pipelines "
+        + "WHERE repo_url = ? AND definition_hash = ? ORDER BY id LIMIT 1")) {
+      select.setString(1, REPO_URL);
+      select.setString(2, hash(run % DEFINITIONS));
+      try (ResultSet result = select.executeQuery()) {
+        result.next();
+        pipelineId = result.getLong(1);
+      }
+    }
+    long runId = runId(run);
+    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO pipeline_runs "
+        + "(id, pipeline_id, repo_url, branch, commit_sha, config_file_path, status, "
+        + "queued_time, start_time, end_time) "
+        + "VALUES (?, ?, ?, 'main', ?, ?, 'success', ?, ?, ?)")) {
+      insert.setLong(1, runId);
+      insert.setLong(2, pipelineId);
+      insert.setString(3, REPO_URL);
+      insert.setString(4, commit(run));
+      insert.setString(5, configFile(run % DEFINITIONS));
+      insert.setTimestamp(6, now);
+      insert.setTimestamp(7, now);
+      insert.setTimestamp(8, now);
+      insert.executeUpdate();
+    }
+    try (PreparedStatement stages = connection.prepareStatement(
+            "SELECT id FROM stages WHERE pipeline_id = ? ORDER BY id");
+        PreparedStatement jobs = connection.prepareStatement(
+            "SELECT id FROM jobs WHERE stage_id = ? ORDER BY execution_order");
+        PreparedStatement insertStage = connection.prepareStatement("INSERT INTO stage_runs "
+            + "(id, pipeline_run_id, stage_id, status, end_time) VALUES (?, ?, ?, 'success', ?)");
+        PreparedStatement insertJob = connection.prepareStatement("INSERT INTO job_runs "
+            + "(id, pipeline_run_id, stage_run_id, job_id, status, end_time) "
+            + "VALUES (?, ?, ?, ?, 'success', ?)")) {
+      stages.setLong(1, pipelineId);
+      try (ResultSet stageIds = stages.executeQuery()) {
+        while (stageIds.next()) {
+          long stageRunId = nextId++;
+          insertStage.setLong(1, stageRunId);
+          insertStage.setLong(2, runId);
+          insertStage.setLong(3, stageIds.getLong(1));
+          insertStage.setTimestamp(4, now);
+          insertStage.executeUpdate();
+          jobs.setLong(1, stageIds.getLong(1));
+          try (ResultSet jobIds = jobs.executeQuery()) {
+            while (jobIds.next()) {
+              insertJob.setLong(1, nextId++);
+              insertJob.setLong(2, runId);
+              insertJob.setLong(3, stageRunId);
+              insertJob.setLong(4, jobIds.getLong(1));
+              insertJob.setTimestamp(5, now);
+              insertJob.addBatch();
+            }
+          }
+        }
+      }
+      insertJob.executeBatch();
+    }
+    return runId;
+  }
+
+  /**
+   * Inserts a definition with its stages, jobs and scripts into the tables with the given prefix.
+   */
+  private long insertDefinition(String prefix, int definition) throws SQLException {
+    long pipelineId = nextId++;
+    boolean legacy = !prefix.isEmpty();
+    try (PreparedStatement pipeline = connection.prepareStatement(legacy
+            ? "INSERT INTO legacy_pipelines (id, name, repo_url, status) "
+                + "VALUES (?, ?, ?, 'pending')"
+            : "INSERT INTO pipelines (id, name, repo_url, definition_hash) VALUES (?, ?, ?, ?)");
+        PreparedStatement stage = connection.prepareStatement(legacy
+            ? "INSERT INTO legacy_stages (id, pipeline_id, name, status) "
+                + "VALUES (?, ?, ?, 'pending')"
+            : "INSERT INTO stages (id, pipeline_id, name) VALUES (?, ?, ?)");
+        PreparedStatement job = connection.prepareStatement(legacy
+            ? "INSERT INTO legacy_jobs (id, stage_id, name, image_name, execution_order, "
+                + "status) VALUES (?, ?, ?, ?, ?, 'pending')"
+            : "INSERT INTO jobs (id, stage_id, name, image_name, execution_order) "
+                + "VALUES (?, ?, ?, ?, ?)");
+        PreparedStatement script = connection.prepareStatement("INSERT INTO " + prefix
+            + "job_scripts (job_id, script) VALUES (?, ?)")) {
+      pipeline.setLong(1, pipelineId);
+      pipeline.setString(2, "pipeline-" + definition);
+      pipeline.setString(3, REPO_URL);
+      if (!legacy) {
+        pipeline.setString(4, hash(definition));
+      }
+      pipeline.executeUpdate();
+      for (int s = 0; s < STAGES; s++) {
+        long stageId = nextId++;
+        stage.setLong(1, stageId);
+        stage.setLong(2, pipelineId);
+        stage.setString(3, "stage-" + s);
+        stage.addBatch();
+        for (int j = 0; j < JOBS_PER_STAGE; j++) {
+          long jobId = nextId++;
+          job.setLong(1, jobId);
+          job.setLong(2, stageId);
+          job.setString(3, "job-" + s + "-" + j);
+          job.setString(4, image(definition));
+          job.setInt(5, j);
+          job.addBatch();
+          for (int line = 0; line < SCRIPT_LINES; line++) {
+            script.setLong(1, jobId);
+            script.setString(2, "./gradlew :module" + line + ":build --no-daemon");
+            script.addBatch();
+          }
+        }
+      }
+      stage.executeBatch();
+      job.executeBatch();
+      script.executeBatch();
+    }
+    return pipelineId;
+  }
+
+  private int count(String sql, Object parameter) throws SQLException {
+    try (PreparedStatement query = connection.prepareStatement(sql)) {
+      query.setObject(1, parameter);
+      int rows = 0;
+      try (ResultSet result = query.executeQuery()) {
+        while (result.next()) {
+          rows++;
+        }
+      }
+      return rows;
+    }
+  }
+
+  /** Run IDs are kept apart from the other IDs, so that both schemas number runs the same. */
+  private static long runId(int run) {
+    return 1_000_000_000L + run;
+  }
+
+  private static String hash(int definition) {
+    return String.format("%064x", definition);
+  }
+
+  private static String image(int definition) {
+    return "registry.example.com/image-" + definition + ":latest";
+  }
+
+  private static String commit(int run) {
+    return String.format("%040x", run);
+  }
+
+  private static String configFile(int definition) {
+    return ".cicd-pipelines/pipeline-" + definition + ".yml";
+  }
+}
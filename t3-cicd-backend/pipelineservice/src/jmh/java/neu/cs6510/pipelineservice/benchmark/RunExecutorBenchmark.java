@@ -0,0 +1,118 @@
+package neu.cs6510.pipelineservice.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import neu.cs6510.pipelineservice.PipelineRunApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Load test of the {@code pipelineRunExecutor} in both thread modes, in runs per second.
+ * Each operation submits {@value #RUNS} simulated runs at once and waits for all of them. A run
+ * blocks the way a real one does, with no CPU work in between: a Git clone, the config service
+ * call, then reading the {@code argo} subprocess, the last one while holding a lock, as the
+ * JDBC and log-writer code does.
+ *
+ * <p>{@code workers} is how many runs are allowed at once. Platform threads cost a stack each,
+ * so that mode normally runs with a few workers. Virtual threads sustain thousands of workers
+ * as long as no run blocks while pinned, which {@code monitor=synchronized} shows: a virtual
+ * thread blocking inside {@code synchronized} keeps its carrier thread, and throughput drops
+ * back to the number of cores.
+ *
+ * <p>Run with {@code ./gradlew :pipelineservice:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RunExecutorBenchmark {
+
+  private static final int RUNS = 2_000;
+  private static final long CLONE_MILLIS = 20;
+  private static final long VALIDATE_MILLIS = 5;
+  private static final long SUBPROCESS_MILLIS = 20;
+
+  @Param({"platform", "virtual"})
+  private String threads;
+
+  @Param({"8", "256", "2000"})
+  private int workers;
+
+  @Param({"lock", "synchronized"})
+  private String monitor;
+
+  private ExecutorService executor;
+
+  /**
+   * One monitor per run, so any slowdown comes from pinning and not from contention. Kept in a
+   * field so that the JIT cannot prove them thread-local and elide the locking.
+   */
+  private Object[] runMonitors;
+  private ReentrantLock[] runLocks;
+
+  @Setup(Level.Trial)
+  public void startExecutor() {
+    executor = new PipelineRunApplication().pipelineRunExecutor(workers, RUNS,
+        "virtual".equals(threads));
+    runMonitors = new Object[RUNS];
+    runLocks = new ReentrantLock[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      runMonitors[i] = new Object();
+      runLocks[i] = new ReentrantLock();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RUNS)
+  public void concurrentRuns() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(RUNS);
+    boolean useSynchronized = "synchronized".equals(monitor);
+    for (int i = 0; i < RUNS; i++) {
+      Object runMonitor = runMonitors[i];
+      ReentrantLock runLock = runLocks[i];
+      executor.execute(() -> {
+        try {
+          simulateRun(runMonitor, runLock, useSynchronized);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    done.await();
+  }
+
+  private static void simulateRun(Object runMonitor, ReentrantLock runLock,
+      boolean useSynchronized) throws InterruptedException {
+    Thread.sleep(CLONE_MILLIS);
+    Thread.sleep(VALIDATE_MILLIS);
+    if (useSynchronized) {
+      synchronized (runMonitor) {
+        Thread.sleep(SUBPROCESS_MILLIS);
+      }
+    } else {
+      runLock.lock();
+      try {
+        Thread.sleep(SUBPROCESS_MILLIS);
+      } finally {
+        runLock.unlock();
+      }
+    }
+  }
+}
@@ -1,9 +1,17 @@
 package neu.cs6510.pipelineservice;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication(scanBasePackages = {"neu.cs6510.pipelineservice", "neu.cs6510.shared"})
@@ -19,4 +27,30 @@ public class PipelineRunApplication {
   public RestTemplate restTemplate() {
     return new RestTemplate();
   }
-}
\ No newline at end of file
+
+  /**
+   * Bounded executor that drives pipeline runs. Requests beyond the worker count wait in a
+   * bounded queue; once the queue is full new runs are rejected instead of piling up.
+   *
+   * <p>With {@code spring.threads.virtual.enabled} the workers are virtual threads, so the blocking
+   * Git, HTTP and subprocess calls of a run no longer hold a platform thread each, and the worker
+   * count can be raised well beyond the number of cores.
+   *
+   * @param workers        the number of runs executed concurrently
+   * @param queueCapacity  the number of runs allowed to wait for a worker
+   * @param virtualThreads whether the workers are virtual threads
+   * @return the executor for pipeline runs
+   */
+  @Bean(name = "pipelineRunExecutor", destroyMethod = "shutdown")
+  public ExecutorService pipelineRunExecutor(
+      @Value("${pipelineservice.run.workers:8}") int workers,
+      @Value("${pipelineservice.run.queue-capacity:100}") int queueCapacity,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    ThreadFactory threadFactory = virtualThreads
+        ? Thread.ofVirtual().name("pipeline-run-", 1).factory()
+        : new CustomizableThreadFactory("pipeline-run-");
+    return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+}
@@ -0,0 +1,62 @@
+package neu.cs6510.pipelineservice.config;
+
+import static neu.cs6510.shared.constants.Argo.WORKFLOW_GROUP;
+import static neu.cs6510.shared.constants.Argo.WORKFLOW_PLURAL;
+import static neu.cs6510.shared.constants.Argo.WORKFLOW_TEMPLATE_PLURAL;
+import static neu.cs6510.shared.constants.Argo.WORKFLOW_VERSION;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import java.io.IOException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the Kubernetes Java client used to talk to the Argo Workflows API in-process.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pipelineservice.argo.submitter", havingValue = "kubernetes",
+    matchIfMissing = true)
+public class KubernetesConfig {
+
+  /**
+   * Creates the API client from the in-cluster service account, or from the local kubeconfig
+   * when running outside the cluster. The read timeout is disabled because the workflow watch
+   * keeps its connection open until the server closes it.
+   *
+   * @return the Kubernetes API client
+   * @throws IOException if no usable cluster configuration is found
+   */
+  @Bean
+  public ApiClient kubernetesApiClient() throws IOException {
+    ApiClient client = ClientBuilder.standard().build();
+    client.setReadTimeout(0);
+    return client;
+  }
+
+  /**
+   * Creates the generic API for Argo {@code Workflow} custom resources.
+   *
+   * @param kubernetesApiClient the Kubernetes API client
+   * @return the API for Argo workflows
+   */
+  @Bean
+  public DynamicKubernetesApi workflowApi(ApiClient kubernetesApiClient) {
+    return new DynamicKubernetesApi(WORKFLOW_GROUP, WORKFLOW_VERSION, WORKFLOW_PLURAL,
+        kubernetesApiClient);
+  }
+
+  /**
+   * Creates the generic API for Argo {@code WorkflowTemplate} custom resources.
+   *
+   * @param kubernetesApiClient the Kubernetes API client
+   * @return the API for Argo workflow templates
+   */
+  @Bean
+  public DynamicKubernetesApi workflowTemplateApi(ApiClient kubernetesApiClient) {
+    return new DynamicKubernetesApi(WORKFLOW_GROUP, WORKFLOW_VERSION, WORKFLOW_TEMPLATE_PLURAL,
+        kubernetesApiClient);
+  }
+}
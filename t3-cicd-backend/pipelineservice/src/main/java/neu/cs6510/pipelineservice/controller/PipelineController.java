@@ -5,54 +5,49 @@ import static neu.cs6510.shared.constants.RequestParameter.CONFIGPATH;
 import static neu.cs6510.shared.constants.RequestParameter.PIPELINENAME;
 import static neu.cs6510.shared.constants.RequestParameter.REPOURL;
 
-import java.sql.Timestamp;
-import java.util.List;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import lombok.extern.slf4j.Slf4j;
-import neu.cs6510.pipelineservice.service.ArgoCommandExecutionService;
-import neu.cs6510.pipelineservice.service.ArgoYamlService;
-import neu.cs6510.pipelineservice.service.PipelinePreparationService;
-import neu.cs6510.shared.entity.Pipeline;
-import neu.cs6510.shared.repository.ArgoLogRepository;
-import neu.cs6510.shared.repository.PipelineRepository;
+import neu.cs6510.pipelineservice.service.PipelineRunService;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.projection.RunSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
 @RestController
 public class PipelineController {
+  private final PipelineRunService pipelineRunService;
+
+  @Value("${pipelineservice.run.max-wait-seconds:300}")
+  private long maxWaitSeconds = 300;
+
+  @Value("${pipelineservice.run.max-page-size:100}")
+  private int maxPageSize = 100;
+
   @Autowired
-  private final PipelinePreparationService pipelinePreparationService;
-  private final ArgoCommandExecutionService argoCommandExecutionService;
-  private final ArgoYamlService argoYamlService;
-  private final ArgoLogRepository argoLogRepository;
-  private final PipelineRepository pipelineRepository;
-
-  public PipelineController(PipelinePreparationService pipelinePreparationService,
-      ArgoCommandExecutionService argoCommandExecutionService, ArgoYamlService argoYamlService,
-      ArgoLogRepository argoLogRepository, PipelineRepository pipelineRepository) {
-    this.pipelinePreparationService = pipelinePreparationService;
-    this.argoCommandExecutionService = argoCommandExecutionService;
-    this.argoYamlService = argoYamlService;
-    this.argoLogRepository = argoLogRepository;
-    this.pipelineRepository = pipelineRepository;
+  public PipelineController(PipelineRunService pipelineRunService) {
+    this.pipelineRunService = pipelineRunService;
   }
 
   /**
-   * Executes a pipeline job based on the provided configuration parameters.
-   * This method performs the following steps:
-   * <ol>
-   *   <li>Validates the input parameters.</li>
-   *   <li>Prepares the pipeline configuration using the provided Git repository, branch, and configuration path or pipeline name.</li>
-   *   <li>Generates an Argo Workflow YAML file for the pipeline.</li>
-   *   <li>Submits the workflow to Argo for execution.</li>
-   *   <li>Monitors the workflow execution, fetching logs for each stage of the pipeline.</li>
-   *   <li>Saves the logs and workflow status to the database.</li>
-   * </ol>
+   * Accepts a request to run a pipeline and queues it for asynchronous execution.
+   * The run is persisted with a {@code queued} status and its ID is returned immediately;
+   * preparation, Argo workflow generation and submission, and log collection happen on the
+   * pipeline run executor. Use {@code GET /pipeline/run/{runId}} to poll the run, or
+   * {@code GET /pipeline/run/{runId}/wait} to block until it finishes.
    *
    * @param requestParams a map containing the following key-value pairs:
    *                      <ul>
@@ -66,25 +61,16 @@ public class PipelineController {
    * @return a {@link ResponseEntity} containing a JSON response represented as {@code Map<String, String>} with the following keys:
    *         <ul>
    *           <li>{@code status} (String): The status of the request (e.g., "success" or "error").</li>
-   *           <li>{@code message} (String): A detailed message regarding the result of the operation.
-   *               For successful requests, this includes the pipeline ID, status, and completion time.
-   *               For failed requests, this includes the error message.</li>
+   *           <li>{@code runId} (String): The ID of the queued run, for successful requests.</li>
+   *           <li>{@code runStatus} (String): The status of the run, for successful requests.</li>
+   *           <li>{@code message} (String): The error message, for failed requests.</li>
    *         </ul>
    *         HTTP Status Codes:
    *         <ul>
-   *           <li>{@code 200 OK}: If the pipeline was successfully deployed and logs were stored successfully.</li>
-   *           <li>{@code 400 Bad Request}: If there was an error in validation or during pipeline execution.</li>
+   *           <li>{@code 200 OK}: If the run was accepted and queued.</li>
+   *           <li>{@code 400 Bad Request}: If the request parameters are invalid.</li>
+   *           <li>{@code 503 Service Unavailable}: If the run queue is full.</li>
    *         </ul>
-   * @throws IllegalArgumentException if the input parameters are invalid.
-   * @throws Exception for general errors during pipeline preparation, execution, or logging.
-   *
-   * @apiNote This method records the following details for each pipeline stage:
-   * <ul>
-   *   <li>Start time: Captured when the stage begins execution.</li>
-   *   <li>Stage name: Extracted from the Argo Workflow logs.</li>
-   *   <li>End time: Captured when the stage completes.</li>
-   *   <li>Status: Indicates whether the stage execution was successful (e.g., "COMPLETED").</li>
-   * </ul>
    */
   @PostMapping("/pipeline/run")
   public ResponseEntity<Map<String, String>> runPipeline(@RequestBody Map<String, Object> requestParams) {
@@ -92,50 +78,163 @@ public class PipelineController {
     try {
       validateRequest(requestParams);
       log.debug("Request parameters validated successfully.");
-      String repoUrl = (String) requestParams.get(REPOURL);
-      String branch = (String) requestParams.get(BRANCH);
-      String configPath = (String) requestParams.get(CONFIGPATH);
-      String pipelineName = (String) requestParams.get(PIPELINENAME);
-      log.info("Preparing pipeline with repo URL: {}, branch: {}, configPath: {}, pipelineName: {}",
-          repoUrl, branch, configPath, pipelineName);
-
-      Pipeline pipeline = pipelinePreparationService.preparePipeline(repoUrl, branch, configPath,
-          pipelineName);
-      // Generate argo yaml file
-      Map<String, String> result = argoYamlService.generateWorkflowYaml(pipeline);
-      String argoYamlPath = result.get("filePath");
-      String workflowName = result.get("workflowName");
-      pipelinePreparationService.updateStartTimeAndStatus(pipeline.getId(),
-          new Timestamp(System.currentTimeMillis()), "STARTED");
-      // Submit argo workflow
-      argoCommandExecutionService.submitWorkflow(argoYamlPath);
-      log.info("Pipeline prepared successfully. Pipeline ID: {}", pipeline.getId());
-      // Fetch and save argo workflow logs into DB
-      argoCommandExecutionService.fetchAndSavePipelineLogs(pipeline.getId(), workflowName);
-      List savedArgoLogs = argoLogRepository.findByArgoWorkflowName(workflowName);
-      Timestamp completionTime = new Timestamp(System.currentTimeMillis());
-      pipelinePreparationService.updateEndTimeAndStatus(pipeline.getId(),
-          completionTime, "SUCCESS");
-      log.info("Saved logs successful: {}", savedArgoLogs);
+    } catch (IllegalArgumentException e) {
+      log.warn("Validation error: {}", e.getMessage());
+      Map<String, String> response = Map.of(
+        "status", "error",
+        "message", "Validation error: " + e.getMessage()
+      );
+      return ResponseEntity.badRequest().body(response);
+    }
+
+    String repoUrl = (String) requestParams.get(REPOURL);
+    String branch = (String) requestParams.get(BRANCH);
+    String configPath = (String) requestParams.get(CONFIGPATH);
+    String pipelineName = (String) requestParams.get(PIPELINENAME);
+    try {
+      PipelineRun run = pipelineRunService.enqueueRun(repoUrl, branch, configPath, pipelineName);
       Map<String, String> response = Map.of(
         "status", "success",
-        "pipelineId", String.valueOf(pipeline.getId()),
-        "completionTime", completionTime.toString()
+        "runId", String.valueOf(run.getId()),
+        "runStatus", run.getStatus()
       );
       return ResponseEntity.ok(response);
-    } catch (IllegalArgumentException e) {
-      log.warn("Validation error: {}", e.getMessage());
+    } catch (RejectedExecutionException e) {
+      log.warn("Run queue is full, rejecting request: {}", requestParams);
       Map<String, String> response = Map.of(
         "status", "error",
-        "message", "Validation error: " + e.getMessage()
+        "message", "Run queue is full, please retry later"
       );
-      return ResponseEntity.badRequest().body(response);    } catch (Exception e) {
-      log.error("Error while running pipeline: {}", e.getMessage(), e);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    } catch (Exception e) {
+      log.error("Error while queuing pipeline run: {}", e.getMessage(), e);
       Map<String, String> response = Map.of(
         "status", "error",
         "message", "Error: " + e.getMessage()
       );
-      return ResponseEntity.badRequest().body(response);    }
+      return ResponseEntity.badRequest().body(response);
+    }
+  }
+
+  /**
+   * Returns the current status of a pipeline run without waiting.
+   *
+   * @param runId the ID returned by {@code POST /pipeline/run}
+   * @return {@code 200 OK} with the run status, or {@code 404 Not Found} if the run does not exist
+   */
+  @GetMapping("/pipeline/run/{runId}")
+  public ResponseEntity<Map<String, String>> getRunStatus(@PathVariable Long runId) {
+    return pipelineRunService.getRun(runId)
+        .map(run -> ResponseEntity.ok(toResponse(run)))
+        .orElseGet(() -> runNotFound(runId));
+  }
+
+  /**
+   * Blocks until a pipeline run finishes or the timeout elapses, then returns its status.
+   * The timeout is capped by {@code pipelineservice.run.max-wait-seconds}.
+   *
+   * @param runId          the ID returned by {@code POST /pipeline/run}
+   * @param timeoutSeconds the maximum number of seconds to wait
+   * @return {@code 200 OK} with the run status (final if the run finished in time),
+   *         or {@code 404 Not Found} if the run does not exist
+   */
+  @GetMapping("/pipeline/run/{runId}/wait")
+  public ResponseEntity<Map<String, String>> waitForRun(@PathVariable Long runId,
+      @RequestParam(name = "timeout", defaultValue = "30") long timeoutSeconds) {
+    Duration timeout = Duration.ofSeconds(Math.max(0, Math.min(timeoutSeconds, maxWaitSeconds)));
+    try {
+      return pipelineRunService.awaitRun(runId, timeout)
+          .map(run -> ResponseEntity.ok(toResponse(run)))
+          .orElseGet(() -> runNotFound(runId));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+        "status", "error",
+        "message", "Interrupted while waiting for run " + runId
+      ));
+    }
+  }
+
+  /**
+   * Lists the runs of a repository, newest first, a page at a time. The page size is capped by
+   * {@code pipelineservice.run.max-page-size}.
+   *
+   * @param repoUrl  the URL of the repository
+   * @param beforeId the {@code nextBefore} of the previous page, omitted for the first page
+   * @param size     the maximum number of runs in the page
+   * @return {@code 200 OK} with the {@code runs} of the page and, if there are older runs, the
+   *         {@code nextBefore} to pass to get the next page
+   */
+  @GetMapping("/pipeline/runs")
+  public ResponseEntity<Map<String, Object>> listRuns(@RequestParam(REPOURL) String repoUrl,
+      @RequestParam(name = "before", required = false) Long beforeId,
+      @RequestParam(name = "size", defaultValue = "20") int size) {
+    Slice<RunSummary> page = pipelineRunService.listRuns(repoUrl, beforeId,
+        Math.max(1, Math.min(size, maxPageSize)));
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("status", "success");
+    response.put("runs", page.getContent().stream().map(PipelineController::toListItem).toList());
+    if (page.hasNext()) {
+      response.put("nextBefore",
+          String.valueOf(page.getContent().get(page.getNumberOfElements() - 1).id()));
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Converts a run to an item of the list of runs, omitting unset fields.
+   *
+   * @param run the run to convert
+   * @return the item
+   */
+  static Map<String, String> toListItem(RunSummary run) {
+    Map<String, String> item = new LinkedHashMap<>();
+    item.put("runId", String.valueOf(run.id()));
+    item.put("runStatus", run.status());
+    putIfNotNull(item, "branch", run.branch());
+    putIfNotNull(item, "commit", run.commitSha());
+    putIfNotNull(item, "configFilePath", run.configFilePath());
+    putIfNotNull(item, "queuedTime", run.queuedTime());
+    putIfNotNull(item, "startTime", run.startTime());
+    putIfNotNull(item, "completionTime", run.endTime());
+    return item;
+  }
+
+  /**
+   * Converts a run to the JSON response of the status endpoints, omitting unset fields.
+   *
+   * @param run the run to convert
+   * @return the response body
+   */
+  static Map<String, String> toResponse(PipelineRun run) {
+    Map<String, String> response = new LinkedHashMap<>();
+    response.put("status", "success");
+    response.put("runId", String.valueOf(run.getId()));
+    response.put("runStatus", run.getStatus());
+    if (run.getPipeline() != null) {
+      response.put("pipelineId", String.valueOf(run.getPipeline().getId()));
+    }
+    putIfNotNull(response, "commit", run.getCommitSha());
+    putIfNotNull(response, "configFilePath", run.getConfigFilePath());
+    putIfNotNull(response, "workflowName", run.getArgoWorkflowName());
+    putIfNotNull(response, "message", run.getMessage());
+    putIfNotNull(response, "queuedTime", run.getQueuedTime());
+    putIfNotNull(response, "startTime", run.getStartTime());
+    putIfNotNull(response, "completionTime", run.getEndTime());
+    return response;
+  }
+
+  private static void putIfNotNull(Map<String, String> response, String key, Object value) {
+    if (value != null) {
+      response.put(key, value.toString());
+    }
+  }
+
+  private static ResponseEntity<Map<String, String>> runNotFound(Long runId) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+      "status", "error",
+      "message", "Run " + runId + " not found"
+    ));
   }
 
   /**
@@ -0,0 +1,47 @@
+package neu.cs6510.pipelineservice.model;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An Argo Workflow resource ready to be submitted, together with its generated name and, when
+ * the workflow runs a registered WorkflowTemplate, that template.
+ */
+@Getter
+@AllArgsConstructor
+public class ArgoWorkflow {
+
+  /**
+   * The name of the workflow, as set in {@code metadata.name}.
+   */
+  private final String name;
+
+  /**
+   * The workflow resource, as a nested map of {@code apiVersion}, {@code kind},
+   * {@code metadata} and {@code spec}.
+   */
+  private final Map<String, Object> resource;
+
+  /**
+   * The name of the WorkflowTemplate referenced by {@code spec.workflowTemplateRef}, or null if
+   * the workflow is self-contained.
+   */
+  private final String templateName;
+
+  /**
+   * The WorkflowTemplate resource that must exist before the workflow is submitted, or null if
+   * the workflow is self-contained. Shared between all the runs of the same pipeline definition.
+   */
+  private final Map<String, Object> template;
+
+  /**
+   * Creates a self-contained workflow.
+   *
+   * @param name     the name of the workflow
+   * @param resource the workflow resource
+   */
+  public ArgoWorkflow(String name, Map<String, Object> resource) {
+    this(name, resource, null, null);
+  }
+}
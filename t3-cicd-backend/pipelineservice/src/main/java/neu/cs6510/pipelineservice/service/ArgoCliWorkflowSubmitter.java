@@ -0,0 +1,82 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Argo.PHASE_FAILED;
+import static neu.cs6510.shared.constants.Argo.PHASE_SUCCEEDED;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fallback {@link WorkflowSubmitter} that writes the workflow to the Persistent Volume and runs
+ * {@code argo submit --watch} on it. Unlike the Kubernetes submitter, it blocks the calling
+ * thread until the workflow completes and returns an already completed future. The
+ * {@code WorkflowTemplate} of the workflow is created with {@code argo template create} before
+ * its first workflow is submitted.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pipelineservice.argo.submitter", havingValue = "cli")
+public class ArgoCliWorkflowSubmitter implements WorkflowSubmitter {
+
+  private final ArgoYamlService argoYamlService;
+  private final ArgoCommandExecutionService argoCommandExecutionService;
+
+  /**
+   * Names of the WorkflowTemplates known to exist in the namespace.
+   */
+  private final Set<String> registeredTemplates = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public ArgoCliWorkflowSubmitter(ArgoYamlService argoYamlService,
+      ArgoCommandExecutionService argoCommandExecutionService) {
+    this.argoYamlService = argoYamlService;
+    this.argoCommandExecutionService = argoCommandExecutionService;
+  }
+
+  @Override
+  public CompletableFuture<String> submit(ArgoWorkflow workflow)
+      throws IOException, InterruptedException {
+    ensureTemplate(workflow);
+    String filePath = argoYamlService.writeWorkflowYaml(workflow);
+    log.info("Submitting workflow {} from {} with the argo CLI", workflow.getName(), filePath);
+    boolean succeeded = argoCommandExecutionService.submitWorkflow(filePath);
+    return CompletableFuture.completedFuture(succeeded ? PHASE_SUCCEEDED : PHASE_FAILED);
+  }
+
+  @Override
+  public String templatePath(ArgoWorkflow workflow) {
+    return workflow.getTemplateName() == null ? null : argoYamlService.templatePath(workflow);
+  }
+
+  /**
+   * Creates the WorkflowTemplate of the workflow unless it is already known to exist.
+   *
+   * @param workflow the workflow about to be submitted
+   * @throws IOException if the template cannot be written or created
+   * @throws InterruptedException if the argo CLI is interrupted
+   */
+  private void ensureTemplate(ArgoWorkflow workflow) throws IOException, InterruptedException {
+    String templateName = workflow.getTemplateName();
+    if (templateName == null || registeredTemplates.contains(templateName)) {
+      return;
+    }
+    String templatePath = argoYamlService.writeWorkflowTemplateYaml(workflow);
+    if (!argoCommandExecutionService.createWorkflowTemplate(templateName, templatePath)) {
+      throw new IOException("Failed to create workflow template " + templateName);
+    }
+    registeredTemplates.add(templateName);
+  }
+
+  @Override
+  public void collectLogs(Long pipelineId, String workflowName)
+      throws IOException, InterruptedException {
+    argoCommandExecutionService.fetchAndSavePipelineLogs(pipelineId, workflowName);
+  }
+}
@@ -6,9 +6,9 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.pipelineservice.utils.ArgoLogLineParser;
 import neu.cs6510.shared.entity.ArgoLog;
 import neu.cs6510.shared.entity.Pipeline;
-import neu.cs6510.shared.repository.ArgoLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.sql.Timestamp;
@@ -21,26 +21,44 @@ import java.sql.Timestamp;
 @Service
 public class ArgoCommandExecutionService {
   @Autowired
-  private ArgoLogRepository argoLogRepository;
+  private ArgoLogWriter argoLogWriter;
 
   /**
-   * Method that will run the command to submit an argo workflow
+   * Method that will run the command to submit an argo workflow and watch it until it finishes
    * @param filePath the file path of the argo-workflow.yaml
+   * @return true if the workflow finished successfully
    * @throws IOException if there is a problem with the input or output
    * @throws InterruptedException if the process is interrupted
    */
-  public void submitWorkflow(String filePath) throws IOException, InterruptedException {
+  public boolean submitWorkflow(String filePath) throws IOException, InterruptedException {
     String command = "argo submit -n argo --watch " + filePath;
-    launchCommand(command);
+    return launchCommand(command) == 0;
+  }
+
+  /**
+   * Method that will create an argo workflow template unless one with the same name exists
+   * @param templateName the name of the workflow template
+   * @param filePath the file path of the workflow template yaml
+   * @return true if the workflow template exists afterwards
+   * @throws IOException if there is a problem with the input or output
+   * @throws InterruptedException if the process is interrupted
+   */
+  public boolean createWorkflowTemplate(String templateName, String filePath)
+      throws IOException, InterruptedException {
+    if (launchCommand("argo template get -n argo " + templateName) == 0) {
+      return true;
+    }
+    return launchCommand("argo template create -n argo " + filePath) == 0;
   }
 
   /**
    * Helper method to run a specific command
    * @param command to be run on bash
+   * @return the exit code of the command
    * @throws IOException if there is a problem with the input or output
    * @throws InterruptedException if the process is interrupted
    */
-  private void launchCommand(String command) throws IOException, InterruptedException {
+  private int launchCommand(String command) throws IOException, InterruptedException {
     ProcessBuilder processBuilder = new ProcessBuilder("bash", "-c", command);
     processBuilder.redirectErrorStream(true);
     Process process = processBuilder.start();
@@ -57,6 +75,7 @@ public class ArgoCommandExecutionService {
     } else {
       log.info("Command executed successfully.");
     }
+    return exitCode;
   }
 
   /**
@@ -84,7 +103,7 @@ public class ArgoCommandExecutionService {
 
         if (line.contains("capturing logs")) {
           // Detect stage start
-          String podName = extractPodName(line);
+          String podName = ArgoLogLineParser.podName(line);
           ArgoLog logEntry = ArgoLog.builder()
               .pipelineId(pipeline)
               .argoWorkflowName(argoWorkflowName)
@@ -94,42 +113,29 @@ public class ArgoCommandExecutionService {
           stageLogs.put(podName, logEntry);
         } else if (!line.contains("msg=")) {
           // Detect stage name
-          String podName = extractPodName(line);
+          String podName = ArgoLogLineParser.podName(line);
           ArgoLog logEntry = stageLogs.get(podName);
           if (logEntry != null) {
-            String rawStageName = line.split(":")[1].trim();
-            // Clean up escape characters
-            String cleanedStageName = rawStageName.replaceAll("\\u001B\\[[;\\d]*m", "");
-            logEntry.setStageName(cleanedStageName);
+            logEntry.setStageName(ArgoLogLineParser.firstField(line));
           }
         } else if (line.contains("sub-process exited")) {
           // Detect stage completion
-          String podName = extractPodName(line);
+          String podName = ArgoLogLineParser.podName(line);
           ArgoLog logEntry = stageLogs.get(podName);
           if (logEntry != null) {
             logEntry.setEndTime(new Timestamp(System.currentTimeMillis()));
             logEntry.setStatus("COMPLETED");
-            argoLogRepository.save(logEntry);
+            argoLogWriter.add(logEntry);
             stageLogs.remove(podName);
           }
         }
       }
     }
 
+    argoLogWriter.flush();
     int exitCode = process.waitFor();
     if (exitCode != 0) {
       log.error("Failed to fetch logs for pipeline {}: exit code {}", argoWorkflowName, exitCode);
     }
   }
-
-  /**
-   * Extracts the pod name from a log line.
-   *
-   * @param line the log line containing the pod name and other details.
-   * @return the cleaned pod name without escape characters.
-   */
-  private String extractPodName(String line) {
-    String rawPodName = line.split(":")[0].trim();
-    return rawPodName.replaceAll("\\u001B\\[[;\\d]*m", "");
-  }
 }
@@ -0,0 +1,172 @@
+package neu.cs6510.pipelineservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.entity.ArgoLog;
+import neu.cs6510.shared.repository.ArgoLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Write-behind buffer for {@link ArgoLog} entities.
+ * Log readers hand their entries to {@link #add(ArgoLog)} and carry on reading; the entries are
+ * written with {@code saveAll} in a single transaction, which Hibernate sends as JDBC batches
+ * ({@code hibernate.jdbc.batch_size}). A flush happens when the buffer reaches the batch size,
+ * every flush interval, and at the end of each run through {@link #flush()}.
+ *
+ * <p>A batch that fails to be written goes back to the head of the buffer, to be written by the
+ * next flush. The buffer holds at most {@code pipelineservice.argo-log.capacity} entries, so that
+ * an unavailable database cannot exhaust the memory; entries beyond it are dropped and counted in
+ * the {@code argo.log.dropped} metric.
+ */
+@Slf4j
+@Service
+public class ArgoLogWriter {
+
+  private final ArgoLogRepository argoLogRepository;
+  private final int batchSize;
+  private final int capacity;
+  private final Counter droppedCounter;
+
+  private final ConcurrentLinkedDeque<ArgoLog> buffer = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger buffered = new AtomicInteger();
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+      new CustomizableThreadFactory("argo-log-writer-"));
+
+  @Autowired
+  public ArgoLogWriter(MeterRegistry meterRegistry, ArgoLogRepository argoLogRepository,
+      @Value("${pipelineservice.argo-log.batch-size:50}") int batchSize,
+      @Value("${pipelineservice.argo-log.flush-interval-ms:1000}") long flushIntervalMillis,
+      @Value("${pipelineservice.argo-log.capacity:10000}") int capacity) {
+    this.argoLogRepository = argoLogRepository;
+    this.batchSize = batchSize;
+    this.capacity = capacity;
+    Gauge.builder("argo.log.buffered", buffered, AtomicInteger::get)
+        .description("Argo log entries waiting to be written")
+        .register(meterRegistry);
+    droppedCounter = Counter.builder("argo.log.dropped")
+        .description("Argo log entries dropped because the buffer was full")
+        .register(meterRegistry);
+    flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Buffers an entry for writing, or drops it if the buffer is full. Never blocks on the database.
+   *
+   * @param argoLog the entry to write
+   */
+  public void add(ArgoLog argoLog) {
+    int size = buffered.incrementAndGet();
+    if (size > capacity) {
+      buffered.decrementAndGet();
+      droppedCounter.increment();
+      log.warn("Argo log buffer full, dropped entry of pod {}", argoLog.getPodName());
+      return;
+    }
+    buffer.add(argoLog);
+    if (size >= batchSize) {
+      flusher.execute(this::flushQuietly);
+    }
+  }
+
+  /**
+   * Writes all the buffered entries and returns once they are persisted.
+   * Flushes are serialized, so entries added before the call are written when it returns.
+   *
+   * @throws RuntimeException if the entries cannot be written; they are kept for the next flush
+   */
+  public void flush() {
+    // A lock rather than synchronized: callers may be virtual threads, which synchronized would
+    // pin to their carrier for the whole saveAll
+    flushLock.lock();
+    try {
+      // The same entity may have been added more than once; write it once
+      Set<ArgoLog> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<ArgoLog> batch = new ArrayList<>();
+      ArgoLog argoLog;
+      while ((argoLog = buffer.poll()) != null) {
+        buffered.decrementAndGet();
+        if (seen.add(argoLog)) {
+          batch.add(argoLog);
+        }
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      try {
+        argoLogRepository.saveAll(batch);
+      } catch (RuntimeException e) {
+        requeue(batch);
+        throw e;
+      }
+      log.debug("Flushed {} argo log entries", batch.size());
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Puts a batch that failed to be written back at the head of the buffer, in its order. If
+   * entries were added meanwhile and the buffer overflows, the newest ones are dropped.
+   *
+   * @param batch the entries that were not written
+   */
+  private void requeue(List<ArgoLog> batch) {
+    for (int i = batch.size() - 1; i >= 0; i--) {
+      ArgoLog argoLog = batch.get(i);
+      // The rolled back transaction may have assigned an id; the entry is still to be inserted
+      argoLog.setId(null);
+      buffer.addFirst(argoLog);
+    }
+    int dropped = 0;
+    for (int size = buffered.addAndGet(batch.size()); size > capacity; size--) {
+      if (buffer.pollLast() == null) {
+        break;
+      }
+      buffered.decrementAndGet();
+      dropped++;
+    }
+    if (dropped > 0) {
+      droppedCounter.increment(dropped);
+      log.warn("Argo log buffer full, dropped {} entries", dropped);
+    }
+  }
+
+  /**
+   * Flushes the buffer, logging instead of propagating a failure so the flusher keeps running.
+   */
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.error("Failed to flush argo log entries: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Stops the flusher and writes what is left in the buffer.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdown();
+    flushQuietly();
+  }
+}
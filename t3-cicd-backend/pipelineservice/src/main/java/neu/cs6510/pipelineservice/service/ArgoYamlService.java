@@ -1,11 +1,21 @@
 package neu.cs6510.pipelineservice.service;
 
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_LABEL;
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_VALUE;
 import static neu.cs6510.shared.constants.Kubernetes.PV_ARGO_PATH;
+import static neu.cs6510.shared.constants.Kubernetes.PV_ARGO_TEMPLATE_PATH;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -14,97 +24,256 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
-import neu.cs6510.shared.repository.PipelineRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import neu.cs6510.pipelineservice.utils.ArgoYamlEmitter;
+import neu.cs6510.shared.utils.PipelineHasher;
 import org.springframework.stereotype.Service;
-import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.Yaml;
 
 import neu.cs6510.shared.entity.Job;
 import neu.cs6510.shared.entity.Pipeline;
 
+/**
+ * Generates the Argo resources that execute a pipeline. The stages and jobs of a pipeline are
+ * rendered once per distinct definition into a {@code WorkflowTemplate} named after the
+ * {@link PipelineHasher content hash} of the definition; each run then only needs a thin
+ * {@code Workflow} that refers to it with {@code workflowTemplateRef}. Generated templates are
+ * kept in a small LRU cache, so runs of an unchanged pipeline skip the generation entirely.
+ *
+ * <p>YAML files are streamed to the Persistent Volume with {@link ArgoYamlEmitter}. A change to
+ * the generated resources must be mirrored there.
+ */
 @Slf4j
 @Service
 public class ArgoYamlService {
 
-  @Autowired
-  private PipelineRepository pipelineRepository;
+  private static final int TEMPLATE_CACHE_SIZE = 256;
 
   /**
-   * Generates an Argo Workflow YAML file based on the provided pipeline configuration.
-   * The YAML file includes metadata and specifications required to define the workflow.
+   * Generated WorkflowTemplate resources by template name, least recently used first. The lock is
+   * only held to look up and add entries: templates are generated outside of it, so that a large
+   * pipeline does not hold up the runs of every other one.
+   */
+  private final Map<String, Map<String, Object>> templateCache = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+          return size() > TEMPLATE_CACHE_SIZE;
+        }
+      });
+
+  /**
+   * Writes one YAML document to a stream.
+   */
+  @FunctionalInterface
+  private interface YamlContent {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Generates the Argo resources for the provided pipeline configuration and writes them as YAML
+   * files to the Persistent Volume: the WorkflowTemplate, once per pipeline definition, and the
+   * Workflow of this run. The template is streamed straight from the entity, without building
+   * the resource in memory.
    *
    * @param pipeline the {@link Pipeline} object containing the pipeline configuration,
    *                 including jobs and their dependencies.
    * @return a {@link Map} containing:
    *         <ul>
-   *           <li>{@code yamlContent} - the generated YAML content as a string.</li>
-   *           <li>{@code filePath} - the absolute path where the YAML file is saved.</li>
+   *           <li>{@code filePath} - the absolute path where the workflow YAML file is saved.</li>
+   *           <li>{@code templatePath} - the absolute path of the WorkflowTemplate YAML file.</li>
    *           <li>{@code workflowName} - the name of the generated workflow.</li>
    *         </ul>
    * @throws IOException if an error occurs while saving the YAML to a file.
    */
   public Map<String, String> generateWorkflowYaml(Pipeline pipeline) throws IOException {
-    Map<String, Object> workflow = createWorkflow(pipeline);
-    DumperOptions options = new DumperOptions();
-    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-    options.setPrettyFlow(true);
-    Yaml workflowYaml = new Yaml(options);
-    String yaml = workflowYaml.dump(workflow);
-    String absoluteYamlPath = saveWorkflowToFile(yaml);
-    String workflowName = (String) ((Map<String, Object>) workflow.get("metadata")).get("name");
+    String templateName = templateName(pipeline);
+    String templatePath = writeTemplateFile(templateName,
+        out -> ArgoYamlEmitter.writeWorkflowTemplate(pipeline, templateName, out));
+    String workflowName = workflowName(pipeline);
+    Map<String, Object> workflow = createWorkflow(workflowName, templateName);
+    String absoluteYamlPath = writeYamlFile(PV_ARGO_PATH, workflowName,
+        out -> ArgoYamlEmitter.writeResource(workflow, out));
 
     Map<String, String> result = new HashMap<>();
-    result.put("yamlContent", yaml);
     result.put("filePath", absoluteYamlPath);
+    result.put("templatePath", templatePath);
     result.put("workflowName", workflowName);
-    pipeline.setArgoYamlPath(absoluteYamlPath);
-    pipelineRepository.save(pipeline);
     return result;
   }
 
   /**
-   * Saves the provided YAML content to a uniquely named file in the Persistent Volume.
+   * Builds the Argo resources for the provided pipeline configuration without writing them
+   * anywhere, so that they can be submitted straight to the Kubernetes API: a WorkflowTemplate
+   * holding the stages and jobs, generated only if this definition has not been seen recently,
+   * and a new Workflow that runs it.
    *
-   * @param yamlContent the YAML content to be written to the file.
+   * @param pipeline the {@link Pipeline} object containing the pipeline configuration
+   * @return the workflow resource and its name, with the template it refers to
+   */
+  public ArgoWorkflow createArgoWorkflow(Pipeline pipeline) {
+    String templateName = templateName(pipeline);
+    Map<String, Object> template = templateCache.get(templateName);
+    if (template == null) {
+      // Runs of the same new definition may both generate it; the first one added is kept
+      Map<String, Object> generated = createWorkflowTemplate(pipeline, templateName);
+      template = templateCache.putIfAbsent(templateName, generated);
+      if (template == null) {
+        template = generated;
+      }
+    }
+    String workflowName = workflowName(pipeline);
+    return new ArgoWorkflow(workflowName, createWorkflow(workflowName, templateName),
+        templateName, template);
+  }
+
+  /**
+   * Writes the workflow resource as YAML to a file named after the workflow in the Persistent
+   * Volume.
+   *
+   * @param workflow the workflow resource to write
+   * @return the absolute file path of the saved YAML file
+   * @throws IOException if an error occurs while writing the file
+   */
+  public String writeWorkflowYaml(ArgoWorkflow workflow) throws IOException {
+    return writeYamlFile(PV_ARGO_PATH, workflow.getName(),
+        out -> ArgoYamlEmitter.writeResource(workflow.getResource(), out));
+  }
+
+  /**
+   * Writes the WorkflowTemplate the workflow refers to as YAML to the Persistent Volume. The file
+   * is named after the template, and so after its content hash: it is written only once, and
+   * later runs of the same definition find it in place.
+   *
+   * @param workflow the workflow whose template to write
+   * @return the absolute file path of the template YAML file
+   * @throws IOException if an error occurs while writing the file
+   */
+  public String writeWorkflowTemplateYaml(ArgoWorkflow workflow) throws IOException {
+    return writeTemplateFile(workflow.getTemplateName(),
+        out -> ArgoYamlEmitter.writeResource(workflow.getTemplate(), out));
+  }
+
+  /**
+   * Returns where {@link #writeWorkflowTemplateYaml} writes the WorkflowTemplate the workflow
+   * refers to in the Persistent Volume.
+   *
+   * @param workflow the workflow whose template to locate
+   * @return the absolute file path of the template YAML file
+   */
+  public String templatePath(ArgoWorkflow workflow) {
+    return templateFile(workflow.getTemplateName()).getAbsolutePath();
+  }
+
+  private static File templateFile(String templateName) {
+    return new File(PV_ARGO_TEMPLATE_PATH + templateName + ".yaml");
+  }
+
+  private static String templateName(Pipeline pipeline) {
+    return "pipeline-" + pipeline.getName() + "-" + PipelineHasher.hash(pipeline);
+  }
+
+  private static String workflowName(Pipeline pipeline) {
+    return "pipeline-" + pipeline.getName() + "-" + UUID.randomUUID();
+  }
+
+  /**
+   * Writes a WorkflowTemplate file unless it already exists.
+   *
+   * @param templateName the name of the template, used as file name
+   * @param content      writes the template
+   * @return the absolute file path of the template YAML file
+   * @throws IOException if an error occurs while writing the file
+   */
+  private String writeTemplateFile(String templateName, YamlContent content) throws IOException {
+    File file = templateFile(templateName);
+    if (file.exists()) {
+      return file.getAbsolutePath();
+    }
+    return writeYamlFile(PV_ARGO_TEMPLATE_PATH, templateName, content);
+  }
+
+  /**
+   * Streams YAML content in UTF-8 to {@code <directory><name>.yaml} in the Persistent Volume.
+   * The content goes to a temporary file first, which is then moved in place, so that the
+   * {@code argo} CLI never reads a half-written file.
+   *
+   * @param directory the directory to write to, ending with a slash
+   * @param name      the name of the resource, used as file name
+   * @param content   writes the YAML content
    * @return the absolute file path of the saved YAML file in the Persistent Volume.
    * @throws IOException if an error occurs while creating the directory or writing to the file.
    */
-  private String saveWorkflowToFile(String yamlContent) throws IOException {
-    File directory = new File(PV_ARGO_PATH);
-    if (!directory.exists()) {
-        boolean created = directory.mkdirs();
-        if (!created) {
-            throw new IOException("Failed to create directory: " + PV_ARGO_PATH);
-        }
+  private String writeYamlFile(String directory, String name, YamlContent content)
+      throws IOException {
+    File parent = new File(directory);
+    if (!parent.exists()) {
+      boolean created = parent.mkdirs();
+      if (!created && !parent.isDirectory()) {
+        throw new IOException("Failed to create directory: " + directory);
+      }
     }
 
-    String filePath = PV_ARGO_PATH + UUID.randomUUID() + "argo-workflow.yaml";
-    File file = new File(filePath);
-    try (FileWriter writer = new FileWriter(file)) {
-        writer.write(yamlContent);
+    Path file = parent.toPath().resolve(name + ".yaml");
+    Path temporary = Files.createTempFile(parent.toPath(), name, ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+          OutputStream out = Channels.newOutputStream(channel)) {
+        content.writeTo(out);
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
     }
 
-    String absolutePath = file.getAbsolutePath();
-    System.out.println("Workflow YAML saved to: " + absolutePath);
+    String absolutePath = file.toAbsolutePath().toString();
+    log.info("Argo YAML saved to: {}", absolutePath);
     return absolutePath;
   }
 
   /**
-   * Helper method to create the argo workflow
-   * @param pipeline that will be used to create the argo workflow
+   * Helper method to create the thin argo workflow of a run, which only refers to the
+   * WorkflowTemplate of its pipeline
+   * @param workflowName the name of the workflow
+   * @param templateName the name of the WorkflowTemplate to run
    * @return the mapping of the workflow
    */
-  private Map<String, Object> createWorkflow(Pipeline pipeline) {
-    // Root structure of the YAML file
+  private Map<String, Object> createWorkflow(String workflowName, String templateName) {
     Map<String, Object> root = new LinkedHashMap<>();
     root.put("apiVersion", "argoproj.io/v1alpha1");
     root.put("kind", "Workflow");
 
-    // Metadata for the workflow
     Map<String, Object> metadata = new LinkedHashMap<>();
-    String workflowName = "pipeline-" + pipeline.getName() + "-" + UUID.randomUUID();
     metadata.put("name", workflowName);
+    // Lets the workflow watcher select only the workflows submitted by this service
+    metadata.put("labels", Map.of(MANAGED_BY_LABEL, MANAGED_BY_VALUE));
+    root.put("metadata", metadata);
+
+    Map<String, Object> spec = new LinkedHashMap<>();
+    spec.put("workflowTemplateRef", Map.of("name", templateName));
+    // Lets the log collector select only the pods of the workflows submitted by this service
+    spec.put("podMetadata", Map.of("labels", Map.of(MANAGED_BY_LABEL, MANAGED_BY_VALUE)));
+    root.put("spec", spec);
+    return root;
+  }
+
+  /**
+   * Helper method to create the argo workflow template of a pipeline definition
+   * @param pipeline that will be used to create the argo workflow template
+   * @param templateName the name of the template
+   * @return the mapping of the workflow template
+   */
+  private Map<String, Object> createWorkflowTemplate(Pipeline pipeline, String templateName) {
+    log.info("Generating workflow template {}", templateName);
+    // Root structure of the YAML file
+    Map<String, Object> root = new LinkedHashMap<>();
+    root.put("apiVersion", "argoproj.io/v1alpha1");
+    root.put("kind", "WorkflowTemplate");
+
+    // Metadata for the workflow template
+    Map<String, Object> metadata = new LinkedHashMap<>();
+    metadata.put("name", templateName);
+    metadata.put("labels", Map.of(MANAGED_BY_LABEL, MANAGED_BY_VALUE));
     root.put("metadata", metadata);
 
     // Workflow spec with entry point and templates
@@ -141,7 +310,8 @@ public class ArgoYamlService {
       Map<String, Object> stageTemplate = new LinkedHashMap<>();
       stageTemplate.put("name", stage.getName() + "-dag");
 
-      // Generate the DAG for jobs within this stage
+      // Generate the DAG for jobs within this stage. The jobs are loaded in the execution order
+      // recorded at validation, so no dependency analysis is needed here
       Map<String, Object> stageDag = new LinkedHashMap<>();
       List<Map<String, Object>> stageTasks = stage.getJobs().stream()
           .map(ArgoYamlService::createTask)
@@ -204,9 +374,11 @@ public class ArgoYamlService {
     if (!job.getNeeds().isEmpty()) {
       task.put("dependencies", job.getNeeds());
     }
-    List<Map<String, Object>> parameters = new ArrayList<>();
-    parameters.add(Map.of("name", "script", "value", String.join("\n", job.getScripts())));
-    Map<String, Object> arguments = Map.of("parameters", parameters);
+    // Ordered, so that the YAML is the same from one run of the service to the next
+    Map<String, Object> parameter = new LinkedHashMap<>();
+    parameter.put("name", "script");
+    parameter.put("value", String.join("\n", job.getScripts()));
+    Map<String, Object> arguments = Map.of("parameters", List.of(parameter));
     task.put("arguments", arguments);
 
     return task;
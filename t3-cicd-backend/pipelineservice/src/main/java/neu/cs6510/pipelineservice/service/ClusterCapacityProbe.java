@@ -0,0 +1,15 @@
+package neu.cs6510.pipelineservice.service;
+
+/**
+ * Source of truth on whether the cluster can place the pods of another workflow. Consulted by
+ * {@link RunAdmissionController} before it admits queued runs.
+ */
+public interface ClusterCapacityProbe {
+
+  /**
+   * Checks whether the cluster has room for another workflow.
+   *
+   * @return true if a new workflow can be scheduled
+   */
+  boolean hasCapacity();
+}
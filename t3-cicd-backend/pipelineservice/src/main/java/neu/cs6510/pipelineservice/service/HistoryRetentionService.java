@@ -0,0 +1,288 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Pipeline.STATUS_FAILED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_SUCCESS;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.repository.ArgoLogRepository;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the history tables from growing without limit. Every
+ * {@code pipelineservice.retention.interval-ms}, a pass
+ * <ul>
+ *   <li>creates the monthly partitions of {@code argo_logs} for the current month and the next
+ *       {@code months-ahead}, so that new entries never land in the default partition,</li>
+ *   <li>removes the partitions whose entries all started more than {@code argo-log-days} ago:
+ *       they are dropped, or only detached from {@code argo_logs} if {@code archive} is set, so
+ *       that they can be dumped before being dropped by hand,</li>
+ *   <li>deletes the finished runs that ended more than {@code run-days} ago, along with their
+ *       stage and job runs, {@code batch-size} runs per transaction.</li>
+ * </ul>
+ * The partitions are named {@code argo_logs_p<year>_<month>}, as created by the
+ * {@code V3__partition_argo_logs.sql} migration. If {@code argo_logs} is not partitioned, e.g. on
+ * a database that was not migrated, its expired entries are deleted row by row instead. A period
+ * of 0 days keeps the history of that table forever.
+ */
+@Slf4j
+@Service
+public class HistoryRetentionService {
+
+  static final String ARGO_LOGS = "argo_logs";
+  static final String DEFAULT_PARTITION = "argo_logs_default";
+  private static final String PARTITION_PREFIX = "argo_logs_p";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+  private static final List<String> FINAL_STATUSES = List.of(STATUS_SUCCESS, STATUS_FAILED);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ArgoLogRepository argoLogRepository;
+  private final PipelineRunRepository pipelineRunRepository;
+  private final RunStateService runStateService;
+  private final boolean enabled;
+  private final long intervalMillis;
+  private final int argoLogDays;
+  private final int runDays;
+  private final int monthsAhead;
+  private final boolean archive;
+  private final int batchSize;
+
+  private ScheduledExecutorService scheduler;
+
+  @Autowired
+  public HistoryRetentionService(JdbcTemplate jdbcTemplate, ArgoLogRepository argoLogRepository,
+      PipelineRunRepository pipelineRunRepository, RunStateService runStateService,
+      @Value("${pipelineservice.retention.enabled:true}") boolean enabled,
+      @Value("${pipelineservice.retention.interval-ms:3600000}") long intervalMillis,
+      @Value("${pipelineservice.retention.argo-log-days:90}") int argoLogDays,
+      @Value("${pipelineservice.retention.run-days:180}") int runDays,
+      @Value("${pipelineservice.retention.months-ahead:2}") int monthsAhead,
+      @Value("${pipelineservice.retention.archive:false}") boolean archive,
+      @Value("${pipelineservice.retention.batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.argoLogRepository = argoLogRepository;
+    this.pipelineRunRepository = pipelineRunRepository;
+    this.runStateService = runStateService;
+    this.enabled = enabled;
+    this.intervalMillis = intervalMillis;
+    this.argoLogDays = argoLogDays;
+    this.runDays = runDays;
+    this.monthsAhead = monthsAhead;
+    this.archive = archive;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Starts the periodic passes once the application is ready, unless disabled. The first pass
+   * runs right away, so that the partitions of the current month exist.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      log.info("History retention disabled");
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("history-retention-"));
+    scheduler.scheduleWithFixedDelay(this::applyQuietly, 0, intervalMillis,
+        TimeUnit.MILLISECONDS);
+    log.info("History retention started: argo logs for {} days, runs for {} days", argoLogDays,
+        runDays);
+  }
+
+  /**
+   * Stops the periodic passes.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs one pass: creates the coming partitions, then removes the expired history.
+   */
+  public void apply() {
+    apply(LocalDateTime.now());
+  }
+
+  private void applyQuietly() {
+    try {
+      apply();
+    } catch (RuntimeException e) {
+      // Keeps the schedule alive
+      log.error("History retention pass failed", e);
+    }
+  }
+
+  /**
+   * Runs one pass as of the given time. The times of the history are saved in the time zone of
+   * the service, and so is this one.
+   *
+   * @param now the current time
+   */
+  void apply(LocalDateTime now) {
+    boolean partitioned = isPartitioned();
+    if (partitioned) {
+      createPartitions(YearMonth.from(now));
+    }
+    if (argoLogDays > 0) {
+      LocalDateTime cutoff = now.minusDays(argoLogDays);
+      if (partitioned) {
+        removePartitionsBefore(cutoff);
+      } else {
+        int deleted = argoLogRepository.deleteByStartTimeBefore(Timestamp.valueOf(cutoff));
+        log.info("Deleted {} argo log entries that started before {}", deleted, cutoff);
+      }
+    }
+    if (runDays > 0) {
+      deleteRunsBefore(now.minusDays(runDays));
+    }
+  }
+
+  /**
+   * Tells whether {@code argo_logs} is a partitioned table.
+   *
+   * @return false if it is a plain table, or the database is not PostgreSQL
+   */
+  boolean isPartitioned() {
+    try {
+      Integer count = jdbcTemplate.queryForObject("select count(*) from pg_partitioned_table t "
+          + "join pg_class c on c.oid = t.partrelid "
+          + "where c.relname = ? and pg_table_is_visible(c.oid)", Integer.class, ARGO_LOGS);
+      return count != null && count > 0;
+    } catch (DataAccessException e) {
+      log.debug("Cannot read the partitions of {}: {}", ARGO_LOGS, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Creates the missing partitions of the given month and of the next {@code monthsAhead}.
+   *
+   * @param current the current month
+   */
+  private void createPartitions(YearMonth current) {
+    Set<String> existing = new HashSet<>(partitions());
+    for (int i = 0; i <= monthsAhead; i++) {
+      YearMonth month = current.plusMonths(i);
+      String name = partitionName(month);
+      if (existing.contains(name)) {
+        continue;
+      }
+      try {
+        jdbcTemplate.execute("create table if not exists " + name + " partition of " + ARGO_LOGS
+            + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1)
+            + "')");
+        log.info("Created partition {} of {}", name, ARGO_LOGS);
+      } catch (DataAccessException e) {
+        // The default partition already holds entries of that month, or another instance
+        // created it first
+        log.warn("Cannot create partition {} of {}: {}", name, ARGO_LOGS, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Drops, or detaches, the monthly partitions that end before the cutoff, and deletes the
+   * expired entries of the default partition.
+   *
+   * @param cutoff the time before which entries expire
+   */
+  private void removePartitionsBefore(LocalDateTime cutoff) {
+    for (String partition : partitions()) {
+      YearMonth month = partitionMonth(partition);
+      if (month == null || month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)) {
+        continue;
+      }
+      String name = partitionName(month);
+      try {
+        if (archive) {
+          jdbcTemplate.execute("alter table " + ARGO_LOGS + " detach partition " + name);
+          log.info("Detached partition {} from {}, its entries are kept in table {}", name,
+              ARGO_LOGS, name);
+        } else {
+          jdbcTemplate.execute("drop table " + name);
+          log.info("Dropped partition {} of {}", name, ARGO_LOGS);
+        }
+      } catch (DataAccessException e) {
+        log.warn("Cannot remove partition {} of {}: {}", name, ARGO_LOGS, e.getMessage());
+      }
+    }
+    try {
+      int deleted = jdbcTemplate.update("delete from " + DEFAULT_PARTITION
+          + " where start_time < ?", Timestamp.valueOf(cutoff));
+      log.info("Deleted {} entries of {} that started before {}", deleted, DEFAULT_PARTITION,
+          cutoff);
+    } catch (DataAccessException e) {
+      log.warn("Cannot delete the expired entries of {}: {}", DEFAULT_PARTITION, e.getMessage());
+    }
+  }
+
+  /**
+   * Deletes the finished runs that ended before the cutoff, a batch per transaction.
+   *
+   * @param cutoff the time before which runs expire
+   */
+  private void deleteRunsBefore(LocalDateTime cutoff) {
+    Timestamp before = Timestamp.valueOf(cutoff);
+    int deleted = 0;
+    int batchDeleted;
+    List<Long> ids;
+    do {
+      ids = pipelineRunRepository.findIdsByStatusInAndEndTimeBefore(FINAL_STATUSES, before,
+          PageRequest.ofSize(batchSize));
+      batchDeleted = runStateService.deleteRuns(ids);
+      deleted += batchDeleted;
+    } while (ids.size() == batchSize && batchDeleted > 0);
+    log.info("Deleted {} runs that ended before {}", deleted, cutoff);
+  }
+
+  private List<String> partitions() {
+    return jdbcTemplate.queryForList("select c.relname from pg_inherits i "
+        + "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent "
+        + "where p.relname = ? and pg_table_is_visible(p.oid)", String.class, ARGO_LOGS);
+  }
+
+  static String partitionName(YearMonth month) {
+    return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+  }
+
+  /**
+   * Returns the month of a monthly partition.
+   *
+   * @param partition the name of the partition
+   * @return the month, or null for the default partition and any other table
+   */
+  static YearMonth partitionMonth(String partition) {
+    if (!partition.startsWith(PARTITION_PREFIX)) {
+      return null;
+    }
+    try {
+      return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package neu.cs6510.pipelineservice.service;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link ClusterCapacityProbe} that looks at the pods the scheduler could not place.
+ * Pending pods in the workflow namespace whose {@code PodScheduled} condition is {@code False}
+ * with reason {@code Unschedulable} mean the cluster is already full; while there are more of them
+ * than allowed, no further run is admitted.
+ *
+ * <p>Enabled with {@code pipelineservice.admission.capacity-probe=true}; needs the Kubernetes API
+ * client, so it only works with the {@code kubernetes} submitter.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pipelineservice.admission.capacity-probe", havingValue = "true")
+public class KubernetesCapacityProbe implements ClusterCapacityProbe {
+
+  private static final String POD_SCHEDULED = "PodScheduled";
+  private static final String UNSCHEDULABLE = "Unschedulable";
+
+  private final GenericKubernetesApi<V1Pod, V1PodList> podApi;
+  private final String namespace;
+  private final int maxUnschedulablePods;
+
+  @Autowired
+  public KubernetesCapacityProbe(ApiClient kubernetesApiClient,
+      @Value("${pipelineservice.argo.namespace:argo}") String namespace,
+      @Value("${pipelineservice.admission.max-unschedulable-pods:0}") int maxUnschedulablePods) {
+    this.podApi = new GenericKubernetesApi<>(V1Pod.class, V1PodList.class, "", "v1", "pods",
+        kubernetesApiClient);
+    this.namespace = namespace;
+    this.maxUnschedulablePods = maxUnschedulablePods;
+  }
+
+  /**
+   * Counts the unschedulable pods in the namespace. If the API server cannot be reached the
+   * cluster is assumed to have capacity, so that an API outage does not stop every run.
+   *
+   * @return true if there are no more unschedulable pods than allowed
+   */
+  @Override
+  public boolean hasCapacity() {
+    ListOptions options = new ListOptions();
+    options.setFieldSelector("status.phase=Pending");
+    KubernetesApiResponse<V1PodList> response;
+    try {
+      response = podApi.list(namespace, options);
+    } catch (RuntimeException e) {
+      log.warn("Failed to list pending pods: {}", e.getMessage());
+      return true;
+    }
+    if (!response.isSuccess() || response.getObject() == null) {
+      log.warn("Failed to list pending pods: HTTP {}", response.getHttpStatusCode());
+      return true;
+    }
+    long unschedulable = response.getObject().getItems().stream()
+        .filter(KubernetesCapacityProbe::isUnschedulable)
+        .count();
+    if (unschedulable > maxUnschedulablePods) {
+      log.info("{} pods cannot be scheduled in namespace {}, holding new runs", unschedulable,
+          namespace);
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean isUnschedulable(V1Pod pod) {
+    return pod.getStatus() != null && pod.getStatus().getConditions() != null
+        && pod.getStatus().getConditions().stream().anyMatch(condition ->
+            POD_SCHEDULED.equals(condition.getType())
+                && "False".equals(condition.getStatus())
+                && UNSCHEDULABLE.equals(condition.getReason()));
+  }
+}
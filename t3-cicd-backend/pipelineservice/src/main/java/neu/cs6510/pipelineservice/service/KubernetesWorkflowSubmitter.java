@@ -0,0 +1,144 @@
+package neu.cs6510.pipelineservice.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesObject;
+import io.kubernetes.client.util.generic.options.CreateOptions;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link WorkflowSubmitter} that creates the Argo {@code Workflow} custom resource directly
+ * through the Kubernetes API, without forking the {@code argo} CLI or writing the workflow to the
+ * Persistent Volume. Completion is reported by the shared {@link WorkflowWatcher}, and logs are
+ * streamed by the {@link PodLogCollector} while the workflow runs.
+ *
+ * <p>The {@code WorkflowTemplate} a workflow refers to is created before its first workflow and
+ * remembered afterwards, so later runs of the same pipeline definition only create the workflow.
+ * A template deleted since, e.g. by hand or with its namespace, is forgotten and created again
+ * when the API server answers the workflow with 404.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pipelineservice.argo.submitter", havingValue = "kubernetes",
+    matchIfMissing = true)
+public class KubernetesWorkflowSubmitter implements WorkflowSubmitter {
+
+  private static final Gson GSON = new Gson();
+
+  private final DynamicKubernetesApi workflowApi;
+  private final DynamicKubernetesApi workflowTemplateApi;
+  private final WorkflowWatcher workflowWatcher;
+  private final PodLogCollector podLogCollector;
+  private final String namespace;
+  private final Duration logWaitTimeout;
+
+  /**
+   * Names of the WorkflowTemplates known to exist in the namespace.
+   */
+  private final Set<String> registeredTemplates = ConcurrentHashMap.newKeySet();
+
+  @Autowired
+  public KubernetesWorkflowSubmitter(@Qualifier("workflowApi") DynamicKubernetesApi workflowApi,
+      @Qualifier("workflowTemplateApi") DynamicKubernetesApi workflowTemplateApi,
+      WorkflowWatcher workflowWatcher, PodLogCollector podLogCollector,
+      @Value("${pipelineservice.argo.namespace:argo}") String namespace,
+      @Value("${pipelineservice.argo.log-wait-seconds:60}") long logWaitSeconds) {
+    this.workflowApi = workflowApi;
+    this.workflowTemplateApi = workflowTemplateApi;
+    this.workflowWatcher = workflowWatcher;
+    this.podLogCollector = podLogCollector;
+    this.namespace = namespace;
+    this.logWaitTimeout = Duration.ofSeconds(logWaitSeconds);
+  }
+
+  @Override
+  public CompletableFuture<String> submit(ArgoWorkflow workflow) throws IOException {
+    String name = workflow.getName();
+    ensureTemplate(workflow);
+    // Register first, so that the completion and the pods cannot be missed however fast the
+    // workflow runs
+    CompletableFuture<String> completion = workflowWatcher.register(name);
+    podLogCollector.track(name);
+    try {
+      createWorkflow(workflow);
+    } catch (IOException e) {
+      workflowWatcher.unregister(name);
+      podLogCollector.untrack(name);
+      throw e;
+    }
+    log.info("Workflow {} created in namespace {}", name, namespace);
+    return completion;
+  }
+
+  /**
+   * Creates the workflow. If the API server answers 404 for a workflow that refers to a template,
+   * the template is no longer taken as existing: it is created again and the workflow retried
+   * once.
+   *
+   * @param workflow the workflow to create
+   * @throws IOException if the workflow or its template cannot be created
+   */
+  private void createWorkflow(ArgoWorkflow workflow) throws IOException {
+    JsonObject body = GSON.toJsonTree(workflow.getResource()).getAsJsonObject();
+    KubernetesApiResponse<DynamicKubernetesObject> created = workflowApi.create(namespace,
+        new DynamicKubernetesObject(body), new CreateOptions());
+    String templateName = workflow.getTemplateName();
+    if (created.getHttpStatusCode() == HttpURLConnection.HTTP_NOT_FOUND && templateName != null) {
+      log.warn("Workflow {} was not found by the API server, creating its template {} again",
+          workflow.getName(), templateName);
+      registeredTemplates.remove(templateName);
+      ensureTemplate(workflow);
+      created = workflowApi.create(namespace, new DynamicKubernetesObject(body),
+          new CreateOptions());
+    }
+    if (!created.isSuccess()) {
+      throw new IOException(String.format("Failed to create workflow %s: HTTP %d %s",
+          workflow.getName(), created.getHttpStatusCode(),
+          created.getStatus() == null ? "" : created.getStatus().getMessage()));
+    }
+  }
+
+  /**
+   * Creates the WorkflowTemplate of the workflow unless it is already known to exist. A template
+   * created meanwhile by another run, or by another replica, is as good as one created here.
+   *
+   * @param workflow the workflow about to be submitted
+   * @throws IOException if the template does not exist and cannot be created
+   */
+  private void ensureTemplate(ArgoWorkflow workflow) throws IOException {
+    String templateName = workflow.getTemplateName();
+    if (templateName == null || registeredTemplates.contains(templateName)) {
+      return;
+    }
+    JsonObject body = GSON.toJsonTree(workflow.getTemplate()).getAsJsonObject();
+    KubernetesApiResponse<DynamicKubernetesObject> created = workflowTemplateApi.create(namespace,
+        new DynamicKubernetesObject(body), new CreateOptions());
+    if (created.isSuccess()) {
+      log.info("Workflow template {} created in namespace {}", templateName, namespace);
+    } else if (created.getHttpStatusCode() != HttpURLConnection.HTTP_CONFLICT) {
+      throw new IOException(String.format("Failed to create workflow template %s: HTTP %d %s",
+          templateName, created.getHttpStatusCode(),
+          created.getStatus() == null ? "" : created.getStatus().getMessage()));
+    }
+    registeredTemplates.add(templateName);
+  }
+
+  @Override
+  public void collectLogs(Long pipelineId, String workflowName) throws InterruptedException {
+    podLogCollector.awaitWorkflowLogs(workflowName, logWaitTimeout);
+  }
+}
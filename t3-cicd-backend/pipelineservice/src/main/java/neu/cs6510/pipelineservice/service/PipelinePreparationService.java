@@ -8,20 +8,20 @@ import static neu.cs6510.shared.constants.RequestParameter.BRANCH;
 import static neu.cs6510.shared.constants.RequestParameter.CONFIGPATH;
 import static neu.cs6510.shared.constants.RequestParameter.PIPELINENAME;
 import static neu.cs6510.shared.constants.RequestParameter.REPOURL;
+import static neu.cs6510.shared.constants.ResponseBody.COMMIT;
+import static neu.cs6510.shared.constants.ResponseBody.CONFIG_FILE_PATH;
 import static neu.cs6510.shared.constants.ResponseBody.REPODIR;
 
-import jakarta.persistence.EntityNotFoundException;
-import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
 import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
 import neu.cs6510.shared.repository.PipelineRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 @Slf4j
@@ -86,69 +86,32 @@ public class PipelinePreparationService {
   }
 
   /**
-   * Prepares a pipeline by validating its configuration and retrieving it from the database.
+   * Prepares the pipeline of a run by validating its configuration and retrieving it from the
+   * database. The commit and the path the configuration file was read at are recorded on the
+   * run, since the pipeline definition is shared with the runs of other commits. The whole
+   * definition is loaded up front, as the run walks it outside of any transaction.
    *
-   * @param repoUrl     The repository URL.
-   * @param branch      The branch name.
-   * @param configPath  The configuration file path (optional).
-   * @param pipelineName The pipeline name (optional).
+   * @param run the run, with the repository URL, branch and optional configuration file path or
+   *            pipeline name requested by the client
    * @return The prepared Pipeline object.
    */
-  public Pipeline preparePipeline(String repoUrl, String branch, String configPath,
-    String pipelineName) {
+  public Pipeline preparePipeline(PipelineRun run) {
     log.info("Preparing pipeline with repoUrl: {}, branch: {}, configPath: {}, pipelineName: {}",
-      repoUrl, branch, configPath, pipelineName);
+      run.getRepoUrl(), run.getBranch(), run.getConfigPath(), run.getPipelineName());
 
-    Map<String, String> response = validateConfig(repoUrl, branch, configPath, pipelineName);
+    Map<String, String> response = validateConfig(run.getRepoUrl(), run.getBranch(),
+        run.getConfigPath(), run.getPipelineName());
     String pipelineId = response.get(PIPELINE_ID);
     log.debug("Validated configuration. Pipeline ID: {}", pipelineId);
 
-    return pipelineRepository.findById(Long.parseLong(pipelineId))
+    Pipeline pipeline = pipelineRepository.findDefinitionById(Long.parseLong(pipelineId))
         .orElseThrow(() -> {
           log.warn("Pipeline not found in database for ID: {}", pipelineId);
           return new RuntimeException("Pipeline not found after validation.");
         });
-  }
-
-  /**
-   * Updates the start time and status of a Pipeline.
-   *
-   * @param pipelineId the ID of the Pipeline to update
-   * @param startTime the new start time to set
-   * @param status the new status to set
-   * @throws EntityNotFoundException if no Pipeline with the given ID is found
-   */
-  @Transactional
-  public void updateStartTimeAndStatus(Long pipelineId, Timestamp startTime, String status) {
-    Pipeline pipeline = pipelineRepository.findById(pipelineId)
-        .orElseThrow(() -> new EntityNotFoundException("Pipeline with id " + pipelineId + " not found"));
-
-    pipeline.setStartTime(startTime);
-    pipeline.setStatus(status);
-
-    pipelineRepository.save(pipeline);
-    log.info("Updated pipeline start time and status: id={}, startTime={}, status={}",
-        pipelineId, startTime, status);
-  }
-
-  /**
-   * Updates the end time and status of a Pipeline.
-   *
-   * @param pipelineId the ID of the Pipeline to update
-   * @param endTime the new end time to set
-   * @param status the new status to set
-   * @throws EntityNotFoundException if no Pipeline with the given ID is found
-   */
-  @Transactional
-  public void updateEndTimeAndStatus(Long pipelineId, Timestamp endTime, String status) {
-    Pipeline pipeline = pipelineRepository.findById(pipelineId)
-        .orElseThrow(() -> new EntityNotFoundException("Pipeline with id " + pipelineId + " not found"));
-
-    pipeline.setEndTime(endTime);
-    pipeline.setStatus(status);
-
-    pipelineRepository.save(pipeline);
-    log.info("Updated pipeline end time and status: id={}, endTime={}, status={}",
-        pipelineId, endTime, status);
+    run.setPipeline(pipeline);
+    run.setCommitSha(response.get(COMMIT));
+    run.setConfigFilePath(response.get(CONFIG_FILE_PATH));
+    return pipeline;
   }
 }
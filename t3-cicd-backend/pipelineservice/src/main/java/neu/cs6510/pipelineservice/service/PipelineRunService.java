@@ -0,0 +1,409 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Argo.PHASE_SUCCEEDED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_FAILED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_QUEUED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_SUCCESS;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.RunStatus;
+import neu.cs6510.shared.projection.RunSummary;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that accepts pipeline run requests and drives their execution asynchronously.
+ * Each accepted request is persisted as a queued {@link PipelineRun} and handed to the
+ * {@link RunAdmissionController}, so the HTTP request thread is released as soon as the run ID is
+ * known. Once admitted, the run executes on a bounded executor and keeps its admission slot until
+ * it reaches a final state. The executor must have room for every admitted run and its
+ * completion, which is checked at startup; an admitted run that is rejected anyway fails instead
+ * of running on the thread that admitted it.
+ *
+ * <p>The admission queue lives in memory, so the runs left queued by a previous instance are
+ * admitted again at startup.
+ */
+@Slf4j
+@Service
+public class PipelineRunService {
+
+  private static final int MAX_MESSAGE_LENGTH = 2048;
+
+  private final PipelineRunRepository pipelineRunRepository;
+  private final PipelinePreparationService pipelinePreparationService;
+  private final RunStateService runStateService;
+  private final ArgoYamlService argoYamlService;
+  private final WorkflowSubmitter workflowSubmitter;
+  private final ExecutorService pipelineRunExecutor;
+  private final RunAdmissionController runAdmissionController;
+
+  /**
+   * In-memory handles of the runs that are queued or executing on this instance, completed with
+   * the final state of the run.
+   */
+  private final Map<Long, CompletableFuture<PipelineRun>> activeRuns = new ConcurrentHashMap<>();
+
+  @Autowired
+  public PipelineRunService(PipelineRunRepository pipelineRunRepository,
+      PipelinePreparationService pipelinePreparationService, RunStateService runStateService,
+      ArgoYamlService argoYamlService, WorkflowSubmitter workflowSubmitter,
+      @Qualifier("pipelineRunExecutor") ExecutorService pipelineRunExecutor,
+      RunAdmissionController runAdmissionController) {
+    this.pipelineRunRepository = pipelineRunRepository;
+    this.pipelinePreparationService = pipelinePreparationService;
+    this.runStateService = runStateService;
+    this.argoYamlService = argoYamlService;
+    this.workflowSubmitter = workflowSubmitter;
+    this.pipelineRunExecutor = pipelineRunExecutor;
+    this.runAdmissionController = runAdmissionController;
+    checkExecutorCapacity(pipelineRunExecutor, runAdmissionController.getMaxRunning());
+  }
+
+  /**
+   * Checks that the run executor can hold every admitted run. An admitted run has at most two
+   * tasks in the executor at once, its execution and its completion, so it must have room for
+   * twice the admission cap.
+   *
+   * @param executor   the run executor
+   * @param maxRunning the number of runs admitted at once
+   * @throws IllegalStateException if the executor is too small for the admission cap
+   */
+  static void checkExecutorCapacity(ExecutorService executor, int maxRunning) {
+    if (!(executor instanceof ThreadPoolExecutor pool)) {
+      return;
+    }
+    int capacity = pool.getMaximumPoolSize() + pool.getQueue().remainingCapacity();
+    if (capacity < 2 * maxRunning) {
+      throw new IllegalStateException(String.format("pipelineservice.run.workers + "
+          + "pipelineservice.run.queue-capacity (%d) must be at least twice "
+          + "pipelineservice.admission.max-running (%d)", capacity, maxRunning));
+    }
+  }
+
+  /**
+   * Persists a queued run for the given request and schedules it for execution once admitted.
+   *
+   * @param repoUrl      The repository URL.
+   * @param branch       The branch name.
+   * @param configPath   The configuration file path (optional).
+   * @param pipelineName The pipeline name (optional).
+   * @return the persisted run, with its ID and {@code queued} status.
+   * @throws RejectedExecutionException if the admission queue is full. The run is then persisted
+   *                                    as failed.
+   */
+  public PipelineRun enqueueRun(String repoUrl, String branch, String configPath,
+      String pipelineName) {
+    PipelineRun run = pipelineRunRepository.save(PipelineRun.builder()
+        .repoUrl(repoUrl)
+        .branch(branch)
+        .configPath(configPath)
+        .pipelineName(pipelineName)
+        .status(STATUS_QUEUED)
+        .queuedTime(new Timestamp(System.currentTimeMillis()))
+        .build());
+    admit(run);
+    log.info("Queued pipeline run {} for repo URL: {}, branch: {}", run.getId(), repoUrl, branch);
+    return run;
+  }
+
+  /**
+   * Admits again the runs that were queued when the service stopped, oldest first. A run that
+   * does not fit in the admission queue fails. If another instance starts one of them too, only
+   * one start transition succeeds, so the run executes once.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void requeueRuns() {
+    List<PipelineRun> queuedRuns = pipelineRunRepository.findByStatus(STATUS_QUEUED).stream()
+        .sorted(Comparator.comparing(PipelineRun::getId))
+        .toList();
+    for (PipelineRun run : queuedRuns) {
+      try {
+        admit(run);
+        log.info("Queued pipeline run {} again after restart", run.getId());
+      } catch (RejectedExecutionException e) {
+        log.warn("Run queue is full, failed run {} queued before restart", run.getId());
+      }
+    }
+  }
+
+  /**
+   * Creates the handle of a queued run and hands the run to the admission controller.
+   *
+   * @param run the queued run
+   * @throws RejectedExecutionException if the admission queue is full. The run is then persisted
+   *                                    as failed.
+   */
+  private void admit(PipelineRun run) {
+    Long runId = run.getId();
+    activeRuns.put(runId, new CompletableFuture<>());
+
+    try {
+      runAdmissionController.admit(runId, run.getRepoUrl(), () -> startRun(run));
+    } catch (RejectedExecutionException e) {
+      log.warn("Run queue is full, rejecting run {}", runId);
+      markFailed(run, "Run queue is full");
+      runStateService.finishRun(runId, RunStatus.QUEUED, RunStatus.FAILED, run.getMessage(),
+          run.getEndTime());
+      activeRuns.remove(runId).complete(run);
+      throw e;
+    }
+  }
+
+  /**
+   * Hands an admitted run to the run executor. Called by the admission controller, possibly on an
+   * HTTP or watcher thread, so the run never executes inline: if the executor rejects it, the run
+   * fails and gives its admission slot to the next one.
+   *
+   * @param run the admitted run
+   */
+  private void startRun(PipelineRun run) {
+    try {
+      pipelineRunExecutor.execute(() -> executeRun(run.getId()));
+    } catch (RejectedExecutionException e) {
+      log.error("Run executor is saturated, failing admitted run {}", run.getId());
+      markFailed(run, "Run executor is saturated");
+      saveFinishedRun(run, RunStatus.QUEUED);
+    }
+  }
+
+  /**
+   * Executes a queued run: prepares the pipeline, then builds and submits the Argo workflow
+   * through the configured {@link WorkflowSubmitter}. The worker thread is released as soon as
+   * the workflow is submitted; the run is finished by {@link #finishRun} when the workflow
+   * completes.
+   *
+   * @param runId the ID of the run to execute
+   */
+  void executeRun(Long runId) {
+    PipelineRun run = pipelineRunRepository.findById(runId).orElse(null);
+    if (run == null) {
+      log.warn("Run {} not found, skipping execution", runId);
+      completeHandle(runId, null);
+      return;
+    }
+
+    RunStatus status = RunStatus.QUEUED;
+    try {
+      log.info("Preparing pipeline for run {} with repo URL: {}, branch: {}, configPath: {}, "
+          + "pipelineName: {}", runId, run.getRepoUrl(), run.getBranch(), run.getConfigPath(),
+          run.getPipelineName());
+      Pipeline pipeline = pipelinePreparationService.preparePipeline(run);
+
+      // Build argo workflow
+      ArgoWorkflow workflow = argoYamlService.createArgoWorkflow(pipeline);
+      String workflowName = workflow.getName();
+      run.setArgoWorkflowName(workflowName);
+      run.setArgoYamlPath(workflowSubmitter.templatePath(workflow));
+      run.setStartTime(new Timestamp(System.currentTimeMillis()));
+      if (!runStateService.startRun(run)) {
+        completeHandle(runId, pipelineRunRepository.findById(runId).orElse(run));
+        return;
+      }
+      status = RunStatus.RUNNING;
+
+      // Submit argo workflow; its completion is delivered asynchronously
+      CompletableFuture<String> completion = workflowSubmitter.submit(workflow);
+      log.info("Workflow {} submitted for run {}", workflowName, runId);
+      completion.whenCompleteAsync((phase, error) -> finishRun(run, phase, error),
+          this::executeOrRunInline);
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Run {} was interrupted", runId);
+      markFailed(run, "Run was interrupted");
+    } catch (Exception e) {
+      log.error("Error while executing run {}: {}", runId, e.getMessage(), e);
+      markFailed(run, "Error: " + e.getMessage());
+    }
+
+    saveFinishedRun(run, status);
+  }
+
+  /**
+   * Finishes a run whose workflow has completed: fetches and saves the workflow logs, then
+   * persists the final state and publishes it to the run handle.
+   *
+   * @param run   the run, with its pipeline and workflow name set
+   * @param phase the final phase of the workflow, or null if waiting for it failed
+   * @param error the reason waiting for the workflow failed, or null
+   */
+  void finishRun(PipelineRun run, String phase, Throwable error) {
+    Long pipelineId = run.getPipeline().getId();
+    String workflowName = run.getArgoWorkflowName();
+    if (error != null) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause() : error;
+      log.error("Error while waiting for workflow {} of run {}: {}", workflowName, run.getId(),
+          cause.getMessage(), cause);
+      markFailed(run, "Error: " + cause.getMessage());
+      saveFinishedRun(run, RunStatus.RUNNING);
+      return;
+    }
+
+    try {
+      log.info("Workflow {} of run {} completed with phase {}", workflowName, run.getId(), phase);
+      // Make sure argo workflow logs are saved into DB
+      workflowSubmitter.collectLogs(pipelineId, workflowName);
+
+      Timestamp completionTime = new Timestamp(System.currentTimeMillis());
+      if (PHASE_SUCCEEDED.equals(phase)) {
+        run.setEndTime(completionTime);
+        run.setStatus(STATUS_SUCCESS);
+      } else {
+        markFailed(run, "Workflow " + workflowName + " finished with phase " + phase);
+      }
+      log.info("Run {} completed at {}", run.getId(), completionTime);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Run {} was interrupted", run.getId());
+      markFailed(run, "Run was interrupted");
+    } catch (Exception e) {
+      log.error("Error while finishing run {}: {}", run.getId(), e.getMessage(), e);
+      markFailed(run, "Error: " + e.getMessage());
+    }
+
+    saveFinishedRun(run, RunStatus.RUNNING);
+  }
+
+  /**
+   * Persists the final state of a run, along with the final status of its stages and jobs, and
+   * publishes it to the run handle. If the run was finished in the meantime, e.g. by the
+   * {@link WorkflowWatcher} of another instance, the state that instance saved is published
+   * instead.
+   *
+   * @param run  the finished run
+   * @param from the status the run had before it finished
+   */
+  private void saveFinishedRun(PipelineRun run, RunStatus from) {
+    PipelineRun finished = run;
+    try {
+      if (!runStateService.finishRun(run.getId(), from, RunStatus.of(run.getStatus()),
+          run.getMessage(), run.getEndTime())) {
+        finished = pipelineRunRepository.findById(run.getId()).orElse(run);
+      }
+    } catch (RuntimeException e) {
+      log.error("Error while saving the final state of run {}: {}", run.getId(), e.getMessage(),
+          e);
+    }
+    completeHandle(run.getId(), finished);
+  }
+
+  /**
+   * Runs the completion task of a workflow on the run executor, or on the calling thread if the
+   * executor is saturated, so that a completed workflow is never left unfinished. Only for
+   * completions: they are short, unlike the execution of a run.
+   *
+   * @param task the task to run
+   */
+  private void executeOrRunInline(Runnable task) {
+    try {
+      pipelineRunExecutor.execute(task);
+    } catch (RejectedExecutionException e) {
+      task.run();
+    }
+  }
+
+  /**
+   * Returns the current state of a run.
+   *
+   * @param runId the ID of the run
+   * @return the run, or empty if no run with the given ID exists
+   */
+  public Optional<PipelineRun> getRun(Long runId) {
+    return pipelineRunRepository.findById(runId);
+  }
+
+  /**
+   * Lists the runs of a repo, newest first, a page at a time. Each page starts after the last run
+   * of the previous one rather than at an offset, so that reading a page costs the same however
+   * far back it is, and runs queued in between do not shift the pages.
+   *
+   * @param repoUrl  the URL of the repo
+   * @param beforeId the ID of the last run of the previous page, or null for the first page
+   * @param size     the maximum number of runs in the page
+   * @return the page of runs, which tells whether there are older runs
+   */
+  public Slice<RunSummary> listRuns(String repoUrl, Long beforeId, int size) {
+    return pipelineRunRepository.findSummariesByRepoUrlBefore(repoUrl,
+        beforeId == null ? Long.MAX_VALUE : beforeId, PageRequest.ofSize(size));
+  }
+
+  /**
+   * Blocks until the run finishes or the timeout elapses, whichever comes first.
+   *
+   * @param runId   the ID of the run
+   * @param timeout the maximum time to wait
+   * @return the final state of the run if it finished in time, otherwise its current state;
+   *         empty if no run with the given ID exists
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public Optional<PipelineRun> awaitRun(Long runId, Duration timeout)
+      throws InterruptedException {
+    CompletableFuture<PipelineRun> handle = activeRuns.get(runId);
+    if (handle != null) {
+      try {
+        PipelineRun finished = handle.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (finished != null) {
+          return Optional.of(finished);
+        }
+      } catch (TimeoutException e) {
+        log.debug("Run {} did not finish within {}", runId, timeout);
+      } catch (ExecutionException e) {
+        log.warn("Run handle {} completed exceptionally: {}", runId, e.getMessage());
+      }
+    }
+    return getRun(runId);
+  }
+
+  /**
+   * Marks the run as failed with the given message.
+   *
+   * @param run     the run to update
+   * @param message the failure message
+   */
+  private void markFailed(PipelineRun run, String message) {
+    run.setStatus(STATUS_FAILED);
+    run.setMessage(message.length() > MAX_MESSAGE_LENGTH
+        ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+    run.setEndTime(new Timestamp(System.currentTimeMillis()));
+  }
+
+  /**
+   * Publishes the final state of a run to waiting clients, releases its handle and gives its
+   * admission slot to the next queued run.
+   *
+   * @param runId the ID of the run
+   * @param run   the final state of the run
+   */
+  private void completeHandle(Long runId, PipelineRun run) {
+    runAdmissionController.release(runId);
+    CompletableFuture<PipelineRun> handle = activeRuns.remove(runId);
+    if (handle != null) {
+      handle.complete(run);
+    }
+  }
+}
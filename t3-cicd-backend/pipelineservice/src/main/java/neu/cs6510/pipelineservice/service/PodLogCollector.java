@@ -0,0 +1,550 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Argo.MAIN_CONTAINER;
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_LABEL;
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_VALUE;
+import static neu.cs6510.shared.constants.Argo.NODE_NAME_ANNOTATION;
+import static neu.cs6510.shared.constants.Argo.WORKFLOW_LABEL;
+import static neu.cs6510.shared.constants.Kubernetes.PV_ARGO_LOG_PATH;
+
+import io.kubernetes.client.PodLogs;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1ContainerState;
+import io.kubernetes.client.openapi.models.V1ContainerStateTerminated;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import io.kubernetes.client.util.generic.GenericKubernetesApi;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.entity.ArgoLog;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streams the logs of workflow pods while they run.
+ * A dedicated thread watches the pods of the workflows submitted by this service; as soon as the
+ * main container of a pod has started, a follower on a virtual thread streams its log and appends
+ * every line to {@code <log-dir>/<workflow>/<pod>.log}, so the output of a run can be read while
+ * it is still in progress.
+ *
+ * <p>Each followed pod gets an {@link ArgoLog} row, handed to the {@link ArgoLogWriter} once the
+ * log of the pod is complete. Its start and end times come from the container state reported by
+ * the kubelet, falling back to the timestamps of the first and last log lines, instead of the
+ * time the lines happen to be read.
+ *
+ * <p>The watch sees the pods of every replica, but only the pods of the workflows this instance
+ * submitted, or recovered after a restart, are followed, so that each log file and row is written
+ * once. The UIDs of the last {@code completed-pods} pods whose log was recorded are remembered, so
+ * that a pod reported again, e.g. by the relist after a {@code 410 Gone}, is not followed twice.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pipelineservice.argo.submitter", havingValue = "kubernetes",
+    matchIfMissing = true)
+public class PodLogCollector {
+
+  private static final String MANAGED_POD_SELECTOR = MANAGED_BY_LABEL + "=" + MANAGED_BY_VALUE;
+
+  private final GenericKubernetesApi<V1Pod, V1PodList> podApi;
+  private final PodLogs podLogs;
+  private final ArgoLogWriter argoLogWriter;
+  private final PipelineRunRepository pipelineRunRepository;
+  private final String namespace;
+  private final Path logDirectory;
+  private final int watchTimeoutSeconds;
+  private final long retryDelayMillis;
+  private final Duration logWaitTimeout;
+
+  private final ExecutorService followerExecutor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("pod-log-", 0).factory());
+
+  /**
+   * Followers of the pods whose log is being written, keyed by pod name.
+   */
+  private final Map<String, PodFollower> followers = new ConcurrentHashMap<>();
+
+  /**
+   * Workflows submitted or recovered by this instance whose logs have not been awaited yet.
+   */
+  private final Set<String> ownedWorkflows = ConcurrentHashMap.newKeySet();
+
+  /**
+   * UIDs of the pods whose log was recorded, the oldest evicted first.
+   */
+  private final Set<String> completedPods;
+
+  private volatile String resourceVersion;
+  private volatile boolean running;
+  private Thread watchThread;
+
+  /**
+   * A started log follower.
+   *
+   * @param workflowName the workflow the pod belongs to
+   * @param done         completed when the log of the pod has been fully written
+   */
+  private record PodFollower(String workflowName, CompletableFuture<Void> done) {
+  }
+
+  @Autowired
+  public PodLogCollector(ApiClient kubernetesApiClient, ArgoLogWriter argoLogWriter,
+      PipelineRunRepository pipelineRunRepository,
+      @Value("${pipelineservice.argo.namespace:argo}") String namespace,
+      @Value("${pipelineservice.argo.log-dir:" + PV_ARGO_LOG_PATH + "}") String logDirectory,
+      @Value("${pipelineservice.argo.watch-timeout-seconds:300}") int watchTimeoutSeconds,
+      @Value("${pipelineservice.argo.watch-retry-ms:5000}") long retryDelayMillis,
+      @Value("${pipelineservice.argo.log-wait-seconds:60}") long logWaitSeconds,
+      @Value("${pipelineservice.argo.completed-pods:10000}") int completedPodCapacity) {
+    this.podApi = new GenericKubernetesApi<>(V1Pod.class, V1PodList.class, "", "v1", "pods",
+        kubernetesApiClient);
+    this.podLogs = new PodLogs(kubernetesApiClient);
+    this.argoLogWriter = argoLogWriter;
+    this.pipelineRunRepository = pipelineRunRepository;
+    this.namespace = namespace;
+    this.logDirectory = Paths.get(logDirectory);
+    this.watchTimeoutSeconds = watchTimeoutSeconds;
+    this.retryDelayMillis = retryDelayMillis;
+    this.logWaitTimeout = Duration.ofSeconds(logWaitSeconds);
+    this.completedPods = Collections.newSetFromMap(Collections.synchronizedMap(
+        new LinkedHashMap<String, Boolean>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > completedPodCapacity;
+          }
+        }));
+  }
+
+  /**
+   * Starts the pod watch thread once the application is ready.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    running = true;
+    watchThread = Thread.ofPlatform().name("pod-log-watcher").daemon().start(this::watchLoop);
+    log.info("Pod log collector started in namespace {}, writing logs to {}", namespace,
+        logDirectory);
+  }
+
+  /**
+   * Stops the pod watch thread and the running followers.
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (watchThread != null) {
+      watchThread.interrupt();
+    }
+    followerExecutor.shutdownNow();
+  }
+
+  /**
+   * Claims the pods of a workflow for this instance. Must be called before the workflow is
+   * created, so that its first pods are not missed.
+   *
+   * @param workflowName the name of the workflow
+   */
+  public void track(String workflowName) {
+    ownedWorkflows.add(workflowName);
+  }
+
+  /**
+   * Releases the pods of a workflow, e.g. when it could not be created.
+   *
+   * @param workflowName the name of the workflow
+   */
+  public void untrack(String workflowName) {
+    ownedWorkflows.remove(workflowName);
+  }
+
+  /**
+   * Records, in the background, the logs of a workflow submitted before this instance started,
+   * whose run this instance has recovered.
+   *
+   * @param workflowName the name of the workflow
+   */
+  public void collectRecovered(String workflowName) {
+    followerExecutor.execute(() -> {
+      try {
+        awaitWorkflowLogs(workflowName, logWaitTimeout);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  /**
+   * Waits until the logs of all the pods of a completed workflow have been written and their
+   * {@code argo_logs} rows flushed. Pods that the watch has not reported yet, e.g. because they
+   * finished very quickly, are followed now. The workflow is released afterwards.
+   *
+   * @param workflowName the name of the workflow
+   * @param timeout      the maximum time to wait
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void awaitWorkflowLogs(String workflowName, Duration timeout)
+      throws InterruptedException {
+    ownedWorkflows.add(workflowName);
+    KubernetesApiResponse<V1PodList> response = podApi.list(namespace,
+        selector(WORKFLOW_LABEL + "=" + workflowName));
+    if (response.isSuccess() && response.getObject() != null) {
+      response.getObject().getItems().forEach(this::onPod);
+    } else {
+      log.warn("Failed to list pods of workflow {}: HTTP {}", workflowName,
+          response.getHttpStatusCode());
+    }
+
+    List<CompletableFuture<Void>> pending = followers.values().stream()
+        .filter(follower -> follower.workflowName().equals(workflowName))
+        .map(PodFollower::done)
+        .toList();
+    try {
+      CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+          .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      log.warn("Logs of workflow {} were not complete within {}", workflowName, timeout);
+    } catch (ExecutionException e) {
+      log.warn("Log follower of workflow {} failed: {}", workflowName, e.getMessage());
+    }
+    ownedWorkflows.remove(workflowName);
+    argoLogWriter.flush();
+  }
+
+  /**
+   * Keeps a pod watch open until the collector is stopped.
+   */
+  private void watchLoop() {
+    while (running) {
+      try {
+        watchOnce();
+      } catch (Exception e) {
+        if (!running) {
+          break;
+        }
+        log.warn("Pod watch failed, retrying in {} ms: {}", retryDelayMillis, e.getMessage());
+        try {
+          Thread.sleep(retryDelayMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    log.info("Pod log collector stopped");
+  }
+
+  /**
+   * Runs a single watch session on the managed pods, listing them first if there is no version
+   * to resume from.
+   *
+   * @throws ApiException if the watch cannot be opened
+   * @throws IOException  if the list fails or the watch reports an error
+   */
+  void watchOnce() throws ApiException, IOException {
+    if (resourceVersion == null) {
+      KubernetesApiResponse<V1PodList> response = podApi.list(namespace,
+          selector(MANAGED_POD_SELECTOR));
+      if (!response.isSuccess()) {
+        throw new IOException(String.format("Failed to list pods: HTTP %d",
+            response.getHttpStatusCode()));
+      }
+      response.getObject().getItems().forEach(this::onPod);
+      resourceVersion = response.getObject().getMetadata().getResourceVersion();
+    }
+
+    ListOptions options = selector(MANAGED_POD_SELECTOR);
+    options.setResourceVersion(resourceVersion);
+    options.setTimeoutSeconds(watchTimeoutSeconds);
+    Watchable<V1Pod> watch;
+    try {
+      watch = podApi.watch(namespace, options);
+    } catch (ApiException e) {
+      if (e.getCode() == HttpURLConnection.HTTP_GONE) {
+        resourceVersion = null;
+        return;
+      }
+      throw e;
+    }
+
+    try (watch) {
+      for (Watch.Response<V1Pod> event : watch) {
+        if ("ERROR".equals(event.type)) {
+          if (event.status != null && event.status.getCode() != null
+              && event.status.getCode() == HttpURLConnection.HTTP_GONE) {
+            resourceVersion = null;
+            return;
+          }
+          throw new IOException("Pod watch error: "
+              + (event.status == null ? "unknown" : event.status.getMessage()));
+        }
+        V1Pod pod = event.object;
+        if (pod == null || pod.getMetadata() == null) {
+          continue;
+        }
+        if (pod.getMetadata().getResourceVersion() != null) {
+          resourceVersion = pod.getMetadata().getResourceVersion();
+        }
+        if (!"DELETED".equals(event.type) && !"BOOKMARK".equals(event.type)) {
+          onPod(pod);
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts following a pod of a workflow of this instance once its main container has started,
+   * unless it is already followed or its log was already recorded.
+   *
+   * @param pod the pod reported by the API server
+   */
+  void onPod(V1Pod pod) {
+    Map<String, String> labels = pod.getMetadata().getLabels();
+    String workflowName = labels == null ? null : labels.get(WORKFLOW_LABEL);
+    if (workflowName == null || !ownedWorkflows.contains(workflowName)
+        || mainContainerState(pod) == null || completedPods.contains(podKey(pod))) {
+      return;
+    }
+    String podName = pod.getMetadata().getName();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    if (followers.putIfAbsent(podName, new PodFollower(workflowName, done)) != null) {
+      return;
+    }
+    followerExecutor.execute(() -> {
+      try {
+        follow(pod, workflowName);
+      } finally {
+        // The pod is in completedPods by now, so later events of it are skipped
+        followers.remove(podName);
+        done.complete(null);
+      }
+    });
+  }
+
+  private static String podKey(V1Pod pod) {
+    String uid = pod.getMetadata().getUid();
+    return uid != null ? uid : pod.getMetadata().getName();
+  }
+
+  /**
+   * Streams the log of the main container of a pod to its log file until the container exits,
+   * then records the pod in {@code argo_logs}.
+   *
+   * @param pod          the pod to follow
+   * @param workflowName the workflow the pod belongs to
+   */
+  private void follow(V1Pod pod, String workflowName) {
+    String podName = pod.getMetadata().getName();
+    Path logFile = logDirectory.resolve(workflowName).resolve(podName + ".log");
+    ArgoLog argoLog = createLogEntry(pod, workflowName, logFile);
+    Instant firstLine = null;
+    Instant lastLine = null;
+
+    log.info("Following log of pod {} to {}", podName, logFile);
+    try {
+      Files.createDirectories(logFile.getParent());
+      try (InputStream stream = podLogs.streamNamespacedPodLog(namespace, podName,
+              MAIN_CONTAINER, null, null, true);
+          BufferedReader reader = new BufferedReader(
+              new InputStreamReader(stream, StandardCharsets.UTF_8));
+          BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          Instant timestamp = parseTimestamp(line);
+          if (timestamp != null) {
+            firstLine = firstLine == null ? timestamp : firstLine;
+            lastLine = timestamp;
+          }
+          writer.write(line);
+          writer.newLine();
+          // Flush once caught up with the stream, so the file follows the pod closely without
+          // a write per line
+          if (!reader.ready()) {
+            writer.flush();
+          }
+        }
+      }
+    } catch (ApiException | IOException e) {
+      log.warn("Failed to follow log of pod {}: {}", podName, e.getMessage());
+    }
+
+    completedPods.add(podKey(pod));
+    if (argoLog != null) {
+      finishLogEntry(argoLog, podName, firstLine, lastLine);
+    }
+  }
+
+  /**
+   * Builds the {@code argo_logs} entry of a followed pod.
+   *
+   * @param pod          the followed pod
+   * @param workflowName the workflow the pod belongs to
+   * @param logFile      the file the log is written to
+   * @return the entry, or null if the workflow does not belong to a known run
+   */
+  private ArgoLog createLogEntry(V1Pod pod, String workflowName, Path logFile) {
+    PipelineRun run = pipelineRunRepository.findByArgoWorkflowName(workflowName);
+    if (run == null || run.getPipeline() == null) {
+      log.debug("No run found for workflow {}, not recording pod {}", workflowName,
+          pod.getMetadata().getName());
+      return null;
+    }
+    V1ContainerState state = mainContainerState(pod);
+    OffsetDateTime startedAt = state.getRunning() != null ? state.getRunning().getStartedAt()
+        : state.getTerminated() != null ? state.getTerminated().getStartedAt() : null;
+    ArgoLog argoLog = ArgoLog.builder()
+        .pipelineId(run.getPipeline())
+        .argoWorkflowName(workflowName)
+        .stageName(stageName(pod, workflowName))
+        .podName(pod.getMetadata().getName())
+        .logFilePath(logFile.toString())
+        .startTime(toTimestamp(startedAt))
+        .status("RUNNING")
+        .build();
+    return argoLog;
+  }
+
+  /**
+   * Completes the {@code argo_logs} entry of a pod whose log stream has ended and queues it for
+   * writing.
+   *
+   * @param argoLog   the entry to complete
+   * @param podName   the name of the pod
+   * @param firstLine the timestamp of the first log line, if any
+   * @param lastLine  the timestamp of the last log line, if any
+   */
+  private void finishLogEntry(ArgoLog argoLog, String podName, Instant firstLine,
+      Instant lastLine) {
+    V1ContainerStateTerminated terminated = null;
+    KubernetesApiResponse<V1Pod> current = podApi.get(namespace, podName);
+    if (current.isSuccess() && current.getObject() != null) {
+      V1ContainerState state = mainContainerState(current.getObject());
+      terminated = state == null ? null : state.getTerminated();
+    }
+
+    if (terminated != null && terminated.getStartedAt() != null) {
+      argoLog.setStartTime(toTimestamp(terminated.getStartedAt()));
+    } else if (argoLog.getStartTime() == null && firstLine != null) {
+      argoLog.setStartTime(Timestamp.from(firstLine));
+    } else if (argoLog.getStartTime() == null) {
+      // argo_logs is partitioned by start time, which cannot be null
+      argoLog.setStartTime(new Timestamp(System.currentTimeMillis()));
+    }
+    if (terminated != null && terminated.getFinishedAt() != null) {
+      argoLog.setEndTime(toTimestamp(terminated.getFinishedAt()));
+    } else if (lastLine != null) {
+      argoLog.setEndTime(Timestamp.from(lastLine));
+    }
+    if (terminated == null) {
+      argoLog.setStatus("UNKNOWN");
+    } else {
+      argoLog.setStatus(Integer.valueOf(0).equals(terminated.getExitCode())
+          ? "COMPLETED" : "FAILED");
+    }
+    argoLogWriter.add(argoLog);
+    log.info("Log of pod {} complete with status {}", podName, argoLog.getStatus());
+  }
+
+  /**
+   * Returns the state of the main container of a pod.
+   *
+   * @param pod the pod
+   * @return the state, or null if the main container is still waiting or unknown
+   */
+  private static V1ContainerState mainContainerState(V1Pod pod) {
+    if (pod.getStatus() == null || pod.getStatus().getContainerStatuses() == null) {
+      return null;
+    }
+    for (V1ContainerStatus status : pod.getStatus().getContainerStatuses()) {
+      if (MAIN_CONTAINER.equals(status.getName()) && status.getState() != null
+          && (status.getState().getRunning() != null
+          || status.getState().getTerminated() != null)) {
+        return status.getState();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Derives the stage name of a pod from its Argo node name, {@code <workflow>.<stage>.<job>}.
+   *
+   * @param pod          the pod
+   * @param workflowName the workflow the pod belongs to
+   * @return the stage name, or the pod name if the node name is not available
+   */
+  static String stageName(V1Pod pod, String workflowName) {
+    Map<String, String> annotations = pod.getMetadata().getAnnotations();
+    String nodeName = annotations == null ? null : annotations.get(NODE_NAME_ANNOTATION);
+    if (nodeName == null || !nodeName.startsWith(workflowName + ".")) {
+      return pod.getMetadata().getName();
+    }
+    String taskPath = nodeName.substring(workflowName.length() + 1);
+    int end = taskPath.indexOf('.');
+    return end < 0 ? taskPath : taskPath.substring(0, end);
+  }
+
+  /**
+   * Parses the RFC 3339 timestamp the API server prefixes to each log line.
+   *
+   * @param line the log line
+   * @return the timestamp, or null if the line has none
+   */
+  static Instant parseTimestamp(String line) {
+    int end = line.indexOf(' ');
+    if (end <= 0) {
+      return null;
+    }
+    try {
+      return Instant.parse(line.substring(0, end));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static Timestamp toTimestamp(OffsetDateTime time) {
+    return time == null ? null : Timestamp.from(time.toInstant());
+  }
+
+  private static ListOptions selector(String labelSelector) {
+    ListOptions options = new ListOptions();
+    options.setLabelSelector(labelSelector);
+    return options;
+  }
+}
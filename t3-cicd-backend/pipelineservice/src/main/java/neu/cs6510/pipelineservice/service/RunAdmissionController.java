@@ -0,0 +1,334 @@
+package neu.cs6510.pipelineservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides when a queued pipeline run may start. A run holds an admission slot from the moment it
+ * is admitted until it reaches a final state, so the caps below bound the workflows in Argo and
+ * not only the runs being prepared:
+ * <ul>
+ *   <li>at most {@code pipelineservice.admission.max-running} runs at once,</li>
+ *   <li>at most {@code pipelineservice.admission.max-running-per-repo} of them per repository,</li>
+ *   <li>and, with a {@link ClusterCapacityProbe}, none while the cluster cannot place pods.</li>
+ * </ul>
+ *
+ * <p>Runs over the caps wait in one queue per repository. When a slot frees up, the next run is
+ * picked by weighted fair queuing: each queued run gets a virtual finish tag of
+ * {@code max(virtual time, previous tag of its repository) + 1 / weight}, and the smallest tag
+ * among the repositories under their cap goes first, ties going to the earlier arrival. A burst
+ * of pushes to one repository thus only delays that repository; the others keep their share.
+ * Weights default to 1 and are set per repository URL with
+ * {@code pipelineservice.admission.repo-weights}.
+ *
+ * <p>Queue depth, running runs, rejections and the time spent waiting for admission are
+ * published as {@code pipeline.runs.*} metrics.
+ */
+@Slf4j
+@Service
+public class RunAdmissionController {
+
+  private final int maxRunning;
+  private final int maxRunningPerRepo;
+  private final int queueCapacity;
+  private final Map<String, Integer> repoWeights;
+  private final ClusterCapacityProbe capacityProbe;
+  private final ScheduledExecutorService capacityChecker;
+
+  private final Timer waitTimer;
+  private final Counter rejectedCounter;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, RepoQueue> repoQueues = new HashMap<>();
+  private final Map<Long, String> admittedRuns = new HashMap<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger running = new AtomicInteger();
+  private double virtualTime;
+  private long nextSequence;
+  private volatile boolean clusterHasCapacity = true;
+
+  /**
+   * The runs of one repository that are waiting or admitted. Guarded by {@link #lock}.
+   */
+  private static final class RepoQueue {
+    private final Deque<QueuedRun> waiting = new ArrayDeque<>();
+    private int running;
+    private double lastFinishTag;
+  }
+
+  /**
+   * A run waiting for admission.
+   *
+   * @param runId       the ID of the run
+   * @param repoUrl     the repository of the run
+   * @param start       starts the run once admitted
+   * @param startTag    the virtual time at which the run becomes eligible
+   * @param finishTag   the virtual finish tag used for ordering
+   * @param sequence    the arrival order, to break ties between equal finish tags
+   * @param queuedNanos when the run was queued, for the wait time metric
+   */
+  private record QueuedRun(Long runId, String repoUrl, Runnable start, double startTag,
+      double finishTag, long sequence, long queuedNanos) {
+
+    private boolean before(QueuedRun other) {
+      return finishTag < other.finishTag
+          || (finishTag == other.finishTag && sequence < other.sequence);
+    }
+  }
+
+  @Autowired
+  public RunAdmissionController(MeterRegistry meterRegistry,
+      Optional<ClusterCapacityProbe> capacityProbe,
+      @Value("${pipelineservice.admission.max-running:20}") int maxRunning,
+      @Value("${pipelineservice.admission.max-running-per-repo:5}") int maxRunningPerRepo,
+      @Value("${pipelineservice.admission.queue-capacity:100}") int queueCapacity,
+      @Value("#{${pipelineservice.admission.repo-weights:{:}}}")
+      Map<String, Integer> repoWeights,
+      @Value("${pipelineservice.admission.capacity-check-ms:5000}") long capacityCheckMillis) {
+    this.maxRunning = maxRunning;
+    this.maxRunningPerRepo = maxRunningPerRepo;
+    this.queueCapacity = queueCapacity;
+    this.repoWeights = Map.copyOf(repoWeights);
+    this.capacityProbe = capacityProbe.orElse(null);
+
+    Gauge.builder("pipeline.runs.queued", queued, AtomicInteger::get)
+        .description("Runs waiting for admission")
+        .register(meterRegistry);
+    Gauge.builder("pipeline.runs.running", running, AtomicInteger::get)
+        .description("Admitted runs that have not finished")
+        .register(meterRegistry);
+    waitTimer = Timer.builder("pipeline.runs.admission.wait")
+        .description("Time runs spend waiting for admission")
+        .register(meterRegistry);
+    rejectedCounter = Counter.builder("pipeline.runs.rejected")
+        .description("Runs rejected because the admission queue was full")
+        .register(meterRegistry);
+
+    if (this.capacityProbe == null) {
+      capacityChecker = null;
+    } else {
+      capacityChecker = Executors.newSingleThreadScheduledExecutor(
+          new CustomizableThreadFactory("run-admission-"));
+      capacityChecker.scheduleWithFixedDelay(this::checkCapacity, capacityCheckMillis,
+          capacityCheckMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Admits a run, or queues it until it can be admitted. {@code start} is called exactly once
+   * when the run is admitted: on the calling thread if that happens right away, otherwise on the
+   * thread that frees the slot. The slot is held until {@link #release(Long)}.
+   *
+   * @param runId   the ID of the run
+   * @param repoUrl the repository of the run
+   * @param start   starts the run; must not block for long
+   * @throws RejectedExecutionException if the run cannot be admitted now and the queue is full
+   */
+  public void admit(Long runId, String repoUrl, Runnable start) {
+    List<QueuedRun> admitted;
+    boolean waiting;
+    boolean rejected = false;
+    lock.lock();
+    try {
+      RepoQueue repoQueue = repoQueues.computeIfAbsent(repoUrl, key -> new RepoQueue());
+      double previousFinishTag = repoQueue.lastFinishTag;
+      double startTag = Math.max(virtualTime, previousFinishTag);
+      double finishTag = startTag + 1.0 / weightOf(repoUrl);
+      repoQueue.lastFinishTag = finishTag;
+      repoQueue.waiting.add(new QueuedRun(runId, repoUrl, start, startTag, finishTag,
+          nextSequence++, System.nanoTime()));
+      queued.incrementAndGet();
+      admitted = pollAdmissible();
+      waiting = !admittedRuns.containsKey(runId);
+      if (waiting && queued.get() > queueCapacity) {
+        // Still waiting and over capacity: take the run back out before rejecting it
+        repoQueue.waiting.removeLast();
+        repoQueue.lastFinishTag = previousFinishTag;
+        queued.decrementAndGet();
+        if (repoQueue.running == 0 && repoQueue.waiting.isEmpty()) {
+          repoQueues.remove(repoUrl);
+        }
+        rejected = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    startAll(admitted, runId);
+    if (rejected) {
+      rejectedCounter.increment();
+      throw new RejectedExecutionException("Run queue is full");
+    }
+    if (waiting) {
+      log.info("Run {} of {} is waiting for admission, {} runs queued", runId, repoUrl,
+          queued.get());
+    }
+  }
+
+  /**
+   * Frees the slot of a finished run and admits the next queued runs. Does nothing for a run
+   * that was never admitted.
+   *
+   * @param runId the ID of the run
+   */
+  public void release(Long runId) {
+    List<QueuedRun> admitted;
+    lock.lock();
+    try {
+      String repoUrl = admittedRuns.remove(runId);
+      if (repoUrl == null) {
+        return;
+      }
+      running.decrementAndGet();
+      RepoQueue repoQueue = repoQueues.get(repoUrl);
+      repoQueue.running--;
+      if (repoQueue.running == 0 && repoQueue.waiting.isEmpty()) {
+        repoQueues.remove(repoUrl);
+      }
+      admitted = pollAdmissible();
+    } finally {
+      lock.unlock();
+    }
+    startAll(admitted, null);
+  }
+
+  /**
+   * Refreshes the cluster capacity and admits queued runs if there is room again.
+   */
+  void checkCapacity() {
+    boolean hadCapacity = clusterHasCapacity;
+    try {
+      clusterHasCapacity = capacityProbe.hasCapacity();
+    } catch (RuntimeException e) {
+      log.warn("Cluster capacity check failed: {}", e.getMessage());
+      clusterHasCapacity = true;
+    }
+    if (clusterHasCapacity && !hadCapacity) {
+      List<QueuedRun> admitted;
+      lock.lock();
+      try {
+        admitted = pollAdmissible();
+      } finally {
+        lock.unlock();
+      }
+      startAll(admitted, null);
+    }
+  }
+
+  /**
+   * Returns the number of runs waiting for admission.
+   *
+   * @return the queue depth
+   */
+  public int getQueuedCount() {
+    return queued.get();
+  }
+
+  /**
+   * Returns the number of runs admitted at once, across all repositories.
+   *
+   * @return the admission cap
+   */
+  public int getMaxRunning() {
+    return maxRunning;
+  }
+
+  /**
+   * Returns the number of admitted runs that have not finished.
+   *
+   * @return the running count
+   */
+  public int getRunningCount() {
+    return running.get();
+  }
+
+  /**
+   * Removes from the queues every run that can be admitted now, in fair order, and marks them
+   * admitted. Must be called with {@link #lock} held.
+   *
+   * @return the admitted runs, to be started once the lock is released
+   */
+  private List<QueuedRun> pollAdmissible() {
+    List<QueuedRun> admitted = new ArrayList<>();
+    while (running.get() < maxRunning && clusterHasCapacity) {
+      RepoQueue next = null;
+      for (RepoQueue repoQueue : repoQueues.values()) {
+        if (!repoQueue.waiting.isEmpty() && repoQueue.running < maxRunningPerRepo
+            && (next == null || repoQueue.waiting.peek().before(next.waiting.peek()))) {
+          next = repoQueue;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      QueuedRun run = next.waiting.poll();
+      next.running++;
+      queued.decrementAndGet();
+      running.incrementAndGet();
+      admittedRuns.put(run.runId(), run.repoUrl());
+      virtualTime = Math.max(virtualTime, run.startTag());
+      admitted.add(run);
+    }
+    return admitted;
+  }
+
+  /**
+   * Starts admitted runs outside the lock. A run whose start fails gives its slot back, and the
+   * failure is rethrown if it belongs to the run being admitted by the caller.
+   *
+   * @param admitted    the runs to start
+   * @param callerRunId the run being admitted by the caller, or null
+   */
+  private void startAll(List<QueuedRun> admitted, Long callerRunId) {
+    RuntimeException callerFailure = null;
+    for (QueuedRun run : admitted) {
+      waitTimer.record(System.nanoTime() - run.queuedNanos(), TimeUnit.NANOSECONDS);
+      try {
+        run.start().run();
+      } catch (RuntimeException e) {
+        log.error("Failed to start admitted run {}: {}", run.runId(), e.getMessage(), e);
+        release(run.runId());
+        if (run.runId().equals(callerRunId)) {
+          callerFailure = e;
+        }
+      }
+    }
+    if (callerFailure != null) {
+      throw callerFailure;
+    }
+  }
+
+  private int weightOf(String repoUrl) {
+    return Math.max(1, repoWeights.getOrDefault(repoUrl, 1));
+  }
+
+  /**
+   * Stops the capacity checks.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (capacityChecker != null) {
+      capacityChecker.shutdownNow();
+    }
+  }
+}
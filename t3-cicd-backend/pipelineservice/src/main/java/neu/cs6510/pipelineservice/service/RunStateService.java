@@ -0,0 +1,138 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.entity.RunStatus.QUEUED;
+import static neu.cs6510.shared.entity.RunStatus.RUNNING;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.JobRun;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.RunStatus;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.entity.StageRun;
+import neu.cs6510.shared.repository.JobRunRepository;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import neu.cs6510.shared.repository.StageRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the state of a run and of its stages and jobs. The stages and jobs of a pipeline are part
+ * of its definition, which is shared by all its runs, so each run gets its own {@link StageRun}
+ * and {@link JobRun} rows when its workflow is submitted.
+ *
+ * <p>The status of a run follows {@link RunStatus}. Each transition is a single update that only
+ * applies if the run still has the expected status, so that it is safe to apply from several
+ * threads or service replicas at once: exactly one of them moves the run, and the others are told
+ * that it had already moved. Only the final phase of a workflow is watched, so the stage and job
+ * runs go straight from pending to the final status of the run.
+ */
+@Slf4j
+@Service
+public class RunStateService {
+
+  private final PipelineRunRepository pipelineRunRepository;
+  private final StageRunRepository stageRunRepository;
+  private final JobRunRepository jobRunRepository;
+
+  @Autowired
+  public RunStateService(PipelineRunRepository pipelineRunRepository,
+      StageRunRepository stageRunRepository, JobRunRepository jobRunRepository) {
+    this.pipelineRunRepository = pipelineRunRepository;
+    this.stageRunRepository = stageRunRepository;
+    this.jobRunRepository = jobRunRepository;
+  }
+
+  /**
+   * Moves a queued run to running, with its pipeline, commit, configuration file, workflow name,
+   * template path and start time, and creates a pending stage run for every stage of the pipeline
+   * and a pending job run for every job.
+   *
+   * @param run the prepared run, with the fields above set
+   * @return true if the run was started, false if it was no longer queued
+   */
+  @Transactional
+  public boolean startRun(PipelineRun run) {
+    int updated = pipelineRunRepository.updateStarted(run.getId(), QUEUED.value(),
+        RUNNING.value(), run.getPipeline(), run.getCommitSha(), run.getConfigFilePath(),
+        run.getArgoWorkflowName(), run.getArgoYamlPath(), run.getStartTime());
+    if (updated == 0) {
+      log.warn("Run {} is no longer {}, not starting it", run.getId(), QUEUED.value());
+      return false;
+    }
+    run.setStatus(RUNNING.value());
+
+    List<JobRun> jobRuns = new ArrayList<>();
+    for (Stage stage : run.getPipeline().getStages()) {
+      StageRun stageRun = stageRunRepository.save(StageRun.builder()
+          .pipelineRun(run)
+          .stage(stage)
+          .build());
+      for (Job job : stage.getJobs()) {
+        jobRuns.add(JobRun.builder()
+            .pipelineRun(run)
+            .stageRun(stageRun)
+            .job(job)
+            .build());
+      }
+    }
+    jobRunRepository.saveAll(jobRuns);
+    log.debug("Created {} job runs for run {}", jobRuns.size(), run.getId());
+    return true;
+  }
+
+  /**
+   * Moves a run to a final status, and sets that status on its stage and job runs that are not
+   * finished yet.
+   *
+   * @param runId   the ID of the run
+   * @param from    the status the run is expected to have
+   * @param to      the final status
+   * @param message the reason of a failure, or null
+   * @param endTime the time the run finished
+   * @return true if the run was finished, false if it did not have the expected status
+   * @throws IllegalArgumentException if the transition is not allowed
+   */
+  @Transactional
+  public boolean finishRun(Long runId, RunStatus from, RunStatus to, String message,
+      Timestamp endTime) {
+    if (!to.isFinal() || !from.canMoveTo(to)) {
+      throw new IllegalArgumentException("Run cannot go from " + from.value() + " to "
+          + to.value());
+    }
+    if (pipelineRunRepository.updateFinished(runId, from.value(), to.value(), message,
+        endTime) == 0) {
+      log.warn("Run {} is no longer {}, not finishing it as {}", runId, from.value(),
+          to.value());
+      return false;
+    }
+    int stages = stageRunRepository.finishByPipelineRunId(runId, to.value(), endTime);
+    int jobs = jobRunRepository.finishByPipelineRunId(runId, to.value(), endTime);
+    log.info("Finished run {} with status {}, along with {} stage runs and {} job runs",
+        runId, to.value(), stages, jobs);
+    return true;
+  }
+
+  /**
+   * Deletes runs along with their stage and job runs.
+   *
+   * @param runIds the IDs of the runs
+   * @return the number of runs deleted
+   */
+  @Transactional
+  public int deleteRuns(Collection<Long> runIds) {
+    if (runIds.isEmpty()) {
+      return 0;
+    }
+    int jobs = jobRunRepository.deleteByPipelineRunIdIn(runIds);
+    int stages = stageRunRepository.deleteByPipelineRunIdIn(runIds);
+    int runs = pipelineRunRepository.deleteByIdIn(runIds);
+    log.debug("Deleted {} runs, along with {} stage runs and {} job runs", runs, stages, jobs);
+    return runs;
+  }
+}
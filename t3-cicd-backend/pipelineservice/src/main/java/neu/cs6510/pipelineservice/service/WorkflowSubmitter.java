@@ -0,0 +1,47 @@
+package neu.cs6510.pipelineservice.service;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+
+/**
+ * Submits Argo workflows for execution. The implementation is selected with the
+ * {@code pipelineservice.argo.submitter} property: {@code kubernetes} (default) creates the
+ * Workflow resource in-process through the Kubernetes API, {@code cli} falls back to the
+ * {@code argo} command line.
+ */
+public interface WorkflowSubmitter {
+
+  /**
+   * Submits the workflow.
+   *
+   * @param workflow the workflow resource built by {@link ArgoYamlService}
+   * @return a future completed with the final phase of the workflow, e.g. {@code Succeeded} or
+   *         {@code Failed}, once Argo reports that it has completed
+   * @throws IOException if the workflow could not be submitted
+   * @throws InterruptedException if the thread is interrupted while submitting
+   */
+  CompletableFuture<String> submit(ArgoWorkflow workflow)
+      throws IOException, InterruptedException;
+
+  /**
+   * Returns the WorkflowTemplate file that {@link #submit} writes for the workflow, which the run
+   * records so that the file is kept while the run is active.
+   *
+   * @param workflow the workflow about to be submitted
+   * @return the absolute path of the template file, or null if no file is written
+   */
+  default String templatePath(ArgoWorkflow workflow) {
+    return null;
+  }
+
+  /**
+   * Makes sure the logs of a completed workflow are saved, returning once they are.
+   *
+   * @param pipelineId   the ID of the pipeline executed by the workflow
+   * @param workflowName the name of the workflow
+   * @throws IOException if the logs could not be read
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  void collectLogs(Long pipelineId, String workflowName) throws IOException, InterruptedException;
+}
@@ -0,0 +1,443 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Argo.COMPLETED_PHASES;
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_LABEL;
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_VALUE;
+import static neu.cs6510.shared.constants.Argo.PHASE_SUCCEEDED;
+import static neu.cs6510.shared.constants.Argo.WORKFLOW_WATCHER_NAME;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_RUNNING;
+
+import com.google.gson.JsonElement;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import io.kubernetes.client.util.generic.KubernetesApiResponse;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesListObject;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesObject;
+import io.kubernetes.client.util.generic.options.ListOptions;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.RunStatus;
+import neu.cs6510.shared.entity.WatchCheckpoint;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import neu.cs6510.shared.repository.WatchCheckpointRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single watch on the Argo {@code Workflow} resources submitted by this service.
+ * A dedicated thread keeps one watch open against the Kubernetes API and dispatches every
+ * workflow that reaches a completed phase, so runs waiting for their workflow do not hold a
+ * thread or an {@code argo} process each.
+ *
+ * <p>Completed phases are delivered to the handle returned by {@link #register(String)}. Workflows
+ * without a handle belong to runs submitted before this instance started; their
+ * {@link PipelineRun} rows are finalized directly in the database.
+ *
+ * <p>The last seen {@code resourceVersion} is checkpointed to the {@code watch_checkpoints} table,
+ * so that after a restart the watch resumes where it stopped. If the API server no longer has that
+ * version ({@code 410 Gone}), the watcher relists the workflows and starts over from the list.
+ * The checkpoint may already be past the completion of a workflow whose run was not finalized
+ * yet when the previous instance stopped, so if runs were left running the watcher relists
+ * instead of resuming. A relist finalizes those runs from the listed workflows, and fails the
+ * runs whose workflow no longer exists.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pipelineservice.argo.submitter", havingValue = "kubernetes",
+    matchIfMissing = true)
+public class WorkflowWatcher {
+
+  private final DynamicKubernetesApi workflowApi;
+  private final WatchCheckpointRepository watchCheckpointRepository;
+  private final PipelineRunRepository pipelineRunRepository;
+  private final RunStateService runStateService;
+  private final PodLogCollector podLogCollector;
+  private final String namespace;
+  private final int watchTimeoutSeconds;
+  private final long checkpointIntervalMillis;
+  private final long retryDelayMillis;
+
+  /**
+   * Handles of the workflows submitted by this instance that have not completed yet.
+   */
+  private final Map<String, CompletableFuture<String>> pendingWorkflows =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Time when this instance started; runs started earlier have no in-memory handle.
+   */
+  private final Timestamp startedAt = new Timestamp(System.currentTimeMillis());
+
+  /**
+   * Serializes checkpoint writes. A lock rather than {@code synchronized}, which would pin a
+   * virtual thread to its carrier for the whole database round-trip.
+   */
+  private final ReentrantLock checkpointLock = new ReentrantLock();
+
+  private volatile String resourceVersion;
+  private volatile boolean running;
+  private Thread watchThread;
+  private String checkpointedVersion;
+  private long lastCheckpointMillis;
+
+  @Autowired
+  public WorkflowWatcher(@Qualifier("workflowApi") DynamicKubernetesApi workflowApi,
+      WatchCheckpointRepository watchCheckpointRepository,
+      PipelineRunRepository pipelineRunRepository,
+      RunStateService runStateService,
+      PodLogCollector podLogCollector,
+      @Value("${pipelineservice.argo.namespace:argo}") String namespace,
+      @Value("${pipelineservice.argo.watch-timeout-seconds:300}") int watchTimeoutSeconds,
+      @Value("${pipelineservice.argo.checkpoint-interval-ms:5000}") long checkpointIntervalMillis,
+      @Value("${pipelineservice.argo.watch-retry-ms:5000}") long retryDelayMillis) {
+    this.workflowApi = workflowApi;
+    this.watchCheckpointRepository = watchCheckpointRepository;
+    this.pipelineRunRepository = pipelineRunRepository;
+    this.runStateService = runStateService;
+    this.podLogCollector = podLogCollector;
+    this.namespace = namespace;
+    this.watchTimeoutSeconds = watchTimeoutSeconds;
+    this.checkpointIntervalMillis = checkpointIntervalMillis;
+    this.retryDelayMillis = retryDelayMillis;
+  }
+
+  /**
+   * Registers interest in a workflow. Must be called before the workflow is created, so that no
+   * event can be missed.
+   *
+   * @param workflowName the name of the workflow
+   * @return a future completed with the final phase of the workflow
+   */
+  public CompletableFuture<String> register(String workflowName) {
+    return pendingWorkflows.computeIfAbsent(workflowName, name -> new CompletableFuture<>());
+  }
+
+  /**
+   * Drops the handle of a workflow, e.g. when it could not be created.
+   *
+   * @param workflowName the name of the workflow
+   */
+  public void unregister(String workflowName) {
+    pendingWorkflows.remove(workflowName);
+  }
+
+  /**
+   * Starts the watch thread once the application is ready, resuming from the last checkpoint.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    resume();
+    running = true;
+    watchThread = Thread.ofPlatform().name("workflow-watcher").daemon().start(this::watchLoop);
+    log.info("Workflow watcher started in namespace {} from resourceVersion {}", namespace,
+        resourceVersion);
+  }
+
+  /**
+   * Stops the watch thread and writes a final checkpoint.
+   */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (watchThread != null) {
+      watchThread.interrupt();
+    }
+    saveCheckpoint(true);
+  }
+
+  /**
+   * Loads the last checkpointed {@code resourceVersion}, unless runs started by an earlier
+   * instance are still running: the next watch then starts with a relist that reconciles them.
+   */
+  void resume() {
+    resourceVersion = watchCheckpointRepository.findById(WORKFLOW_WATCHER_NAME)
+        .map(WatchCheckpoint::getResourceVersion)
+        .orElse(null);
+    checkpointedVersion = resourceVersion;
+    if (resourceVersion != null && !runsStartedBefore().isEmpty()) {
+      log.info("Runs were left running by an earlier instance, relisting workflows instead of "
+          + "resuming from resourceVersion {}", resourceVersion);
+      resourceVersion = null;
+    }
+  }
+
+  /**
+   * Keeps a watch open until the watcher is stopped, reopening it whenever the server closes it.
+   */
+  private void watchLoop() {
+    while (running) {
+      try {
+        watchOnce();
+      } catch (Exception e) {
+        if (!running) {
+          break;
+        }
+        log.warn("Workflow watch failed, retrying in {} ms: {}", retryDelayMillis,
+            e.getMessage());
+        try {
+          Thread.sleep(retryDelayMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    log.info("Workflow watcher stopped");
+  }
+
+  /**
+   * Runs a single watch session: relists if there is no version to resume from, then consumes
+   * events until the server closes the watch.
+   *
+   * @throws ApiException if the watch cannot be opened
+   * @throws IOException  if the list fails or the watch reports an error
+   */
+  void watchOnce() throws ApiException, IOException {
+    if (resourceVersion == null) {
+      relist();
+    }
+
+    ListOptions options = new ListOptions();
+    options.setLabelSelector(MANAGED_BY_LABEL + "=" + MANAGED_BY_VALUE);
+    options.setResourceVersion(resourceVersion);
+    options.setTimeoutSeconds(watchTimeoutSeconds);
+    Watchable<DynamicKubernetesObject> watch;
+    try {
+      watch = workflowApi.watch(namespace, options);
+    } catch (ApiException e) {
+      if (e.getCode() == HttpURLConnection.HTTP_GONE) {
+        log.info("resourceVersion {} expired, relisting workflows", resourceVersion);
+        resourceVersion = null;
+        return;
+      }
+      throw e;
+    }
+
+    try (watch) {
+      for (Watch.Response<DynamicKubernetesObject> event : watch) {
+        if ("ERROR".equals(event.type)) {
+          if (event.status != null && event.status.getCode() != null
+              && event.status.getCode() == HttpURLConnection.HTTP_GONE) {
+            log.info("resourceVersion {} expired, relisting workflows", resourceVersion);
+            resourceVersion = null;
+            return;
+          }
+          throw new IOException("Workflow watch error: "
+              + (event.status == null ? "unknown" : event.status.getMessage()));
+        }
+        onEvent(event.type, event.object);
+        saveCheckpoint(false);
+      }
+    }
+    saveCheckpoint(true);
+  }
+
+  /**
+   * Lists the managed workflows, dispatches the completed ones, fails the runs of this service
+   * whose workflow is not listed and remembers the list version as the starting point of the next
+   * watch.
+   *
+   * @throws IOException if the list request fails
+   */
+  private void relist() throws IOException {
+    ListOptions options = new ListOptions();
+    options.setLabelSelector(MANAGED_BY_LABEL + "=" + MANAGED_BY_VALUE);
+    KubernetesApiResponse<DynamicKubernetesListObject> response =
+        workflowApi.list(namespace, options);
+    if (!response.isSuccess()) {
+      throw new IOException(String.format("Failed to list workflows: HTTP %d",
+          response.getHttpStatusCode()));
+    }
+    DynamicKubernetesListObject list = response.getObject();
+    Set<String> listed = new HashSet<>();
+    if (list.getItems() != null) {
+      for (DynamicKubernetesObject workflow : list.getItems()) {
+        listed.add(workflow.getMetadata().getName());
+        dispatch(workflow);
+      }
+    }
+    failMissingRuns(listed);
+    resourceVersion = list.getMetadata().getResourceVersion();
+    saveCheckpoint(true);
+  }
+
+  /**
+   * Handles a single watch event.
+   *
+   * @param type     the event type: ADDED, MODIFIED, DELETED or BOOKMARK
+   * @param workflow the workflow carried by the event
+   */
+  private void onEvent(String type, DynamicKubernetesObject workflow) {
+    if (workflow == null || workflow.getMetadata() == null) {
+      return;
+    }
+    if (workflow.getMetadata().getResourceVersion() != null) {
+      resourceVersion = workflow.getMetadata().getResourceVersion();
+    }
+    if ("BOOKMARK".equals(type)) {
+      return;
+    }
+
+    dispatch(workflow);
+    if ("DELETED".equals(type)) {
+      CompletableFuture<String> handle = pendingWorkflows.remove(workflow.getMetadata().getName());
+      if (handle != null) {
+        handle.completeExceptionally(new IOException("Workflow "
+            + workflow.getMetadata().getName() + " was deleted before it completed"));
+      }
+    }
+  }
+
+  /**
+   * Delivers the phase of a completed workflow to its handle, or to its run in the database when
+   * the run was submitted before this instance started.
+   *
+   * @param workflow the workflow resource
+   */
+  private void dispatch(DynamicKubernetesObject workflow) {
+    String name = workflow.getMetadata().getName();
+    String phase = phaseOf(workflow);
+    if (phase == null || !COMPLETED_PHASES.contains(phase)) {
+      log.debug("Workflow {} is in phase {}", name, phase);
+      return;
+    }
+
+    CompletableFuture<String> handle = pendingWorkflows.remove(name);
+    if (handle != null) {
+      log.info("Workflow {} completed with phase {}", name, phase);
+      handle.complete(phase);
+    } else {
+      recoverRun(name, phase);
+    }
+  }
+
+  /**
+   * Finalizes the run of a workflow that completed while no handle was waiting for it.
+   * Only runs started before this instance are finalized; later runs are finalized by their
+   * handle. The run is only finished if it is still running, so that the watchers of several
+   * instances can see the same workflow complete.
+   *
+   * @param workflowName the name of the workflow
+   * @param phase        the final phase of the workflow
+   */
+  private void recoverRun(String workflowName, String phase) {
+    PipelineRun run = pipelineRunRepository.findByArgoWorkflowName(workflowName);
+    if (run == null || !STATUS_RUNNING.equals(run.getStatus())
+        || run.getStartTime() == null || !run.getStartTime().before(startedAt)) {
+      return;
+    }
+
+    Timestamp completionTime = new Timestamp(System.currentTimeMillis());
+    boolean succeeded = PHASE_SUCCEEDED.equals(phase);
+    String message = succeeded ? null
+        : "Workflow " + workflowName + " finished with phase " + phase;
+    if (runStateService.finishRun(run.getId(), RunStatus.RUNNING,
+        succeeded ? RunStatus.SUCCESS : RunStatus.FAILED, message, completionTime)) {
+      log.info("Recovered run {} of workflow {} with phase {}", run.getId(), workflowName, phase);
+      podLogCollector.collectRecovered(workflowName);
+    }
+  }
+
+  /**
+   * Fails the runs started before this instance whose workflow is gone, e.g. deleted while no
+   * instance was watching: no event will ever finish them.
+   *
+   * @param listed the names of the workflows that exist
+   */
+  private void failMissingRuns(Set<String> listed) {
+    for (PipelineRun run : runsStartedBefore()) {
+      String workflowName = run.getArgoWorkflowName();
+      if (workflowName == null || listed.contains(workflowName)) {
+        continue;
+      }
+      if (runStateService.finishRun(run.getId(), RunStatus.RUNNING, RunStatus.FAILED,
+          "Workflow " + workflowName + " no longer exists",
+          new Timestamp(System.currentTimeMillis()))) {
+        log.info("Failed run {} of missing workflow {}", run.getId(), workflowName);
+      }
+    }
+  }
+
+  /**
+   * Returns the running runs started before this instance, which no handle is waiting for.
+   */
+  private List<PipelineRun> runsStartedBefore() {
+    return pipelineRunRepository.findByStatus(STATUS_RUNNING).stream()
+        .filter(run -> run.getStartTime() != null && run.getStartTime().before(startedAt))
+        .toList();
+  }
+
+  /**
+   * Writes the current {@code resourceVersion} to the database, at most once per checkpoint
+   * interval unless forced.
+   *
+   * @param force whether to ignore the checkpoint interval
+   */
+  private void saveCheckpoint(boolean force) {
+    checkpointLock.lock();
+    try {
+      String version = resourceVersion;
+      long now = System.currentTimeMillis();
+      if (version == null || version.equals(checkpointedVersion)
+          || (!force && now - lastCheckpointMillis < checkpointIntervalMillis)) {
+        return;
+      }
+      watchCheckpointRepository.save(WatchCheckpoint.builder()
+          .name(WORKFLOW_WATCHER_NAME)
+          .resourceVersion(version)
+          .updatedTime(new Timestamp(now))
+          .build());
+      checkpointedVersion = version;
+      lastCheckpointMillis = now;
+    } catch (RuntimeException e) {
+      log.warn("Failed to checkpoint resourceVersion {}: {}", resourceVersion, e.getMessage());
+    } finally {
+      checkpointLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the {@code resourceVersion} the next watch will resume from.
+   *
+   * @return the resource version, or null if the next watch starts with a relist
+   */
+  String getResourceVersion() {
+    return resourceVersion;
+  }
+
+  /**
+   * Reads {@code status.phase} of a workflow resource.
+   *
+   * @param workflow the workflow resource
+   * @return the phase, or null if the workflow controller has not set it yet
+   */
+  static String phaseOf(DynamicKubernetesObject workflow) {
+    if (workflow == null || workflow.getRaw() == null) {
+      return null;
+    }
+    JsonElement status = workflow.getRaw().get("status");
+    if (status == null || !status.isJsonObject()) {
+      return null;
+    }
+    JsonElement phase = status.getAsJsonObject().get("phase");
+    return phase == null || phase.isJsonNull() ? null : phase.getAsString();
+  }
+}
@@ -0,0 +1,368 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Kubernetes.PV_ARGO_LOG_PATH;
+import static neu.cs6510.shared.constants.Kubernetes.PV_ARGO_PATH;
+import static neu.cs6510.shared.constants.Kubernetes.PV_ARGO_TEMPLATE_PATH;
+import static neu.cs6510.shared.constants.Kubernetes.PV_GIT_MIRROR_PATH;
+import static neu.cs6510.shared.constants.Kubernetes.PV_PATH;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_QUEUED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_RUNNING;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import neu.cs6510.shared.projection.RunFiles;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes the workspaces left on the persistent volumes: the working trees checked out under
+ * {@code PV_PATH}, and the workflow and WorkflowTemplate YAML files written under
+ * {@code PV_ARGO_PATH}. Each direct child of those directories is one workspace; the mirrors of
+ * the repositories and the log files are never touched.
+ *
+ * <p>Every {@code pipelineservice.reclaimer.interval-ms}, a pass measures the workspaces and
+ * <ul>
+ *   <li>deletes those last used more than {@code max-age-hours} ago,</li>
+ *   <li>then, while they take more than {@code max-bytes} in total, deletes the least recently
+ *       used ones.</li>
+ * </ul>
+ * A workspace is last used when any file in it was last modified or read. Workspaces used less
+ * than {@code min-age-minutes} ago may still be being written and are left alone, as are those
+ * referenced by a queued or running run: its workflow file and the template file of its
+ * pipeline. If the runs cannot be read, the pass deletes nothing.
+ *
+ * <p>The disk usage and the reclaimed workspaces are published as {@code workspace.*} metrics.
+ */
+@Slf4j
+@Service
+public class WorkspaceReclaimer {
+
+  private static final String REASON_AGE = "age";
+  private static final String REASON_SIZE = "size";
+
+  private final PipelineRunRepository pipelineRunRepository;
+  private final boolean enabled;
+  private final long intervalMillis;
+  private final Duration maxAge;
+  private final long maxBytes;
+  private final Duration minAge;
+  private final List<Path> roots;
+  private final Set<Path> excluded;
+  private final Path workflowDirectory;
+
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong workspaceCount = new AtomicLong();
+  private final Counter ageReclaimedCounter;
+  private final Counter sizeReclaimedCounter;
+  private final Counter reclaimedBytesCounter;
+  private final Timer passTimer;
+
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * A workspace found on the volume.
+   *
+   * @param path     the directory or file of the workspace
+   * @param bytes    the size of its files
+   * @param lastUsed when any of its files was last modified or read, in epoch milliseconds
+   */
+  record Workspace(Path path, long bytes, long lastUsed) {
+  }
+
+  @Autowired
+  public WorkspaceReclaimer(MeterRegistry meterRegistry,
+      PipelineRunRepository pipelineRunRepository,
+      @Value("${pipelineservice.reclaimer.enabled:true}") boolean enabled,
+      @Value("${pipelineservice.reclaimer.interval-ms:600000}") long intervalMillis,
+      @Value("${pipelineservice.reclaimer.max-age-hours:168}") long maxAgeHours,
+      @Value("${pipelineservice.reclaimer.max-bytes:10737418240}") long maxBytes,
+      @Value("${pipelineservice.reclaimer.min-age-minutes:30}") long minAgeMinutes,
+      @Value("${pipelineservice.reclaimer.workspace-dir:" + PV_PATH + "}") String workspaceDir,
+      @Value("${pipelineservice.reclaimer.mirror-dir:" + PV_GIT_MIRROR_PATH + "}")
+      String mirrorDir,
+      @Value("${pipelineservice.reclaimer.workflow-dir:" + PV_ARGO_PATH + "}") String workflowDir,
+      @Value("${pipelineservice.reclaimer.template-dir:" + PV_ARGO_TEMPLATE_PATH + "}")
+      String templateDir,
+      @Value("${pipelineservice.argo.log-dir:" + PV_ARGO_LOG_PATH + "}") String logDir) {
+    this.pipelineRunRepository = pipelineRunRepository;
+    this.enabled = enabled;
+    this.intervalMillis = intervalMillis;
+    this.maxAge = Duration.ofHours(maxAgeHours);
+    this.maxBytes = maxBytes;
+    this.minAge = Duration.ofMinutes(minAgeMinutes);
+    this.workflowDirectory = normalize(workflowDir);
+    this.roots = List.of(normalize(workspaceDir), workflowDirectory, normalize(templateDir));
+    // The template directory is reclaimed as a root of its own, not as a workspace
+    this.excluded = Set.of(normalize(mirrorDir), normalize(logDir), normalize(templateDir));
+
+    Gauge.builder("workspace.disk.usage", usedBytes, AtomicLong::get)
+        .description("Bytes taken by the workspaces on the persistent volumes")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("workspace.count", workspaceCount, AtomicLong::get)
+        .description("Workspaces on the persistent volumes")
+        .register(meterRegistry);
+    ageReclaimedCounter = reclaimedCounter(meterRegistry, REASON_AGE);
+    sizeReclaimedCounter = reclaimedCounter(meterRegistry, REASON_SIZE);
+    reclaimedBytesCounter = Counter.builder("workspace.reclaimed.bytes")
+        .description("Bytes freed by deleting workspaces")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    passTimer = Timer.builder("workspace.reclaim")
+        .description("Time spent measuring and reclaiming the workspaces")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts the periodic passes once the application is ready, unless disabled.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      log.info("Workspace reclaimer disabled");
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("workspace-reclaimer-"));
+    scheduler.scheduleWithFixedDelay(this::reclaimQuietly, intervalMillis, intervalMillis,
+        TimeUnit.MILLISECONDS);
+    log.info("Workspace reclaimer started on {}: max age {}, max {} bytes", roots, maxAge,
+        maxBytes);
+  }
+
+  /**
+   * Stops the periodic passes.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs one pass: measures the workspaces, then deletes the expired ones and, if still over
+   * the size budget, the least recently used ones.
+   *
+   * @return the number of workspaces deleted
+   */
+  public int reclaim() {
+    return passTimer.record(this::reclaimWorkspaces);
+  }
+
+  private void reclaimQuietly() {
+    try {
+      reclaim();
+    } catch (RuntimeException e) {
+      // Keeps the schedule alive
+      log.error("Workspace reclaim pass failed", e);
+    }
+  }
+
+  private int reclaimWorkspaces() {
+    Set<Path> referenced;
+    try {
+      referenced = referencedPaths();
+    } catch (RuntimeException e) {
+      log.warn("Cannot read the active runs, skipping the reclaim pass: {}", e.getMessage());
+      return 0;
+    }
+
+    List<Workspace> workspaces = scan();
+    long total = workspaces.stream().mapToLong(Workspace::bytes).sum();
+    long now = System.currentTimeMillis();
+    List<Workspace> candidates = new ArrayList<>();
+    for (Workspace workspace : workspaces) {
+      if (now - workspace.lastUsed() >= minAge.toMillis()
+          && !isReferenced(workspace.path(), referenced)) {
+        candidates.add(workspace);
+      }
+    }
+    candidates.sort(Comparator.comparingLong(Workspace::lastUsed));
+
+    int deleted = 0;
+    List<Workspace> kept = new ArrayList<>();
+    for (Workspace workspace : candidates) {
+      if (now - workspace.lastUsed() > maxAge.toMillis() && delete(workspace, REASON_AGE)) {
+        total -= workspace.bytes();
+        deleted++;
+      } else {
+        kept.add(workspace);
+      }
+    }
+    // Least recently used first
+    for (Workspace workspace : kept) {
+      if (total <= maxBytes) {
+        break;
+      }
+      if (delete(workspace, REASON_SIZE)) {
+        total -= workspace.bytes();
+        deleted++;
+      }
+    }
+
+    usedBytes.set(total);
+    workspaceCount.set(workspaces.size() - deleted);
+    if (total > maxBytes) {
+      log.warn("Workspaces still take {} bytes, over the budget of {}: the rest is in use",
+          total, maxBytes);
+    }
+    log.info("Reclaimed {} of {} workspaces, {} bytes left", deleted, workspaces.size(), total);
+    return deleted;
+  }
+
+  /**
+   * Returns the files the queued and running runs need: their workflow files and the template
+   * files the argo CLI submitter wrote for them. Only these two columns are read, not the runs
+   * and their pipelines.
+   */
+  private Set<Path> referencedPaths() {
+    Set<Path> paths = new HashSet<>();
+    for (RunFiles run : pipelineRunRepository.findFilesByStatusIn(
+        List.of(STATUS_QUEUED, STATUS_RUNNING))) {
+      if (run.argoWorkflowName() != null) {
+        paths.add(workflowDirectory.resolve(run.argoWorkflowName() + ".yaml"));
+      }
+      if (run.argoYamlPath() != null) {
+        paths.add(normalize(run.argoYamlPath()));
+      }
+    }
+    return paths;
+  }
+
+  private static boolean isReferenced(Path workspace, Set<Path> referenced) {
+    for (Path path : referenced) {
+      if (path.startsWith(workspace)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Lists and measures the workspaces of every root that exists.
+   */
+  List<Workspace> scan() {
+    List<Workspace> workspaces = new ArrayList<>();
+    for (Path root : roots) {
+      if (!Files.isDirectory(root)) {
+        continue;
+      }
+      List<Path> children;
+      try (Stream<Path> list = Files.list(root)) {
+        children = list.toList();
+      } catch (IOException e) {
+        log.warn("Cannot list workspaces in {}: {}", root, e.getMessage());
+        continue;
+      }
+      for (Path child : children) {
+        if (excluded.contains(child) || roots.contains(child)) {
+          continue;
+        }
+        try {
+          workspaces.add(measure(child));
+        } catch (NoSuchFileException e) {
+          // Deleted since it was listed
+        } catch (IOException e) {
+          log.warn("Cannot measure workspace {}: {}", child, e.getMessage());
+        }
+      }
+    }
+    return workspaces;
+  }
+
+  private static Workspace measure(Path path) throws IOException {
+    long[] bytes = new long[1];
+    long[] lastUsed = new long[1];
+    Files.walkFileTree(path, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+        lastUsed[0] = Math.max(lastUsed[0], lastUsed(attributes));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+        bytes[0] += attributes.size();
+        lastUsed[0] = Math.max(lastUsed[0], lastUsed(attributes));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException e) {
+        // A file deleted while walking
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return new Workspace(path, bytes[0], lastUsed[0]);
+  }
+
+  private static long lastUsed(BasicFileAttributes attributes) {
+    return Math.max(attributes.lastModifiedTime().toMillis(),
+        attributes.lastAccessTime().toMillis());
+  }
+
+  private boolean delete(Workspace workspace, String reason) {
+    try {
+      deleteRecursively(workspace.path());
+    } catch (IOException e) {
+      log.warn("Cannot delete workspace {}: {}", workspace.path(), e.getMessage());
+      return false;
+    }
+    (REASON_AGE.equals(reason) ? ageReclaimedCounter : sizeReclaimedCounter).increment();
+    reclaimedBytesCounter.increment(workspace.bytes());
+    log.info("Deleted workspace {} ({} bytes) by {}", workspace.path(), workspace.bytes(),
+        reason);
+    return true;
+  }
+
+  private static void deleteRecursively(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path child : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(child);
+      }
+    }
+  }
+
+  private static Counter reclaimedCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("workspace.reclaimed")
+        .description("Workspaces deleted, by whether they expired or the volume was over budget")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  private static Path normalize(String path) {
+    return Paths.get(path).toAbsolutePath().normalize();
+  }
+}
@@ -0,0 +1,113 @@
+package neu.cs6510.pipelineservice.utils;
+
+/**
+ * Parser for the lines printed by {@code argo logs}, which look like
+ * {@code <pod name>: <message>} with the pod name wrapped in ANSI color codes.
+ * Every method scans the line once, without regular expressions, and allocates little more
+ * than the returned string: the line is only copied when it holds color codes to strip.
+ */
+public class ArgoLogLineParser {
+
+  private static final char ESCAPE = '\u001B';
+  private static final char SEPARATOR = ':';
+
+  private ArgoLogLineParser() {
+  }
+
+  /**
+   * Returns the pod name of a log line: the text before the first colon, or the whole line when
+   * it has none, without color codes and surrounding whitespace.
+   *
+   * @param line the log line
+   * @return the pod name
+   */
+  public static String podName(String line) {
+    int end = line.indexOf(SEPARATOR);
+    return clean(line, 0, end < 0 ? line.length() : end);
+  }
+
+  /**
+   * Returns the first field of the message of a log line: the text between the first and the
+   * second colon, or up to the end of the line, without color codes and surrounding whitespace.
+   * For a stage banner this is the stage name.
+   *
+   * @param line the log line
+   * @return the first message field, or {@code null} if the line has no colon
+   */
+  public static String firstField(String line) {
+    int start = line.indexOf(SEPARATOR);
+    if (start < 0) {
+      return null;
+    }
+    int end = line.indexOf(SEPARATOR, start + 1);
+    return clean(line, start + 1, end < 0 ? line.length() : end);
+  }
+
+  /**
+   * Returns {@code line[start, end)} without color codes and surrounding whitespace.
+   */
+  private static String clean(String line, int start, int end) {
+    int escape = line.indexOf(ESCAPE, start);
+    CharSequence text = line;
+    if (escape >= 0 && escape < end) {
+      text = strip(line, start, end);
+      start = 0;
+      end = text.length();
+    }
+    while (start < end && isBlank(text.charAt(start))) {
+      start++;
+    }
+    while (end > start && isBlank(text.charAt(end - 1))) {
+      end--;
+    }
+    return text.subSequence(start, end).toString();
+  }
+
+  /**
+   * Whitespace and control characters, except the escape character of a sequence that was not
+   * stripped, which {@link String#trim()} would otherwise cut in half.
+   */
+  private static boolean isBlank(char c) {
+    return c <= ' ' && c != ESCAPE;
+  }
+
+  /**
+   * Copies {@code text[start, end)} into a builder, skipping complete color codes.
+   */
+  private static StringBuilder strip(String text, int start, int end) {
+    StringBuilder cleaned = new StringBuilder(end - start);
+    int i = start;
+    while (i < end) {
+      char c = text.charAt(i);
+      int codeEnd = c == ESCAPE ? colorCodeEnd(text, i, end) : -1;
+      if (codeEnd < 0) {
+        cleaned.append(c);
+        i++;
+      } else {
+        i = codeEnd;
+      }
+    }
+    return cleaned;
+  }
+
+  /**
+   * Returns the index just past the color code starting at {@code escape}, or {@code -1} if the
+   * escape character does not start a complete color code before {@code end}.
+   */
+  private static int colorCodeEnd(String text, int escape, int end) {
+    int i = escape + 1;
+    if (i >= end || text.charAt(i) != '[') {
+      return -1;
+    }
+    for (i++; i < end; i++) {
+      char c = text.charAt(i);
+      if (c == 'm') {
+        return i + 1;
+      }
+      if (c != ';' && (c < '0' || c > '9')) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,288 @@
+package neu.cs6510.pipelineservice.utils;
+
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_LABEL;
+import static neu.cs6510.shared.constants.Argo.MANAGED_BY_VALUE;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * Writes Argo resources as YAML to a stream, in UTF-8, without building the document in memory.
+ * The document is fed to the SnakeYAML {@link Emitter} as events while walking the
+ * {@link Pipeline} entity, or the resource map, so that neither a node tree nor the serialized
+ * {@code String} is ever held; only the current nesting level is.
+ *
+ * <p>The output is byte-for-byte what {@code new Yaml(dumperOptions()).dump(resource)} produces
+ * for the resource {@code ArgoYamlService} generates: scalars are represented and their tags
+ * resolved the way the SnakeYAML serializer does, and the same {@link Emitter} lays them out.
+ * A change to the generated resources must be made in both places.
+ *
+ * <p>The jobs of each stage are written as they are held, which is the execution order recorded
+ * when the configuration was validated.
+ */
+public class ArgoYamlEmitter {
+
+  private static final String SCRIPT_PARAMETER = "script";
+
+  private final Emitter emitter;
+  private final Representer representer;
+  private final Resolver resolver = new Resolver();
+
+  private ArgoYamlEmitter(OutputStream out) {
+    DumperOptions options = dumperOptions();
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    this.emitter = new Emitter(writer, options);
+    // Set up the way the Yaml facade does it
+    this.representer = new Representer(options);
+    this.representer.setDefaultFlowStyle(options.getDefaultFlowStyle());
+    this.representer.setDefaultScalarStyle(options.getDefaultScalarStyle());
+  }
+
+  /**
+   * Returns the options the Argo resources are serialized with: block style, pretty flow.
+   *
+   * @return new dumper options
+   */
+  public static DumperOptions dumperOptions() {
+    DumperOptions options = new DumperOptions();
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    options.setPrettyFlow(true);
+    return options;
+  }
+
+  /**
+   * Writes a resource held as nested maps, lists and scalars. The stream is flushed but not
+   * closed.
+   *
+   * @param resource the resource, e.g. a thin Workflow
+   * @param out      the stream to write to
+   * @throws IOException if writing to the stream fails
+   */
+  public static void writeResource(Map<String, ?> resource, OutputStream out)
+      throws IOException {
+    ArgoYamlEmitter yaml = new ArgoYamlEmitter(out);
+    yaml.startDocument();
+    yaml.value(resource);
+    yaml.endDocument();
+  }
+
+  /**
+   * Writes the WorkflowTemplate of a pipeline straight from its entity. The stream is flushed but
+   * not closed.
+   *
+   * @param pipeline     the pipeline, with its stages and jobs
+   * @param templateName the name of the template
+   * @param out          the stream to write to
+   * @throws IOException if writing to the stream fails
+   */
+  public static void writeWorkflowTemplate(Pipeline pipeline, String templateName,
+      OutputStream out) throws IOException {
+    ArgoYamlEmitter yaml = new ArgoYamlEmitter(out);
+    yaml.startDocument();
+    yaml.startMapping();
+    yaml.entry("apiVersion", "argoproj.io/v1alpha1");
+    yaml.entry("kind", "WorkflowTemplate");
+    yaml.key("metadata");
+    yaml.startMapping();
+    yaml.entry("name", templateName);
+    yaml.key("labels");
+    yaml.value(Map.of(MANAGED_BY_LABEL, MANAGED_BY_VALUE));
+    yaml.endMapping();
+
+    yaml.key("spec");
+    yaml.startMapping();
+    yaml.entry("entrypoint", "pipeline");
+    yaml.key("templates");
+    yaml.startSequence();
+    yaml.writeStageDag(pipeline.getStages());
+    for (Stage stage : pipeline.getStages()) {
+      yaml.writeStageTemplate(stage);
+    }
+    for (Stage stage : pipeline.getStages()) {
+      for (Job job : stage.getJobs()) {
+        yaml.writeJobTemplate(job);
+      }
+    }
+    yaml.endSequence();
+    yaml.endMapping();
+    yaml.endMapping();
+    yaml.endDocument();
+  }
+
+  private void writeStageDag(List<Stage> stages) throws IOException {
+    startMapping();
+    entry("name", "pipeline");
+    key("dag");
+    startMapping();
+    key("tasks");
+    startSequence();
+    for (int i = 0; i < stages.size(); i++) {
+      String stageName = stages.get(i).getName();
+      startMapping();
+      entry("name", stageName);
+      entry("template", stageName + "-dag");
+      if (i > 0) {
+        key("dependencies");
+        value(List.of(stages.get(i - 1).getName()));
+      }
+      endMapping();
+    }
+    endSequence();
+    endMapping();
+    endMapping();
+  }
+
+  private void writeStageTemplate(Stage stage) throws IOException {
+    startMapping();
+    entry("name", stage.getName() + "-dag");
+    key("dag");
+    startMapping();
+    key("tasks");
+    startSequence();
+    for (Job job : stage.getJobs()) {
+      startMapping();
+      entry("name", job.getName());
+      entry("template", job.getName() + "-template");
+      if (!job.getNeeds().isEmpty()) {
+        key("dependencies");
+        value(job.getNeeds());
+      }
+      key("arguments");
+      startMapping();
+      key("parameters");
+      startSequence();
+      startMapping();
+      entry("name", SCRIPT_PARAMETER);
+      entry("value", String.join("\n", job.getScripts()));
+      endMapping();
+      endSequence();
+      endMapping();
+      endMapping();
+    }
+    endSequence();
+    endMapping();
+    endMapping();
+  }
+
+  private void writeJobTemplate(Job job) throws IOException {
+    startMapping();
+    entry("name", job.getName() + "-template");
+    key("inputs");
+    startMapping();
+    key("parameters");
+    startSequence();
+    startMapping();
+    entry("name", SCRIPT_PARAMETER);
+    endMapping();
+    endSequence();
+    endMapping();
+    key("container");
+    startMapping();
+    entry("image", job.getImageName());
+    key("command");
+    value(List.of("sh", "-c"));
+    key("args");
+    value(List.of("{{inputs.parameters.script}}"));
+    endMapping();
+    endMapping();
+  }
+
+  private void startDocument() throws IOException {
+    emitter.emit(new StreamStartEvent(null, null));
+    emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+  }
+
+  private void endDocument() throws IOException {
+    emitter.emit(new DocumentEndEvent(null, null, false));
+    // Flushes the writer
+    emitter.emit(new StreamEndEvent(null, null));
+  }
+
+  private void startMapping() throws IOException {
+    emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null,
+        DumperOptions.FlowStyle.BLOCK));
+  }
+
+  private void endMapping() throws IOException {
+    emitter.emit(new MappingEndEvent(null, null));
+  }
+
+  private void startSequence() throws IOException {
+    emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null,
+        DumperOptions.FlowStyle.BLOCK));
+  }
+
+  private void endSequence() throws IOException {
+    emitter.emit(new SequenceEndEvent(null, null));
+  }
+
+  private void key(String key) throws IOException {
+    scalar(key);
+  }
+
+  private void entry(String key, String value) throws IOException {
+    scalar(key);
+    scalar(value);
+  }
+
+  private void value(Object value) throws IOException {
+    if (value instanceof Map<?, ?> map) {
+      startMapping();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        value(entry.getKey());
+        value(entry.getValue());
+      }
+      endMapping();
+    } else if (value instanceof Collection<?> collection) {
+      startSequence();
+      for (Object element : collection) {
+        value(element);
+      }
+      endSequence();
+    } else {
+      scalar(value);
+    }
+  }
+
+  /**
+   * Emits a scalar with the tag, style and implicit flags the SnakeYAML serializer would give it:
+   * multi-line strings become literal blocks, and strings that would read back as another type,
+   * such as {@code "true"}, get quoted.
+   */
+  private void scalar(Object value) throws IOException {
+    ScalarNode node = (ScalarNode) representer.represent(value);
+    String tag = node.getTag().getValue();
+    ImplicitTuple implicit = new ImplicitTuple(
+        node.getTag().equals(resolver.resolve(NodeId.scalar, node.getValue(), true)),
+        node.getTag().equals(resolver.resolve(NodeId.scalar, node.getValue(), false)));
+    emitter.emit(new ScalarEvent(null, tag, implicit, node.getValue(), null, null,
+        node.getScalarStyle()));
+  }
+}
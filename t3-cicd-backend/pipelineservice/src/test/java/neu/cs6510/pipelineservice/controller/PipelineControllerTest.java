@@ -1,44 +1,47 @@
 package neu.cs6510.pipelineservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import neu.cs6510.pipelineservice.service.ArgoCommandExecutionService;
-import neu.cs6510.pipelineservice.service.ArgoYamlService;
-import neu.cs6510.pipelineservice.service.PipelinePreparationService;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import neu.cs6510.pipelineservice.service.PipelineRunService;
 import neu.cs6510.shared.entity.Pipeline;
-import neu.cs6510.shared.repository.ArgoLogRepository;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.projection.RunSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class PipelineControllerTest {
 
   @Mock
-  private PipelinePreparationService pipelinePreparationService;
-
-  @Mock
-  private ArgoYamlService argoYamlService;
-
-  @Mock
-  private ArgoCommandExecutionService argoCommandExecutionService;
-  @Mock
-  private ArgoLogRepository argoLogRepository;
+  private PipelineRunService pipelineRunService;
 
   @InjectMocks
   private PipelineController pipelineController;
@@ -61,18 +64,18 @@ class PipelineControllerTest {
     requestParams.put("config_path", "path/to/config");
     requestParams.put("pipeline_name", null);
 
-    Pipeline mockPipeline = mock(Pipeline.class);
-    when(mockPipeline.getId()).thenReturn(1L);
-    when(pipelinePreparationService.preparePipeline("https://github.com/example/repo", "main", "path/to/config", null))
-        .thenReturn(mockPipeline);
+    when(pipelineRunService.enqueueRun("https://github.com/example/repo", "main", "path/to/config", null))
+        .thenReturn(PipelineRun.builder().id(1L).build());
 
     mockMvc.perform(post("/pipeline/run")
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(requestParams)))
-        .andExpect(status().isOk());
+        .andExpect(status().isOk())
+      .andExpect(jsonPath("$.runId").value("1"))
+      .andExpect(jsonPath("$.runStatus").value("queued"));
 
-    verify(pipelinePreparationService, times(1))
-        .preparePipeline("https://github.com/example/repo", "main", "path/to/config", null);
+    verify(pipelineRunService, times(1))
+        .enqueueRun("https://github.com/example/repo", "main", "path/to/config", null);
   }
 
   @Test
@@ -83,18 +86,17 @@ class PipelineControllerTest {
     requestParams.put("config_path", null);
     requestParams.put("pipeline_name", "example-pipeline");
 
-    Pipeline mockPipeline = mock(Pipeline.class);
-    when(mockPipeline.getId()).thenReturn(2L);
-    when(pipelinePreparationService.preparePipeline("https://github.com/example/repo", "main", null, "example-pipeline"))
-        .thenReturn(mockPipeline);
+    when(pipelineRunService.enqueueRun("https://github.com/example/repo", "main", null, "example-pipeline"))
+        .thenReturn(PipelineRun.builder().id(2L).build());
 
     mockMvc.perform(post("/pipeline/run")
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(requestParams)))
-        .andExpect(status().isOk());
+        .andExpect(status().isOk())
+      .andExpect(jsonPath("$.runId").value("2"));
 
-    verify(pipelinePreparationService, times(1))
-        .preparePipeline("https://github.com/example/repo", "main", null, "example-pipeline");
+    verify(pipelineRunService, times(1))
+        .enqueueRun("https://github.com/example/repo", "main", null, "example-pipeline");
   }
 
   @Test
@@ -139,4 +141,139 @@ class PipelineControllerTest {
       .andExpect(jsonPath("$.message").value("Validation error: Only one of configPath or pipelineName should be provided, not both."))
       .andExpect(jsonPath("$.status").value("error"));
   }
+
+  @Test
+  void testRunPipelineQueueFull() throws Exception {
+    Map<String, Object> requestParams = new HashMap<>();
+    requestParams.put("repo_url", "https://github.com/example/repo");
+    requestParams.put("branch", "main");
+    requestParams.put("pipeline_name", "example-pipeline");
+
+    when(pipelineRunService.enqueueRun(anyString(), anyString(), any(), anyString()))
+        .thenThrow(new RejectedExecutionException("full"));
+
+    mockMvc.perform(post("/pipeline/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(requestParams)))
+        .andExpect(status().isServiceUnavailable())
+      .andExpect(jsonPath("$.status").value("error"));
+  }
+
+  @Test
+  void testRunPipelineValidationErrorDoesNotQueue() throws Exception {
+    Map<String, Object> requestParams = new HashMap<>();
+    requestParams.put("branch", "main");
+
+    mockMvc.perform(post("/pipeline/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(requestParams)))
+        .andExpect(status().isBadRequest());
+
+    verify(pipelineRunService, never()).enqueueRun(any(), any(), any(), any());
+  }
+
+  @Test
+  void testGetRunStatus() throws Exception {
+    PipelineRun run = PipelineRun.builder()
+        .id(3L)
+        .status("running")
+        .pipeline(Pipeline.builder().id(7L).build())
+        .commitSha("0123456789abcdef0123456789abcdef01234567")
+        .configFilePath(".cicd-pipelines/pipeline.yml")
+        .argoWorkflowName("pipeline-example-1234")
+        .build();
+    when(pipelineRunService.getRun(3L)).thenReturn(Optional.of(run));
+
+    mockMvc.perform(get("/pipeline/run/3"))
+        .andExpect(status().isOk())
+      .andExpect(jsonPath("$.runId").value("3"))
+      .andExpect(jsonPath("$.runStatus").value("running"))
+      .andExpect(jsonPath("$.pipelineId").value("7"))
+      .andExpect(jsonPath("$.commit").value("0123456789abcdef0123456789abcdef01234567"))
+      .andExpect(jsonPath("$.configFilePath").value(".cicd-pipelines/pipeline.yml"))
+      .andExpect(jsonPath("$.workflowName").value("pipeline-example-1234"));
+  }
+
+  @Test
+  void testGetRunStatusNotFound() throws Exception {
+    when(pipelineRunService.getRun(4L)).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/pipeline/run/4"))
+        .andExpect(status().isNotFound())
+      .andExpect(jsonPath("$.status").value("error"));
+  }
+
+  @Test
+  void testWaitForRun() throws Exception {
+    PipelineRun run = PipelineRun.builder().id(5L).status("success").build();
+    when(pipelineRunService.awaitRun(5L, Duration.ofSeconds(10))).thenReturn(Optional.of(run));
+
+    mockMvc.perform(get("/pipeline/run/5/wait").param("timeout", "10"))
+        .andExpect(status().isOk())
+      .andExpect(jsonPath("$.runStatus").value("success"));
+
+    verify(pipelineRunService, times(1)).awaitRun(5L, Duration.ofSeconds(10));
+  }
+
+  @Test
+  void testWaitForRunCapsTimeout() throws Exception {
+    when(pipelineRunService.awaitRun(eq(6L), any(Duration.class))).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/pipeline/run/6/wait").param("timeout", "100000"))
+        .andExpect(status().isNotFound());
+
+    verify(pipelineRunService, times(1)).awaitRun(6L, Duration.ofSeconds(300));
+  }
+
+  private static RunSummary summary(long id, String status) {
+    return new RunSummary(id, "https://github.com/example/repo", "main",
+        "0123456789abcdef0123456789abcdef01234567", ".cicd-pipelines/pipeline.yaml", status,
+        new Timestamp(0), null, null);
+  }
+
+  @Test
+  void testListRuns() throws Exception {
+    when(pipelineRunService.listRuns("https://github.com/example/repo", null, 2))
+        .thenReturn(new SliceImpl<>(List.of(summary(9L, "running"), summary(8L, "success")),
+            PageRequest.ofSize(2), true));
+
+    mockMvc.perform(get("/pipeline/runs")
+            .param("repo_url", "https://github.com/example/repo")
+            .param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.runs", hasSize(2)))
+        .andExpect(jsonPath("$.runs[0].runId").value("9"))
+        .andExpect(jsonPath("$.runs[0].runStatus").value("running"))
+        .andExpect(jsonPath("$.runs[1].commit").value("0123456789abcdef0123456789abcdef01234567"))
+        .andExpect(jsonPath("$.runs[1].startTime").doesNotExist())
+        .andExpect(jsonPath("$.nextBefore").value("8"));
+  }
+
+  @Test
+  void testListRunsLastPage() throws Exception {
+    when(pipelineRunService.listRuns("https://github.com/example/repo", 8L, 20))
+        .thenReturn(new SliceImpl<>(List.of(summary(7L, "failed")), PageRequest.ofSize(20),
+            false));
+
+    mockMvc.perform(get("/pipeline/runs")
+            .param("repo_url", "https://github.com/example/repo")
+            .param("before", "8"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.runs", hasSize(1)))
+        .andExpect(jsonPath("$.nextBefore").doesNotExist());
+  }
+
+  @Test
+  void testListRunsCapsPageSize() throws Exception {
+    when(pipelineRunService.listRuns(anyString(), any(), anyInt()))
+        .thenReturn(new SliceImpl<>(List.of()));
+
+    mockMvc.perform(get("/pipeline/runs")
+            .param("repo_url", "https://github.com/example/repo")
+            .param("size", "100000"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.runs", hasSize(0)));
+
+    verify(pipelineRunService, times(1)).listRuns("https://github.com/example/repo", null, 100);
+  }
 }
@@ -0,0 +1,108 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Map;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ArgoCliWorkflowSubmitterTest {
+
+  @Mock
+  private ArgoYamlService argoYamlService;
+
+  @Mock
+  private ArgoCommandExecutionService argoCommandExecutionService;
+
+  @InjectMocks
+  private ArgoCliWorkflowSubmitter submitter;
+
+  private final ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+
+  @BeforeEach
+  void setUp() throws Exception {
+    MockitoAnnotations.openMocks(this);
+    when(argoYamlService.writeWorkflowYaml(workflow))
+        .thenReturn("/mnt/argoworkflows/workflow.yaml");
+  }
+
+  @Test
+  void testSubmitSucceeded() throws Exception {
+    when(argoCommandExecutionService.submitWorkflow("/mnt/argoworkflows/workflow.yaml"))
+        .thenReturn(true);
+
+    assertEquals("Succeeded", submitter.submit(workflow).get());
+    verify(argoCommandExecutionService).submitWorkflow("/mnt/argoworkflows/workflow.yaml");
+  }
+
+  @Test
+  void testSubmitFailed() throws Exception {
+    when(argoCommandExecutionService.submitWorkflow("/mnt/argoworkflows/workflow.yaml"))
+        .thenReturn(false);
+
+    assertEquals("Failed", submitter.submit(workflow).get());
+  }
+
+  @Test
+  void testSubmitCreatesTemplateOnlyOnce() throws Exception {
+    ArgoWorkflow templated = new ArgoWorkflow("pipeline-example-1234", Map.of(),
+        "pipeline-example-0123456789abcdef", Map.of());
+    when(argoYamlService.writeWorkflowYaml(templated))
+        .thenReturn("/mnt/argoworkflows/workflow.yaml");
+    when(argoYamlService.writeWorkflowTemplateYaml(templated))
+        .thenReturn("/mnt/argoworkflows/templates/template.yaml");
+    when(argoCommandExecutionService.createWorkflowTemplate("pipeline-example-0123456789abcdef",
+        "/mnt/argoworkflows/templates/template.yaml")).thenReturn(true);
+    when(argoCommandExecutionService.submitWorkflow("/mnt/argoworkflows/workflow.yaml"))
+        .thenReturn(true);
+
+    submitter.submit(templated);
+    submitter.submit(templated);
+
+    verify(argoCommandExecutionService, times(1)).createWorkflowTemplate(
+        "pipeline-example-0123456789abcdef", "/mnt/argoworkflows/templates/template.yaml");
+    verify(argoCommandExecutionService, times(2))
+        .submitWorkflow("/mnt/argoworkflows/workflow.yaml");
+  }
+
+  @Test
+  void testSubmitThrowsWhenTemplateCannotBeCreated() throws Exception {
+    ArgoWorkflow templated = new ArgoWorkflow("pipeline-example-1234", Map.of(),
+        "pipeline-example-0123456789abcdef", Map.of());
+    when(argoYamlService.writeWorkflowTemplateYaml(templated))
+        .thenReturn("/mnt/argoworkflows/templates/template.yaml");
+
+    assertThrows(IOException.class, () -> submitter.submit(templated));
+    verify(argoCommandExecutionService, never()).submitWorkflow(anyString());
+  }
+
+  @Test
+  void testTemplatePathOfTemplatedWorkflow() {
+    ArgoWorkflow templated = new ArgoWorkflow("pipeline-example-1234", Map.of(),
+        "pipeline-example-0123456789abcdef", Map.of());
+    when(argoYamlService.templatePath(templated))
+        .thenReturn("/mnt/argoworkflows/templates/template.yaml");
+
+    assertEquals("/mnt/argoworkflows/templates/template.yaml", submitter.templatePath(templated));
+    assertNull(submitter.templatePath(workflow));
+  }
+
+  @Test
+  void testCollectLogsFetchesLogsWithCli() throws Exception {
+    submitter.collectLogs(7L, "pipeline-example-1234");
+
+    verify(argoCommandExecutionService).fetchAndSavePipelineLogs(7L, "pipeline-example-1234");
+  }
+}
@@ -0,0 +1,167 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import neu.cs6510.shared.entity.ArgoLog;
+import neu.cs6510.shared.repository.ArgoLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ArgoLogWriterTest {
+
+  @Mock
+  private ArgoLogRepository argoLogRepository;
+
+  private SimpleMeterRegistry meterRegistry;
+  private ArgoLogWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    // A long flush interval so only size-triggered and explicit flushes happen
+    meterRegistry = new SimpleMeterRegistry();
+    writer = new ArgoLogWriter(meterRegistry, argoLogRepository, 3, 60_000, 5);
+  }
+
+  @AfterEach
+  void tearDown() {
+    writer.shutdown();
+  }
+
+  private static ArgoLog argoLog(String stageName) {
+    return ArgoLog.builder().stageName(stageName).status("COMPLETED").build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ArgoLog> savedBatch() {
+    ArgumentCaptor<List<ArgoLog>> batch = ArgumentCaptor.forClass(List.class);
+    verify(argoLogRepository).saveAll(batch.capture());
+    return batch.getValue();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testFlushWritesBufferedEntriesOnce() {
+    ArgoLog build = argoLog("build");
+    ArgoLog test = argoLog("test");
+    writer.add(build);
+    writer.add(build);
+
+    verify(argoLogRepository, never()).saveAll(any());
+
+    writer.flush();
+    writer.add(test);
+    writer.flush();
+
+    ArgumentCaptor<List<ArgoLog>> batches = ArgumentCaptor.forClass(List.class);
+    verify(argoLogRepository, times(2)).saveAll(batches.capture());
+    assertEquals(List.of(build), batches.getAllValues().get(0));
+    assertEquals(List.of(test), batches.getAllValues().get(1));
+  }
+
+  @Test
+  void testReachingBatchSizeTriggersFlush() {
+    writer.add(argoLog("build"));
+    writer.add(argoLog("test"));
+    writer.add(argoLog("deploy"));
+
+    verify(argoLogRepository, timeout(5_000)).saveAll(anyList());
+    assertEquals(3, savedBatch().size());
+  }
+
+  @Test
+  void testFlushWithEmptyBufferDoesNotWrite() {
+    writer.flush();
+
+    verify(argoLogRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void testShutdownWritesRemainingEntries() {
+    writer.add(argoLog("build"));
+
+    writer.shutdown();
+
+    assertEquals(1, savedBatch().size());
+  }
+
+  @Test
+  void testFailedFlushDoesNotStopLaterFlushes() {
+    doThrow(new RuntimeException("database down"))
+        .doReturn(List.of())
+        .when(argoLogRepository).saveAll(anyList());
+    writer.add(argoLog("build"));
+    writer.add(argoLog("test"));
+    writer.add(argoLog("deploy"));
+    verify(argoLogRepository, timeout(5_000)).saveAll(anyList());
+
+    writer.add(argoLog("release"));
+    writer.flush();
+
+    verify(argoLogRepository, times(2)).saveAll(anyList());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testFailedBatchIsWrittenByNextFlush() {
+    doThrow(new RuntimeException("database down"))
+        .doReturn(List.of())
+        .when(argoLogRepository).saveAll(anyList());
+    ArgoLog build = argoLog("build");
+    build.setId(50L);
+    ArgoLog test = argoLog("test");
+    writer.add(build);
+    writer.add(test);
+
+    assertThrows(RuntimeException.class, writer::flush);
+    writer.flush();
+
+    ArgumentCaptor<List<ArgoLog>> batches = ArgumentCaptor.forClass(List.class);
+    verify(argoLogRepository, times(2)).saveAll(batches.capture());
+    assertEquals(List.of(build, test), batches.getAllValues().get(1));
+    assertNull(build.getId());
+    assertEquals(0, meterRegistry.get("argo.log.dropped").counter().count());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testDropsEntriesBeyondCapacity() {
+    writer.shutdown();
+    // A batch size above the capacity so that only explicit flushes happen
+    meterRegistry = new SimpleMeterRegistry();
+    writer = new ArgoLogWriter(meterRegistry, argoLogRepository, 10, 60_000, 5);
+    doThrow(new RuntimeException("database down"))
+        .doReturn(List.of())
+        .when(argoLogRepository).saveAll(anyList());
+    for (int i = 0; i < 7; i++) {
+      writer.add(argoLog("stage-" + i));
+    }
+    assertEquals(2, meterRegistry.get("argo.log.dropped").counter().count());
+
+    assertThrows(RuntimeException.class, writer::flush);
+    assertEquals(5, meterRegistry.get("argo.log.buffered").gauge().value());
+    writer.add(argoLog("late"));
+    writer.flush();
+
+    assertEquals(3, meterRegistry.get("argo.log.dropped").counter().count());
+    ArgumentCaptor<List<ArgoLog>> batches = ArgumentCaptor.forClass(List.class);
+    verify(argoLogRepository, times(2)).saveAll(batches.capture());
+    assertEquals(5, batches.getAllValues().get(1).size());
+    assertEquals("stage-0", batches.getAllValues().get(1).get(0).getStageName());
+  }
+}
@@ -0,0 +1,87 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import org.junit.jupiter.api.Test;
+
+class ArgoYamlServiceTest {
+
+  private final ArgoYamlService argoYamlService = new ArgoYamlService();
+
+  private static Pipeline pipeline(String script) {
+    Job job = Job.builder().name("compile").imageName("gradle:8.10-jdk21")
+        .scripts(List.of(script)).build();
+    Stage stage = Stage.builder().name("build").jobs(List.of(job)).build();
+    return Pipeline.builder().name("example").stages(List.of(stage)).build();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testWorkflowRefersToTemplate() {
+    ArgoWorkflow workflow = argoYamlService.createArgoWorkflow(pipeline("./gradlew build"));
+
+    assertTrue(workflow.getTemplateName().startsWith("pipeline-example-"));
+    Map<String, Object> spec = (Map<String, Object>) workflow.getResource().get("spec");
+    assertEquals(Map.of("name", workflow.getTemplateName()), spec.get("workflowTemplateRef"));
+    assertEquals("WorkflowTemplate", workflow.getTemplate().get("kind"));
+    Map<String, Object> templateMetadata =
+        (Map<String, Object>) workflow.getTemplate().get("metadata");
+    assertEquals(workflow.getTemplateName(), templateMetadata.get("name"));
+    assertTrue(argoYamlService.templatePath(workflow)
+        .endsWith("/" + workflow.getTemplateName() + ".yaml"));
+  }
+
+  @Test
+  void testEqualPipelinesShareTemplate() {
+    ArgoWorkflow first = argoYamlService.createArgoWorkflow(pipeline("./gradlew build"));
+    ArgoWorkflow second = argoYamlService.createArgoWorkflow(pipeline("./gradlew build"));
+
+    assertNotEquals(first.getName(), second.getName());
+    assertEquals(first.getTemplateName(), second.getTemplateName());
+    assertSame(first.getTemplate(), second.getTemplate());
+  }
+
+  @Test
+  void testConcurrentRunsOfNewPipelineShareTemplate() throws Exception {
+    int threads = 8;
+    CyclicBarrier start = new CyclicBarrier(threads);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<ArgoWorkflow>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return argoYamlService.createArgoWorkflow(pipeline("./gradlew build"));
+        }));
+      }
+      Map<String, Object> template = futures.get(0).get().getTemplate();
+      for (Future<ArgoWorkflow> future : futures) {
+        assertSame(template, future.get().getTemplate());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testChangedPipelineGetsNewTemplate() {
+    ArgoWorkflow first = argoYamlService.createArgoWorkflow(pipeline("./gradlew build"));
+    ArgoWorkflow second = argoYamlService.createArgoWorkflow(pipeline("./gradlew assemble"));
+
+    assertNotEquals(first.getTemplateName(), second.getTemplateName());
+  }
+}
@@ -0,0 +1,168 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import neu.cs6510.shared.repository.ArgoLogRepository;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class HistoryRetentionServiceTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private ArgoLogRepository argoLogRepository;
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Mock
+  private RunStateService runStateService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  private HistoryRetentionService service(int argoLogDays, int runDays, boolean archive,
+      int batchSize) {
+    return new HistoryRetentionService(jdbcTemplate, argoLogRepository, pipelineRunRepository,
+        runStateService, true, 3600000, argoLogDays, runDays, 2, archive, batchSize);
+  }
+
+  private void partitioned(String... partitions) {
+    when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("argo_logs")))
+        .thenReturn(1);
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("argo_logs")))
+        .thenReturn(List.of(partitions));
+  }
+
+  @Test
+  void testCreatesMissingPartitions() {
+    partitioned("argo_logs_p2026_10", "argo_logs_default");
+
+    service(0, 0, false, 500).apply(NOW);
+
+    verify(jdbcTemplate).execute("create table if not exists argo_logs_p2026_11 partition of "
+        + "argo_logs for values from ('2026-11-01') to ('2026-12-01')");
+    verify(jdbcTemplate).execute("create table if not exists argo_logs_p2026_12 partition of "
+        + "argo_logs for values from ('2026-12-01') to ('2027-01-01')");
+    verify(jdbcTemplate, never()).execute(
+        "create table if not exists argo_logs_p2026_10 partition of "
+            + "argo_logs for values from ('2026-10-01') to ('2026-11-01')");
+  }
+
+  @Test
+  void testCreatePartitionFailureDoesNotStopPass() {
+    partitioned("argo_logs_p2026_10", "argo_logs_default");
+    doThrow(new BadSqlGrammarException("create", "create table",
+        new SQLException("partition constraint for default partition would be violated")))
+        .when(jdbcTemplate).execute(anyString());
+
+    service(90, 0, false, 500).apply(NOW);
+
+    verify(jdbcTemplate).execute("create table if not exists argo_logs_p2026_12 partition of "
+        + "argo_logs for values from ('2026-12-01') to ('2027-01-01')");
+    verify(jdbcTemplate).update("delete from argo_logs_default where start_time < ?",
+        Timestamp.valueOf(NOW.minusDays(90)));
+  }
+
+  @Test
+  void testDropsExpiredPartitions() {
+    // 90 days before NOW is 2026-07-19: June has expired, July has not
+    partitioned("argo_logs_p2026_06", "argo_logs_p2026_07", "argo_logs_p2026_10",
+        "argo_logs_p2026_11", "argo_logs_p2026_12", "argo_logs_default");
+
+    service(90, 0, false, 500).apply(NOW);
+
+    verify(jdbcTemplate).execute("drop table argo_logs_p2026_06");
+    verify(jdbcTemplate, never()).execute("drop table argo_logs_p2026_07");
+    verify(jdbcTemplate, never()).execute("drop table argo_logs_default");
+    verify(jdbcTemplate).update("delete from argo_logs_default where start_time < ?",
+        Timestamp.valueOf(NOW.minusDays(90)));
+    verify(argoLogRepository, never()).deleteByStartTimeBefore(any());
+  }
+
+  @Test
+  void testDetachesExpiredPartitionsWhenArchiving() {
+    partitioned("argo_logs_p2026_06", "argo_logs_p2026_10", "argo_logs_p2026_11",
+        "argo_logs_p2026_12");
+
+    service(90, 0, true, 500).apply(NOW);
+
+    verify(jdbcTemplate).execute("alter table argo_logs detach partition argo_logs_p2026_06");
+    verify(jdbcTemplate, never()).execute("drop table argo_logs_p2026_06");
+  }
+
+  @Test
+  void testDeletesEntriesWhenNotPartitioned() {
+    when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("argo_logs")))
+        .thenThrow(new BadSqlGrammarException("isPartitioned", "select",
+            new SQLException("Table \"PG_PARTITIONED_TABLE\" not found")));
+
+    service(90, 0, false, 500).apply(NOW);
+
+    verify(argoLogRepository).deleteByStartTimeBefore(Timestamp.valueOf(NOW.minusDays(90)));
+    verify(jdbcTemplate, never()).execute(anyString());
+  }
+
+  @Test
+  void testDeletesFinishedRunsInBatches() {
+    partitioned("argo_logs_p2026_10", "argo_logs_p2026_11", "argo_logs_p2026_12");
+    Timestamp before = Timestamp.valueOf(NOW.minusDays(180));
+    when(pipelineRunRepository.findIdsByStatusInAndEndTimeBefore(List.of("success", "failed"),
+        before, PageRequest.ofSize(2))).thenReturn(List.of(1L, 2L), List.of(3L));
+    when(runStateService.deleteRuns(List.of(1L, 2L))).thenReturn(2);
+    when(runStateService.deleteRuns(List.of(3L))).thenReturn(1);
+
+    service(0, 180, false, 2).apply(NOW);
+
+    verify(runStateService).deleteRuns(List.of(1L, 2L));
+    verify(runStateService).deleteRuns(List.of(3L));
+  }
+
+  @Test
+  void testKeepsHistoryForZeroDays() {
+    partitioned("argo_logs_p2020_01", "argo_logs_p2026_10", "argo_logs_p2026_11",
+        "argo_logs_p2026_12");
+
+    service(0, 0, false, 500).apply(NOW);
+
+    verify(jdbcTemplate, never()).execute(anyString());
+    verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    verify(pipelineRunRepository, never()).findIdsByStatusInAndEndTimeBefore(any(), any(),
+        any());
+  }
+
+  @Test
+  void testPartitionNames() {
+    assertEquals("argo_logs_p2026_01",
+        HistoryRetentionService.partitionName(YearMonth.of(2026, 1)));
+    assertEquals(YearMonth.of(2026, 1),
+        HistoryRetentionService.partitionMonth("argo_logs_p2026_01"));
+    assertNull(HistoryRetentionService.partitionMonth("argo_logs_default"));
+    assertNull(HistoryRetentionService.partitionMonth("argo_logs_pold"));
+  }
+}
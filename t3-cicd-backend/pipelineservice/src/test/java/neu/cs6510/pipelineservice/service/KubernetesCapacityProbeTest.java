@@ -0,0 +1,81 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.MediaType;
+
+class KubernetesCapacityProbeTest {
+
+  private static final String PODS_PATH = "/api/v1/namespaces/argo/pods";
+
+  private ClientAndServer apiServer;
+  private KubernetesCapacityProbe probe;
+
+  @BeforeEach
+  void setUp() {
+    apiServer = ClientAndServer.startClientAndServer();
+    ApiClient apiClient = new ClientBuilder()
+        .setBasePath("http://localhost:" + apiServer.getPort())
+        .build();
+    probe = new KubernetesCapacityProbe(apiClient, "argo", 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    apiServer.stop();
+  }
+
+  private static String pendingPod(String name, String scheduledStatus, String reason) {
+    return "{\"apiVersion\":\"v1\",\"kind\":\"Pod\",\"metadata\":{\"name\":\"" + name + "\","
+        + "\"namespace\":\"argo\"},\"status\":{\"phase\":\"Pending\",\"conditions\":["
+        + "{\"type\":\"PodScheduled\",\"status\":\"" + scheduledStatus + "\""
+        + (reason == null ? "" : ",\"reason\":\"" + reason + "\"") + "}]}}";
+  }
+
+  private void expectPendingPods(String... pods) {
+    apiServer.when(request().withMethod("GET").withPath(PODS_PATH)
+            .withQueryStringParameter("fieldSelector", "status.phase=Pending"))
+        .respond(response().withStatusCode(200)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"apiVersion\":\"v1\",\"kind\":\"PodList\",\"metadata\":{},"
+                + "\"items\":[" + String.join(",", pods) + "]}"));
+  }
+
+  @Test
+  void testHasCapacityWithinAllowedUnschedulablePods() {
+    expectPendingPods(
+        pendingPod("wf-1-build", "False", "Unschedulable"),
+        pendingPod("wf-2-build", "True", null));
+
+    assertTrue(probe.hasCapacity());
+  }
+
+  @Test
+  void testNoCapacityWhenTooManyPodsAreUnschedulable() {
+    expectPendingPods(
+        pendingPod("wf-1-build", "False", "Unschedulable"),
+        pendingPod("wf-2-build", "False", "Unschedulable"));
+
+    assertFalse(probe.hasCapacity());
+  }
+
+  @Test
+  void testAssumesCapacityWhenApiFails() {
+    apiServer.when(request().withMethod("GET").withPath(PODS_PATH))
+        .respond(response().withStatusCode(403)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\","
+                + "\"message\":\"forbidden\",\"code\":403}"));
+
+    assertTrue(probe.hasCapacity());
+  }
+}
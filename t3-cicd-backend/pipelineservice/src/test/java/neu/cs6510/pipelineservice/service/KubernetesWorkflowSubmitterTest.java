@@ -0,0 +1,221 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.JsonBody;
+import org.mockserver.matchers.Times;
+import org.mockserver.model.MediaType;
+import org.mockserver.verify.VerificationTimes;
+
+class KubernetesWorkflowSubmitterTest {
+
+  private static final String WORKFLOWS_PATH =
+      "/apis/argoproj.io/v1alpha1/namespaces/argo/workflows";
+  private static final String TEMPLATES_PATH =
+      "/apis/argoproj.io/v1alpha1/namespaces/argo/workflowtemplates";
+  private static final String WORKFLOW_NAME = "pipeline-example-1234";
+  private static final String TEMPLATE_NAME = "pipeline-example-0123456789abcdef";
+
+  private ClientAndServer apiServer;
+  private WorkflowWatcher workflowWatcher;
+  private PodLogCollector podLogCollector;
+  private KubernetesWorkflowSubmitter submitter;
+
+  @BeforeEach
+  void setUp() {
+    apiServer = ClientAndServer.startClientAndServer();
+    ApiClient apiClient = new ClientBuilder()
+        .setBasePath("http://localhost:" + apiServer.getPort())
+        .build();
+    DynamicKubernetesApi workflowApi = new DynamicKubernetesApi("argoproj.io", "v1alpha1",
+        "workflows", apiClient);
+    DynamicKubernetesApi workflowTemplateApi = new DynamicKubernetesApi("argoproj.io",
+        "v1alpha1", "workflowtemplates", apiClient);
+    workflowWatcher = mock(WorkflowWatcher.class);
+    podLogCollector = mock(PodLogCollector.class);
+    submitter = new KubernetesWorkflowSubmitter(workflowApi, workflowTemplateApi, workflowWatcher,
+        podLogCollector, "argo", 60);
+  }
+
+  @AfterEach
+  void tearDown() {
+    apiServer.stop();
+  }
+
+  private static ArgoWorkflow workflow() {
+    Map<String, Object> metadata = new LinkedHashMap<>();
+    metadata.put("name", WORKFLOW_NAME);
+    Map<String, Object> resource = new LinkedHashMap<>();
+    resource.put("apiVersion", "argoproj.io/v1alpha1");
+    resource.put("kind", "Workflow");
+    resource.put("metadata", metadata);
+    resource.put("spec", Map.of("entrypoint", "main"));
+    return new ArgoWorkflow(WORKFLOW_NAME, resource);
+  }
+
+  private static ArgoWorkflow templatedWorkflow(String name) {
+    Map<String, Object> resource = new LinkedHashMap<>();
+    resource.put("apiVersion", "argoproj.io/v1alpha1");
+    resource.put("kind", "Workflow");
+    resource.put("metadata", Map.of("name", name));
+    resource.put("spec", Map.of("workflowTemplateRef", Map.of("name", TEMPLATE_NAME)));
+    Map<String, Object> template = new LinkedHashMap<>();
+    template.put("apiVersion", "argoproj.io/v1alpha1");
+    template.put("kind", "WorkflowTemplate");
+    template.put("metadata", Map.of("name", TEMPLATE_NAME));
+    template.put("spec", Map.of("entrypoint", "pipeline"));
+    return new ArgoWorkflow(name, resource, TEMPLATE_NAME, template);
+  }
+
+  private void expectWorkflowCreated() {
+    apiServer.when(request().withMethod("POST").withPath(WORKFLOWS_PATH))
+        .respond(response().withStatusCode(201)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"apiVersion\":\"argoproj.io/v1alpha1\",\"kind\":\"Workflow\","
+                + "\"metadata\":{\"name\":\"" + WORKFLOW_NAME + "\",\"namespace\":\"argo\"}}"));
+  }
+
+  private void expectTemplateResponse(int statusCode, String body) {
+    apiServer.when(request().withMethod("POST").withPath(TEMPLATES_PATH))
+        .respond(response().withStatusCode(statusCode)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody(body));
+  }
+
+  @Test
+  void testSubmitCreatesWorkflowAndReturnsWatcherHandle() throws Exception {
+    CompletableFuture<String> handle = new CompletableFuture<>();
+    when(workflowWatcher.register(WORKFLOW_NAME)).thenReturn(handle);
+    expectWorkflowCreated();
+
+    CompletableFuture<String> completion = submitter.submit(workflow());
+
+    assertSame(handle, completion);
+    verify(podLogCollector).track(WORKFLOW_NAME);
+    apiServer.verify(request().withMethod("POST").withPath(WORKFLOWS_PATH)
+        .withBody(JsonBody.json("{\"metadata\":{\"name\":\""
+            + WORKFLOW_NAME + "\"}}")), VerificationTimes.exactly(1));
+  }
+
+  @Test
+  void testSubmitThrowsAndUnregistersWhenCreateIsRejected() {
+    when(workflowWatcher.register(WORKFLOW_NAME)).thenReturn(new CompletableFuture<>());
+    apiServer.when(request().withMethod("POST").withPath(WORKFLOWS_PATH))
+        .respond(response().withStatusCode(403)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\","
+                + "\"message\":\"workflows is forbidden\",\"code\":403}"));
+
+    IOException e = assertThrows(IOException.class, () -> submitter.submit(workflow()));
+
+    assertTrue(e.getMessage().contains("HTTP 403"));
+    verify(workflowWatcher).unregister(WORKFLOW_NAME);
+    verify(podLogCollector).untrack(WORKFLOW_NAME);
+  }
+
+  @Test
+  void testSubmitCreatesTemplateOnlyOnce() throws Exception {
+    when(workflowWatcher.register(anyString())).thenReturn(new CompletableFuture<>());
+    expectWorkflowCreated();
+    expectTemplateResponse(201, "{\"apiVersion\":\"argoproj.io/v1alpha1\","
+        + "\"kind\":\"WorkflowTemplate\",\"metadata\":{\"name\":\"" + TEMPLATE_NAME + "\","
+        + "\"namespace\":\"argo\"}}");
+
+    submitter.submit(templatedWorkflow(WORKFLOW_NAME));
+    submitter.submit(templatedWorkflow("pipeline-example-5678"));
+
+    apiServer.verify(request().withMethod("POST").withPath(TEMPLATES_PATH)
+        .withBody(JsonBody.json("{\"metadata\":{\"name\":\""
+            + TEMPLATE_NAME + "\"}}")), VerificationTimes.exactly(1));
+    apiServer.verify(request().withMethod("POST").withPath(WORKFLOWS_PATH),
+        VerificationTimes.exactly(2));
+  }
+
+  @Test
+  void testSubmitReusesExistingTemplate() throws Exception {
+    when(workflowWatcher.register(WORKFLOW_NAME)).thenReturn(new CompletableFuture<>());
+    expectWorkflowCreated();
+    expectTemplateResponse(409, "{\"kind\":\"Status\",\"apiVersion\":\"v1\","
+        + "\"status\":\"Failure\",\"reason\":\"AlreadyExists\",\"code\":409}");
+
+    submitter.submit(templatedWorkflow(WORKFLOW_NAME));
+
+    apiServer.verify(request().withMethod("POST").withPath(WORKFLOWS_PATH),
+        VerificationTimes.exactly(1));
+  }
+
+  @Test
+  void testSubmitCreatesTemplateAgainWhenWorkflowIsNotFound() throws Exception {
+    when(workflowWatcher.register(anyString())).thenReturn(new CompletableFuture<>());
+    expectTemplateResponse(201, "{\"apiVersion\":\"argoproj.io/v1alpha1\","
+        + "\"kind\":\"WorkflowTemplate\",\"metadata\":{\"name\":\"" + TEMPLATE_NAME + "\","
+        + "\"namespace\":\"argo\"}}");
+    expectWorkflowCreated();
+    submitter.submit(templatedWorkflow(WORKFLOW_NAME));
+    // The template is deleted: the next workflow that refers to it is not found once
+    apiServer.clear(request().withMethod("POST").withPath(WORKFLOWS_PATH));
+    apiServer.when(request().withMethod("POST").withPath(WORKFLOWS_PATH), Times.once())
+        .respond(response().withStatusCode(404)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\","
+                + "\"reason\":\"NotFound\",\"code\":404}"));
+    expectWorkflowCreated();
+
+    submitter.submit(templatedWorkflow("pipeline-example-5678"));
+
+    apiServer.verify(request().withMethod("POST").withPath(TEMPLATES_PATH),
+        VerificationTimes.exactly(2));
+    apiServer.verify(request().withMethod("POST").withPath(WORKFLOWS_PATH)
+        .withBody(JsonBody.json("{\"metadata\":{\"name\":\"pipeline-example-5678\"}}")),
+        VerificationTimes.exactly(2));
+  }
+
+  @Test
+  void testSubmitThrowsWhenTemplateIsRejected() {
+    expectTemplateResponse(403, "{\"kind\":\"Status\",\"apiVersion\":\"v1\","
+        + "\"status\":\"Failure\",\"message\":\"workflowtemplates is forbidden\","
+        + "\"code\":403}");
+
+    IOException e = assertThrows(IOException.class,
+        () -> submitter.submit(templatedWorkflow(WORKFLOW_NAME)));
+
+    assertTrue(e.getMessage().contains(TEMPLATE_NAME));
+    apiServer.verify(request().withMethod("POST").withPath(WORKFLOWS_PATH),
+        VerificationTimes.never());
+  }
+
+  @Test
+  void testWritesNoTemplateFile() {
+    // The template is created through the API, so the run has no file to keep
+    assertNull(submitter.templatePath(workflow()));
+  }
+
+  @Test
+  void testCollectLogsAwaitsPodLogs() throws Exception {
+    submitter.collectLogs(7L, WORKFLOW_NAME);
+
+    verify(podLogCollector).awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(60));
+  }
+}
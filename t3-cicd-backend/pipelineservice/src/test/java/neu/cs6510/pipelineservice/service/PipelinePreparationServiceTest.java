@@ -17,6 +17,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
 import neu.cs6510.shared.repository.PipelineRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,6 +44,17 @@ class PipelinePreparationServiceTest {
     MockitoAnnotations.openMocks(this);
   }
 
+  private static PipelineRun run(String repoUrl, String branch, String configPath,
+      String pipelineName) {
+    return PipelineRun.builder()
+        .id(1L)
+        .repoUrl(repoUrl)
+        .branch(branch)
+        .configPath(configPath)
+        .pipelineName(pipelineName)
+        .build();
+  }
+
   @Test
   void testPreparePipeline_Success() {
     String repoUrl = "https://github.com/example/repo";
@@ -57,17 +69,23 @@ class PipelinePreparationServiceTest {
     Map<String, String> responseBody = new HashMap<>();
     responseBody.put("status", "success");
     responseBody.put("pipelineId", pipelineId);
+    responseBody.put("commit", "0123456789abcdef0123456789abcdef01234567");
+    responseBody.put("configFilePath", configPath);
     when(restTemplate.postForEntity(anyString(), any(), eq(Map.class)))
         .thenReturn(new ResponseEntity<>(responseBody, HttpStatus.OK));
-    when(pipelineRepository.findById(Long.parseLong(pipelineId)))
+    when(pipelineRepository.findDefinitionById(Long.parseLong(pipelineId)))
         .thenReturn(Optional.of(mockPipeline));
-    Pipeline result = pipelinePreparationService.preparePipeline(repoUrl, branch, configPath, pipelineName);
+    PipelineRun run = run(repoUrl, branch, configPath, pipelineName);
+    Pipeline result = pipelinePreparationService.preparePipeline(run);
 
     assertNotNull(result);
+    assertEquals(result, run.getPipeline());
+    assertEquals("0123456789abcdef0123456789abcdef01234567", run.getCommitSha());
+    assertEquals(configPath, run.getConfigFilePath());
     assertEquals(Long.parseLong(pipelineId), result.getId());
     assertEquals("Test Pipeline", result.getName());
     verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(Map.class));
-    verify(pipelineRepository, times(1)).findById(Long.parseLong(pipelineId));
+    verify(pipelineRepository, times(1)).findDefinitionById(Long.parseLong(pipelineId));
   }
 
   @Test
@@ -84,12 +102,12 @@ class PipelinePreparationServiceTest {
         .thenReturn(new ResponseEntity<>(responseBody, HttpStatus.OK));
 
     RuntimeException exception = assertThrows(RuntimeException.class, () ->
-        pipelinePreparationService.preparePipeline(repoUrl, branch, configPath, pipelineName)
+        pipelinePreparationService.preparePipeline(run(repoUrl, branch, configPath, pipelineName))
     );
 
     assertEquals("Config validation failed: Validation error", exception.getMessage());
     verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(Map.class));
-    verify(pipelineRepository, never()).findById(anyLong());
+    verify(pipelineRepository, never()).findDefinitionById(anyLong());
   }
 
   @Test
@@ -105,15 +123,15 @@ class PipelinePreparationServiceTest {
     responseBody.put("pipelineId", pipelineId);
     when(restTemplate.postForEntity(anyString(), any(), eq(Map.class)))
         .thenReturn(new ResponseEntity<>(responseBody, HttpStatus.OK));
-    when(pipelineRepository.findById(Long.parseLong(pipelineId)))
+    when(pipelineRepository.findDefinitionById(Long.parseLong(pipelineId)))
         .thenReturn(Optional.empty());
 
     RuntimeException exception = assertThrows(RuntimeException.class, () ->
-        pipelinePreparationService.preparePipeline(repoUrl, branch, configPath, pipelineName)
+        pipelinePreparationService.preparePipeline(run(repoUrl, branch, configPath, pipelineName))
     );
 
     assertEquals("Pipeline not found after validation.", exception.getMessage());
     verify(restTemplate, times(1)).postForEntity(anyString(), any(), eq(Map.class));
-    verify(pipelineRepository, times(1)).findById(Long.parseLong(pipelineId));
+    verify(pipelineRepository, times(1)).findDefinitionById(Long.parseLong(pipelineId));
   }
 }
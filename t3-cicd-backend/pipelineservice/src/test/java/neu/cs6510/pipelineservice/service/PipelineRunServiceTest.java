@@ -0,0 +1,451 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.RunStatus;
+import neu.cs6510.shared.projection.RunSummary;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+class PipelineRunServiceTest {
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Mock
+  private PipelinePreparationService pipelinePreparationService;
+
+  @Mock
+  private RunStateService runStateService;
+
+  @Mock
+  private ArgoYamlService argoYamlService;
+
+  @Mock
+  private WorkflowSubmitter workflowSubmitter;
+
+  @Mock
+  private ExecutorService pipelineRunExecutor;
+
+  @Mock
+  private RunAdmissionController runAdmissionController;
+
+  private PipelineRunService pipelineRunService;
+
+  private PipelineRun storedRun;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    pipelineRunService = new PipelineRunService(pipelineRunRepository,
+        pipelinePreparationService, runStateService, argoYamlService, workflowSubmitter,
+        pipelineRunExecutor, runAdmissionController);
+
+    when(pipelineRunRepository.save(any(PipelineRun.class))).thenAnswer(invocation -> {
+      PipelineRun run = invocation.getArgument(0);
+      if (run.getId() == null) {
+        run.setId(42L);
+      }
+      storedRun = run;
+      return run;
+    });
+    when(pipelineRunRepository.findById(42L)).thenAnswer(invocation ->
+        Optional.ofNullable(storedRun));
+    // Admit every run right away
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(2)).run();
+      return null;
+    }).when(runAdmissionController).admit(anyLong(), anyString(), any(Runnable.class));
+    // Moves the run to running, as the real transition does
+    when(runStateService.startRun(any(PipelineRun.class))).thenAnswer(invocation -> {
+      invocation.<PipelineRun>getArgument(0).setStatus("running");
+      return true;
+    });
+    when(runStateService.finishRun(anyLong(), any(), any(), any(), any())).thenReturn(true);
+  }
+
+  /**
+   * Prepares the given pipeline for every run, as the real service does once the configuration
+   * is validated.
+   */
+  private void preparesPipeline(Pipeline pipeline) {
+    when(pipelinePreparationService.preparePipeline(any(PipelineRun.class))).thenAnswer(
+        invocation -> {
+          PipelineRun run = invocation.getArgument(0);
+          run.setPipeline(pipeline);
+          return pipeline;
+        });
+  }
+
+  private void runTasksInline() {
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return null;
+    }).when(pipelineRunExecutor).execute(any(Runnable.class));
+  }
+
+  @Test
+  void testEnqueueRunExecutesSuccessfully() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    when(workflowSubmitter.submit(workflow))
+        .thenReturn(CompletableFuture.completedFuture("Succeeded"));
+
+    PipelineRun run = pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals(42L, run.getId());
+    assertNotNull(run.getQueuedTime());
+    verify(workflowSubmitter).submit(workflow);
+    verify(workflowSubmitter).collectLogs(7L, "pipeline-example-1234");
+    verify(runStateService).startRun(storedRun);
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.RUNNING), eq(RunStatus.SUCCESS),
+        any(), any());
+    assertEquals("success", storedRun.getStatus());
+    assertEquals("pipeline-example-1234", storedRun.getArgoWorkflowName());
+    assertNull(storedRun.getArgoYamlPath());
+    assertEquals(pipeline, storedRun.getPipeline());
+    assertNotNull(storedRun.getStartTime());
+    assertNotNull(storedRun.getEndTime());
+
+    Optional<PipelineRun> awaited = pipelineRunService.awaitRun(42L, Duration.ofSeconds(1));
+    assertTrue(awaited.isPresent());
+    assertEquals("success", awaited.get().getStatus());
+  }
+
+  @Test
+  void testEnqueueRunRecordsTemplateFileOfSubmitter() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    when(workflowSubmitter.templatePath(workflow))
+        .thenReturn("/mnt/argoworkflows/templates/template.yaml");
+    when(workflowSubmitter.submit(workflow)).thenReturn(new CompletableFuture<>());
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals("/mnt/argoworkflows/templates/template.yaml", storedRun.getArgoYamlPath());
+    verify(runStateService).startRun(storedRun);
+  }
+
+  @Test
+  void testEnqueueRunWorkflowFails() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    when(workflowSubmitter.submit(workflow))
+        .thenReturn(CompletableFuture.completedFuture("Failed"));
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals("failed", storedRun.getStatus());
+    assertEquals("Workflow pipeline-example-1234 finished with phase Failed",
+        storedRun.getMessage());
+    verify(workflowSubmitter).collectLogs(7L, "pipeline-example-1234");
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.RUNNING), eq(RunStatus.FAILED),
+        any(), any());
+  }
+
+  @Test
+  void testEnqueueRunSubmissionThrows() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    when(workflowSubmitter.submit(workflow)).thenThrow(new IOException("HTTP 403"));
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals("failed", storedRun.getStatus());
+    assertEquals("Error: HTTP 403", storedRun.getMessage());
+    verify(workflowSubmitter, never()).collectLogs(anyLong(), anyString());
+  }
+
+  @Test
+  void testEnqueueRunReleasesWorkerUntilWorkflowCompletes() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    CompletableFuture<String> completion = new CompletableFuture<>();
+    when(workflowSubmitter.submit(workflow)).thenReturn(completion);
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals("running", storedRun.getStatus());
+    verify(workflowSubmitter, never()).collectLogs(anyLong(), anyString());
+    assertEquals("running",
+        pipelineRunService.awaitRun(42L, Duration.ofMillis(10)).get().getStatus());
+
+    completion.complete("Succeeded");
+
+    assertEquals("success", storedRun.getStatus());
+    verify(workflowSubmitter).collectLogs(7L, "pipeline-example-1234");
+    verify(runAdmissionController).release(42L);
+  }
+
+  @Test
+  void testEnqueueRunWorkflowDeleted() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    when(workflowSubmitter.submit(workflow)).thenReturn(
+        CompletableFuture.failedFuture(new IOException("Workflow was deleted")));
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals("failed", storedRun.getStatus());
+    assertEquals("Error: Workflow was deleted", storedRun.getMessage());
+    verify(workflowSubmitter, never()).collectLogs(anyLong(), anyString());
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.RUNNING), eq(RunStatus.FAILED),
+        any(), any());
+  }
+
+  @Test
+  void testEnqueueRunPreparationFails() throws Exception {
+    runTasksInline();
+    when(pipelinePreparationService.preparePipeline(any(PipelineRun.class)))
+        .thenThrow(new RuntimeException("Config validation failed: bad yaml"));
+
+    pipelineRunService.enqueueRun("repoUrl", "main", null, "example");
+
+    assertEquals("failed", storedRun.getStatus());
+    assertEquals("Error: Config validation failed: bad yaml", storedRun.getMessage());
+    assertNotNull(storedRun.getEndTime());
+    verify(workflowSubmitter, never()).submit(any());
+    verify(runStateService, never()).startRun(any());
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.QUEUED), eq(RunStatus.FAILED),
+        eq("Error: Config validation failed: bad yaml"), any());
+  }
+
+  @Test
+  void testEnqueueRunRejectedWhenQueueIsFull() {
+    doThrow(new RejectedExecutionException("full"))
+        .when(runAdmissionController).admit(anyLong(), anyString(), any(Runnable.class));
+
+    assertThrows(RejectedExecutionException.class, () ->
+        pipelineRunService.enqueueRun("repoUrl", "main", "path", null));
+
+    assertEquals("failed", storedRun.getStatus());
+    assertEquals("Run queue is full", storedRun.getMessage());
+    verify(pipelineRunExecutor, never()).execute(any(Runnable.class));
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.QUEUED), eq(RunStatus.FAILED),
+        eq("Run queue is full"), any());
+  }
+
+  @Test
+  void testRequeueRunsQueuedBeforeRestart() throws Exception {
+    PipelineRun older = PipelineRun.builder().id(41L).repoUrl("repoUrl").status("queued")
+        .build();
+    storedRun = PipelineRun.builder().id(42L).repoUrl("repoUrl").status("queued").build();
+    when(pipelineRunRepository.findByStatus("queued")).thenReturn(List.of(storedRun, older));
+
+    pipelineRunService.requeueRuns();
+
+    InOrder admissions = inOrder(runAdmissionController);
+    admissions.verify(runAdmissionController).admit(eq(41L), eq("repoUrl"), any(Runnable.class));
+    admissions.verify(runAdmissionController).admit(eq(42L), eq("repoUrl"), any(Runnable.class));
+    verify(pipelineRunExecutor, times(2)).execute(any(Runnable.class));
+    assertEquals("queued",
+        pipelineRunService.awaitRun(42L, Duration.ofMillis(10)).get().getStatus());
+  }
+
+  @Test
+  void testRequeueRunsFailsRunWhenQueueIsFull() {
+    storedRun = PipelineRun.builder().id(42L).repoUrl("repoUrl").status("queued").build();
+    when(pipelineRunRepository.findByStatus("queued")).thenReturn(List.of(storedRun));
+    doThrow(new RejectedExecutionException("full"))
+        .when(runAdmissionController).admit(anyLong(), anyString(), any(Runnable.class));
+
+    pipelineRunService.requeueRuns();
+
+    assertEquals("failed", storedRun.getStatus());
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.QUEUED), eq(RunStatus.FAILED),
+        eq("Run queue is full"), any());
+  }
+
+  @Test
+  void testEnqueueRunNotStartedWhenNoLongerQueued() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    when(argoYamlService.createArgoWorkflow(pipeline))
+        .thenReturn(new ArgoWorkflow("pipeline-example-1234", Map.of()));
+    when(runStateService.startRun(any(PipelineRun.class))).thenReturn(false);
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    verify(workflowSubmitter, never()).submit(any());
+    verify(runAdmissionController).release(42L);
+  }
+
+  @Test
+  void testEnqueueRunFinishedElsewhere() throws Exception {
+    runTasksInline();
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    CompletableFuture<String> completion = new CompletableFuture<>();
+    when(workflowSubmitter.submit(workflow)).thenReturn(completion);
+    when(runStateService.finishRun(anyLong(), any(), any(), any(), any())).thenReturn(false);
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+    PipelineRun current = PipelineRun.builder().id(42L).status("failed")
+        .message("Workflow was deleted").build();
+    when(pipelineRunRepository.findById(42L)).thenReturn(Optional.of(current));
+    completion.complete("Succeeded");
+
+    // the state saved by whoever finished the run first wins
+    Optional<PipelineRun> awaited = pipelineRunService.awaitRun(42L, Duration.ofMillis(10));
+    assertEquals("failed", awaited.get().getStatus());
+    assertEquals("Workflow was deleted", awaited.get().getMessage());
+  }
+
+  @Test
+  void testEnqueueRunFailsAdmittedRunWhenExecutorIsSaturated() throws Exception {
+    doThrow(new RejectedExecutionException("full"))
+        .when(pipelineRunExecutor).execute(any(Runnable.class));
+
+    pipelineRunService.enqueueRun("repoUrl", "main", null, "example");
+
+    verify(pipelinePreparationService, never()).preparePipeline(any(PipelineRun.class));
+    assertEquals("failed", storedRun.getStatus());
+    assertEquals("Run executor is saturated", storedRun.getMessage());
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.QUEUED), eq(RunStatus.FAILED),
+        eq("Run executor is saturated"), any());
+    verify(runAdmissionController).release(42L);
+  }
+
+  @Test
+  void testCompletionRunsInlineWhenExecutorIsSaturated() throws Exception {
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return null;
+    }).doThrow(new RejectedExecutionException("full"))
+        .when(pipelineRunExecutor).execute(any(Runnable.class));
+    Pipeline pipeline = Pipeline.builder().id(7L).name("example").build();
+    preparesPipeline(pipeline);
+    ArgoWorkflow workflow = new ArgoWorkflow("pipeline-example-1234", Map.of());
+    when(argoYamlService.createArgoWorkflow(pipeline)).thenReturn(workflow);
+    CompletableFuture<String> completion = new CompletableFuture<>();
+    when(workflowSubmitter.submit(workflow)).thenReturn(completion);
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+    completion.complete("Succeeded");
+
+    verify(workflowSubmitter).collectLogs(7L, "pipeline-example-1234");
+    verify(runStateService).finishRun(eq(42L), eq(RunStatus.RUNNING), eq(RunStatus.SUCCESS),
+        isNull(), any());
+    verify(runAdmissionController).release(42L);
+  }
+
+  @Test
+  void testExecutorMustHoldAdmittedRuns() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(8, 8, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(100));
+    try {
+      PipelineRunService.checkExecutorCapacity(executor, 20);
+      PipelineRunService.checkExecutorCapacity(executor, 54);
+      assertThrows(IllegalStateException.class,
+          () -> PipelineRunService.checkExecutorCapacity(executor, 55));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testAwaitRunWhileWaitingForAdmission() throws Exception {
+    doAnswer(invocation -> null)
+        .when(runAdmissionController).admit(anyLong(), anyString(), any(Runnable.class));
+
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    assertEquals("queued",
+        pipelineRunService.awaitRun(42L, Duration.ofMillis(10)).get().getStatus());
+    verify(pipelineRunExecutor, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  void testAwaitRunTimesOutWithCurrentState() throws Exception {
+    // the executor never picks the run up, so it stays queued
+    pipelineRunService.enqueueRun("repoUrl", "main", "path", null);
+
+    Optional<PipelineRun> awaited = pipelineRunService.awaitRun(42L, Duration.ofMillis(50));
+
+    assertTrue(awaited.isPresent());
+    assertEquals("queued", awaited.get().getStatus());
+  }
+
+  @Test
+  void testAwaitRunNotFound() throws Exception {
+    when(pipelineRunRepository.findById(99L)).thenReturn(Optional.empty());
+
+    assertTrue(pipelineRunService.awaitRun(99L, Duration.ofMillis(10)).isEmpty());
+  }
+
+  @Test
+  void testListRunsStartsAtNewestRun() {
+    Slice<RunSummary> page = new SliceImpl<>(List.of());
+    when(pipelineRunRepository.findSummariesByRepoUrlBefore("https://github.com/example/repo",
+        Long.MAX_VALUE, PageRequest.ofSize(20))).thenReturn(page);
+
+    assertEquals(page, pipelineRunService.listRuns("https://github.com/example/repo", null, 20));
+  }
+
+  @Test
+  void testListRunsContinuesBeforeCursor() {
+    Slice<RunSummary> page = new SliceImpl<>(List.of());
+    when(pipelineRunRepository.findSummariesByRepoUrlBefore("https://github.com/example/repo",
+        42L, PageRequest.ofSize(5))).thenReturn(page);
+
+    assertEquals(page, pipelineRunService.listRuns("https://github.com/example/repo", 42L, 5));
+  }
+}
@@ -0,0 +1,309 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.models.V1ContainerState;
+import io.kubernetes.client.openapi.models.V1ContainerStateRunning;
+import io.kubernetes.client.openapi.models.V1ContainerStateTerminated;
+import io.kubernetes.client.openapi.models.V1ContainerStateWaiting;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+import io.kubernetes.client.util.ClientBuilder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import neu.cs6510.shared.entity.ArgoLog;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.MediaType;
+import org.mockserver.verify.VerificationTimes;
+
+class PodLogCollectorTest {
+
+  private static final String PODS_PATH = "/api/v1/namespaces/argo/pods";
+  private static final String WORKFLOW_NAME = "pipeline-example-1234";
+  private static final String POD_NAME = "pipeline-example-1234-compile-template-42";
+  private static final String POD_UID = "0c6f7d2e-3f5b-4c1a-9d8e-1b2a3c4d5e6f";
+  private static final OffsetDateTime STARTED_AT = OffsetDateTime.parse("2024-01-01T10:00:00Z");
+  private static final String TERMINATED = "{\"terminated\":{\"exitCode\":%d,"
+      + "\"startedAt\":\"2024-01-01T10:00:00Z\",\"finishedAt\":\"2024-01-01T10:00:09Z\"}}";
+
+  @Mock
+  private ArgoLogWriter argoLogWriter;
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  @TempDir
+  Path logDirectory;
+
+  private ClientAndServer apiServer;
+  private PodLogCollector collector;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    apiServer = ClientAndServer.startClientAndServer();
+    ApiClient apiClient = new ClientBuilder()
+        .setBasePath("http://localhost:" + apiServer.getPort())
+        .build();
+    collector = new PodLogCollector(apiClient, argoLogWriter, pipelineRunRepository, "argo",
+        logDirectory.toString(), 5, 10, 10, 100);
+    when(pipelineRunRepository.findByArgoWorkflowName(WORKFLOW_NAME)).thenReturn(
+        PipelineRun.builder().id(3L).pipeline(Pipeline.builder().id(7L).build()).build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    collector.stop();
+    apiServer.stop();
+  }
+
+  private static String podJson(String mainState) {
+    return "{\"apiVersion\":\"v1\",\"kind\":\"Pod\",\"metadata\":{\"name\":\"" + POD_NAME + "\","
+        + "\"uid\":\"" + POD_UID + "\",\"namespace\":\"argo\",\"resourceVersion\":\"10\","
+        + "\"labels\":{\"workflows.argoproj.io/workflow\":\"" + WORKFLOW_NAME + "\"},"
+        + "\"annotations\":{\"workflows.argoproj.io/node-name\":\"" + WORKFLOW_NAME
+        + ".build.compile\"}},"
+        + "\"status\":{\"containerStatuses\":[{\"name\":\"main\",\"image\":\"gradle\","
+        + "\"imageID\":\"\",\"ready\":false,\"restartCount\":0,\"state\":" + mainState + "}]}}";
+  }
+
+  private static V1Pod pod(V1ContainerState mainState) {
+    return new V1Pod()
+        .metadata(new V1ObjectMeta()
+            .name(POD_NAME)
+            .uid(POD_UID)
+            .namespace("argo")
+            .labels(Map.of("workflows.argoproj.io/workflow", WORKFLOW_NAME))
+            .annotations(Map.of("workflows.argoproj.io/node-name",
+                WORKFLOW_NAME + ".build.compile")))
+        .status(new V1PodStatus().containerStatuses(List.of(
+            new V1ContainerStatus().name("main").state(mainState))));
+  }
+
+  private static V1ContainerState running(OffsetDateTime startedAt) {
+    return new V1ContainerState().running(new V1ContainerStateRunning().startedAt(startedAt));
+  }
+
+  private void expectPodList(String... pods) {
+    apiServer.when(request().withMethod("GET").withPath(PODS_PATH))
+        .respond(response().withStatusCode(200)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"apiVersion\":\"v1\",\"kind\":\"PodList\","
+                + "\"metadata\":{\"resourceVersion\":\"20\"},"
+                + "\"items\":[" + String.join(",", pods) + "]}"));
+  }
+
+  private void expectLog(String body) {
+    apiServer.when(request().withMethod("GET").withPath(PODS_PATH + "/" + POD_NAME + "/log"))
+        .respond(response().withStatusCode(200)
+            .withContentType(MediaType.TEXT_PLAIN)
+            .withBody(body));
+  }
+
+  private void expectPod(int statusCode, String body) {
+    apiServer.when(request().withMethod("GET").withPath(PODS_PATH + "/" + POD_NAME))
+        .respond(response().withStatusCode(statusCode)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody(body));
+  }
+
+  private ArgoLog lastSavedLog() {
+    ArgumentCaptor<ArgoLog> saved = ArgumentCaptor.forClass(ArgoLog.class);
+    verify(argoLogWriter, atLeastOnce()).add(saved.capture());
+    List<ArgoLog> values = saved.getAllValues();
+    return values.get(values.size() - 1);
+  }
+
+  @Test
+  void testFollowsRunningPodToFileAndRecordsStage() throws Exception {
+    expectLog("2024-01-01T10:00:01.000000001Z compiling\n"
+        + "2024-01-01T10:00:08.5Z done\n");
+    expectPod(200, podJson(String.format(TERMINATED, 0)));
+    expectPodList();
+
+    collector.track(WORKFLOW_NAME);
+    collector.onPod(pod(running(STARTED_AT)));
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(10));
+
+    Path logFile = logDirectory.resolve(WORKFLOW_NAME).resolve(POD_NAME + ".log");
+    assertEquals(List.of("2024-01-01T10:00:01.000000001Z compiling",
+        "2024-01-01T10:00:08.5Z done"), Files.readAllLines(logFile));
+    ArgoLog argoLog = lastSavedLog();
+    assertEquals("build", argoLog.getStageName());
+    assertEquals(POD_NAME, argoLog.getPodName());
+    assertEquals(logFile.toString(), argoLog.getLogFilePath());
+    assertEquals("COMPLETED", argoLog.getStatus());
+    assertEquals(7L, argoLog.getPipelineId().getId());
+    assertEquals(Timestamp.from(Instant.parse("2024-01-01T10:00:00Z")), argoLog.getStartTime());
+    assertEquals(Timestamp.from(Instant.parse("2024-01-01T10:00:09Z")), argoLog.getEndTime());
+    verify(argoLogWriter).flush();
+  }
+
+  @Test
+  void testAwaitFollowsPodsMissedByWatch() throws Exception {
+    expectLog("2024-01-01T10:00:01Z failing\n");
+    expectPod(200, podJson(String.format(TERMINATED, 1)));
+    expectPodList(podJson(String.format(TERMINATED, 1)));
+
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(10));
+
+    assertEquals("FAILED", lastSavedLog().getStatus());
+    apiServer.verify(request().withMethod("GET").withPath(PODS_PATH + "/" + POD_NAME + "/log")
+        .withQueryStringParameter("container", "main")
+        .withQueryStringParameter("follow", "true")
+        .withQueryStringParameter("timestamps", "true"), VerificationTimes.exactly(1));
+  }
+
+  @Test
+  void testFallsBackToLogTimestampsWhenPodIsGone() throws Exception {
+    expectLog("2024-01-01T10:00:01Z first\n"
+        + "not a timestamped line\n"
+        + "2024-01-01T10:00:05Z last\n");
+    expectPod(404, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\","
+        + "\"message\":\"pods not found\",\"code\":404}");
+    expectPodList();
+
+    collector.track(WORKFLOW_NAME);
+    collector.onPod(pod(running(null)));
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(10));
+
+    ArgoLog argoLog = lastSavedLog();
+    assertEquals("UNKNOWN", argoLog.getStatus());
+    assertEquals(Timestamp.from(Instant.parse("2024-01-01T10:00:01Z")), argoLog.getStartTime());
+    assertEquals(Timestamp.from(Instant.parse("2024-01-01T10:00:05Z")), argoLog.getEndTime());
+  }
+
+  @Test
+  void testFollowsEachPodOnce() throws Exception {
+    expectLog("2024-01-01T10:00:01Z once\n");
+    expectPod(200, podJson(String.format(TERMINATED, 0)));
+    expectPodList(podJson(String.format(TERMINATED, 0)));
+
+    collector.track(WORKFLOW_NAME);
+    collector.onPod(pod(running(STARTED_AT)));
+    collector.onPod(pod(new V1ContainerState().terminated(
+        new V1ContainerStateTerminated().exitCode(0).startedAt(STARTED_AT))));
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(10));
+
+    apiServer.verify(request().withMethod("GET").withPath(PODS_PATH + "/" + POD_NAME + "/log"),
+        VerificationTimes.exactly(1));
+  }
+
+  @Test
+  void testIgnoresPodsNotStartedYet() throws Exception {
+    expectPodList();
+
+    collector.track(WORKFLOW_NAME);
+    collector.onPod(pod(new V1ContainerState().waiting(
+        new V1ContainerStateWaiting().reason("ContainerCreating"))));
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(1));
+
+    apiServer.verify(request().withPath(PODS_PATH + "/" + POD_NAME + "/log"),
+        VerificationTimes.never());
+    verify(argoLogWriter, never()).add(any());
+  }
+
+  @Test
+  void testDoesNotRecordPodsOfUnknownRuns() throws Exception {
+    when(pipelineRunRepository.findByArgoWorkflowName(WORKFLOW_NAME)).thenReturn(null);
+    expectLog("2024-01-01T10:00:01Z orphan\n");
+    expectPodList();
+
+    collector.track(WORKFLOW_NAME);
+    collector.onPod(pod(running(STARTED_AT)));
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(10));
+
+    assertFalse(Files.readAllLines(logDirectory.resolve(WORKFLOW_NAME)
+        .resolve(POD_NAME + ".log")).isEmpty());
+    verify(argoLogWriter, never()).add(any());
+  }
+
+  @Test
+  void testDoesNotFollowPodAgainAfterRelist() throws Exception {
+    expectLog("2024-01-01T10:00:01Z once\n");
+    expectPod(200, podJson(String.format(TERMINATED, 0)));
+    // Registered before the list expectation, so it takes precedence for watch requests
+    apiServer.when(request().withMethod("GET").withPath(PODS_PATH)
+            .withQueryStringParameter("watch", "true"))
+        .respond(response().withStatusCode(200)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"type\":\"ERROR\",\"object\":{\"kind\":\"Status\","
+                + "\"apiVersion\":\"v1\",\"status\":\"Failure\","
+                + "\"message\":\"too old resource version\",\"reason\":\"Expired\","
+                + "\"code\":410}}\n"));
+    expectPodList(podJson(String.format(TERMINATED, 0)));
+    collector.track(WORKFLOW_NAME);
+
+    collector.watchOnce();
+    verify(argoLogWriter, timeout(5000)).add(any());
+    collector.watchOnce();
+    collector.awaitWorkflowLogs(WORKFLOW_NAME, Duration.ofSeconds(10));
+
+    // Each watch resumed from the version of a fresh list
+    apiServer.verify(request().withMethod("GET").withPath(PODS_PATH)
+        .withQueryStringParameter("watch", "true")
+        .withQueryStringParameter("resourceVersion", "20"), VerificationTimes.exactly(2));
+    apiServer.verify(request().withMethod("GET").withPath(PODS_PATH + "/" + POD_NAME + "/log"),
+        VerificationTimes.exactly(1));
+    verify(argoLogWriter, times(1)).add(any());
+  }
+
+  @Test
+  void testIgnoresPodsOfOtherInstances() throws Exception {
+    expectLog("2024-01-01T10:00:01Z elsewhere\n");
+
+    collector.onPod(pod(running(STARTED_AT)));
+
+    apiServer.verify(request().withPath(PODS_PATH + "/" + POD_NAME + "/log"),
+        VerificationTimes.never());
+    verify(argoLogWriter, never()).add(any());
+  }
+
+  @Test
+  void testStageName() {
+    V1Pod pod = new V1Pod().metadata(new V1ObjectMeta().name(POD_NAME)
+        .annotations(Map.of("workflows.argoproj.io/node-name", WORKFLOW_NAME + ".test.unit")));
+    assertEquals("test", PodLogCollector.stageName(pod, WORKFLOW_NAME));
+
+    V1Pod unannotated = new V1Pod().metadata(new V1ObjectMeta().name(POD_NAME));
+    assertEquals(POD_NAME, PodLogCollector.stageName(unannotated, WORKFLOW_NAME));
+  }
+
+  @Test
+  void testParseTimestamp() {
+    assertEquals(Instant.parse("2024-01-01T10:00:01.123456789Z"),
+        PodLogCollector.parseTimestamp("2024-01-01T10:00:01.123456789Z hello world"));
+    assertNull(PodLogCollector.parseTimestamp("hello world"));
+    assertNull(PodLogCollector.parseTimestamp(""));
+  }
+}
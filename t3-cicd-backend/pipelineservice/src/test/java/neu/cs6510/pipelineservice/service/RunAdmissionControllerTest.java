@@ -0,0 +1,189 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RunAdmissionControllerTest {
+
+  private static final String REPO_A = "https://github.com/team/a.git";
+  private static final String REPO_B = "https://github.com/team/b.git";
+  private static final String REPO_C = "https://github.com/team/c.git";
+
+  private SimpleMeterRegistry meterRegistry;
+  private RunAdmissionController controller;
+
+  /** IDs of the runs in the order they were started. */
+  private final List<Long> started = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (controller != null) {
+      controller.shutdown();
+    }
+  }
+
+  private RunAdmissionController controller(int maxRunning, int maxRunningPerRepo,
+      int queueCapacity, Map<String, Integer> weights, ClusterCapacityProbe probe) {
+    controller = new RunAdmissionController(meterRegistry, Optional.ofNullable(probe), maxRunning,
+        maxRunningPerRepo, queueCapacity, weights, 60_000);
+    return controller;
+  }
+
+  private void admit(long runId, String repoUrl) {
+    controller.admit(runId, repoUrl, () -> started.add(runId));
+  }
+
+  private void releaseLastStarted(int times) {
+    for (int i = 0; i < times; i++) {
+      controller.release(started.get(started.size() - 1));
+    }
+  }
+
+  @Test
+  void testAdmitsImmediatelyUnderCaps() {
+    controller(2, 2, 10, Map.of(), null);
+
+    admit(1, REPO_A);
+    admit(2, REPO_B);
+
+    assertEquals(List.of(1L, 2L), started);
+    assertEquals(2, controller.getRunningCount());
+    assertEquals(0, controller.getQueuedCount());
+  }
+
+  @Test
+  void testGlobalCapQueuesUntilRelease() {
+    controller(1, 5, 10, Map.of(), null);
+
+    admit(1, REPO_A);
+    admit(2, REPO_B);
+
+    assertEquals(List.of(1L), started);
+    assertEquals(1, controller.getQueuedCount());
+    assertEquals(1.0, meterRegistry.get("pipeline.runs.queued").gauge().value());
+
+    controller.release(1L);
+
+    assertEquals(List.of(1L, 2L), started);
+    assertEquals(0, controller.getQueuedCount());
+    assertEquals(2, meterRegistry.get("pipeline.runs.admission.wait").timer().count());
+  }
+
+  @Test
+  void testPerRepoCapDoesNotBlockOtherRepos() {
+    controller(10, 1, 10, Map.of(), null);
+
+    admit(1, REPO_A);
+    admit(2, REPO_A);
+    admit(3, REPO_B);
+
+    assertEquals(List.of(1L, 3L), started);
+
+    controller.release(3L);
+    assertEquals(List.of(1L, 3L), started);
+
+    controller.release(1L);
+    assertEquals(List.of(1L, 3L, 2L), started);
+  }
+
+  @Test
+  void testBurstFromOneRepoDoesNotStarveOthers() {
+    controller(1, 1, 20, Map.of(), null);
+    admit(1, REPO_A);
+    // A burst of pushes to A, then one run each for B and C
+    for (long runId = 2; runId <= 6; runId++) {
+      admit(runId, REPO_A);
+    }
+    admit(10, REPO_B);
+    admit(20, REPO_C);
+
+    releaseLastStarted(5);
+
+    // B and C go ahead of the rest of A's burst, although they were queued later
+    assertEquals(List.of(1L, 10L, 20L, 2L, 3L, 4L), started);
+  }
+
+  @Test
+  void testWeightsGiveProportionalShare() {
+    controller(1, 1, 20, Map.of(REPO_A, 2), null);
+    admit(100, REPO_C);
+    for (long i = 1; i <= 4; i++) {
+      admit(i, REPO_A);
+      admit(10 + i, REPO_B);
+    }
+
+    releaseLastStarted(6);
+
+    // A has twice the weight of B, so it gets two slots for each of B's
+    assertEquals(List.of(100L, 1L, 11L, 2L, 3L, 12L, 4L), started);
+  }
+
+  @Test
+  void testRejectsWhenQueueIsFull() {
+    controller(1, 1, 1, Map.of(), null);
+    admit(1, REPO_A);
+    admit(2, REPO_A);
+
+    assertThrows(RejectedExecutionException.class, () -> admit(3, REPO_B));
+
+    assertEquals(1, controller.getQueuedCount());
+    assertEquals(1.0, meterRegistry.get("pipeline.runs.rejected").counter().count());
+    controller.release(1L);
+    assertEquals(List.of(1L, 2L), started);
+  }
+
+  @Test
+  void testFailedStartReleasesSlot() {
+    controller(1, 1, 10, Map.of(), null);
+
+    assertThrows(RejectedExecutionException.class, () -> controller.admit(1L, REPO_A, () -> {
+      throw new RejectedExecutionException("executor is full");
+    }));
+    admit(2, REPO_A);
+
+    assertEquals(List.of(2L), started);
+  }
+
+  @Test
+  void testReleaseOfUnknownRunIsIgnored() {
+    controller(1, 1, 10, Map.of(), null);
+    admit(1, REPO_A);
+
+    controller.release(99L);
+
+    assertEquals(1, controller.getRunningCount());
+  }
+
+  @Test
+  void testHoldsRunsWhileClusterIsFull() {
+    ClusterCapacityProbe probe = mock(ClusterCapacityProbe.class);
+    when(probe.hasCapacity()).thenReturn(false);
+    controller(10, 10, 10, Map.of(), probe);
+    controller.checkCapacity();
+
+    admit(1, REPO_A);
+    assertEquals(List.of(), started);
+
+    when(probe.hasCapacity()).thenReturn(true);
+    controller.checkCapacity();
+
+    assertEquals(List.of(1L), started);
+  }
+}
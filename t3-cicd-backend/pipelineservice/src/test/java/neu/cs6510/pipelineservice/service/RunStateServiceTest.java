@@ -0,0 +1,174 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.JobRun;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.RunStatus;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.entity.StageRun;
+import neu.cs6510.shared.repository.JobRunRepository;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import neu.cs6510.shared.repository.StageRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class RunStateServiceTest {
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Mock
+  private StageRunRepository stageRunRepository;
+
+  @Mock
+  private JobRunRepository jobRunRepository;
+
+  private RunStateService runStateService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    runStateService = new RunStateService(pipelineRunRepository, stageRunRepository,
+        jobRunRepository);
+    when(stageRunRepository.save(any(StageRun.class))).thenAnswer(invocation ->
+        invocation.getArgument(0));
+  }
+
+  private static PipelineRun preparedRun(Pipeline pipeline) {
+    return PipelineRun.builder().id(42L).status("queued").pipeline(pipeline).commitSha("abc123")
+        .configFilePath(".pipelines/build.yaml").argoWorkflowName("pipeline-build-1")
+        .argoYamlPath("/templates/pipeline-build.yaml")
+        .startTime(new Timestamp(System.currentTimeMillis())).build();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testStartRunCreatesPendingStageAndJobRuns() {
+    Job compile = Job.builder().id(1L).name("compile").build();
+    Job test = Job.builder().id(2L).name("test").build();
+    Job deploy = Job.builder().id(3L).name("deploy").build();
+    Stage build = Stage.builder().id(1L).name("build")
+        .jobs(new ArrayList<>(List.of(compile, test))).build();
+    Stage release = Stage.builder().id(2L).name("release")
+        .jobs(new ArrayList<>(List.of(deploy))).build();
+    Pipeline pipeline = Pipeline.builder().id(7L)
+        .stages(new ArrayList<>(List.of(build, release))).build();
+    PipelineRun run = preparedRun(pipeline);
+    when(pipelineRunRepository.updateStarted(42L, "queued", "running", pipeline, "abc123",
+        ".pipelines/build.yaml", "pipeline-build-1", "/templates/pipeline-build.yaml",
+        run.getStartTime())).thenReturn(1);
+
+    assertTrue(runStateService.startRun(run));
+
+    assertEquals("running", run.getStatus());
+    ArgumentCaptor<StageRun> stageRuns = ArgumentCaptor.forClass(StageRun.class);
+    verify(stageRunRepository, times(2)).save(stageRuns.capture());
+    assertEquals(List.of(build, release),
+        stageRuns.getAllValues().stream().map(StageRun::getStage).toList());
+    assertEquals("pending", stageRuns.getAllValues().get(0).getStatus());
+
+    ArgumentCaptor<List<JobRun>> jobRuns = ArgumentCaptor.forClass(List.class);
+    verify(jobRunRepository).saveAll(jobRuns.capture());
+    List<JobRun> saved = jobRuns.getValue();
+    assertEquals(List.of(compile, test, deploy), saved.stream().map(JobRun::getJob).toList());
+    assertSame(stageRuns.getAllValues().get(0), saved.get(1).getStageRun());
+    assertSame(stageRuns.getAllValues().get(1), saved.get(2).getStageRun());
+    assertSame(run, saved.get(2).getPipelineRun());
+    assertEquals("pending", saved.get(2).getStatus());
+  }
+
+  @Test
+  void testStartRunWhenNoLongerQueued() {
+    PipelineRun run = preparedRun(Pipeline.builder().id(7L).build());
+    when(pipelineRunRepository.updateStarted(eq(42L), eq("queued"), eq("running"), any(),
+        any(), any(), any(), any(), any())).thenReturn(0);
+
+    assertFalse(runStateService.startRun(run));
+
+    assertEquals("queued", run.getStatus());
+    verify(stageRunRepository, never()).save(any(StageRun.class));
+    verify(jobRunRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void testFinishRunUpdatesStageAndJobRuns() {
+    Timestamp endTime = new Timestamp(System.currentTimeMillis());
+    when(pipelineRunRepository.updateFinished(42L, "running", "success", null, endTime))
+        .thenReturn(1);
+
+    assertTrue(runStateService.finishRun(42L, RunStatus.RUNNING, RunStatus.SUCCESS, null,
+        endTime));
+
+    verify(stageRunRepository).finishByPipelineRunId(42L, "success", endTime);
+    verify(jobRunRepository).finishByPipelineRunId(42L, "success", endTime);
+  }
+
+  @Test
+  void testFinishRunAlreadyFinishedElsewhere() {
+    Timestamp endTime = new Timestamp(System.currentTimeMillis());
+    when(pipelineRunRepository.updateFinished(42L, "running", "failed", "Error: boom", endTime))
+        .thenReturn(0);
+
+    assertFalse(runStateService.finishRun(42L, RunStatus.RUNNING, RunStatus.FAILED,
+        "Error: boom", endTime));
+
+    verify(stageRunRepository, never()).finishByPipelineRunId(anyLong(), anyString(), any());
+    verify(jobRunRepository, never()).finishByPipelineRunId(anyLong(), anyString(), any());
+  }
+
+  @Test
+  void testFinishRunRejectsIllegalTransitions() {
+    Timestamp endTime = new Timestamp(System.currentTimeMillis());
+
+    assertThrows(IllegalArgumentException.class, () ->
+        runStateService.finishRun(42L, RunStatus.QUEUED, RunStatus.SUCCESS, null, endTime));
+    assertThrows(IllegalArgumentException.class, () ->
+        runStateService.finishRun(42L, RunStatus.QUEUED, RunStatus.RUNNING, null, endTime));
+    assertThrows(IllegalArgumentException.class, () ->
+        runStateService.finishRun(42L, RunStatus.SUCCESS, RunStatus.FAILED, null, endTime));
+    verify(pipelineRunRepository, never()).updateFinished(anyLong(), any(), any(), any(), any());
+  }
+
+  @Test
+  void testDeleteRunsWithTheirStageAndJobRuns() {
+    List<Long> ids = List.of(1L, 2L);
+    when(pipelineRunRepository.deleteByIdIn(ids)).thenReturn(2);
+
+    assertEquals(2, runStateService.deleteRuns(ids));
+
+    InOrder order = inOrder(jobRunRepository, stageRunRepository, pipelineRunRepository);
+    order.verify(jobRunRepository).deleteByPipelineRunIdIn(ids);
+    order.verify(stageRunRepository).deleteByPipelineRunIdIn(ids);
+    order.verify(pipelineRunRepository).deleteByIdIn(ids);
+  }
+
+  @Test
+  void testDeleteNoRuns() {
+    assertEquals(0, runStateService.deleteRuns(List.of()));
+
+    verify(pipelineRunRepository, never()).deleteByIdIn(any());
+  }
+}
@@ -0,0 +1,303 @@
+package neu.cs6510.pipelineservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.generic.dynamic.DynamicKubernetesApi;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.RunStatus;
+import neu.cs6510.shared.entity.WatchCheckpoint;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import neu.cs6510.shared.repository.WatchCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.MediaType;
+
+class WorkflowWatcherTest {
+
+  private static final String WORKFLOWS_PATH =
+      "/apis/argoproj.io/v1alpha1/namespaces/argo/workflows";
+
+  @Mock
+  private WatchCheckpointRepository watchCheckpointRepository;
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Mock
+  private RunStateService runStateService;
+
+  @Mock
+  private PodLogCollector podLogCollector;
+
+  private ClientAndServer apiServer;
+  private WorkflowWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    apiServer = ClientAndServer.startClientAndServer();
+    ApiClient apiClient = new ClientBuilder()
+        .setBasePath("http://localhost:" + apiServer.getPort())
+        .build();
+    DynamicKubernetesApi workflowApi = new DynamicKubernetesApi("argoproj.io", "v1alpha1",
+        "workflows", apiClient);
+    watcher = new WorkflowWatcher(workflowApi, watchCheckpointRepository, pipelineRunRepository,
+        runStateService, podLogCollector, "argo", 5, 0, 10);
+  }
+
+  @AfterEach
+  void tearDown() {
+    apiServer.stop();
+  }
+
+  private static String workflowJson(String name, String resourceVersion, String phase) {
+    String status = phase == null ? "{}" : "{\"phase\":\"" + phase + "\"}";
+    return "{\"apiVersion\":\"argoproj.io/v1alpha1\",\"kind\":\"Workflow\","
+        + "\"metadata\":{\"name\":\"" + name + "\",\"namespace\":\"argo\","
+        + "\"resourceVersion\":\"" + resourceVersion + "\"},"
+        + "\"status\":" + status + "}";
+  }
+
+  private static String event(String type, String workflowJson) {
+    return "{\"type\":\"" + type + "\",\"object\":" + workflowJson + "}\n";
+  }
+
+  private void expectList(String resourceVersion, String... items) {
+    apiServer.when(request().withMethod("GET").withPath(WORKFLOWS_PATH))
+        .respond(response().withStatusCode(200)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody("{\"apiVersion\":\"argoproj.io/v1alpha1\",\"kind\":\"WorkflowList\","
+                + "\"metadata\":{\"resourceVersion\":\"" + resourceVersion + "\"},"
+                + "\"items\":[" + String.join(",", items) + "]}"));
+  }
+
+  private void expectWatch(String... events) {
+    // Registered before the list expectation, so it takes precedence for watch requests
+    apiServer.when(request().withMethod("GET").withPath(WORKFLOWS_PATH)
+            .withQueryStringParameter("watch", "true"))
+        .respond(response().withStatusCode(200)
+            .withContentType(MediaType.APPLICATION_JSON)
+            .withBody(String.join("", events)));
+  }
+
+  @Test
+  void testRelistCompletesRegisteredWorkflow() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.empty());
+    expectWatch();
+    expectList("100", workflowJson("wf-a", "90", "Succeeded"),
+        workflowJson("wf-b", "95", "Running"));
+    CompletableFuture<String> handleA = watcher.register("wf-a");
+    CompletableFuture<String> handleB = watcher.register("wf-b");
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    assertEquals("Succeeded", handleA.get());
+    assertFalse(handleB.isDone());
+    assertEquals("100", watcher.getResourceVersion());
+    ArgumentCaptor<WatchCheckpoint> checkpoint = ArgumentCaptor.forClass(WatchCheckpoint.class);
+    verify(watchCheckpointRepository).save(checkpoint.capture());
+    assertEquals("100", checkpoint.getValue().getResourceVersion());
+  }
+
+  @Test
+  void testWatchResumesFromCheckpointAndDispatchesEvents() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("200").build()));
+    expectWatch(
+        event("MODIFIED", workflowJson("wf-a", "201", "Running")),
+        event("MODIFIED", workflowJson("wf-a", "202", "Failed")));
+    CompletableFuture<String> handle = watcher.register("wf-a");
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    assertEquals("Failed", handle.get());
+    assertEquals("202", watcher.getResourceVersion());
+    apiServer.verify(request().withMethod("GET").withPath(WORKFLOWS_PATH)
+        .withQueryStringParameter("watch", "true")
+        .withQueryStringParameter("resourceVersion", "200"));
+  }
+
+  @Test
+  void testWatchRelistsWhenResourceVersionExpired() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("5").build()));
+    expectWatch("{\"type\":\"ERROR\",\"object\":{\"kind\":\"Status\",\"apiVersion\":\"v1\","
+        + "\"status\":\"Failure\",\"message\":\"too old resource version\",\"reason\":\"Expired\","
+        + "\"code\":410}}\n");
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    assertNull(watcher.getResourceVersion());
+  }
+
+  @Test
+  void testDeletedWorkflowFailsHandle() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("300").build()));
+    expectWatch(event("DELETED", workflowJson("wf-a", "301", "Running")));
+    CompletableFuture<String> handle = watcher.register("wf-a");
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    ExecutionException e = assertThrows(ExecutionException.class, handle::get);
+    assertTrue(e.getCause().getMessage().contains("deleted"));
+  }
+
+  @Test
+  void testRecoversRunSubmittedBeforeRestart() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("400").build()));
+    expectWatch(event("MODIFIED", workflowJson("wf-old", "401", "Succeeded")));
+    PipelineRun run = PipelineRun.builder()
+        .id(5L)
+        .pipeline(Pipeline.builder().id(9L).build())
+        .argoWorkflowName("wf-old")
+        .status("running")
+        .startTime(new Timestamp(System.currentTimeMillis() - 60_000))
+        .build();
+    when(pipelineRunRepository.findByArgoWorkflowName("wf-old")).thenReturn(run);
+    when(runStateService.finishRun(eq(5L), eq(RunStatus.RUNNING), eq(RunStatus.SUCCESS),
+        isNull(), any())).thenReturn(true);
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    verify(runStateService).finishRun(eq(5L), eq(RunStatus.RUNNING), eq(RunStatus.SUCCESS),
+        isNull(), any());
+    verify(podLogCollector).collectRecovered("wf-old");
+    verify(pipelineRunRepository, never()).save(any());
+  }
+
+  @Test
+  void testDoesNotRecoverRunStartedByThisInstance() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("500").build()));
+    expectWatch(event("MODIFIED", workflowJson("wf-new", "501", "Succeeded")));
+    PipelineRun run = PipelineRun.builder()
+        .id(6L)
+        .argoWorkflowName("wf-new")
+        .status("running")
+        .startTime(new Timestamp(System.currentTimeMillis() + 60_000))
+        .build();
+    when(pipelineRunRepository.findByArgoWorkflowName("wf-new")).thenReturn(run);
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    assertEquals("running", run.getStatus());
+    verify(pipelineRunRepository, never()).save(any());
+    verify(runStateService, never()).finishRun(anyLong(), any(), any(), any(), any());
+    verify(podLogCollector, never()).collectRecovered(any());
+  }
+
+  @Test
+  void testRelistsInsteadOfResumingWhenRunsWereLeftRunning() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("700").build()));
+    expectWatch();
+    expectList("710", workflowJson("wf-old", "705", "Succeeded"));
+    PipelineRun run = PipelineRun.builder()
+        .id(7L)
+        .argoWorkflowName("wf-old")
+        .status("running")
+        .startTime(new Timestamp(System.currentTimeMillis() - 60_000))
+        .build();
+    when(pipelineRunRepository.findByStatus("running")).thenReturn(List.of(run), List.of());
+    when(pipelineRunRepository.findByArgoWorkflowName("wf-old")).thenReturn(run);
+    when(runStateService.finishRun(eq(7L), eq(RunStatus.RUNNING), eq(RunStatus.SUCCESS),
+        isNull(), any())).thenReturn(true);
+
+    watcher.resume();
+    assertNull(watcher.getResourceVersion());
+    watcher.watchOnce();
+
+    verify(runStateService).finishRun(eq(7L), eq(RunStatus.RUNNING), eq(RunStatus.SUCCESS),
+        isNull(), any());
+    verify(podLogCollector).collectRecovered("wf-old");
+    assertEquals("710", watcher.getResourceVersion());
+  }
+
+  @Test
+  void testRelistFailsRunWhoseWorkflowIsGone() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.empty());
+    expectWatch();
+    expectList("800", workflowJson("wf-other", "790", "Running"));
+    PipelineRun gone = PipelineRun.builder()
+        .id(8L)
+        .argoWorkflowName("wf-gone")
+        .status("running")
+        .startTime(new Timestamp(System.currentTimeMillis() - 60_000))
+        .build();
+    PipelineRun listed = PipelineRun.builder()
+        .id(9L)
+        .argoWorkflowName("wf-other")
+        .status("running")
+        .startTime(new Timestamp(System.currentTimeMillis() - 60_000))
+        .build();
+    PipelineRun current = PipelineRun.builder()
+        .id(10L)
+        .argoWorkflowName("wf-new")
+        .status("running")
+        .startTime(new Timestamp(System.currentTimeMillis() + 60_000))
+        .build();
+    when(pipelineRunRepository.findByStatus("running"))
+        .thenReturn(List.of(gone, listed, current));
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    verify(runStateService).finishRun(eq(8L), eq(RunStatus.RUNNING), eq(RunStatus.FAILED),
+        eq("Workflow wf-gone no longer exists"), any());
+    verify(runStateService, never()).finishRun(eq(9L), any(), any(), any(), any());
+    verify(runStateService, never()).finishRun(eq(10L), any(), any(), any(), any());
+  }
+
+  @Test
+  void testUnregisterDropsHandle() throws Exception {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(
+        WatchCheckpoint.builder().name("argo-workflows").resourceVersion("600").build()));
+    expectWatch(event("MODIFIED", workflowJson("wf-a", "601", "Succeeded")));
+    CompletableFuture<String> handle = watcher.register("wf-a");
+    watcher.unregister("wf-a");
+
+    watcher.resume();
+    watcher.watchOnce();
+
+    assertFalse(handle.isDone());
+  }
+
+  @Test
+  void testPhaseOfMissingStatus() {
+    assertNull(WorkflowWatcher.phaseOf(null));
+  }
+}
@@ -0,0 +1,187 @@
+package neu.cs6510.pipelineservice.service;
+
+import static neu.cs6510.shared.constants.Pipeline.STATUS_QUEUED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_RUNNING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import neu.cs6510.shared.projection.RunFiles;
+import neu.cs6510.shared.repository.PipelineRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class WorkspaceReclaimerTest {
+
+  private static final List<String> ACTIVE_STATUSES = List.of(STATUS_QUEUED, STATUS_RUNNING);
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  @TempDir
+  Path volume;
+
+  private Path workspaceDir;
+  private Path mirrorDir;
+  private Path workflowDir;
+  private Path templateDir;
+  private Path logDir;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    workspaceDir = Files.createDirectories(volume.resolve("git-repo"));
+    mirrorDir = Files.createDirectories(workspaceDir.resolve("mirrors"));
+    workflowDir = Files.createDirectories(volume.resolve("argoworkflows"));
+    templateDir = Files.createDirectories(workflowDir.resolve("templates"));
+    logDir = Files.createDirectories(workflowDir.resolve("logs"));
+    meterRegistry = new SimpleMeterRegistry();
+    when(pipelineRunRepository.findFilesByStatusIn(ACTIVE_STATUSES)).thenReturn(List.of());
+  }
+
+  private WorkspaceReclaimer reclaimer(long maxAgeHours, long maxBytes) {
+    return new WorkspaceReclaimer(meterRegistry, pipelineRunRepository, true, 600000,
+        maxAgeHours, maxBytes, 30, workspaceDir.toString(), mirrorDir.toString(),
+        workflowDir.toString(), templateDir.toString(), logDir.toString());
+  }
+
+  /**
+   * Writes a file of the given size and marks it, and its parents up to the volume, as last used
+   * some time ago.
+   */
+  private Path write(Path file, int bytes, Duration age) throws IOException {
+    Files.createDirectories(file.getParent());
+    Files.write(file, new byte[bytes]);
+    setAge(file, age);
+    return file;
+  }
+
+  private static void setAge(Path path, Duration age) throws IOException {
+    FileTime time = FileTime.from(Instant.now().minus(age));
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path child : paths.toList()) {
+        Files.getFileAttributeView(child, BasicFileAttributeView.class)
+            .setTimes(time, time, null);
+      }
+    }
+  }
+
+  @Test
+  void reclaimDeletesExpiredWorkspacesOnly() throws IOException {
+    write(workspaceDir.resolve("repo-old/README.md"), 10, Duration.ofDays(10));
+    setAge(workspaceDir.resolve("repo-old"), Duration.ofDays(10));
+    write(workspaceDir.resolve("repo-new/README.md"), 10, Duration.ofDays(1));
+    setAge(workspaceDir.resolve("repo-new"), Duration.ofDays(1));
+    write(workflowDir.resolve("pipeline-old.yaml"), 10, Duration.ofDays(10));
+    write(templateDir.resolve("pipeline-template.yaml"), 10, Duration.ofDays(10));
+    write(mirrorDir.resolve("repo.git/HEAD"), 10, Duration.ofDays(10));
+    write(logDir.resolve("1/build.log"), 10, Duration.ofDays(10));
+
+    int deleted = reclaimer(168, Long.MAX_VALUE).reclaim();
+
+    assertEquals(3, deleted);
+    assertFalse(Files.exists(workspaceDir.resolve("repo-old")));
+    assertFalse(Files.exists(workflowDir.resolve("pipeline-old.yaml")));
+    assertFalse(Files.exists(templateDir.resolve("pipeline-template.yaml")));
+    assertTrue(Files.exists(workspaceDir.resolve("repo-new/README.md")));
+    assertTrue(Files.exists(mirrorDir.resolve("repo.git/HEAD")));
+    assertTrue(Files.exists(logDir.resolve("1/build.log")));
+    assertEquals(3.0, meterRegistry.get("workspace.reclaimed").tag("reason", "age")
+        .counter().count());
+    assertEquals(30.0, meterRegistry.get("workspace.reclaimed.bytes").counter().count());
+    assertEquals(10.0, meterRegistry.get("workspace.disk.usage").gauge().value());
+    assertEquals(1.0, meterRegistry.get("workspace.count").gauge().value());
+  }
+
+  @Test
+  void reclaimDeletesLeastRecentlyUsedWorkspacesOverBudget() throws IOException {
+    write(workflowDir.resolve("pipeline-a.yaml"), 100, Duration.ofHours(3));
+    write(workflowDir.resolve("pipeline-b.yaml"), 100, Duration.ofHours(2));
+    write(workflowDir.resolve("pipeline-c.yaml"), 100, Duration.ofHours(1));
+
+    int deleted = reclaimer(168, 150).reclaim();
+
+    assertEquals(2, deleted);
+    assertFalse(Files.exists(workflowDir.resolve("pipeline-a.yaml")));
+    assertFalse(Files.exists(workflowDir.resolve("pipeline-b.yaml")));
+    assertTrue(Files.exists(workflowDir.resolve("pipeline-c.yaml")));
+    assertEquals(2.0, meterRegistry.get("workspace.reclaimed").tag("reason", "size")
+        .counter().count());
+    assertEquals(100.0, meterRegistry.get("workspace.disk.usage").gauge().value());
+  }
+
+  @Test
+  void reclaimKeepsRecentWorkspacesOverBudget() throws IOException {
+    write(workflowDir.resolve("pipeline-a.yaml"), 100, Duration.ofMinutes(5));
+
+    int deleted = reclaimer(0, 0).reclaim();
+
+    assertEquals(0, deleted);
+    assertTrue(Files.exists(workflowDir.resolve("pipeline-a.yaml")));
+  }
+
+  @Test
+  void reclaimKeepsWorkspacesOfActiveRuns() throws IOException {
+    write(workflowDir.resolve("pipeline-running.yaml"), 10, Duration.ofDays(10));
+    write(workflowDir.resolve("pipeline-done.yaml"), 10, Duration.ofDays(10));
+    Path template = write(templateDir.resolve("pipeline-template.yaml"), 10,
+        Duration.ofDays(10));
+    when(pipelineRunRepository.findFilesByStatusIn(ACTIVE_STATUSES))
+        .thenReturn(List.of(new RunFiles("pipeline-running", template.toString())));
+
+    int deleted = reclaimer(168, 0).reclaim();
+
+    assertEquals(1, deleted);
+    assertFalse(Files.exists(workflowDir.resolve("pipeline-done.yaml")));
+    assertTrue(Files.exists(workflowDir.resolve("pipeline-running.yaml")));
+    assertTrue(Files.exists(template));
+  }
+
+  @Test
+  void reclaimDeletesNothingWhenRunsCannotBeRead() throws IOException {
+    write(workflowDir.resolve("pipeline-old.yaml"), 10, Duration.ofDays(10));
+    when(pipelineRunRepository.findFilesByStatusIn(ACTIVE_STATUSES))
+        .thenThrow(new DataAccessResourceFailureException("database down"));
+
+    int deleted = reclaimer(168, 0).reclaim();
+
+    assertEquals(0, deleted);
+    assertTrue(Files.exists(workflowDir.resolve("pipeline-old.yaml")));
+  }
+
+  @Test
+  void reclaimSkipsMissingDirectories() throws IOException {
+    WorkspaceReclaimer reclaimer = new WorkspaceReclaimer(meterRegistry, pipelineRunRepository,
+        true, 600000, 168, 0, 30, volume.resolve("missing").toString(), mirrorDir.toString(),
+        workflowDir.toString(), templateDir.toString(), logDir.toString());
+
+    assertEquals(0, reclaimer.reclaim());
+    assertEquals(0.0, meterRegistry.get("workspace.count").gauge().value());
+  }
+
+  @Test
+  void startDoesNothingWhenDisabled() {
+    WorkspaceReclaimer reclaimer = new WorkspaceReclaimer(meterRegistry, pipelineRunRepository,
+        false, 600000, 168, 0, 30, workspaceDir.toString(), mirrorDir.toString(),
+        workflowDir.toString(), templateDir.toString(), logDir.toString());
+
+    reclaimer.start();
+    reclaimer.shutdown();
+  }
+}
@@ -0,0 +1,56 @@
+package neu.cs6510.pipelineservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class ArgoLogLineParserTest {
+
+  private static final String POD = "pipeline-example-1234-compile-template-42";
+  private static final String COLORED_POD = "\u001B[35m" + POD + "\u001B[0m";
+
+  @Test
+  void testPodNameStripsColorCodes() {
+    assertEquals(POD, ArgoLogLineParser.podName(COLORED_POD
+        + ": time=\"2024-01-01T10:00:00.000Z\" level=info msg=\"capturing logs\""));
+  }
+
+  @Test
+  void testPodNameWithoutColorCodes() {
+    assertEquals(POD, ArgoLogLineParser.podName("  " + POD + " : compiling"));
+  }
+
+  @Test
+  void testPodNameOfLineWithoutSeparator() {
+    String line = "no separator here";
+
+    assertSame(line, ArgoLogLineParser.podName(line));
+  }
+
+  @Test
+  void testFirstFieldIsStageName() {
+    assertEquals("compile", ArgoLogLineParser.firstField(COLORED_POD
+        + ": \u001B[1;32mcompile\u001B[0m: building sources"));
+    assertEquals("compiling", ArgoLogLineParser.firstField(POD + ":\tcompiling"));
+  }
+
+  @Test
+  void testFirstFieldOfLineWithoutSeparator() {
+    assertNull(ArgoLogLineParser.firstField(POD));
+  }
+
+  @Test
+  void testKeepsIncompleteEscapeSequences() {
+    assertEquals("\u001B[2Kpod", ArgoLogLineParser.podName("\u001B[2Kpod: cleared"));
+    assertEquals("pod\u001B[", ArgoLogLineParser.podName("pod\u001B[: cut off"));
+    assertEquals("\u001Bx", ArgoLogLineParser.firstField("pod: \u001Bx "));
+  }
+
+  @Test
+  void testStageNameStartingWithColorCode() {
+    // Trimming before stripping used to cut the leading escape and leave "[33mtest"
+    assertEquals("test", ArgoLogLineParser.firstField(COLORED_POD + ": \u001B[33mtest\u001B[0m"));
+  }
+}
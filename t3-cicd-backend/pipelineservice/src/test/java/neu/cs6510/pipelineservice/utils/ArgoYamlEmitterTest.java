@@ -0,0 +1,74 @@
+package neu.cs6510.pipelineservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import neu.cs6510.pipelineservice.model.ArgoWorkflow;
+import neu.cs6510.pipelineservice.service.ArgoYamlService;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+class ArgoYamlEmitterTest {
+
+  private final ArgoYamlService argoYamlService = new ArgoYamlService();
+
+  private static Job job(String name, String imageName, List<String> scripts,
+      List<String> needs) {
+    return Job.builder().name(name).imageName(imageName).scripts(scripts).needs(needs).build();
+  }
+
+  /**
+   * A pipeline with values that need every scalar style: quoting, literal blocks, folding of
+   * long lines, escapes, non-ASCII text and a null image.
+   */
+  private static Pipeline pipeline() {
+    Stage build = Stage.builder().name("build").jobs(List.of(
+        job("compile", "gradle:8.10-jdk21",
+            List.of("./gradlew build", "echo 'done' # \"quoted\""), List.of()),
+        job("true", "123", List.of("yes"), List.of("compile")))).build();
+    Stage test = Stage.builder().name("test").jobs(List.of(
+        job("unit", "gradle:8.10-jdk21", List.of("a line that is longer than the eighty "
+            + "characters the emitter folds plain and quoted scalars at: ./gradlew test"),
+            List.of()),
+        job("report", "alpine", List.of("echo \u00fcn\u00efc\u00f6d\u00e9 \u2713",
+            "tab\there", "  leading", "- dash", "key: value", "#comment", "null", "~", "0x1F",
+            "@at"), List.of("unit")),
+        job("empty", null, List.of(), List.of()),
+        job("bell", "alpine", List.of("printf '\u0007'"), List.of()))).build();
+    return Pipeline.builder().name("example").stages(List.of(build, test)).build();
+  }
+
+  private static byte[] dump(Object resource) {
+    return new Yaml(ArgoYamlEmitter.dumperOptions()).dump(resource)
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testWorkflowTemplateMatchesYamlDump() throws Exception {
+    Pipeline pipeline = pipeline();
+    ArgoWorkflow workflow = argoYamlService.createArgoWorkflow(pipeline);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    ArgoYamlEmitter.writeWorkflowTemplate(pipeline, workflow.getTemplateName(), out);
+
+    assertArrayEquals(dump(workflow.getTemplate()), out.toByteArray());
+  }
+
+  @Test
+  void testResourceMatchesYamlDump() throws Exception {
+    ArgoWorkflow workflow = argoYamlService.createArgoWorkflow(pipeline());
+    ByteArrayOutputStream workflowOut = new ByteArrayOutputStream();
+    ByteArrayOutputStream templateOut = new ByteArrayOutputStream();
+
+    ArgoYamlEmitter.writeResource(workflow.getResource(), workflowOut);
+    ArgoYamlEmitter.writeResource(workflow.getTemplate(), templateOut);
+
+    assertArrayEquals(dump(workflow.getResource()), workflowOut.toByteArray());
+    assertArrayEquals(dump(workflow.getTemplate()), templateOut.toByteArray());
+  }
+}
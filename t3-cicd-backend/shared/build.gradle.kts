@@ -41,6 +41,7 @@ dependencies {
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 	testImplementation("org.mockito:mockito-core:3.11.2")
+	testRuntimeOnly("com.h2database:h2")
 	testImplementation("org.mock-server:mockserver-netty:5.13.2")
 	testImplementation("org.mock-server:mockserver-client-java:5.13.2")
 }
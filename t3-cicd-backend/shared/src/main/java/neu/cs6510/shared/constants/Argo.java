@@ -0,0 +1,30 @@
+package neu.cs6510.shared.constants;
+
+import java.util.Set;
+
+/**
+ * A class that holds various constant used mainly for Argo Workflows.
+ */
+public class Argo {
+  public static final String ARGO_NAMESPACE = "argo";
+  public static final String WORKFLOW_GROUP = "argoproj.io";
+  public static final String WORKFLOW_VERSION = "v1alpha1";
+  public static final String WORKFLOW_PLURAL = "workflows";
+  public static final String WORKFLOW_TEMPLATE_PLURAL = "workflowtemplates";
+  public static final String MANAGED_BY_LABEL = "app.kubernetes.io/managed-by";
+  public static final String MANAGED_BY_VALUE = "t3-cicd";
+  public static final String WORKFLOW_WATCHER_NAME = "argo-workflows";
+  public static final String WORKFLOW_LABEL = "workflows.argoproj.io/workflow";
+  public static final String NODE_NAME_ANNOTATION = "workflows.argoproj.io/node-name";
+  public static final String MAIN_CONTAINER = "main";
+
+  public static final String PHASE_PENDING = "Pending";
+  public static final String PHASE_RUNNING = "Running";
+  public static final String PHASE_SUCCEEDED = "Succeeded";
+  public static final String PHASE_FAILED = "Failed";
+  public static final String PHASE_ERROR = "Error";
+  public static final Set<String> COMPLETED_PHASES = Set.of(
+      PHASE_SUCCEEDED,
+      PHASE_FAILED,
+      PHASE_ERROR);
+}
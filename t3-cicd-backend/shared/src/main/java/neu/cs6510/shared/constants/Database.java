@@ -0,0 +1,12 @@
+package neu.cs6510.shared.constants;
+
+/**
+ * A class that holds various constant used mainly for database queries.
+ * */
+public class Database {
+  /**
+   * Number of rows fetched per round trip by the streaming queries. Without it the PostgreSQL
+   * driver reads the whole result before returning the first row.
+   */
+  public static final String STREAM_FETCH_SIZE = "500";
+}
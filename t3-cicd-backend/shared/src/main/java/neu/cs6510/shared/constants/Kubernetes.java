@@ -2,7 +2,10 @@ package neu.cs6510.shared.constants;
 
 public class Kubernetes {
   public static final String PV_PATH = "/mnt/git-repo/";
+  public static final String PV_GIT_MIRROR_PATH = PV_PATH + "mirrors/";
   public static final String PV_ARGO_PATH = "/mnt/argoworkflows/";
+  public static final String PV_ARGO_LOG_PATH = PV_ARGO_PATH + "logs/";
+  public static final String PV_ARGO_TEMPLATE_PATH = PV_ARGO_PATH + "templates/";
   public static final String CONFIGSERVICEURL =
     "http://configservice.t3cicdbackend.svc.cluster.local:8080";
   public static final String VALIDATEAPI = "/validate";
@@ -5,6 +5,7 @@ package neu.cs6510.shared.constants;
  * */
 public class Pipeline {
   public static final String PIPELINE_ID = "pipelineId";
+  public static final String STATUS_QUEUED = "queued";
   public static final String STATUS_PENDING = "pending";
   public static final String STATUS_RUNNING = "running";
   public static final String STATUS_SUCCESS = "success";
@@ -2,4 +2,6 @@ package neu.cs6510.shared.constants;
 
 public class ResponseBody {
   public static final String REPODIR = "repoDir";
+  public static final String COMMIT = "commit";
+  public static final String CONFIG_FILE_PATH = "configFilePath";
 }
@@ -0,0 +1,276 @@
+package neu.cs6510.shared.dag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable graph of named nodes and the dependencies between them, e.g. the jobs of a stage
+ * and their {@code needs}. Node names are interned to consecutive int IDs in the order the nodes
+ * are added, and the edges are kept in compressed sparse row form in both directions: the
+ * dependencies of node {@code i} are {@code dependencies[dependencyOffsets[i]]} up to
+ * {@code dependencies[dependencyOffsets[i + 1]]}, and likewise for its dependents. Walking the
+ * graph therefore touches only int arrays; nothing is hashed after the graph is built.
+ *
+ * <p>A graph is built with a {@link Builder} and ordered with {@link #sort()}.
+ */
+public final class Dag {
+
+  private final String[] names;
+  private final Map<String, Integer> ids;
+  private final int[] dependencyOffsets;
+  private final int[] dependencies;
+  private final int[] dependentOffsets;
+  private final int[] dependents;
+
+  private Dag(String[] names, Map<String, Integer> ids, int[] edgeNodes, int[] edgeDependencies,
+      int edgeCount) {
+    this.names = names;
+    this.ids = ids;
+    this.dependencyOffsets = new int[names.length + 1];
+    this.dependencies = new int[edgeCount];
+    this.dependentOffsets = new int[names.length + 1];
+    this.dependents = new int[edgeCount];
+    compress(edgeNodes, edgeDependencies, edgeCount, dependencyOffsets, dependencies);
+    compress(edgeDependencies, edgeNodes, edgeCount, dependentOffsets, dependents);
+  }
+
+  /**
+   * Fills the offsets and targets of the compressed rows of the edges, by source. The targets of
+   * each source stay in the order their edges were added.
+   */
+  private static void compress(int[] sources, int[] targets, int edgeCount, int[] offsets,
+      int[] rowTargets) {
+    for (int e = 0; e < edgeCount; e++) {
+      offsets[sources[e] + 1]++;
+    }
+    for (int i = 1; i < offsets.length; i++) {
+      offsets[i] += offsets[i - 1];
+    }
+    int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+    for (int e = 0; e < edgeCount; e++) {
+      rowTargets[next[sources[e]]++] = targets[e];
+    }
+  }
+
+  /**
+   * Creates a builder for a new graph.
+   *
+   * @return an empty builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the number of nodes.
+   *
+   * @return the number of nodes
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Returns the name of a node.
+   *
+   * @param id the ID of the node
+   * @return the name of the node
+   */
+  public String name(int id) {
+    return names[id];
+  }
+
+  /**
+   * Returns the ID of a node.
+   *
+   * @param name the name of the node
+   * @return the ID of the node, or -1 if there is no node with that name
+   */
+  public int id(String name) {
+    return ids.getOrDefault(name, -1);
+  }
+
+  /**
+   * Orders the nodes so that every node comes after its dependencies, and groups them in levels:
+   * a node without dependencies is on level 0, any other node one level after its deepest
+   * dependency, so that the nodes of a level can run in parallel. If the graph has a cycle, the
+   * result holds one of its cycles instead.
+   *
+   * @return the order of the nodes, or a cycle
+   */
+  public DagOrder sort() {
+    int n = names.length;
+    int[] remaining = new int[n];
+    int[] levels = new int[n];
+    int[] queue = new int[n];
+    int head = 0;
+    int tail = 0;
+    for (int id = 0; id < n; id++) {
+      remaining[id] = dependencyOffsets[id + 1] - dependencyOffsets[id];
+      if (remaining[id] == 0) {
+        queue[tail++] = id;
+      }
+    }
+    int levelCount = n == 0 ? 0 : 1;
+    while (head < tail) {
+      int id = queue[head++];
+      for (int e = dependentOffsets[id]; e < dependentOffsets[id + 1]; e++) {
+        int dependent = dependents[e];
+        if (levels[dependent] <= levels[id]) {
+          levels[dependent] = levels[id] + 1;
+          levelCount = Math.max(levelCount, levels[dependent] + 1);
+        }
+        if (--remaining[dependent] == 0) {
+          queue[tail++] = dependent;
+        }
+      }
+    }
+    if (tail < n) {
+      return DagOrder.cyclic(this, findCycle(remaining));
+    }
+
+    // Counting sort by level; within a level the nodes keep the order they were added in
+    int[] levelOffsets = new int[levelCount + 1];
+    for (int id = 0; id < n; id++) {
+      levelOffsets[levels[id] + 1]++;
+    }
+    for (int level = 1; level <= levelCount; level++) {
+      levelOffsets[level] += levelOffsets[level - 1];
+    }
+    int[] next = Arrays.copyOf(levelOffsets, levelCount);
+    int[] order = queue;
+    for (int id = 0; id < n; id++) {
+      order[next[levels[id]]++] = id;
+    }
+    return DagOrder.acyclic(this, order, levels, levelOffsets);
+  }
+
+  /**
+   * Finds a cycle among the nodes left over by the sort. Every such node still waits for one of
+   * its dependencies that is left over too, so following those dependencies from any of them
+   * must come back to a node already visited.
+   *
+   * @return the IDs of the nodes of the cycle, each needing the next one, starting from the node
+   *         of the cycle that was added first
+   */
+  private int[] findCycle(int[] remaining) {
+    int start = 0;
+    while (remaining[start] == 0) {
+      start++;
+    }
+    int[] visitedAt = new int[names.length];
+    Arrays.fill(visitedAt, -1);
+    int[] path = new int[names.length];
+    int length = 0;
+    int id = start;
+    while (visitedAt[id] < 0) {
+      visitedAt[id] = length;
+      path[length++] = id;
+      int e = dependencyOffsets[id];
+      while (remaining[dependencies[e]] == 0) {
+        e++;
+      }
+      id = dependencies[e];
+    }
+    int[] cycle = Arrays.copyOfRange(path, visitedAt[id], length);
+    int first = 0;
+    for (int i = 1; i < cycle.length; i++) {
+      if (cycle[i] < cycle[first]) {
+        first = i;
+      }
+    }
+    int[] rotated = new int[cycle.length];
+    for (int i = 0; i < cycle.length; i++) {
+      rotated[i] = cycle[(first + i) % cycle.length];
+    }
+    return rotated;
+  }
+
+  int dependencyStart(int id) {
+    return dependencyOffsets[id];
+  }
+
+  int dependencyEnd(int id) {
+    return dependencyOffsets[id + 1];
+  }
+
+  int dependency(int edge) {
+    return dependencies[edge];
+  }
+
+  /**
+   * Builds a {@link Dag}: nodes are added first, then the dependencies between them.
+   */
+  public static final class Builder {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int[] edgeNodes = new int[16];
+    private int[] edgeDependencies = new int[16];
+    private int edgeCount;
+
+    private Builder() {
+    }
+
+    /**
+     * Adds a node.
+     *
+     * @param name the name of the node
+     * @return the ID of the node, which is the number of nodes added before it
+     * @throws IllegalArgumentException if a node with the same name was already added
+     */
+    public int addNode(String name) {
+      int id = names.size();
+      if (ids.putIfAbsent(name, id) != null) {
+        throw new IllegalArgumentException("Duplicate node " + name);
+      }
+      names.add(name);
+      return id;
+    }
+
+    /**
+     * Returns the ID of a node added so far.
+     *
+     * @param name the name of the node
+     * @return the ID of the node, or -1 if no node with that name was added
+     */
+    public int id(String name) {
+      return ids.getOrDefault(name, -1);
+    }
+
+    /**
+     * Adds a dependency: a node needs another node to come before it.
+     *
+     * @param id           the ID of the node
+     * @param dependencyId the ID of the node it needs
+     * @return this builder
+     * @throws IllegalArgumentException if either ID is not the ID of a node
+     */
+    public Builder addDependency(int id, int dependencyId) {
+      if (id < 0 || id >= names.size() || dependencyId < 0 || dependencyId >= names.size()) {
+        throw new IllegalArgumentException(
+            String.format("Unknown node in dependency %d -> %d", id, dependencyId));
+      }
+      if (edgeCount == edgeNodes.length) {
+        edgeNodes = Arrays.copyOf(edgeNodes, edgeCount * 2);
+        edgeDependencies = Arrays.copyOf(edgeDependencies, edgeCount * 2);
+      }
+      edgeNodes[edgeCount] = id;
+      edgeDependencies[edgeCount] = dependencyId;
+      edgeCount++;
+      return this;
+    }
+
+    /**
+     * Builds the graph. The builder must not be used afterwards.
+     *
+     * @return the graph of the nodes and dependencies added
+     */
+    public Dag build() {
+      return new Dag(names.toArray(new String[0]), ids, edgeNodes, edgeDependencies, edgeCount);
+    }
+  }
+}
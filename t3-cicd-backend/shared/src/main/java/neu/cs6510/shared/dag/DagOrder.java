@@ -0,0 +1,181 @@
+package neu.cs6510.shared.dag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of sorting a {@link Dag}: either the nodes in dependency order, grouped in levels,
+ * or a cycle that prevents ordering them.
+ */
+public final class DagOrder {
+
+  private final Dag dag;
+  private final int[] order;
+  private final int[] levels;
+  private final int[] levelOffsets;
+  private final int[] cycle;
+
+  private DagOrder(Dag dag, int[] order, int[] levels, int[] levelOffsets, int[] cycle) {
+    this.dag = dag;
+    this.order = order;
+    this.levels = levels;
+    this.levelOffsets = levelOffsets;
+    this.cycle = cycle;
+  }
+
+  static DagOrder acyclic(Dag dag, int[] order, int[] levels, int[] levelOffsets) {
+    return new DagOrder(dag, order, levels, levelOffsets, null);
+  }
+
+  static DagOrder cyclic(Dag dag, int[] cycle) {
+    return new DagOrder(dag, null, null, null, cycle);
+  }
+
+  /**
+   * Returns whether the graph has a cycle, in which case the nodes have no order.
+   *
+   * @return true if the graph has a cycle
+   */
+  public boolean hasCycle() {
+    return cycle != null;
+  }
+
+  /**
+   * Returns a cycle of the graph, as the names of its nodes each needing the next one, ending with
+   * the first node again, e.g. {@code [build, test, build]}. The cycle starts from its node that
+   * was added first to the graph.
+   *
+   * @return the names of the nodes of the cycle, or an empty list if the graph has no cycle
+   */
+  public List<String> cycle() {
+    if (cycle == null) {
+      return List.of();
+    }
+    List<String> path = new ArrayList<>(cycle.length + 1);
+    for (int id : cycle) {
+      path.add(dag.name(id));
+    }
+    path.add(dag.name(cycle[0]));
+    return Collections.unmodifiableList(path);
+  }
+
+  /**
+   * Returns the number of levels.
+   *
+   * @return the number of levels, 0 for an empty graph
+   * @throws IllegalStateException if the graph has a cycle
+   */
+  public int levelCount() {
+    checkAcyclic();
+    return levelOffsets.length - 1;
+  }
+
+  /**
+   * Returns the level of a node: 0 if it has no dependencies, otherwise one more than the level
+   * of its deepest dependency.
+   *
+   * @param id the ID of the node
+   * @return the level of the node
+   * @throws IllegalStateException if the graph has a cycle
+   */
+  public int level(int id) {
+    checkAcyclic();
+    return levels[id];
+  }
+
+  /**
+   * Returns the position of each node in the order: the nodes sorted by level and, within a
+   * level, in the order they were added.
+   *
+   * @return the IDs of the nodes in order
+   * @throws IllegalStateException if the graph has a cycle
+   */
+  public int[] order() {
+    checkAcyclic();
+    return order.clone();
+  }
+
+  /**
+   * Returns the names of the nodes of one level, in the order they were added.
+   *
+   * @param level the level, from 0 to {@link #levelCount()} - 1
+   * @return the names of the nodes of the level
+   * @throws IllegalStateException if the graph has a cycle
+   */
+  public List<String> levelNames(int level) {
+    checkAcyclic();
+    List<String> names = new ArrayList<>(levelOffsets[level + 1] - levelOffsets[level]);
+    for (int i = levelOffsets[level]; i < levelOffsets[level + 1]; i++) {
+      names.add(dag.name(order[i]));
+    }
+    return names;
+  }
+
+  /**
+   * Returns the critical path, counting every node as one unit of work: the longest chain of
+   * nodes each needing the previous one.
+   *
+   * @return the names of the nodes of the path, from the first to the last, empty for an empty
+   *         graph
+   * @throws IllegalStateException if the graph has a cycle
+   */
+  public List<String> criticalPath() {
+    checkAcyclic();
+    long[] weights = new long[order.length];
+    Arrays.fill(weights, 1);
+    return criticalPath(weights);
+  }
+
+  /**
+   * Returns the critical path: the chain of nodes, each needing the previous one, with the
+   * largest total weight, e.g. the expected duration of the jobs. Ties go to the nodes added
+   * first.
+   *
+   * @param weights the weight of each node, by ID
+   * @return the names of the nodes of the path, from the first to the last, empty for an empty
+   *         graph
+   * @throws IllegalStateException if the graph has a cycle
+   * @throws IllegalArgumentException if there is not one weight per node
+   */
+  public List<String> criticalPath(long[] weights) {
+    checkAcyclic();
+    int n = order.length;
+    if (weights.length != n) {
+      throw new IllegalArgumentException(
+          String.format("Expected %d weights but got %d", n, weights.length));
+    }
+    long[] lengths = new long[n];
+    int[] previous = new int[n];
+    int last = -1;
+    for (int id : order) {
+      long longest = 0;
+      previous[id] = -1;
+      for (int e = dag.dependencyStart(id); e < dag.dependencyEnd(id); e++) {
+        int dependency = dag.dependency(e);
+        if (lengths[dependency] > longest
+            || lengths[dependency] == longest && previous[id] >= 0 && dependency < previous[id]) {
+          longest = lengths[dependency];
+          previous[id] = dependency;
+        }
+      }
+      lengths[id] = longest + weights[id];
+      if (last < 0 || lengths[id] > lengths[last] || lengths[id] == lengths[last] && id < last) {
+        last = id;
+      }
+    }
+    List<String> path = new ArrayList<>();
+    for (int id = last; id >= 0; id = previous[id]) {
+      path.add(dag.name(id));
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  private void checkAcyclic() {
+    if (cycle != null) {
+      throw new IllegalStateException("The graph has a cycle: " + String.join(" -> ", cycle()));
+    }
+  }
+}
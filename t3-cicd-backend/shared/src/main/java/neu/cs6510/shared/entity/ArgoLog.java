@@ -4,8 +4,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,15 +21,18 @@ import java.sql.Timestamp;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "argo_logs")
+@Table(name = "argo_logs",
+    indexes = @Index(name = "idx_argo_logs_workflow", columnList = "argo_workflow_name, id"))
 public class ArgoLog {
 
   /**
    * Unique identifier for the log entry.
-   * Auto-generated by the database.
+   * Drawn from the {@code argo_logs_seq} sequence in blocks of 50, so that Hibernate can batch
+   * inserts instead of waiting for each generated key.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "argo_logs_seq")
+  @SequenceGenerator(name = "argo_logs_seq", sequenceName = "argo_logs_seq", allocationSize = 50)
   private Long id;
 
   /**
@@ -52,11 +57,24 @@ public class ArgoLog {
   @Column(name = "stage_name", nullable = false)
   private String stageName;
 
+  /**
+   * The name of the pod that ran the job, when the log was captured from the pod directly.
+   */
+  @Column(name = "pod_name")
+  private String podName;
+
+  /**
+   * Path of the file in the Persistent Volume holding the full log of the pod.
+   */
+  @Column(name = "log_file_path")
+  private String logFilePath;
+
   /**
    * The timestamp marking the start of this stage execution.
-   * Can be null if the stage has not started yet.
+   * {@code argo_logs} is partitioned by month of this time, so it is always set: to the time the
+   * first log line was written, or the entry was recorded, when the start of the pod is unknown.
    */
-  @Column(name = "start_time")
+  @Column(name = "start_time", nullable = false)
   private Timestamp startTime;
 
 
@@ -1,7 +1,5 @@
 package neu.cs6510.shared.entity;
 
-import static neu.cs6510.shared.constants.Pipeline.STATUS_PENDING;
-
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -12,7 +10,6 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -55,13 +52,6 @@ public class Job {
   @ToString.Exclude          // Prevents recursive toString call
   private Stage stage;
 
-  /**
-   * The current status of the job (e.g., pending, running, failed, completed).
-   */
-  @Column(name = "status", nullable = false)
-  @Builder.Default
-  private String status = STATUS_PENDING;
-
   /**
    * A list of scripts that belong to this job. The scripts are used to execute the job.
    */
@@ -82,28 +72,31 @@ public class Job {
   private List<String> needs = new ArrayList<>();
 
   /**
-   * The registry to get the image to run this job.
+   * The level of the job in the dependency graph of its stage: 0 if it needs no other job,
+   * otherwise one more than the level of its deepest need. Jobs of the same level can run in
+   * parallel. Computed when the configuration is validated.
    */
-  @Column(name = "registry")
-  private String registry;
+  @Column(name = "execution_level")
+  private Integer executionLevel;
 
   /**
-   * The image required running this job.
+   * The position of the job in its stage when its jobs are ordered by level, so that a job always
+   * comes after the jobs it needs. Computed when the configuration is validated.
    */
-  @Column(name = "image_name")
-  private String imageName;
+  @Column(name = "execution_order")
+  private Integer executionOrder;
 
   /**
-   * The time when the job starts.
+   * The registry to get the image to run this job.
    */
-  @Column(name = "start_time")
-  private Timestamp startTime;
+  @Column(name = "registry")
+  private String registry;
 
   /**
-   * The time when the job completes.
+   * The image required running this job.
    */
-  @Column(name = "end_time")
-  private Timestamp completionTime;
+  @Column(name = "image_name")
+  private String imageName;
 
   /**
    * Whether job failure is allowed, default is false
@@ -0,0 +1,87 @@
+package neu.cs6510.shared.entity;
+
+import static neu.cs6510.shared.constants.Pipeline.STATUS_PENDING;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * The execution of a {@link Job} by a {@link PipelineRun}, within the {@link StageRun} of its
+ * stage. The run is referenced directly as well, so that all the jobs of a run are found without
+ * going through its stages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "job_runs", indexes = {
+    @Index(name = "idx_job_runs_pipeline_run", columnList = "pipeline_run_id"),
+    @Index(name = "idx_job_runs_stage_run", columnList = "stage_run_id")})
+public class JobRun {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The run that executes the job.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "pipeline_run_id", nullable = false)
+  @EqualsAndHashCode.Exclude // Prevents loading the run in hashCode
+  @ToString.Exclude          // Prevents loading the run in toString
+  private PipelineRun pipelineRun;
+
+  /**
+   * The execution of the stage the job belongs to.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "stage_run_id", nullable = false)
+  @EqualsAndHashCode.Exclude // Prevents recursive hashCode call
+  @ToString.Exclude          // Prevents recursive toString call
+  private StageRun stageRun;
+
+  /**
+   * The job of the pipeline definition that is executed.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "job_id", nullable = false)
+  @EqualsAndHashCode.Exclude // Prevents loading the definition in hashCode
+  @ToString.Exclude          // Prevents loading the definition in toString
+  private Job job;
+
+  /**
+   * The status of the job in this run (e.g., pending, running, failed, success).
+   */
+  @Column(name = "status", nullable = false)
+  @Builder.Default
+  private String status = STATUS_PENDING;
+
+  /**
+   * The time when the job starts.
+   */
+  @Column(name = "start_time")
+  private Timestamp startTime;
+
+  /**
+   * The time when the job completes.
+   */
+  @Column(name = "end_time")
+  private Timestamp endTime;
+}
@@ -1,7 +1,5 @@
 package neu.cs6510.shared.entity;
 
-import static neu.cs6510.shared.constants.Pipeline.STATUS_PENDING;
-
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -9,9 +7,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,13 +22,20 @@ import lombok.NoArgsConstructor;
 /**
  * Represents a pipeline in the CI/CD process, containing a list of stages.
  * The pipeline manages the ordered execution of stages.
+ *
+ * <p>A pipeline is an immutable definition: it is saved once per distinct content of a repo,
+ * identified by its {@link #definitionHash}, and shared by all the {@link PipelineRun runs} of
+ * that content. The state of each execution is kept by the run and its {@link StageRun stage
+ * runs} and {@link JobRun job runs}.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "pipelines")
+@Table(name = "pipelines",
+    indexes = @Index(name = "idx_pipelines_definition", columnList = "repo_url, definition_hash",
+        unique = true))
 public class Pipeline {
 
   @Id
@@ -43,28 +49,20 @@ public class Pipeline {
   private String name;
 
   /**
-   * Directory of the repo on Persistent Volume
+   * SHA-256 of the definition, as computed by
+   * {@link neu.cs6510.shared.utils.PipelineHasher#definitionHash}. Unique per repo, so that a
+   * definition is saved only once; copies saved before it was computed keep no hash.
    */
-  @Column(name = "repo_dir")
-  private String repoDir;
-
-  /**
-   * Path to the pipeline config file on Persistent Volume
-   */
-  @Column(name = "config_file_path")
-  private String configFilePath;
-
-  /**
-   * Path to the argo workflow YAML file on Persistent Volume
-   */
-  @Column(name = "argo_yaml_path")
-  private String argoYamlPath;
+  @Column(name = "definition_hash", length = 64)
+  private String definitionHash;
 
   /**
    * List of stages in the pipeline, representing different phases (e.g., build, test, deploy).
-   * Defaults to an empty list if not explicitly set.
+   * Defaults to an empty list if not explicitly set. They are kept in the order they were
+   * declared, which is the order they run in.
    */
   @OneToMany(mappedBy = "pipeline", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+  @OrderBy("id ASC")
   @Builder.Default
   private List<Stage> stages = new ArrayList<>();
 
@@ -74,26 +72,6 @@ public class Pipeline {
   @Column(name = "repo_url", nullable = false)
   private String repoUrl;
 
-  /**
-   * Start time of the pipeline execution.
-   */
-  @Column(name = "start_time")
-  private Timestamp startTime;
-
-  /**
-   * End time of the pipeline execution.
-   */
-  @Column(name = "end_time")
-  private Timestamp endTime;
-
-  /**
-   * Status of the pipeline, e.g., "SUCCESS", "FAILED", "RUNNING".
-   */
-  @Column(name = "status")
-  @Builder.Default
-  private String status = STATUS_PENDING;
-
-
   /**
    * Adds a stage to the pipeline.
    *
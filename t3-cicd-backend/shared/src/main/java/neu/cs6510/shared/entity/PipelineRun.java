@@ -0,0 +1,136 @@
+package neu.cs6510.shared.entity;
+
+import static neu.cs6510.shared.constants.Pipeline.STATUS_QUEUED;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Represents a single requested execution of a pipeline.
+ * A run is persisted as soon as the request is accepted, before the pipeline configuration has
+ * been validated, so that clients can poll its status while it waits in the execution queue.
+ * Everything that belongs to this execution only is kept here, while the {@link Pipeline} it
+ * executes is a definition shared with the other runs of the same configuration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "pipeline_runs", indexes = {
+    @Index(name = "idx_pipeline_runs_repo", columnList = "repo_url, id"),
+    @Index(name = "idx_pipeline_runs_end_time", columnList = "end_time")})
+public class PipelineRun {
+
+  /**
+   * The unique identifier of the run, returned to the client as the run ID.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The validated pipeline executed by this run. Null until the run has been prepared.
+   */
+  @ManyToOne
+  @JoinColumn(name = "pipeline_id")
+  @EqualsAndHashCode.Exclude // Prevents loading the pipeline graph in hashCode
+  @ToString.Exclude          // Prevents loading the pipeline graph in toString
+  private Pipeline pipeline;
+
+  /**
+   * URL of the repo requested by the client.
+   */
+  @Column(name = "repo_url", nullable = false)
+  private String repoUrl;
+
+  /**
+   * Branch of the repo requested by the client.
+   */
+  @Column(name = "branch", nullable = false)
+  private String branch;
+
+  /**
+   * Path of the configuration file requested by the client (optional).
+   */
+  @Column(name = "config_path")
+  private String configPath;
+
+  /**
+   * Name of the pipeline requested by the client (optional).
+   */
+  @Column(name = "pipeline_name")
+  private String pipelineName;
+
+  /**
+   * ID of the commit the configuration file of the run was read at. Null until the run has been
+   * prepared.
+   */
+  @Column(name = "commit_sha")
+  private String commitSha;
+
+  /**
+   * Path of the configuration file of the run, relative to the root of the repo. Null until the
+   * run has been prepared.
+   */
+  @Column(name = "config_file_path")
+  private String configFilePath;
+
+  /**
+   * Name of the Argo workflow submitted for this run. Null until the workflow is generated.
+   */
+  @Column(name = "argo_workflow_name")
+  private String argoWorkflowName;
+
+  /**
+   * Path to the argo WorkflowTemplate YAML file on Persistent Volume that the workflow of this
+   * run references. Null until the workflow is generated.
+   */
+  @Column(name = "argo_yaml_path")
+  private String argoYamlPath;
+
+  /**
+   * Status of the run, e.g., "queued", "running", "success", "failed".
+   */
+  @Column(name = "status", nullable = false)
+  @Builder.Default
+  private String status = STATUS_QUEUED;
+
+  /**
+   * Error message of a failed run.
+   */
+  @Column(name = "message", length = 2048)
+  private String message;
+
+  /**
+   * Time when the run was accepted and queued.
+   */
+  @Column(name = "queued_time")
+  private Timestamp queuedTime;
+
+  /**
+   * Time when the workflow of the run was submitted.
+   */
+  @Column(name = "start_time")
+  private Timestamp startTime;
+
+  /**
+   * Time when the run finished, successfully or not.
+   */
+  @Column(name = "end_time")
+  private Timestamp endTime;
+}
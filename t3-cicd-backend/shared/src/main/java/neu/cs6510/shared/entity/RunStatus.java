@@ -0,0 +1,80 @@
+package neu.cs6510.shared.entity;
+
+import static neu.cs6510.shared.constants.Pipeline.STATUS_FAILED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_QUEUED;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_RUNNING;
+import static neu.cs6510.shared.constants.Pipeline.STATUS_SUCCESS;
+
+/**
+ * The statuses of a {@link PipelineRun} and the transitions allowed between them:
+ * <pre>
+ *   queued --&gt; running --&gt; success
+ *     |            |
+ *     +------------+------&gt; failed
+ * </pre>
+ * A run fails while queued if it cannot be admitted or prepared. Success and failure are final.
+ *
+ * <p>The status is saved as its {@link #value()}, and every transition is applied with a single
+ * update conditional on the current status, so that two instances finishing the same run cannot
+ * both succeed.
+ */
+public enum RunStatus {
+  QUEUED(STATUS_QUEUED),
+  RUNNING(STATUS_RUNNING),
+  SUCCESS(STATUS_SUCCESS),
+  FAILED(STATUS_FAILED);
+
+  private final String value;
+
+  RunStatus(String value) {
+    this.value = value;
+  }
+
+  /**
+   * Returns the value saved in the {@code status} column.
+   *
+   * @return the value of the status
+   */
+  public String value() {
+    return value;
+  }
+
+  /**
+   * Tells whether the status is final.
+   *
+   * @return true for success and failure
+   */
+  public boolean isFinal() {
+    return this == SUCCESS || this == FAILED;
+  }
+
+  /**
+   * Tells whether a run with this status can move to the given one.
+   *
+   * @param next the next status
+   * @return true if the transition is allowed
+   */
+  public boolean canMoveTo(RunStatus next) {
+    return switch (this) {
+      case QUEUED -> next == RUNNING || next == FAILED;
+      case RUNNING -> next.isFinal();
+      case SUCCESS, FAILED -> false;
+    };
+  }
+
+  /**
+   * Returns the status with the given saved value.
+   *
+   * @param value the value of the status
+   * @return the status
+   * @throws IllegalArgumentException if no status has this value
+   */
+  public static RunStatus of(String value) {
+    for (RunStatus status : values()) {
+      if (status.value.equals(value)) {
+        return status;
+      }
+    }
+    throw new IllegalArgumentException("Unknown run status: " + value);
+  }
+}
@@ -1,7 +1,5 @@
 package neu.cs6510.shared.entity;
 
-import static neu.cs6510.shared.constants.Pipeline.STATUS_PENDING;
-
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -12,8 +10,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.AllArgsConstructor;
@@ -59,31 +57,14 @@ public class Stage {
   private String name;
 
   /**
-   * A list of jobs that belong to this stage. The jobs are executed as part of this stage.
+   * A list of jobs that belong to this stage. The jobs are executed as part of this stage. They
+   * are kept in execution order, so that every job comes after the jobs it needs.
    */
   @OneToMany(mappedBy = "stage", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+  @OrderBy("executionOrder ASC")
   @Builder.Default
   private List<Job> jobs = new ArrayList<>();
 
-  /**
-   * The current status of the stage (e.g., pending, running, failed, completed).
-   */
-  @Column(name = "status", nullable = false)
-  @Builder.Default
-  private String status = STATUS_PENDING;
-
-  /**
-   * The time when the stage starts.
-   */
-  @Column(name = "start_time")
-  private Timestamp startTime;
-
-  /**
-   * The time when the stage completes.
-   */
-  @Column(name = "end_time")
-  private Timestamp endTime;
-
   /**
    * Adds a job to the list of jobs in this stage.
    *
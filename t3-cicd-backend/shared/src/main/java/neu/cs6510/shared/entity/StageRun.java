@@ -0,0 +1,76 @@
+package neu.cs6510.shared.entity;
+
+import static neu.cs6510.shared.constants.Pipeline.STATUS_PENDING;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * The execution of a {@link Stage} by a {@link PipelineRun}. The stage itself is part of the
+ * shared pipeline definition; its status and times in a given run are kept here.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "stage_runs",
+    indexes = @Index(name = "idx_stage_runs_pipeline_run", columnList = "pipeline_run_id"))
+public class StageRun {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * The run that executes the stage.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "pipeline_run_id", nullable = false)
+  @EqualsAndHashCode.Exclude // Prevents loading the run in hashCode
+  @ToString.Exclude          // Prevents loading the run in toString
+  private PipelineRun pipelineRun;
+
+  /**
+   * The stage of the pipeline definition that is executed.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "stage_id", nullable = false)
+  @EqualsAndHashCode.Exclude // Prevents loading the definition in hashCode
+  @ToString.Exclude          // Prevents loading the definition in toString
+  private Stage stage;
+
+  /**
+   * The status of the stage in this run (e.g., pending, running, failed, success).
+   */
+  @Column(name = "status", nullable = false)
+  @Builder.Default
+  private String status = STATUS_PENDING;
+
+  /**
+   * The time when the stage starts.
+   */
+  @Column(name = "start_time")
+  private Timestamp startTime;
+
+  /**
+   * The time when the stage completes.
+   */
+  @Column(name = "end_time")
+  private Timestamp endTime;
+}
@@ -0,0 +1,65 @@
+package neu.cs6510.shared.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Records that a configuration file, identified by the SHA of its Git blob, has been validated
+ * for a repository, and the pipeline its validation produced. A configuration file with the same
+ * content is not validated again: its pipeline definition is reused.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "validated_configs",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"repo_url", "blob_sha"}))
+public class ValidatedConfig {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * URL of the repo the configuration file was read from.
+   */
+  @Column(name = "repo_url", nullable = false)
+  private String repoUrl;
+
+  /**
+   * SHA of the Git blob of the configuration file, i.e. the hash of its content.
+   */
+  @Column(name = "blob_sha", nullable = false)
+  private String blobSha;
+
+  /**
+   * The pipeline produced by the validation of the configuration file.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "pipeline_id", nullable = false)
+  @EqualsAndHashCode.Exclude // Prevents loading the pipeline graph in hashCode
+  @ToString.Exclude          // Prevents loading the pipeline graph in toString
+  private Pipeline pipeline;
+
+  /**
+   * Time when the configuration file was validated.
+   */
+  @Column(name = "validated_time")
+  private Timestamp validatedTime;
+}
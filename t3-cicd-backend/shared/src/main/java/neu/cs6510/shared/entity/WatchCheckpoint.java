@@ -0,0 +1,43 @@
+package neu.cs6510.shared.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Records how far a Kubernetes watch has progressed, so that a restarted service instance can
+ * resume the watch from the last seen {@code resourceVersion} instead of relisting every resource.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "watch_checkpoints")
+public class WatchCheckpoint {
+
+  /**
+   * The name of the watcher, e.g. "argo-workflows".
+   */
+  @Id
+  @Column(name = "name", nullable = false)
+  private String name;
+
+  /**
+   * The last {@code resourceVersion} delivered to the watcher.
+   */
+  @Column(name = "resource_version")
+  private String resourceVersion;
+
+  /**
+   * Time when the checkpoint was last written.
+   */
+  @Column(name = "updated_time")
+  private Timestamp updatedTime;
+}
@@ -0,0 +1,20 @@
+package neu.cs6510.shared.projection;
+
+import java.sql.Timestamp;
+
+/**
+ * The columns of an {@link neu.cs6510.shared.entity.ArgoLog} shown in lists of logs, without
+ * the pipeline it belongs to.
+ *
+ * @param id               the ID of the log entry
+ * @param argoWorkflowName the name of the workflow
+ * @param stageName        the name of the stage
+ * @param podName          the name of the pod, if captured from the pod
+ * @param logFilePath      the path of the full log on the Persistent Volume, if any
+ * @param status           the status of the stage
+ * @param startTime        the time the stage started, if started
+ * @param endTime          the time the stage finished, if finished
+ */
+public record ArgoLogSummary(Long id, String argoWorkflowName, String stageName, String podName,
+    String logFilePath, String status, Timestamp startTime, Timestamp endTime) {
+}
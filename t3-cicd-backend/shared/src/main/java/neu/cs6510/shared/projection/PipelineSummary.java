@@ -0,0 +1,13 @@
+package neu.cs6510.shared.projection;
+
+/**
+ * The columns of a {@link neu.cs6510.shared.entity.Pipeline} shown in lists of pipelines,
+ * without its stages and jobs.
+ *
+ * @param id             the ID of the pipeline
+ * @param name           the name of the pipeline
+ * @param repoUrl        the URL of the repo
+ * @param definitionHash the hash of its definition
+ */
+public record PipelineSummary(Long id, String name, String repoUrl, String definitionHash) {
+}
@@ -0,0 +1,10 @@
+package neu.cs6510.shared.projection;
+
+/**
+ * The files on the Persistent Volume that a {@link neu.cs6510.shared.entity.PipelineRun} uses.
+ *
+ * @param argoWorkflowName the name of the workflow of the run, if submitted
+ * @param argoYamlPath     the path of the WorkflowTemplate its workflow references, if prepared
+ */
+public record RunFiles(String argoWorkflowName, String argoYamlPath) {
+}
@@ -0,0 +1,23 @@
+package neu.cs6510.shared.projection;
+
+import java.sql.Timestamp;
+
+/**
+ * The columns of a {@link neu.cs6510.shared.entity.PipelineRun} shown in lists of runs. Read
+ * with a constructor expression, so that listing runs loads neither the run entities nor their
+ * pipelines.
+ *
+ * @param id             the ID of the run
+ * @param repoUrl        the URL of the repo
+ * @param branch         the branch of the repo
+ * @param commitSha      the commit the configuration was read at, if prepared
+ * @param configFilePath the path of the configuration file, if prepared
+ * @param status         the status of the run
+ * @param queuedTime     the time the run was queued
+ * @param startTime      the time the workflow was submitted, if started
+ * @param endTime        the time the run finished, if finished
+ */
+public record RunSummary(Long id, String repoUrl, String branch, String commitSha,
+    String configFilePath, String status, Timestamp queuedTime, Timestamp startTime,
+    Timestamp endTime) {
+}
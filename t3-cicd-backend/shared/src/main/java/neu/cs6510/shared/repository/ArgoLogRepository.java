@@ -1,16 +1,37 @@
 package neu.cs6510.shared.repository;
 
+import static neu.cs6510.shared.constants.Database.STREAM_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import jakarta.persistence.QueryHint;
 import java.sql.Timestamp;
+import java.util.stream.Stream;
 import neu.cs6510.shared.entity.ArgoLog;
 import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.projection.ArgoLogSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 /**
  * Repository interface for accessing and managing ArgoLog entities in the database.
  * Extends JpaRepository to leverage standard CRUD operations and custom query methods.
+ *
+ * <p>Logs accumulate with every run. The paged variants are keyed on the ID of the last entry of
+ * the previous page, and the streams must be consumed, and closed, inside a transaction; both
+ * read {@link ArgoLogSummary} projections, which leave the pipeline out.
+ *
+ * <p>On PostgreSQL, {@code argo_logs} is partitioned by month of {@code start_time}: the queries
+ * bounded on the start time only read the partitions of their range, while the others, those on
+ * the end time included, read every partition.
  */
 @Repository
 public interface ArgoLogRepository extends JpaRepository<ArgoLog, Long> {
@@ -42,4 +63,33 @@ public interface ArgoLogRepository extends JpaRepository<ArgoLog, Long> {
    // Find all ArgoLog entries by workflow name and start time range.
   List<ArgoLog> findByArgoWorkflowNameAndStartTimeBetween(String argoWorkflowName, Timestamp start, Timestamp end);
 
+  // Find a page of the entries of a workflow after the given entry, in the order they were saved
+  @Query("select new neu.cs6510.shared.projection.ArgoLogSummary(a.id, a.argoWorkflowName, "
+      + "a.stageName, a.podName, a.logFilePath, a.status, a.startTime, a.endTime) "
+      + "from ArgoLog a where a.argoWorkflowName = :argoWorkflowName and a.id > :afterId "
+      + "order by a.id")
+  Slice<ArgoLogSummary> findSummariesByArgoWorkflowNameAfter(
+      @Param("argoWorkflowName") String argoWorkflowName, @Param("afterId") Long afterId,
+      Pageable pageable);
+
+  // Stream the entries of a pipeline, in the order they were saved
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query("select new neu.cs6510.shared.projection.ArgoLogSummary(a.id, a.argoWorkflowName, "
+      + "a.stageName, a.podName, a.logFilePath, a.status, a.startTime, a.endTime) "
+      + "from ArgoLog a where a.pipelineId.id = :pipelineId order by a.id")
+  Stream<ArgoLogSummary> streamSummariesByPipelineId(@Param("pipelineId") Long pipelineId);
+
+  // Stream the entries that started in the time range, in the order they were saved
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query("select new neu.cs6510.shared.projection.ArgoLogSummary(a.id, a.argoWorkflowName, "
+      + "a.stageName, a.podName, a.logFilePath, a.status, a.startTime, a.endTime) "
+      + "from ArgoLog a where a.startTime between :start and :end order by a.id")
+  Stream<ArgoLogSummary> streamSummariesByStartTimeBetween(@Param("start") Timestamp start,
+      @Param("end") Timestamp end);
+
+  // Delete the entries that started before the given time, returning how many were deleted
+  @Transactional
+  @Modifying
+  @Query("delete from ArgoLog a where a.startTime < :before")
+  int deleteByStartTimeBefore(@Param("before") Timestamp before);
 }
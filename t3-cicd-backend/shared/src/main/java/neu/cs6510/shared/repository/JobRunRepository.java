@@ -0,0 +1,42 @@
+package neu.cs6510.shared.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import neu.cs6510.shared.entity.JobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing and managing JobRun entities in the database.
+ */
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+  // Find the job runs of a run
+  List<JobRun> findByPipelineRunId(Long pipelineRunId);
+
+  // Find the job runs of a stage run
+  List<JobRun> findByStageRunId(Long stageRunId);
+
+  // Find job runs by status
+  List<JobRun> findByStatus(String status);
+
+  // Find the job runs of a run by status
+  List<JobRun> findByPipelineRunIdAndStatus(Long pipelineRunId, String status);
+
+  // Set the final status of the unfinished job runs of a run, returning how many were updated
+  @Modifying
+  @Query("update JobRun j set j.status = :status, j.endTime = :endTime "
+      + "where j.pipelineRun.id = :pipelineRunId and j.endTime is null")
+  int finishByPipelineRunId(@Param("pipelineRunId") Long pipelineRunId,
+      @Param("status") String status, @Param("endTime") Timestamp endTime);
+
+  // Delete the job runs of the given runs, returning how many were deleted
+  @Modifying
+  @Query("delete from JobRun j where j.pipelineRun.id in :pipelineRunIds")
+  int deleteByPipelineRunIdIn(@Param("pipelineRunIds") Collection<Long> pipelineRunIds);
+}
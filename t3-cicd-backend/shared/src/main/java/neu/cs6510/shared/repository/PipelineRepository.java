@@ -1,11 +1,20 @@
 package neu.cs6510.shared.repository;
 
-import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
+import neu.cs6510.shared.entity.Job;
 import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.projection.PipelineSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface PipelineRepository extends JpaRepository<Pipeline, Long> {
@@ -15,25 +24,73 @@ public interface PipelineRepository extends JpaRepository<Pipeline, Long> {
   // Find Pipelines by the repository URL
   List<Pipeline> findByRepoUrl(String repoUrl);
 
-  // Find Pipelines by status
-  List<Pipeline> findByStatus(String status);
+  // Find a page of the Pipelines of the repository URL after the given Pipeline, oldest first
+  @Query("select new neu.cs6510.shared.projection.PipelineSummary(p.id, p.name, p.repoUrl, "
+      + "p.definitionHash) from Pipeline p where p.repoUrl = :repoUrl and p.id > :afterId "
+      + "order by p.id")
+  Slice<PipelineSummary> findSummariesByRepoUrlAfter(@Param("repoUrl") String repoUrl,
+      @Param("afterId") Long afterId, Pageable pageable);
 
   // Find Pipeline by the repository URL and pipeline name
   Pipeline findByRepoUrlAndName(String repoUrl, String name);
 
-  // Find Pipelines by range of startTime
-  List<Pipeline> findByStartTimeBetween(Timestamp start, Timestamp end);
+  // Find the first Pipeline of the repository URL with the given definition hash
+  Optional<Pipeline> findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(String repoUrl,
+      String definitionHash);
 
-  // Find Pipelines by range of endTime
-  List<Pipeline> findByEndTimeBetween(Timestamp start, Timestamp end);
+  // Find the ids of the Pipelines without a definition hash after the given Pipeline, oldest first
+  @Query("select p.id from Pipeline p where p.definitionHash is null and p.id > :afterId "
+      + "order by p.id")
+  List<Long> findIdsWithoutDefinitionHashAfter(@Param("afterId") Long afterId,
+      Pageable pageable);
 
-  // Find Pipelines by repository URL and range of startTime
-  List<Pipeline> findByRepoUrlAndStartTimeBetween(String repoUrl, Timestamp start, Timestamp end);
+  // Set the definition hash of a Pipeline that has none yet
+  @Transactional
+  @Modifying
+  @Query("update Pipeline p set p.definitionHash = :definitionHash "
+      + "where p.id = :id and p.definitionHash is null")
+  int setDefinitionHash(@Param("id") Long id, @Param("definitionHash") String definitionHash);
 
-  // Find Pipelines by repository URL and status
-  List<Pipeline> findByRepoUrlAndStatus(String repoUrl, String status);
+  // Find Pipeline by the id, with its stages
+  @EntityGraph(attributePaths = "stages")
+  Optional<Pipeline> findWithStagesById(Long id);
 
-  // Find the most recent Pipeline by startTime
-  Optional<Pipeline> findTopByOrderByStartTimeDesc();
+  // Fetch the jobs of the stages of a Pipeline
+  @Query("select distinct s from Stage s left join fetch s.jobs where s.pipeline.id = :id")
+  List<Stage> fetchStageJobs(@Param("id") Long id);
 
+  // Fetch the scripts of the jobs of a Pipeline
+  @Query("select distinct j from Job j left join fetch j.scripts where j.stage.pipeline.id = :id")
+  List<Job> fetchJobScripts(@Param("id") Long id);
+
+  // Fetch the needs of the jobs of a Pipeline
+  @Query("select distinct j from Job j left join fetch j.needs where j.stage.pipeline.id = :id")
+  List<Job> fetchJobNeeds(@Param("id") Long id);
+
+  // Fetch the paths of the jobs of a Pipeline
+  @Query("select distinct j from Job j left join fetch j.paths where j.stage.pipeline.id = :id")
+  List<Job> fetchJobPaths(@Param("id") Long id);
+
+  /**
+   * Finds a pipeline with its whole definition loaded: its stages, their jobs and the scripts,
+   * needs and paths of the jobs, so that it can be used outside of a transaction.
+   *
+   * <p>Hibernate fetches at most one list per query, so the definition is loaded one level at a
+   * time, into the same persistence context: five queries whatever the number of stages and jobs,
+   * instead of one per stage and three per job when the lists are loaded lazily.
+   *
+   * @param id the ID of the pipeline
+   * @return the pipeline, or empty if there is none with this ID
+   */
+  @Transactional(readOnly = true)
+  default Optional<Pipeline> findDefinitionById(Long id) {
+    Optional<Pipeline> pipeline = findWithStagesById(id);
+    if (pipeline.isPresent() && !pipeline.get().getStages().isEmpty()) {
+      fetchStageJobs(id);
+      fetchJobScripts(id);
+      fetchJobNeeds(id);
+      fetchJobPaths(id);
+    }
+    return pipeline;
+  }
 }
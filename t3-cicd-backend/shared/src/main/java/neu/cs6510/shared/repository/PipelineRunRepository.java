@@ -0,0 +1,102 @@
+package neu.cs6510.shared.repository;
+
+import static neu.cs6510.shared.constants.Database.STREAM_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import jakarta.persistence.QueryHint;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.projection.RunFiles;
+import neu.cs6510.shared.projection.RunSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing and managing PipelineRun entities in the database.
+ *
+ * <p>Runs accumulate with every request, so the lists of runs are read as {@link RunSummary}
+ * projections, either a page at a time, keyed on the ID of the last run of the previous page, or
+ * as a stream that must be consumed, and closed, inside a transaction.
+ *
+ * <p>The status of a run is changed with the {@code update*} statements only, which apply a
+ * {@link neu.cs6510.shared.entity.RunStatus} transition in one round trip if the run still has
+ * the expected status, and return how many runs were updated.
+ */
+@Repository
+public interface PipelineRunRepository extends JpaRepository<PipelineRun, Long> {
+
+  // Find runs by status
+  List<PipelineRun> findByStatus(String status);
+
+  // Find runs by the repository URL
+  List<PipelineRun> findByRepoUrl(String repoUrl);
+
+  // Find runs by the repository URL and status
+  List<PipelineRun> findByRepoUrlAndStatus(String repoUrl, String status);
+
+  // Find the run that submitted the given Argo workflow
+  PipelineRun findByArgoWorkflowName(String argoWorkflowName);
+
+  // Find the files used by the runs with one of the given statuses
+  @Query("select new neu.cs6510.shared.projection.RunFiles(r.argoWorkflowName, r.argoYamlPath) "
+      + "from PipelineRun r where r.status in :statuses")
+  List<RunFiles> findFilesByStatusIn(@Param("statuses") Collection<String> statuses);
+
+  // Find a page of the runs of the repository URL older than the given run, newest first
+  @Query("select new neu.cs6510.shared.projection.RunSummary(r.id, r.repoUrl, r.branch, "
+      + "r.commitSha, r.configFilePath, r.status, r.queuedTime, r.startTime, r.endTime) "
+      + "from PipelineRun r where r.repoUrl = :repoUrl and r.id < :beforeId order by r.id desc")
+  Slice<RunSummary> findSummariesByRepoUrlBefore(@Param("repoUrl") String repoUrl,
+      @Param("beforeId") Long beforeId, Pageable pageable);
+
+  // Stream the runs with the given status, oldest first
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @Query("select new neu.cs6510.shared.projection.RunSummary(r.id, r.repoUrl, r.branch, "
+      + "r.commitSha, r.configFilePath, r.status, r.queuedTime, r.startTime, r.endTime) "
+      + "from PipelineRun r where r.status = :status order by r.id")
+  Stream<RunSummary> streamSummariesByStatus(@Param("status") String status);
+
+  // Find the IDs of the runs with one of the given statuses that ended before the given time,
+  // oldest first
+  @Query("select r.id from PipelineRun r where r.status in :statuses and r.endTime < :before "
+      + "order by r.id")
+  List<Long> findIdsByStatusInAndEndTimeBefore(@Param("statuses") Collection<String> statuses,
+      @Param("before") Timestamp before, Pageable pageable);
+
+  // Delete the given runs, returning how many were deleted; their stage and job runs must be
+  // deleted first
+  @Modifying
+  @Query("delete from PipelineRun r where r.id in :ids")
+  int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Move a run from the expected status to the running status, with what it runs
+  @Modifying
+  @Query("update PipelineRun r set r.status = :status, r.pipeline = :pipeline, "
+      + "r.commitSha = :commitSha, r.configFilePath = :configFilePath, "
+      + "r.argoWorkflowName = :argoWorkflowName, r.argoYamlPath = :argoYamlPath, "
+      + "r.startTime = :startTime "
+      + "where r.id = :id and r.status = :expected")
+  int updateStarted(@Param("id") Long id, @Param("expected") String expected,
+      @Param("status") String status, @Param("pipeline") Pipeline pipeline,
+      @Param("commitSha") String commitSha, @Param("configFilePath") String configFilePath,
+      @Param("argoWorkflowName") String argoWorkflowName,
+      @Param("argoYamlPath") String argoYamlPath, @Param("startTime") Timestamp startTime);
+
+  // Move a run from the expected status to a final status
+  @Modifying
+  @Query("update PipelineRun r set r.status = :status, r.message = :message, "
+      + "r.endTime = :endTime where r.id = :id and r.status = :expected")
+  int updateFinished(@Param("id") Long id, @Param("expected") String expected,
+      @Param("status") String status, @Param("message") String message,
+      @Param("endTime") Timestamp endTime);
+}
@@ -0,0 +1,39 @@
+package neu.cs6510.shared.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import neu.cs6510.shared.entity.StageRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing and managing StageRun entities in the database.
+ */
+@Repository
+public interface StageRunRepository extends JpaRepository<StageRun, Long> {
+
+  // Find the stage runs of a run
+  List<StageRun> findByPipelineRunId(Long pipelineRunId);
+
+  // Find stage runs by status
+  List<StageRun> findByStatus(String status);
+
+  // Find the stage runs of a run by status
+  List<StageRun> findByPipelineRunIdAndStatus(Long pipelineRunId, String status);
+
+  // Set the final status of the unfinished stage runs of a run, returning how many were updated
+  @Modifying
+  @Query("update StageRun s set s.status = :status, s.endTime = :endTime "
+      + "where s.pipelineRun.id = :pipelineRunId and s.endTime is null")
+  int finishByPipelineRunId(@Param("pipelineRunId") Long pipelineRunId,
+      @Param("status") String status, @Param("endTime") Timestamp endTime);
+
+  // Delete the stage runs of the given runs, returning how many were deleted
+  @Modifying
+  @Query("delete from StageRun s where s.pipelineRun.id in :pipelineRunIds")
+  int deleteByPipelineRunIdIn(@Param("pipelineRunIds") Collection<Long> pipelineRunIds);
+}
@@ -0,0 +1,16 @@
+package neu.cs6510.shared.repository;
+
+import java.util.Optional;
+import neu.cs6510.shared.entity.ValidatedConfig;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing and managing ValidatedConfig entities in the database.
+ */
+@Repository
+public interface ValidatedConfigRepository extends JpaRepository<ValidatedConfig, Long> {
+
+  // Find the validation of a configuration file by the repository URL and its blob SHA
+  Optional<ValidatedConfig> findByRepoUrlAndBlobSha(String repoUrl, String blobSha);
+}
@@ -0,0 +1,12 @@
+package neu.cs6510.shared.repository;
+
+import neu.cs6510.shared.entity.WatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing and managing WatchCheckpoint entities in the database.
+ */
+@Repository
+public interface WatchCheckpointRepository extends JpaRepository<WatchCheckpoint, String> {
+}
@@ -0,0 +1,133 @@
+package neu.cs6510.shared.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+
+/**
+ * Computes content hashes of a pipeline definition. Database IDs are left out, so two
+ * validations of an unchanged configuration hash the same.
+ * <ul>
+ *   <li>{@link #hash} covers everything the Argo WorkflowTemplate is generated from, i.e. the
+ *   pipeline name, the stages in order and, for each job, its name, image, needs and scripts.</li>
+ *   <li>{@link #definitionHash} covers every field of the definition that is saved, so that
+ *   pipelines with the same hash can share their rows.</li>
+ * </ul>
+ *
+ * <p>Every string is written with its length in front, so that no two different definitions
+ * produce the same input (e.g. scripts {@code ["a", "b"]} and {@code ["a\nb"]}).
+ */
+public class PipelineHasher {
+
+  /**
+   * Version of the generated template format. Bump it whenever the generation changes, so that
+   * templates registered by an older version are not reused.
+   */
+  private static final int FORMAT_VERSION = 1;
+
+  /**
+   * Version of the saved definition. Bump it whenever a field is added to the definition, so that
+   * definitions saved without it are not reused.
+   */
+  private static final int DEFINITION_VERSION = 1;
+
+  /**
+   * Number of hex characters kept from the digest; 64 bits keep collisions out of reach while
+   * leaving room for the pipeline name in a Kubernetes resource name.
+   */
+  private static final int HASH_LENGTH = 16;
+
+  private PipelineHasher() {
+  }
+
+  /**
+   * Hashes the definition of a pipeline.
+   *
+   * @param pipeline the pipeline, with its stages and jobs
+   * @return the first 16 hex characters of the SHA-256 digest
+   */
+  public static String hash(Pipeline pipeline) {
+    MessageDigest digest = sha256();
+    update(digest, FORMAT_VERSION);
+    update(digest, pipeline.getName());
+    update(digest, pipeline.getStages().size());
+    for (Stage stage : pipeline.getStages()) {
+      update(digest, stage.getName());
+      update(digest, stage.getJobs().size());
+      for (Job job : stage.getJobs()) {
+        update(digest, job.getName());
+        update(digest, job.getImageName());
+        update(digest, job.getNeeds());
+        update(digest, job.getScripts());
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest()).substring(0, HASH_LENGTH);
+  }
+
+  /**
+   * Hashes every saved field of the definition of a pipeline: its name, the stages in order and,
+   * for each job in order, its name, registry, image, needs, scripts, paths and whether it may
+   * fail. The execution level and order of the jobs are left out, as they follow from the needs.
+   *
+   * @param pipeline the pipeline, with its stages and jobs
+   * @return the 64 hex characters of the SHA-256 digest
+   */
+  public static String definitionHash(Pipeline pipeline) {
+    MessageDigest digest = sha256();
+    update(digest, DEFINITION_VERSION);
+    update(digest, pipeline.getName());
+    update(digest, pipeline.getStages().size());
+    for (Stage stage : pipeline.getStages()) {
+      update(digest, stage.getName());
+      update(digest, stage.getJobs().size());
+      for (Job job : stage.getJobs()) {
+        update(digest, job.getName());
+        update(digest, job.getRegistry());
+        update(digest, job.getImageName());
+        update(digest, job.getNeeds());
+        update(digest, job.getScripts());
+        update(digest, job.getPaths());
+        update(digest, job.isAllowFailure() ? 1 : 0);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, List<String> values) {
+    update(digest, values.size());
+    for (String value : values) {
+      update(digest, value);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    if (value == null) {
+      update(digest, -1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    update(digest, bytes.length);
+    digest.update(bytes);
+  }
+
+  private static void update(MessageDigest digest, int value) {
+    digest.update((byte) (value >>> 24));
+    digest.update((byte) (value >>> 16));
+    digest.update((byte) (value >>> 8));
+    digest.update((byte) value);
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
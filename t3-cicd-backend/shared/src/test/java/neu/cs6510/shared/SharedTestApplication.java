@@ -0,0 +1,10 @@
+package neu.cs6510.shared;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Configuration for the JPA tests of the shared module, which has no application of its own.
+ */
+@SpringBootApplication
+public class SharedTestApplication {
+}
@@ -0,0 +1,183 @@
+package neu.cs6510.shared.dag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DagTest {
+
+  /**
+   * Builds a graph of the given nodes, each dependency being a pair {node, dependency}.
+   */
+  private static Dag dag(List<String> nodes, String[]... dependencies) {
+    Dag.Builder builder = Dag.builder();
+    for (String node : nodes) {
+      builder.addNode(node);
+    }
+    for (String[] dependency : dependencies) {
+      builder.addDependency(builder.id(dependency[0]), builder.id(dependency[1]));
+    }
+    return builder.build();
+  }
+
+  @Test
+  void internsNamesInInsertionOrder() {
+    Dag dag = dag(List.of("checkout", "build", "test"));
+
+    assertEquals(3, dag.size());
+    assertEquals(1, dag.id("build"));
+    assertEquals("test", dag.name(2));
+    assertEquals(-1, dag.id("deploy"));
+  }
+
+  @Test
+  void sortGroupsNodesInLevels() {
+    Dag dag = dag(List.of("test", "build", "checkout", "lint", "deploy"),
+        new String[] {"test", "build"},
+        new String[] {"build", "checkout"},
+        new String[] {"deploy", "test"},
+        new String[] {"deploy", "lint"});
+
+    DagOrder order = dag.sort();
+
+    assertFalse(order.hasCycle());
+    assertEquals(List.of(), order.cycle());
+    assertEquals(4, order.levelCount());
+    assertEquals(0, order.level(dag.id("checkout")));
+    assertEquals(0, order.level(dag.id("lint")));
+    assertEquals(1, order.level(dag.id("build")));
+    assertEquals(2, order.level(dag.id("test")));
+    assertEquals(3, order.level(dag.id("deploy")));
+    assertEquals(List.of("checkout", "lint"), order.levelNames(0));
+    assertEquals(List.of("deploy"), order.levelNames(3));
+    assertArrayEquals(new int[] {2, 3, 1, 0, 4}, order.order());
+  }
+
+  @Test
+  void sortPlacesNodeAfterItsDeepestDependency() {
+    Dag dag = dag(List.of("a", "b", "c", "d"),
+        new String[] {"b", "a"},
+        new String[] {"c", "b"},
+        new String[] {"d", "a"},
+        new String[] {"d", "c"});
+
+    DagOrder order = dag.sort();
+
+    assertEquals(3, order.level(dag.id("d")));
+    assertEquals(List.of("a", "b", "c", "d"), order.criticalPath());
+  }
+
+  @Test
+  void sortFindsCycle() {
+    Dag dag = dag(List.of("test", "checkout", "build", "deploy"),
+        new String[] {"checkout", "build"},
+        new String[] {"build", "test"},
+        new String[] {"test", "checkout"},
+        new String[] {"deploy", "test"});
+
+    DagOrder order = dag.sort();
+
+    assertTrue(order.hasCycle());
+    assertEquals(List.of("test", "checkout", "build", "test"), order.cycle());
+  }
+
+  @Test
+  void sortFindsSelfLoop() {
+    Dag dag = dag(List.of("checkout", "build"),
+        new String[] {"build", "checkout"},
+        new String[] {"build", "build"});
+
+    assertEquals(List.of("build", "build"), dag.sort().cycle());
+  }
+
+  @Test
+  void cyclicOrderHasNoLevels() {
+    DagOrder order = dag(List.of("a", "b"),
+        new String[] {"a", "b"},
+        new String[] {"b", "a"}).sort();
+
+    IllegalStateException exception =
+        assertThrows(IllegalStateException.class, order::levelCount);
+    assertEquals("The graph has a cycle: a -> b -> a", exception.getMessage());
+    assertThrows(IllegalStateException.class, () -> order.level(0));
+    assertThrows(IllegalStateException.class, order::order);
+    assertThrows(IllegalStateException.class, () -> order.levelNames(0));
+    assertThrows(IllegalStateException.class, order::criticalPath);
+  }
+
+  @Test
+  void criticalPathFollowsWeights() {
+    Dag dag = dag(List.of("checkout", "lint", "compile", "test"),
+        new String[] {"lint", "checkout"},
+        new String[] {"compile", "checkout"},
+        new String[] {"test", "lint"},
+        new String[] {"test", "compile"});
+
+    DagOrder order = dag.sort();
+
+    assertEquals(List.of("checkout", "lint", "test"), order.criticalPath());
+    assertEquals(List.of("checkout", "compile", "test"),
+        order.criticalPath(new long[] {5, 1, 30, 10}));
+    assertThrows(IllegalArgumentException.class, () -> order.criticalPath(new long[] {1}));
+  }
+
+  @Test
+  void criticalPathOfIndependentNodesIsHeaviestNode() {
+    DagOrder order = dag(List.of("a", "b", "c")).sort();
+
+    assertEquals(1, order.levelCount());
+    assertEquals(List.of("a"), order.criticalPath());
+    assertEquals(List.of("b"), order.criticalPath(new long[] {1, 3, 2}));
+  }
+
+  @Test
+  void emptyGraph() {
+    DagOrder order = Dag.builder().build().sort();
+
+    assertFalse(order.hasCycle());
+    assertEquals(0, order.levelCount());
+    assertEquals(0, order.order().length);
+    assertEquals(List.of(), order.criticalPath());
+  }
+
+  @Test
+  void largeChain() {
+    Dag.Builder builder = Dag.builder();
+    int size = 50_000;
+    for (int i = 0; i < size; i++) {
+      builder.addNode("job-" + i);
+      if (i > 0) {
+        builder.addDependency(i, i - 1);
+      }
+    }
+
+    DagOrder order = builder.build().sort();
+
+    assertEquals(size, order.levelCount());
+    assertEquals(size, order.criticalPath().size());
+  }
+
+  @Test
+  void builderRejectsDuplicateNode() {
+    Dag.Builder builder = Dag.builder();
+    builder.addNode("build");
+
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> builder.addNode("build"));
+    assertEquals("Duplicate node build", exception.getMessage());
+  }
+
+  @Test
+  void builderRejectsUnknownNode() {
+    Dag.Builder builder = Dag.builder();
+    int build = builder.addNode("build");
+
+    assertThrows(IllegalArgumentException.class, () -> builder.addDependency(build, -1));
+    assertThrows(IllegalArgumentException.class, () -> builder.addDependency(1, build));
+  }
+}
@@ -0,0 +1,49 @@
+package neu.cs6510.shared.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RunStatusTest {
+
+  @Test
+  void testOfSavedValue() {
+    for (RunStatus status : RunStatus.values()) {
+      assertEquals(status, RunStatus.of(status.value()));
+    }
+    assertEquals(RunStatus.RUNNING, RunStatus.of("running"));
+    assertThrows(IllegalArgumentException.class, () -> RunStatus.of("pending"));
+    assertThrows(IllegalArgumentException.class, () -> RunStatus.of(null));
+  }
+
+  @Test
+  void testAllowedTransitions() {
+    assertTrue(RunStatus.QUEUED.canMoveTo(RunStatus.RUNNING));
+    assertTrue(RunStatus.QUEUED.canMoveTo(RunStatus.FAILED));
+    assertTrue(RunStatus.RUNNING.canMoveTo(RunStatus.SUCCESS));
+    assertTrue(RunStatus.RUNNING.canMoveTo(RunStatus.FAILED));
+  }
+
+  @Test
+  void testForbiddenTransitions() {
+    assertFalse(RunStatus.QUEUED.canMoveTo(RunStatus.QUEUED));
+    assertFalse(RunStatus.QUEUED.canMoveTo(RunStatus.SUCCESS));
+    assertFalse(RunStatus.RUNNING.canMoveTo(RunStatus.QUEUED));
+    assertFalse(RunStatus.RUNNING.canMoveTo(RunStatus.RUNNING));
+    for (RunStatus next : RunStatus.values()) {
+      assertFalse(RunStatus.SUCCESS.canMoveTo(next));
+      assertFalse(RunStatus.FAILED.canMoveTo(next));
+    }
+  }
+
+  @Test
+  void testFinalStatuses() {
+    assertFalse(RunStatus.QUEUED.isFinal());
+    assertFalse(RunStatus.RUNNING.isFinal());
+    assertTrue(RunStatus.SUCCESS.isFinal());
+    assertTrue(RunStatus.FAILED.isFinal());
+  }
+}
@@ -0,0 +1,51 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import neu.cs6510.shared.entity.Pipeline;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Runs the unique index on the definition hash of pipelines against an in-memory database.
+ */
+@DataJpaTest
+class DefinitionIndexTest {
+
+  private static final String REPO_URL = "https://example.com/repo.git";
+
+  @Autowired
+  private PipelineRepository pipelineRepository;
+
+  private static Pipeline pipeline(String repoUrl, String definitionHash) {
+    return Pipeline.builder().name("pipeline").repoUrl(repoUrl).definitionHash(definitionHash)
+        .build();
+  }
+
+  @Test
+  void testRejectsSecondPipelineWithSameDefinition() {
+    pipelineRepository.saveAndFlush(pipeline(REPO_URL, "a".repeat(64)));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> pipelineRepository.saveAndFlush(pipeline(REPO_URL, "a".repeat(64))));
+  }
+
+  @Test
+  void testAllowsSameDefinitionInOtherRepo() {
+    pipelineRepository.saveAndFlush(pipeline(REPO_URL, "a".repeat(64)));
+    pipelineRepository.saveAndFlush(pipeline("https://example.com/other.git", "a".repeat(64)));
+
+    assertEquals(2, pipelineRepository.count());
+  }
+
+  @Test
+  void testAllowsPipelinesWithoutDefinitionHash() {
+    pipelineRepository.saveAndFlush(pipeline(REPO_URL, null));
+    pipelineRepository.saveAndFlush(pipeline(REPO_URL, null));
+
+    assertEquals(2, pipelineRepository.count());
+  }
+}
@@ -0,0 +1,103 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.JobRun;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.StageRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class JobRunRepositoryTest {
+
+  @Mock
+  private JobRunRepository jobRunRepository;
+
+  private JobRun jobRun1;
+  private JobRun jobRun2;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    PipelineRun run = PipelineRun.builder()
+      .id(1L)
+      .repoUrl("https://github.com/wp161/cicd-localrepo.git")
+      .branch("main")
+      .build();
+    StageRun stageRun = StageRun.builder().id(2L).pipelineRun(run).build();
+
+    jobRun1 = JobRun.builder()
+      .pipelineRun(run)
+      .stageRun(stageRun)
+      .job(Job.builder().id(1L).name("compile").build())
+      .status("success")
+      .startTime(Timestamp.from(Instant.parse("2024-01-01T10:00:00Z")))
+      .endTime(Timestamp.from(Instant.parse("2024-01-01T10:10:00Z")))
+      .build();
+
+    jobRun2 = JobRun.builder()
+      .pipelineRun(run)
+      .stageRun(stageRun)
+      .job(Job.builder().id(2L).name("test").build())
+      .build();
+  }
+
+  @Test
+  void testDefaultStatusIsPending() {
+    assertEquals("pending", jobRun2.getStatus());
+  }
+
+  @Test
+  void testFindByPipelineRunId() {
+    when(jobRunRepository.findByPipelineRunId(1L)).thenReturn(Arrays.asList(jobRun1, jobRun2));
+
+    List<JobRun> result = jobRunRepository.findByPipelineRunId(1L);
+
+    verify(jobRunRepository, times(1)).findByPipelineRunId(1L);
+    assertEquals(2, result.size());
+    assertEquals(jobRun1, result.get(0));
+    assertEquals(jobRun2, result.get(1));
+  }
+
+  @Test
+  void testFindByStageRunId() {
+    when(jobRunRepository.findByStageRunId(2L)).thenReturn(Arrays.asList(jobRun1, jobRun2));
+
+    List<JobRun> result = jobRunRepository.findByStageRunId(2L);
+
+    verify(jobRunRepository, times(1)).findByStageRunId(2L);
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  void testFindByStatus() {
+    when(jobRunRepository.findByStatus("success")).thenReturn(List.of(jobRun1));
+
+    List<JobRun> result = jobRunRepository.findByStatus("success");
+
+    verify(jobRunRepository, times(1)).findByStatus("success");
+    assertEquals(1, result.size());
+    assertEquals(jobRun1, result.get(0));
+  }
+
+  @Test
+  void testFinishByPipelineRunId() {
+    Timestamp endTime = Timestamp.from(Instant.parse("2024-01-01T11:00:00Z"));
+    when(jobRunRepository.finishByPipelineRunId(1L, "success", endTime)).thenReturn(2);
+
+    int updated = jobRunRepository.finishByPipelineRunId(1L, "success", endTime);
+
+    verify(jobRunRepository, times(1)).finishByPipelineRunId(1L, "success", endTime);
+    assertEquals(2, updated);
+  }
+}
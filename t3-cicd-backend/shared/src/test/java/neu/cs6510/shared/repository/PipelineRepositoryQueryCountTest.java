@@ -0,0 +1,126 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * Counts the SQL statements run to load a pipeline definition, using the Hibernate statistics
+ * of an in-memory database.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PipelineRepositoryQueryCountTest {
+
+  /** Pipeline, stages, jobs, and the scripts, needs and paths of the jobs. */
+  private static final long DEFINITION_QUERIES = 5;
+
+  @Autowired
+  private PipelineRepository pipelineRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private Long savePipeline(int stages, int jobsPerStage) {
+    Pipeline pipeline = Pipeline.builder().name("pipeline").repoUrl("https://example.com/repo.git")
+        .build();
+    for (int s = 0; s < stages; s++) {
+      Stage stage = Stage.builder().name("stage" + s).pipeline(pipeline).build();
+      for (int j = 0; j < jobsPerStage; j++) {
+        stage.addJob(Job.builder().name("job" + j).stage(stage).executionOrder(j)
+            .imageName("gradle:8.10-jdk21")
+            .scripts(List.of("./gradlew build", "./gradlew test"))
+            .needs(j == 0 ? List.of() : List.of("job" + (j - 1)))
+            .paths(List.of("build/libs"))
+            .build());
+      }
+      pipeline.addStage(stage);
+    }
+    Long id = entityManager.persistAndFlush(pipeline).getId();
+    entityManager.clear();
+    statistics.clear();
+    return id;
+  }
+
+  /** Reads every list of the definition, as generating its workflow does. */
+  private static int walk(Pipeline pipeline) {
+    int elements = 0;
+    for (Stage stage : pipeline.getStages()) {
+      for (Job job : stage.getJobs()) {
+        elements += job.getScripts().size() + job.getNeeds().size() + job.getPaths().size();
+      }
+    }
+    return elements;
+  }
+
+  @Test
+  void testFindDefinitionByIdLoadsDefinitionInFixedQueries() {
+    Long id = savePipeline(3, 4);
+
+    Pipeline pipeline = pipelineRepository.findDefinitionById(id).orElseThrow();
+    long loadQueries = statistics.getPrepareStatementCount();
+    int elements = walk(pipeline);
+
+    assertEquals(DEFINITION_QUERIES, loadQueries);
+    assertEquals(loadQueries, statistics.getPrepareStatementCount());
+    assertEquals(3 * 4 * (2 + 1) + 3 * 3, elements);
+  }
+
+  @Test
+  void testFindDefinitionByIdQueriesDoNotGrowWithPipeline() {
+    Long small = savePipeline(1, 1);
+    walk(pipelineRepository.findDefinitionById(small).orElseThrow());
+    long smallQueries = statistics.getPrepareStatementCount();
+
+    Long large = savePipeline(5, 10);
+    walk(pipelineRepository.findDefinitionById(large).orElseThrow());
+    long largeQueries = statistics.getPrepareStatementCount();
+
+    assertEquals(smallQueries, largeQueries);
+  }
+
+  @Test
+  void testFindDefinitionByIdKeepsOrder() {
+    Long id = savePipeline(3, 4);
+
+    Pipeline pipeline = pipelineRepository.findDefinitionById(id).orElseThrow();
+
+    assertEquals(List.of("stage0", "stage1", "stage2"),
+        pipeline.getStages().stream().map(Stage::getName).toList());
+    assertEquals(List.of("job0", "job1", "job2", "job3"),
+        pipeline.getStages().get(1).getJobs().stream().map(Job::getName).toList());
+    assertEquals(List.of("./gradlew build", "./gradlew test"),
+        pipeline.getStages().get(2).getJobs().get(3).getScripts());
+  }
+
+  @Test
+  void testFindDefinitionByIdWithoutStages() {
+    Long id = savePipeline(0, 0);
+
+    assertTrue(pipelineRepository.findDefinitionById(id).orElseThrow().getStages().isEmpty());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void testFindDefinitionByIdNotFound() {
+    assertTrue(pipelineRepository.findDefinitionById(-1L).isEmpty());
+  }
+}
@@ -6,8 +6,6 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.sql.Timestamp;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -32,16 +30,12 @@ class PipelineRepositoryTest {
     pipeline1 = Pipeline.builder()
       .repoUrl("https://github.com/wp161/cicd-localrepo.git")
       .name("pipeline1")
-      .status("SUCCESS")
-      .startTime(Timestamp.from(Instant.parse("2024-01-01T10:00:00Z")))
-      .endTime(Timestamp.from(Instant.parse("2024-01-01T10:30:00Z")))
+      .definitionHash("1111111111111111111111111111111111111111111111111111111111111111")
       .build();
     pipeline2 = Pipeline.builder()
       .repoUrl("https://github.com/wp161/cicd-localrepo.git")
       .name("pipeline2")
-      .status("RUNNING")
-      .startTime(Timestamp.from(Instant.parse("2024-01-02T11:00:00Z")))
-      .endTime(Timestamp.from(Instant.parse("2024-01-02T11:30:00Z")))
+      .definitionHash("2222222222222222222222222222222222222222222222222222222222222222")
       .build();
   }
 
@@ -85,82 +79,17 @@ class PipelineRepositoryTest {
   }
 
   @Test
-  void testFindByStatus() {
-    when(pipelineRepository.findByStatus("SUCCESS")).thenReturn(List.of(pipeline1));
+  void testFindFirstByRepoUrlAndDefinitionHashOrderByIdAsc() {
+    String repoUrl = "https://github.com/wp161/cicd-localrepo.git";
+    String hash = pipeline2.getDefinitionHash();
+    when(pipelineRepository.findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(repoUrl, hash))
+      .thenReturn(Optional.of(pipeline2));
 
-    List<Pipeline> result = pipelineRepository.findByStatus("SUCCESS");
-
-    verify(pipelineRepository, times(1)).findByStatus("SUCCESS");
-    assertEquals(1, result.size());
-    assertEquals(pipeline1, result.get(0));
-  }
-
-  @Test
-  void testFindByStartTimeBetween() {
-    Timestamp start = Timestamp.from(Instant.parse("2024-01-01T09:00:00Z"));
-    Timestamp end = Timestamp.from(Instant.parse("2024-01-01T11:00:00Z"));
-
-    when(pipelineRepository.findByStartTimeBetween(start, end)).thenReturn(List.of(pipeline1));
-
-    List<Pipeline> result = pipelineRepository.findByStartTimeBetween(start, end);
-
-    verify(pipelineRepository, times(1)).findByStartTimeBetween(start, end);
-    assertEquals(1, result.size());
-    assertEquals(pipeline1, result.get(0));
-  }
-
-  @Test
-  void testFindByEndTimeBetween() {
-    Timestamp start = Timestamp.from(Instant.parse("2024-01-01T10:00:00Z"));
-    Timestamp end = Timestamp.from(Instant.parse("2024-01-01T12:00:00Z"));
-
-    when(pipelineRepository.findByEndTimeBetween(start, end)).thenReturn(List.of(pipeline1));
-
-    List<Pipeline> result = pipelineRepository.findByEndTimeBetween(start, end);
-
-    verify(pipelineRepository, times(1)).findByEndTimeBetween(start, end);
-    assertEquals(1, result.size());
-    assertEquals(pipeline1, result.get(0));
-  }
-
-  @Test
-  void testFindByRepoUrlAndStartTimeBetween() {
-    Timestamp start = Timestamp.from(Instant.parse("2024-01-01T09:00:00Z"));
-    Timestamp end = Timestamp.from(Instant.parse("2024-01-01T11:00:00Z"));
-
-    when(pipelineRepository.findByRepoUrlAndStartTimeBetween("https://github.com/wp161/cicd-localrepo.git", start, end))
-      .thenReturn(List.of(pipeline1));
-
-    List<Pipeline> result = pipelineRepository
-      .findByRepoUrlAndStartTimeBetween("https://github.com/wp161/cicd-localrepo.git", start, end);
-
-    verify(pipelineRepository, times(1))
-      .findByRepoUrlAndStartTimeBetween("https://github.com/wp161/cicd-localrepo.git", start, end);
-    assertEquals(1, result.size());
-    assertEquals(pipeline1, result.get(0));
-  }
-
-  @Test
-  void testFindByRepoUrlAndStatus() {
-    when(pipelineRepository.findByRepoUrlAndStatus("https://github.com/wp161/cicd-localrepo.git", "SUCCESS"))
-      .thenReturn(List.of(pipeline1));
-
-    List<Pipeline> result = pipelineRepository
-      .findByRepoUrlAndStatus("https://github.com/wp161/cicd-localrepo.git", "SUCCESS");
+    Optional<Pipeline> result = pipelineRepository
+      .findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(repoUrl, hash);
 
     verify(pipelineRepository, times(1))
-      .findByRepoUrlAndStatus("https://github.com/wp161/cicd-localrepo.git", "SUCCESS");
-    assertEquals(1, result.size());
-    assertEquals(pipeline1, result.get(0));
-  }
-
-  @Test
-  void testFindTopByOrderByStartTimeDesc() {
-    when(pipelineRepository.findTopByOrderByStartTimeDesc()).thenReturn(Optional.of(pipeline2));
-
-    Optional<Pipeline> result = pipelineRepository.findTopByOrderByStartTimeDesc();
-
-    verify(pipelineRepository, times(1)).findTopByOrderByStartTimeDesc();
+      .findFirstByRepoUrlAndDefinitionHashOrderByIdAsc(repoUrl, hash);
     assertTrue(result.isPresent());
     assertEquals(pipeline2, result.get());
   }
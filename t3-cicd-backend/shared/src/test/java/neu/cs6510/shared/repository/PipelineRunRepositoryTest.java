@@ -0,0 +1,84 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import neu.cs6510.shared.entity.PipelineRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class PipelineRunRepositoryTest {
+
+  @Mock
+  private PipelineRunRepository pipelineRunRepository;
+
+  private PipelineRun run1;
+  private PipelineRun run2;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    run1 = PipelineRun.builder()
+      .id(1L)
+      .repoUrl("https://github.com/wp161/cicd-localrepo.git")
+      .branch("main")
+      .pipelineName("pipeline1")
+      .queuedTime(Timestamp.from(Instant.parse("2024-01-01T10:00:00Z")))
+      .build();
+    run2 = PipelineRun.builder()
+      .id(2L)
+      .repoUrl("https://github.com/wp161/cicd-localrepo.git")
+      .branch("main")
+      .configPath(".cicd-pipelines/pipeline.yml")
+      .argoWorkflowName("pipeline-pipeline2-1234")
+      .status("running")
+      .queuedTime(Timestamp.from(Instant.parse("2024-01-01T11:00:00Z")))
+      .build();
+  }
+
+  @Test
+  void testDefaultStatusIsQueued() {
+    assertEquals("queued", run1.getStatus());
+  }
+
+  @Test
+  void testFindByStatus() {
+    when(pipelineRunRepository.findByStatus("queued")).thenReturn(List.of(run1));
+
+    List<PipelineRun> result = pipelineRunRepository.findByStatus("queued");
+
+    verify(pipelineRunRepository, times(1)).findByStatus("queued");
+    assertEquals(1, result.size());
+    assertEquals(run1, result.get(0));
+  }
+
+  @Test
+  void testFindByRepoUrl() {
+    when(pipelineRunRepository.findByRepoUrl("https://github.com/wp161/cicd-localrepo.git"))
+      .thenReturn(List.of(run1, run2));
+
+    List<PipelineRun> result = pipelineRunRepository
+      .findByRepoUrl("https://github.com/wp161/cicd-localrepo.git");
+
+    verify(pipelineRunRepository, times(1))
+      .findByRepoUrl("https://github.com/wp161/cicd-localrepo.git");
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  void testFindByArgoWorkflowName() {
+    when(pipelineRunRepository.findByArgoWorkflowName("pipeline-pipeline2-1234")).thenReturn(run2);
+
+    PipelineRun result = pipelineRunRepository.findByArgoWorkflowName("pipeline-pipeline2-1234");
+
+    verify(pipelineRunRepository, times(1)).findByArgoWorkflowName("pipeline-pipeline2-1234");
+    assertEquals(run2, result);
+  }
+}
@@ -0,0 +1,129 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.List;
+import neu.cs6510.shared.entity.ArgoLog;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.JobRun;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.entity.StageRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Runs the queries that remove expired history against an in-memory database, which stands in
+ * for a plain, unpartitioned PostgreSQL schema.
+ */
+@DataJpaTest
+class RetentionQueryTest {
+
+  private static final long DAY = 24 * 60 * 60 * 1000L;
+  private static final List<String> FINAL_STATUSES = List.of("success", "failed");
+
+  @Autowired
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Autowired
+  private StageRunRepository stageRunRepository;
+
+  @Autowired
+  private JobRunRepository jobRunRepository;
+
+  @Autowired
+  private ArgoLogRepository argoLogRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Pipeline pipeline;
+
+  private Timestamp now;
+
+  @BeforeEach
+  void setUp() {
+    pipeline = Pipeline.builder().name("pipeline").repoUrl("https://example.com/repo.git")
+        .definitionHash("a".repeat(64)).build();
+    Stage stage = Stage.builder().name("build").pipeline(pipeline).build();
+    stage.addJob(Job.builder().name("compile").stage(stage).imageName("gradle:8.10-jdk21")
+        .scripts(List.of("./gradlew build")).build());
+    pipeline.addStage(stage);
+    pipeline = entityManager.persist(pipeline);
+    now = new Timestamp(System.currentTimeMillis());
+  }
+
+  private PipelineRun run(String status, Timestamp endTime) {
+    PipelineRun run = entityManager.persist(PipelineRun.builder().pipeline(pipeline)
+        .repoUrl("https://example.com/repo.git").branch("main").status(status)
+        .queuedTime(new Timestamp(now.getTime() - 400 * DAY)).endTime(endTime).build());
+    Stage stage = pipeline.getStages().get(0);
+    StageRun stageRun = entityManager.persist(StageRun.builder().pipelineRun(run).stage(stage)
+        .build());
+    entityManager.persist(JobRun.builder().pipelineRun(run).stageRun(stageRun)
+        .job(stage.getJobs().get(0)).build());
+    return run;
+  }
+
+  private Timestamp daysAgo(int days) {
+    return new Timestamp(now.getTime() - days * DAY);
+  }
+
+  @Test
+  void testFindIdsOfExpiredFinishedRuns() {
+    PipelineRun oldSuccess = run("success", daysAgo(200));
+    PipelineRun oldFailure = run("failed", daysAgo(190));
+    run("success", daysAgo(10));
+    run("running", null);
+    run("queued", null);
+
+    List<Long> ids = pipelineRunRepository.findIdsByStatusInAndEndTimeBefore(FINAL_STATUSES,
+        daysAgo(180), PageRequest.ofSize(10));
+
+    assertEquals(List.of(oldSuccess.getId(), oldFailure.getId()), ids);
+    assertEquals(List.of(oldSuccess.getId()), pipelineRunRepository
+        .findIdsByStatusInAndEndTimeBefore(FINAL_STATUSES, daysAgo(180), PageRequest.ofSize(1)));
+  }
+
+  @Test
+  void testDeleteRunsWithTheirStageAndJobRuns() {
+    PipelineRun expired = run("success", daysAgo(200));
+    PipelineRun kept = run("success", daysAgo(10));
+    entityManager.flush();
+    List<Long> ids = List.of(expired.getId());
+
+    assertEquals(1, jobRunRepository.deleteByPipelineRunIdIn(ids));
+    assertEquals(1, stageRunRepository.deleteByPipelineRunIdIn(ids));
+    assertEquals(1, pipelineRunRepository.deleteByIdIn(ids));
+    entityManager.clear();
+
+    assertNull(entityManager.find(PipelineRun.class, expired.getId()));
+    assertTrue(stageRunRepository.findByPipelineRunId(expired.getId()).isEmpty());
+    assertTrue(jobRunRepository.findByPipelineRunId(expired.getId()).isEmpty());
+    assertEquals(1, jobRunRepository.findByPipelineRunId(kept.getId()).size());
+  }
+
+  @Test
+  void testDeleteExpiredArgoLogs() {
+    ArgoLog expired = entityManager.persist(ArgoLog.builder().pipelineId(pipeline)
+        .argoWorkflowName("pipeline-1").stageName("build").status("COMPLETED")
+        .startTime(daysAgo(100)).build());
+    ArgoLog kept = entityManager.persist(ArgoLog.builder().pipelineId(pipeline)
+        .argoWorkflowName("pipeline-2").stageName("build").status("COMPLETED")
+        .startTime(daysAgo(1)).build());
+
+    assertEquals(1, argoLogRepository.deleteByStartTimeBefore(daysAgo(90)));
+    entityManager.clear();
+
+    assertNull(entityManager.find(ArgoLog.class, expired.getId()));
+    assertEquals(kept.getId(), entityManager.find(ArgoLog.class, kept.getId()).getId());
+  }
+}
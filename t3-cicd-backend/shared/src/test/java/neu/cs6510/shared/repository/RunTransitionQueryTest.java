@@ -0,0 +1,88 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Timestamp;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * Runs the conditional status updates of runs against an in-memory database.
+ */
+@DataJpaTest
+class RunTransitionQueryTest {
+
+  @Autowired
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Pipeline pipeline;
+
+  private PipelineRun run;
+
+  @BeforeEach
+  void setUp() {
+    pipeline = entityManager.persist(Pipeline.builder().name("pipeline")
+        .repoUrl("https://example.com/repo.git").definitionHash("a".repeat(64)).build());
+    run = entityManager.persist(PipelineRun.builder().repoUrl("https://example.com/repo.git")
+        .branch("main").status("queued").queuedTime(new Timestamp(System.currentTimeMillis()))
+        .build());
+  }
+
+  private PipelineRun reload() {
+    entityManager.clear();
+    return entityManager.find(PipelineRun.class, run.getId());
+  }
+
+  @Test
+  void testUpdateStartedOnlyOnce() {
+    Timestamp startTime = new Timestamp(System.currentTimeMillis());
+
+    assertEquals(1, pipelineRunRepository.updateStarted(run.getId(), "queued", "running",
+        pipeline, "abc123", ".pipelines/build.yaml", "pipeline-build-1",
+        "/templates/pipeline-build.yaml", startTime));
+    assertEquals(0, pipelineRunRepository.updateStarted(run.getId(), "queued", "running",
+        pipeline, "def456", ".pipelines/build.yaml", "pipeline-build-2",
+        "/templates/pipeline-build.yaml", startTime));
+
+    PipelineRun started = reload();
+    assertEquals("running", started.getStatus());
+    assertEquals(pipeline.getId(), started.getPipeline().getId());
+    assertEquals("abc123", started.getCommitSha());
+    assertEquals("pipeline-build-1", started.getArgoWorkflowName());
+    assertEquals("/templates/pipeline-build.yaml", started.getArgoYamlPath());
+  }
+
+  @Test
+  void testUpdateFinishedOnlyOnce() {
+    pipelineRunRepository.updateStarted(run.getId(), "queued", "running", pipeline, "abc123",
+        ".pipelines/build.yaml", "pipeline-build-1", null,
+        new Timestamp(System.currentTimeMillis()));
+    Timestamp endTime = new Timestamp(System.currentTimeMillis());
+
+    assertEquals(1, pipelineRunRepository.updateFinished(run.getId(), "running", "success", null,
+        endTime));
+    assertEquals(0, pipelineRunRepository.updateFinished(run.getId(), "running", "failed",
+        "Workflow pipeline-build-1 finished with phase Failed", endTime));
+
+    PipelineRun finished = reload();
+    assertEquals("success", finished.getStatus());
+    assertNull(finished.getMessage());
+  }
+
+  @Test
+  void testUpdateFinishedFromWrongStatus() {
+    assertEquals(0, pipelineRunRepository.updateFinished(run.getId(), "running", "success", null,
+        new Timestamp(System.currentTimeMillis())));
+
+    assertEquals("queued", reload().getStatus());
+  }
+}
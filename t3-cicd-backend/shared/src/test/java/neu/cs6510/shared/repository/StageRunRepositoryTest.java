@@ -0,0 +1,91 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.entity.Stage;
+import neu.cs6510.shared.entity.StageRun;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class StageRunRepositoryTest {
+
+  @Mock
+  private StageRunRepository stageRunRepository;
+
+  private StageRun stageRun1;
+  private StageRun stageRun2;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    PipelineRun run = PipelineRun.builder()
+      .id(1L)
+      .repoUrl("https://github.com/wp161/cicd-localrepo.git")
+      .branch("main")
+      .build();
+
+    stageRun1 = StageRun.builder()
+      .pipelineRun(run)
+      .stage(Stage.builder().id(1L).name("build").build())
+      .status("success")
+      .startTime(Timestamp.from(Instant.parse("2024-01-01T10:00:00Z")))
+      .endTime(Timestamp.from(Instant.parse("2024-01-01T10:30:00Z")))
+      .build();
+
+    stageRun2 = StageRun.builder()
+      .pipelineRun(run)
+      .stage(Stage.builder().id(2L).name("test").build())
+      .build();
+  }
+
+  @Test
+  void testDefaultStatusIsPending() {
+    assertEquals("pending", stageRun2.getStatus());
+  }
+
+  @Test
+  void testFindByPipelineRunId() {
+    when(stageRunRepository.findByPipelineRunId(1L))
+      .thenReturn(Arrays.asList(stageRun1, stageRun2));
+
+    List<StageRun> result = stageRunRepository.findByPipelineRunId(1L);
+
+    verify(stageRunRepository, times(1)).findByPipelineRunId(1L);
+    assertEquals(2, result.size());
+    assertEquals(stageRun1, result.get(0));
+    assertEquals(stageRun2, result.get(1));
+  }
+
+  @Test
+  void testFindByPipelineRunIdAndStatus() {
+    when(stageRunRepository.findByPipelineRunIdAndStatus(1L, "success"))
+      .thenReturn(List.of(stageRun1));
+
+    List<StageRun> result = stageRunRepository.findByPipelineRunIdAndStatus(1L, "success");
+
+    verify(stageRunRepository, times(1)).findByPipelineRunIdAndStatus(1L, "success");
+    assertEquals(1, result.size());
+    assertEquals(stageRun1, result.get(0));
+  }
+
+  @Test
+  void testFinishByPipelineRunId() {
+    Timestamp endTime = Timestamp.from(Instant.parse("2024-01-01T11:00:00Z"));
+    when(stageRunRepository.finishByPipelineRunId(1L, "failed", endTime)).thenReturn(1);
+
+    int updated = stageRunRepository.finishByPipelineRunId(1L, "failed", endTime);
+
+    verify(stageRunRepository, times(1)).finishByPipelineRunId(1L, "failed", endTime);
+    assertEquals(1, updated);
+  }
+}
@@ -0,0 +1,163 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Stream;
+import neu.cs6510.shared.entity.ArgoLog;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.PipelineRun;
+import neu.cs6510.shared.projection.ArgoLogSummary;
+import neu.cs6510.shared.projection.PipelineSummary;
+import neu.cs6510.shared.projection.RunFiles;
+import neu.cs6510.shared.projection.RunSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Runs the keyset-paginated and streaming projection queries against an in-memory database.
+ */
+@DataJpaTest
+class SummaryQueryTest {
+
+  private static final String REPO_URL = "https://example.com/repo.git";
+  private static final String OTHER_REPO_URL = "https://example.com/other.git";
+
+  @Autowired
+  private PipelineRepository pipelineRepository;
+
+  @Autowired
+  private PipelineRunRepository pipelineRunRepository;
+
+  @Autowired
+  private ArgoLogRepository argoLogRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Pipeline pipeline;
+
+  @BeforeEach
+  void setUp() {
+    pipeline = entityManager.persist(Pipeline.builder().name("pipeline").repoUrl(REPO_URL)
+        .definitionHash("a".repeat(64)).build());
+  }
+
+  private PipelineRun run(String repoUrl, String status) {
+    return entityManager.persist(PipelineRun.builder().repoUrl(repoUrl).branch("main")
+        .status(status).queuedTime(new Timestamp(System.currentTimeMillis())).build());
+  }
+
+  private ArgoLog log(String workflowName, String stageName) {
+    return entityManager.persist(ArgoLog.builder().pipelineId(pipeline)
+        .argoWorkflowName(workflowName).stageName(stageName).status("Succeeded")
+        .startTime(new Timestamp(System.currentTimeMillis())).build());
+  }
+
+  @Test
+  void testRunSummariesArePagedByKey() {
+    PipelineRun first = run(REPO_URL, "success");
+    run(OTHER_REPO_URL, "success");
+    PipelineRun second = run(REPO_URL, "failed");
+    PipelineRun third = run(REPO_URL, "running");
+
+    Slice<RunSummary> page = pipelineRunRepository.findSummariesByRepoUrlBefore(REPO_URL,
+        Long.MAX_VALUE, PageRequest.ofSize(2));
+    assertEquals(List.of(third.getId(), second.getId()),
+        page.getContent().stream().map(RunSummary::id).toList());
+    assertTrue(page.hasNext());
+    assertEquals("running", page.getContent().get(0).status());
+
+    Slice<RunSummary> next = pipelineRunRepository.findSummariesByRepoUrlBefore(REPO_URL,
+        second.getId(), PageRequest.ofSize(2));
+    assertEquals(List.of(first.getId()), next.getContent().stream().map(RunSummary::id).toList());
+    assertFalse(next.hasNext());
+  }
+
+  @Test
+  void testStreamRunSummariesByStatus() {
+    PipelineRun queued = run(REPO_URL, "queued");
+    run(REPO_URL, "success");
+    PipelineRun otherQueued = run(OTHER_REPO_URL, "queued");
+
+    try (Stream<RunSummary> runs = pipelineRunRepository.streamSummariesByStatus("queued")) {
+      assertEquals(List.of(queued.getId(), otherQueued.getId()),
+          runs.map(RunSummary::id).toList());
+    }
+  }
+
+  @Test
+  void testFindFilesByStatusIn() {
+    PipelineRun running = run(REPO_URL, "running");
+    running.setPipeline(pipeline);
+    running.setArgoWorkflowName("pipeline-running");
+    running.setArgoYamlPath("/templates/pipeline.yaml");
+    run(REPO_URL, "queued");
+    run(REPO_URL, "success");
+    entityManager.flush();
+
+    List<RunFiles> files = pipelineRunRepository.findFilesByStatusIn(List.of("queued", "running"));
+
+    assertEquals(2, files.size());
+    assertTrue(files.contains(new RunFiles("pipeline-running", "/templates/pipeline.yaml")));
+    assertTrue(files.contains(new RunFiles(null, null)));
+  }
+
+  @Test
+  void testArgoLogSummariesArePagedByKey() {
+    ArgoLog build = log("pipeline-1", "build");
+    log("pipeline-2", "build");
+    ArgoLog test = log("pipeline-1", "test");
+
+    Slice<ArgoLogSummary> page = argoLogRepository.findSummariesByArgoWorkflowNameAfter(
+        "pipeline-1", 0L, PageRequest.ofSize(1));
+    assertEquals(List.of(build.getId()),
+        page.getContent().stream().map(ArgoLogSummary::id).toList());
+    assertTrue(page.hasNext());
+
+    Slice<ArgoLogSummary> next = argoLogRepository.findSummariesByArgoWorkflowNameAfter(
+        "pipeline-1", build.getId(), PageRequest.ofSize(1));
+    assertEquals("test", next.getContent().get(0).stageName());
+    assertEquals(test.getId(), next.getContent().get(0).id());
+    assertFalse(next.hasNext());
+  }
+
+  @Test
+  void testStreamArgoLogSummaries() {
+    ArgoLog build = log("pipeline-1", "build");
+    ArgoLog test = log("pipeline-1", "test");
+
+    try (Stream<ArgoLogSummary> logs =
+        argoLogRepository.streamSummariesByPipelineId(pipeline.getId())) {
+      assertEquals(List.of(build.getId(), test.getId()),
+          logs.map(ArgoLogSummary::id).toList());
+    }
+    try (Stream<ArgoLogSummary> logs = argoLogRepository.streamSummariesByStartTimeBetween(
+        new Timestamp(0), new Timestamp(System.currentTimeMillis() + 60000))) {
+      assertEquals(2, logs.count());
+    }
+  }
+
+  @Test
+  void testPipelineSummariesArePagedByKey() {
+    Pipeline other = entityManager.persist(Pipeline.builder().name("other").repoUrl(REPO_URL)
+        .definitionHash("b".repeat(64)).build());
+
+    Slice<PipelineSummary> page = pipelineRepository.findSummariesByRepoUrlAfter(REPO_URL,
+        pipeline.getId(), PageRequest.ofSize(10));
+
+    assertEquals(List.of(new PipelineSummary(other.getId(), "other", REPO_URL, "b".repeat(64))),
+        page.getContent());
+    assertFalse(page.hasNext());
+    assertTrue(pipelineRepository.findSummariesByRepoUrlAfter(OTHER_REPO_URL, 0L,
+        PageRequest.ofSize(10)).isEmpty());
+  }
+}
@@ -0,0 +1,51 @@
+package neu.cs6510.shared.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+import neu.cs6510.shared.entity.WatchCheckpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class WatchCheckpointRepositoryTest {
+
+  @Mock
+  private WatchCheckpointRepository watchCheckpointRepository;
+
+  private WatchCheckpoint checkpoint;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    checkpoint = WatchCheckpoint.builder()
+      .name("argo-workflows")
+      .resourceVersion("12345")
+      .updatedTime(new Timestamp(System.currentTimeMillis()))
+      .build();
+  }
+
+  @Test
+  void testFindById() {
+    when(watchCheckpointRepository.findById("argo-workflows")).thenReturn(Optional.of(checkpoint));
+
+    Optional<WatchCheckpoint> result = watchCheckpointRepository.findById("argo-workflows");
+
+    assertTrue(result.isPresent());
+    assertEquals("12345", result.get().getResourceVersion());
+    verify(watchCheckpointRepository, times(1)).findById("argo-workflows");
+  }
+
+  @Test
+  void testFindByIdMissing() {
+    when(watchCheckpointRepository.findById("unknown")).thenReturn(Optional.empty());
+
+    assertTrue(watchCheckpointRepository.findById("unknown").isEmpty());
+  }
+}
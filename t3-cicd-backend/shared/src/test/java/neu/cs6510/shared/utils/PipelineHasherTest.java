@@ -0,0 +1,81 @@
+package neu.cs6510.shared.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import neu.cs6510.shared.entity.Job;
+import neu.cs6510.shared.entity.Pipeline;
+import neu.cs6510.shared.entity.Stage;
+import org.junit.jupiter.api.Test;
+
+class PipelineHasherTest {
+
+  private static Pipeline pipeline(List<String> testScripts) {
+    Job build = Job.builder().name("compile").imageName("gradle:8.10-jdk21")
+        .scripts(List.of("./gradlew build")).build();
+    Job test = Job.builder().name("unittest").imageName("gradle:8.10-jdk21")
+        .scripts(testScripts).needs(List.of("compile")).build();
+    Stage stage = Stage.builder().name("build").jobs(List.of(build, test)).build();
+    return Pipeline.builder().name("example").stages(List.of(stage)).build();
+  }
+
+  @Test
+  void testHashIsStable() {
+    String hash = PipelineHasher.hash(pipeline(List.of("./gradlew test")));
+
+    assertEquals(hash, PipelineHasher.hash(pipeline(List.of("./gradlew test"))));
+    assertEquals(16, hash.length());
+    assertTrue(hash.matches("[0-9a-f]+"));
+  }
+
+  @Test
+  void testHashChangesWithScripts() {
+    assertNotEquals(PipelineHasher.hash(pipeline(List.of("./gradlew test"))),
+        PipelineHasher.hash(pipeline(List.of("./gradlew check"))));
+    assertNotEquals(PipelineHasher.hash(pipeline(List.of("a", "b"))),
+        PipelineHasher.hash(pipeline(List.of("a\nb"))));
+  }
+
+  @Test
+  void testHashIgnoresDatabaseIds() {
+    Pipeline pipeline = pipeline(List.of("./gradlew test"));
+    String hash = PipelineHasher.hash(pipeline);
+    String definitionHash = PipelineHasher.definitionHash(pipeline);
+
+    pipeline.setId(42L);
+    pipeline.getStages().get(0).getJobs().get(0).setId(7L);
+
+    assertEquals(hash, PipelineHasher.hash(pipeline));
+    assertEquals(definitionHash, PipelineHasher.definitionHash(pipeline));
+  }
+
+  @Test
+  void testDefinitionHashIsStable() {
+    String hash = PipelineHasher.definitionHash(pipeline(List.of("./gradlew test")));
+
+    assertEquals(hash, PipelineHasher.definitionHash(pipeline(List.of("./gradlew test"))));
+    assertEquals(64, hash.length());
+    assertTrue(hash.matches("[0-9a-f]+"));
+  }
+
+  @Test
+  void testDefinitionHashChangesWithEverySavedField() {
+    String hash = PipelineHasher.definitionHash(pipeline(List.of("./gradlew test")));
+
+    Pipeline registry = pipeline(List.of("./gradlew test"));
+    registry.getStages().get(0).getJobs().get(0).setRegistry("docker.io");
+    Pipeline paths = pipeline(List.of("./gradlew test"));
+    paths.getStages().get(0).getJobs().get(0).setPaths(List.of("build/libs"));
+    Pipeline allowFailure = pipeline(List.of("./gradlew test"));
+    allowFailure.getStages().get(0).getJobs().get(1).setAllowFailure(true);
+
+    assertNotEquals(hash, PipelineHasher.definitionHash(registry));
+    assertNotEquals(hash, PipelineHasher.definitionHash(paths));
+    assertNotEquals(hash, PipelineHasher.definitionHash(allowFailure));
+    // None of them changes the generated template
+    assertEquals(PipelineHasher.hash(pipeline(List.of("./gradlew test"))),
+        PipelineHasher.hash(registry));
+  }
+}